@@ -23,6 +23,9 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.vinci.debug.Debug;
 
@@ -31,6 +34,11 @@ import org.apache.vinci.debug.Debug;
  * concurrent clients (in a Thread per client manner). Creating a service typically requires
  * defining implementing a VinciServable which is passed to this class to service requests.
  * 
+ * By default, connections are served by a bounded pool of threads (see
+ * {@link #setThreadPoolSize(int, int)}). Alternatively, each connection can be served by its own
+ * thread created by a thread factory (see {@link #setConnectionThreadFactory(ThreadFactory)}),
+ * which together with virtual threads allows serving thousands of concurrent clients.
+ * 
  * This class can be used independently of VNS. For VNS-enhanced serving, use the VinciServer.
  * 
  * This class is designed to be extensible. For example you can extend to provide new Runnable
@@ -69,6 +77,10 @@ public class BaseServer {
 
   private PooledThread[] busyThreads;
 
+  private ThreadFactory connectionThreadFactory;
+
+  private final Map<Thread, Socket> connectionThreads = new ConcurrentHashMap<>();
+
   private class PooledThread extends Thread {
     private Runnable run_me;
 
@@ -234,6 +246,24 @@ public class BaseServer {
     maxPoolSize = max;
   }
 
+  /**
+   * Serve each connection in a new thread created by the given factory instead of using the thread
+   * pool. There is no limit on the number of concurrently served connections then, so this is
+   * intended for factories creating virtual threads, e.g. {@code Thread.ofVirtual().factory()}.
+   * This should be called before serving starts otherwise it has no effect.
+   * <p>
+   * Up to JDK 23, a virtual thread which blocks while holding a monitor pins its carrier thread.
+   * The transport itself uses locks for that reason; servables should also avoid blocking in
+   * {@code synchronized} blocks or methods when served by virtual threads.
+   * 
+   * @param factory
+   *          the factory creating the connection threads or null to use the thread pool.
+   */
+  public void setConnectionThreadFactory(ThreadFactory factory) {
+    Debug.Assert(!isServing);
+    connectionThreadFactory = factory;
+  }
+
   private void configureServerSocket(int port) throws IOException {
     Debug.Assert(!isServing);
     serverSocket = createServerSocket(port);
@@ -243,6 +273,10 @@ public class BaseServer {
   private void initializeServing() {
     // isServing has to be true otherwise pooled threads will exit
     Debug.Assert(isServing);
+    if (connectionThreadFactory != null) {
+      threadPool = null;
+      return;
+    }
     threadPool = new PooledThread[maxPoolSize];
     busyThreads = new PooledThread[maxPoolSize];
     synchronized (threadPool) {
@@ -399,6 +433,23 @@ public class BaseServer {
     return new BaseServerRunnable(client, this);
   }
 
+  /**
+   * Execute the evaluation of a request received on a pipelined connection. If a connection thread
+   * factory is set, each request is evaluated in a new thread created by it, which allows requests
+   * of the same connection to be evaluated concurrently. Otherwise, the request is evaluated in the
+   * calling connection thread.
+   * 
+   * @param request
+   *          the evaluation of the request including writing its response.
+   */
+  protected void executeRequest(Runnable request) {
+    if (connectionThreadFactory != null) {
+      connectionThreadFactory.newThread(request).start();
+    } else {
+      request.run();
+    }
+  }
+
   /**
    * Initialize a new socket connection.
    * 
@@ -408,6 +459,10 @@ public class BaseServer {
    *          -
    */
   protected void handleRequest(Socket client) {
+    if (connectionThreadFactory != null) {
+      handleRequestInNewThread(client);
+      return;
+    }
     try {
       PooledThread t = getThreadFromPool();
       synchronized (t) {
@@ -419,6 +474,21 @@ public class BaseServer {
     }
   }
 
+  private void handleRequestInNewThread(Socket client) {
+    Runnable runnable = getRunnable(client);
+    Thread t = connectionThreadFactory.newThread(() -> {
+      try {
+        runnable.run();
+      } catch (Throwable e) {
+        Debug.reportException(e);
+      } finally {
+        connectionThreads.remove(Thread.currentThread());
+      }
+    });
+    connectionThreads.put(t, client);
+    t.start();
+  }
+
   /**
    * Cleanly shut down this server. Called when handleRequests completes the accept loop.
    * 
@@ -432,20 +502,31 @@ public class BaseServer {
     } catch (IOException e) {
       Debug.reportException(e);
     }
-    synchronized (threadPool) {
-      // Interrupt pooled threads that are not active so they can shut down.
-      for (int i = 0; i < pooledCount; i++) {
-        Debug.p("Interrupting pooled thread: " + threadPool[i].getWhich());
-        threadPool[i].interrupt();
+    // Connection threads block on their sockets, so closing the socket terminates them.
+    for (Map.Entry<Thread, Socket> e : connectionThreads.entrySet()) {
+      e.getKey().interrupt();
+      try {
+        e.getValue().close();
+      } catch (IOException f) {
+        Debug.reportException(f);
       }
-      for (int i = 0; i < maxPoolSize; i++) {
-        if (busyThreads[i] != null) {
-          Debug.p("Interrupting pooled thread: " + i);
-          busyThreads[i].interrupt();
-          try {
-            busyThreads[i].getSocket().close();
-          } catch (IOException e) {
-            Debug.reportException(e);
+    }
+    if (threadPool != null) {
+      synchronized (threadPool) {
+        // Interrupt pooled threads that are not active so they can shut down.
+        for (int i = 0; i < pooledCount; i++) {
+          Debug.p("Interrupting pooled thread: " + threadPool[i].getWhich());
+          threadPool[i].interrupt();
+        }
+        for (int i = 0; i < maxPoolSize; i++) {
+          if (busyThreads[i] != null) {
+            Debug.p("Interrupting pooled thread: " + i);
+            busyThreads[i].interrupt();
+            try {
+              busyThreads[i].getSocket().close();
+            } catch (IOException e) {
+              Debug.reportException(e);
+            }
           }
         }
       }
@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.vinci.debug.Debug;
 
@@ -37,6 +39,12 @@ public class BaseServerRunnable implements Runnable {
 
   private BaseServer parent;
 
+  /**
+   * Maximum number of requests of a pipelined connection which are evaluated concurrently. Reading
+   * further requests blocks until a response has been written.
+   */
+  private static final int MAX_PIPELINED_REQUESTS = 64;
+
   private static final ThreadLocal<Socket> THREAD_LOCAL_SOCKET = new ThreadLocal<>();
 
   /**
@@ -82,15 +90,11 @@ public class BaseServerRunnable implements Runnable {
         } catch (EOFException e) {
           break;
         }
-        Transportable out = handleHeader(header);
-        if (out == null) {
-          try {
-            out = parent.eval(in, header);
-          } catch (Throwable e) {
-            Debug.reportException(e);
-            out = new ErrorFrame("Server failed: " + e);
-          }
+        if (header != null && TransportConstants.PIPELINE_KEY.equals(header.key)) {
+          servePipelined(is, os);
+          break;
         }
+        Transportable out = evaluate(in, header);
         if (out != null) {
           // ^ Asynch services may choose not to return results.
           // long begin = System.currentTimeMillis(); // TEMP
@@ -113,6 +117,80 @@ public class BaseServerRunnable implements Runnable {
     }
   }
 
+  private Transportable evaluate(Transportable in, KeyValuePair header) {
+    Transportable out = handleHeader(header);
+    if (out == null) {
+      try {
+        out = parent.eval(in, header);
+      } catch (Throwable e) {
+        Debug.reportException(e);
+        out = new ErrorFrame("Server failed: " + e);
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Serve pipelined requests until the client closes the connection. Each request and each
+   * response is preceded by a frame carrying the ID of the request. The requests are evaluated via
+   * {@link BaseServer#executeRequest(Runnable)} and their responses are written as soon as they are
+   * available, so responses may be sent in a different order than the requests were received.
+   */
+  private void servePipelined(InputStream is, OutputStream os) throws IOException {
+    new VinciFrame().fadd(TransportConstants.STATUS_KEY, TransportConstants.OK_VALUE).toStream(os);
+    os.flush();
+
+    Semaphore permits = new Semaphore(MAX_PIPELINED_REQUESTS);
+    // a lock rather than a monitor, so virtual threads blocked writing do not pin their carrier
+    ReentrantLock writeLock = new ReentrantLock();
+    try {
+      while (true) {
+        KeyValuePair idHeader;
+        try {
+          idHeader = new VinciFrame().fromStream(is);
+        } catch (EOFException e) {
+          break;
+        }
+        if (idHeader == null || !TransportConstants.REQUEST_ID_KEY.equals(idHeader.key)) {
+          throw new IOException("Expected request ID but got: " + idHeader);
+        }
+        String requestId = idHeader.getValueAsString();
+        Transportable in = parent.makeTransportable();
+        KeyValuePair header = in.fromStream(is);
+
+        permits.acquireUninterruptibly();
+        parent.executeRequest(() -> {
+          THREAD_LOCAL_SOCKET.set(socket);
+          try {
+            Transportable out = evaluate(in, header);
+            if (out == null) {
+              // Pipelining clients wait for a response to every request
+              out = new VinciFrame();
+            }
+            writeLock.lock();
+            try {
+              new VinciFrame().fadd(TransportConstants.REQUEST_ID_KEY, requestId).toStream(os);
+              out.toStream(os);
+              os.flush();
+            } finally {
+              writeLock.unlock();
+            }
+          } catch (IOException e) {
+            Debug.p("IOException in BaseServerRunnable: " + e);
+          } catch (Throwable e) {
+            Debug.reportException(e);
+          } finally {
+            THREAD_LOCAL_SOCKET.remove();
+            permits.release();
+          }
+        });
+      }
+    } finally {
+      // Let all requests write their responses before the socket is closed
+      permits.acquireUninterruptibly(MAX_PIPELINED_REQUESTS);
+    }
+  }
+
   public Transportable handleHeader(KeyValuePair header) {
     return null;
   }
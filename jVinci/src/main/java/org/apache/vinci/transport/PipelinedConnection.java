@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.vinci.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.vinci.debug.Debug;
+
+/**
+ * A connection which carries multiple concurrent requests. Each request is sent preceded by a frame
+ * carrying a request ID and completes when the service sends a response carrying the same ID.
+ * Responses are read by a dedicated thread and may arrive in any order.
+ *
+ * Used by PooledVinciClient in pipelined mode. The service must be served by a BaseServer which
+ * supports pipelining.
+ */
+class PipelinedConnection {
+
+  private final VinciClient client;
+
+  private final InputStream is;
+
+  private final OutputStream os;
+
+  /** a lock rather than a monitor, so virtual threads blocked writing do not pin their carrier */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  private final AtomicLong nextRequestId = new AtomicLong();
+
+  private final Map<Long, PendingRequest> pending = new ConcurrentHashMap<>();
+
+  private volatile IOException failure;
+
+  private static class PendingRequest {
+    final CompletableFuture<Transportable> future = new CompletableFuture<>();
+
+    final TransportableFactory factory;
+
+    PendingRequest(TransportableFactory factory) {
+      this.factory = factory;
+    }
+  }
+
+  /**
+   * Switch the connection of the given open client to pipelined mode. The client must not be used
+   * directly anymore afterwards.
+   *
+   * @pre client.isOpen()
+   * @param client
+   *          -
+   * @throws IOException
+   *           if the service does not support pipelining or thrown by the underlying socket IO.
+   */
+  PipelinedConnection(VinciClient client) throws IOException {
+    this.client = client;
+    Socket socket = client.getSocket();
+    is = new BufferedInputStream(socket.getInputStream());
+    os = new BufferedOutputStream(socket.getOutputStream());
+
+    new VinciFrame().fadd(TransportConstants.PIPELINE_KEY, TransportConstants.TRUE_VALUE)
+            .toStream(os);
+    os.flush();
+    KeyValuePair ack = new VinciFrame().fromStream(is);
+    if (ack == null || !TransportConstants.STATUS_KEY.equals(ack.key)
+            || !TransportConstants.OK_VALUE.equals(ack.getValueAsString())) {
+      client.close();
+      throw new IOException("Service does not support request pipelining");
+    }
+
+    // The reader waits for responses as long as the connection is open. Timeouts are applied
+    // to the individual requests instead.
+    socket.setSoTimeout(0);
+
+    Thread reader = new Thread(this::readResponses,
+            "PipelinedConnection-" + client.getHost() + ":" + client.getPort());
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Send a request. This method is thread safe.
+   *
+   * @param in
+   *          -
+   * @param f
+   *          the factory creating the transportable to read the response into.
+   * @param timeout
+   *          the number of milliseconds to wait for the response, 0 to wait forever.
+   * @return a future which completes with the response, exceptionally with a ServiceException if
+   *         the service returned an error frame, exceptionally with a TimeoutException if no
+   *         response was received in time, or exceptionally with an IOException if the connection
+   *         failed before the response was received.
+   */
+  CompletableFuture<Transportable> send(Transportable in, TransportableFactory f, int timeout) {
+    long requestId = nextRequestId.incrementAndGet();
+    PendingRequest request = new PendingRequest(f);
+    pending.put(requestId, request);
+    if (timeout > 0) {
+      request.future.orTimeout(timeout, TimeUnit.MILLISECONDS);
+    }
+    // A request which timed out must not count as pending anymore. Its response, if it ever
+    // arrives, is skipped by the reader.
+    CompletableFuture<Transportable> response = request.future
+            .whenComplete((r, e) -> pending.remove(requestId));
+    // Checked after registering the request so a concurrent failure cannot miss it
+    if (failure != null) {
+      request.future.completeExceptionally(failure);
+      return response;
+    }
+
+    try {
+      writeLock.lock();
+      try {
+        new VinciFrame().fadd(TransportConstants.REQUEST_ID_KEY, requestId).toStream(os);
+        in.toStream(os);
+        os.flush();
+      } finally {
+        writeLock.unlock();
+      }
+    } catch (IOException e) {
+      fail(e);
+    }
+    return response;
+  }
+
+  /**
+   * @return whether requests can be sent on this connection.
+   */
+  boolean isOpen() {
+    return failure == null;
+  }
+
+  /**
+   * @return the number of requests waiting for their response.
+   */
+  int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Close the connection. Requests still waiting for their response fail with an IOException.
+   *
+   * @param wait
+   *          If true, this method blocks until all pending requests have completed before closing
+   *          the connection.
+   */
+  void close(boolean wait) {
+    if (wait) {
+      List<CompletableFuture<Transportable>> futures = new ArrayList<>();
+      for (PendingRequest request : pending.values()) {
+        futures.add(request.future);
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+              .handle((r, e) -> null).join();
+    }
+    fail(new IOException("client is closed"));
+  }
+
+  private void readResponses() {
+    try {
+      while (true) {
+        KeyValuePair idHeader = new VinciFrame().fromStream(is);
+        if (idHeader == null || !TransportConstants.REQUEST_ID_KEY.equals(idHeader.key)) {
+          throw new IOException("Expected request ID but got: " + idHeader);
+        }
+        long requestId = Long.parseLong(idHeader.getValueAsString());
+        PendingRequest request = pending.remove(requestId);
+        if (request == null) {
+          if (requestId <= 0 || requestId > nextRequestId.get()) {
+            throw new IOException("Received response for unknown request " + requestId);
+          }
+          // Response of a request which has timed out already
+          new VinciFrame().fromStream(is);
+          continue;
+        }
+        Transportable out = request.factory.makeTransportable();
+        KeyValuePair header = out.fromStream(is);
+        if (header != null && header.key.equals(TransportConstants.ERROR_KEY)) {
+          request.future.completeExceptionally(new ServiceException(header.getValueAsString(), out));
+        } else {
+          request.future.complete(out);
+        }
+      }
+    } catch (EOFException e) {
+      fail(new EOFException("Connection closed by service"));
+    } catch (IOException e) {
+      fail(e);
+    } catch (Throwable e) {
+      Debug.reportException(e);
+      fail(new IOException(e));
+    }
+  }
+
+  private void fail(IOException e) {
+    synchronized (this) {
+      if (failure != null) {
+        return;
+      }
+      failure = e;
+    }
+    client.close();
+    for (Long requestId : pending.keySet()) {
+      PendingRequest request = pending.remove(requestId);
+      if (request != null) {
+        request.future.completeExceptionally(e);
+      }
+    }
+  }
+}
@@ -20,7 +20,11 @@
 package org.apache.vinci.transport;
 
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.vinci.debug.Debug;
 import org.apache.vinci.transport.context.VinciContext;
@@ -29,6 +33,11 @@ import org.apache.vinci.transport.context.VinciContext;
  * Maintains a pool of connections to a given service and allows thread-safe querying of that
  * service. This provides a set of sendAndReceive methods with signatures equivalent to those in
  * VinciClient, but unlike VinciClient, the methods can be invoked concurrently by multiple threads.
+ * 
+ * In pipelined mode (see {@link #setPipelined(boolean)}), requests do not check out a connection
+ * but are sent on the least busy of at most maxPoolSize connections while other requests on the
+ * same connection are still waiting for their responses. The sendAndReceiveAsync methods allow
+ * sending requests without blocking for the response.
  */
 public class PooledVinciClient {
 
@@ -50,6 +59,13 @@ public class PooledVinciClient {
 
   boolean closed;
 
+  private boolean pipelined;
+
+  private PipelinedConnection[] connections;
+
+  /** the slots of connections reserved by threads which are opening a connection */
+  private boolean[] connectionOpening;
+
   /**
    * Create a PooledVinciClient that will establish at most maxPoolSize connections to the
    * designated service.
@@ -108,6 +124,27 @@ public class PooledVinciClient {
     this.factory = factory;
   }
 
+  /**
+   * Enable or disable pipelined mode, in which multiple requests are sent on the same connection
+   * without waiting for the responses of earlier requests. The service must be served by a server
+   * supporting pipelining, otherwise requests fail with an IOException. Pipelined requests are
+   * evaluated concurrently by the service if it serves connections in per-connection threads (see
+   * {@link BaseServer#setConnectionThreadFactory(java.util.concurrent.ThreadFactory)}). This must
+   * be called before the first request.
+   * 
+   * @param pipelined
+   *          -
+   * @throws IllegalStateException
+   *           if a request has been sent already.
+   */
+  public synchronized void setPipelined(boolean pipelined) {
+    if (connections != null || availableClients[0] != null) {
+      throw new IllegalStateException(
+              "Pipelined mode cannot be changed after the first request has been sent");
+    }
+    this.pipelined = pipelined;
+  }
+
   /**
    * Get the service name to which this client connects.
    * 
@@ -129,6 +166,9 @@ public class PooledVinciClient {
    *           -
    */
   public Transportable sendAndReceive(Transportable in) throws IOException, ServiceException {
+    if (pipelined) {
+      return await(sendAndReceiveAsync(in, factory, socketTimeout), socketTimeout);
+    }
     VinciClient c = getClientFromPool();
     try {
       return c.sendAndReceive(in);
@@ -153,6 +193,9 @@ public class PooledVinciClient {
    */
   public Transportable sendAndReceive(Transportable in, TransportableFactory f)
           throws IOException, ServiceException {
+    if (pipelined) {
+      return await(sendAndReceiveAsync(in, f, socketTimeout), socketTimeout);
+    }
     VinciClient c = getClientFromPool();
     try {
       return c.sendAndReceive(in, f);
@@ -179,6 +222,9 @@ public class PooledVinciClient {
    */
   public Transportable sendAndReceive(Transportable in, TransportableFactory f, int socketTimeout)
           throws IOException, ServiceException {
+    if (pipelined) {
+      return await(sendAndReceiveAsync(in, f, socketTimeout), socketTimeout);
+    }
     VinciClient c = getClientFromPool();
     try {
       return c.sendAndReceive(in, f, socketTimeout);
@@ -203,6 +249,9 @@ public class PooledVinciClient {
    */
   public Transportable sendAndReceive(Transportable in, int socketTimeout)
           throws IOException, ServiceException {
+    if (pipelined) {
+      return await(sendAndReceiveAsync(in, factory, socketTimeout), socketTimeout);
+    }
     VinciClient c = getClientFromPool();
     try {
       return c.sendAndReceive(in, socketTimeout);
@@ -211,6 +260,153 @@ public class PooledVinciClient {
     }
   }
 
+  /**
+   * Send a request to the service without waiting for the response. In pipelined mode, this method
+   * returns as soon as the request has been sent. Otherwise it blocks like sendAndReceive and
+   * returns a completed future. This method is thread safe.
+   * 
+   * @param in
+   *          -
+   * @return a future which completes with the response, or exceptionally with a ServiceException,
+   *         IOException or, if no response was received within the socket timeout,
+   *         TimeoutException.
+   */
+  public CompletableFuture<Transportable> sendAndReceiveAsync(Transportable in) {
+    return sendAndReceiveAsync(in, factory);
+  }
+
+  /**
+   * Send a request to the service without waiting for the response, using the provided
+   * transportable factory in place of the client-provided one. In pipelined mode, this method
+   * returns as soon as the request has been sent. Otherwise it blocks like sendAndReceive and
+   * returns a completed future. This method is thread safe.
+   * 
+   * @param in
+   *          -
+   * @param f
+   *          -
+   * @return a future which completes with the response, or exceptionally with a ServiceException,
+   *         IOException or, if no response was received within the socket timeout,
+   *         TimeoutException.
+   */
+  public CompletableFuture<Transportable> sendAndReceiveAsync(Transportable in,
+          TransportableFactory f) {
+    return sendAndReceiveAsync(in, f, socketTimeout);
+  }
+
+  private CompletableFuture<Transportable> sendAndReceiveAsync(Transportable in,
+          TransportableFactory f, int timeout) {
+    try {
+      if (pipelined) {
+        return getConnection().send(in, f, timeout);
+      }
+      return CompletableFuture.completedFuture(sendAndReceive(in, f, timeout));
+    } catch (IOException | ServiceException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private static Transportable await(CompletableFuture<Transportable> response, int timeout)
+          throws IOException, ServiceException {
+    try {
+      return response.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof ServiceException) {
+        throw (ServiceException) cause;
+      }
+      if (cause instanceof TimeoutException) {
+        throw new SocketTimeoutException("no response within " + timeout + " ms");
+      }
+      throw new IOException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while waiting for response");
+    }
+  }
+
+  /**
+   * Get the least busy open pipelined connection. A new connection is opened instead if all open
+   * connections are busy and the maximum number of connections has not been reached. As in
+   * getClientFromPool(), the slot of the new connection is reserved while holding the lock, but the
+   * connection is opened after releasing it, so other requests are not blocked by connecting.
+   */
+  private PipelinedConnection getConnection() throws IOException {
+    int free;
+    synchronized (this) {
+      PipelinedConnection best;
+      while (true) {
+        if (closed) {
+          throw new IOException("client is closed");
+        }
+        if (connections == null) {
+          connections = new PipelinedConnection[maxPoolSize];
+          connectionOpening = new boolean[maxPoolSize];
+        }
+        best = null;
+        free = -1;
+        for (int i = 0; i < maxPoolSize; i++) {
+          PipelinedConnection c = connections[i];
+          if (connectionOpening[i]) {
+            continue;
+          }
+          if (c == null || !c.isOpen()) {
+            free = (free < 0) ? i : free;
+          } else if (best == null || c.getPendingCount() < best.getPendingCount()) {
+            best = c;
+          }
+        }
+        if (free >= 0 && (best == null || best.getPendingCount() > 0)) {
+          break;
+        }
+        if (best != null) {
+          return best;
+        }
+        // all connections are being opened by other threads
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("interrupted while waiting for a connection to open");
+        }
+      }
+      connectionOpening[free] = true;
+    } // synchronized this
+
+    Debug.p("Creating new pipelined connection for pool: " + free);
+    VinciClient client = new VinciClient(factory);
+    client.setConnectTimeout(connectTimeout);
+    client.setSocketTimeout(socketTimeout);
+    client.setContext(context);
+    PipelinedConnection opened = null;
+    boolean published = false;
+    try {
+      client.open(serviceName);
+      opened = new PipelinedConnection(client);
+    } finally {
+      synchronized (this) {
+        connectionOpening[free] = false;
+        if (opened != null && !closed) {
+          connections[free] = opened;
+          published = true;
+        }
+        this.notifyAll();
+      }
+      if (opened == null) {
+        client.close();
+      }
+    }
+    if (!published) {
+      // the pool was closed while the connection was opened
+      opened.close(false);
+      throw new IOException("client is closed");
+    }
+    return opened;
+  }
+
   /**
    * Close this pooled client. Blocked requests will return IOException, as will any requests
    * following the invocation of this method. Once a pooled client is closed it cannot be reused.
@@ -222,9 +418,11 @@ public class PooledVinciClient {
    */
   public void close(boolean wait) {
     ArrayList closeUs = new ArrayList();
+    PipelinedConnection[] closeConnections = null;
     synchronized (this) {
       if (!closed) {
         closed = true;
+        closeConnections = connections;
         for (int i = availableClientsStartIndex; i < maxPoolSize; i++) {
           if (availableClients[availableClientsStartIndex] != null) {
             closeUs.add(availableClients[availableClientsStartIndex]);
@@ -237,6 +435,13 @@ public class PooledVinciClient {
     for (int i = 0; i < closeUs.size(); i++) {
       ((VinciClient) closeUs.get(i)).close();
     }
+    if (closeConnections != null) {
+      for (PipelinedConnection c : closeConnections) {
+        if (c != null) {
+          c.close(wait);
+        }
+      }
+    }
     if (wait) {
       boolean wasInterrupted = false;
       synchronized (this) {
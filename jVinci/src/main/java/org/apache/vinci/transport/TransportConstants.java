@@ -49,6 +49,20 @@ public class TransportConstants {
 
   public static final String STATUS_KEY = VINCI_NAMESPACE + "STATUS";
 
+  /**
+   * Key of the frame a client sends to switch a connection to pipelined mode.
+   * 
+   * @since 3.7.0
+   */
+  public static final String PIPELINE_KEY = VINCI_NAMESPACE + "PIPELINE";
+
+  /**
+   * Key of the frame preceding each request and response in pipelined mode.
+   * 
+   * @since 3.7.0
+   */
+  public static final String REQUEST_ID_KEY = VINCI_NAMESPACE + "REQUEST_ID";
+
   public static final String TRUE_VALUE = "true";
 
   public static final String FALSE_VALUE = "false";
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.vinci.transport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BaseServerTest {
+
+  private final List<Thread> connectionThreads = new CopyOnWriteArrayList<>();
+
+  private BaseServer server;
+
+  @AfterEach
+  void tearDown() {
+    if (server != null) {
+      server.shutdownServing();
+    }
+  }
+
+  @Test
+  void thatConnectionsAreServedByThreadsOfTheFactory() throws Exception {
+    startServer(r -> new Thread(r, "test-connection-" + connectionThreads.size()));
+
+    BaseClient first = new BaseClient("localhost", getPort());
+    BaseClient second = new BaseClient("localhost", getPort());
+    try {
+      assertThat(threadOf(first)).isEqualTo("test-connection-0 virtual=false");
+      assertThat(threadOf(first)).isEqualTo("test-connection-0 virtual=false");
+      assertThat(threadOf(second)).isEqualTo("test-connection-1 virtual=false");
+    } finally {
+      first.close();
+      second.close();
+    }
+    assertThat(connectionThreads).hasSize(2);
+  }
+
+  @Test
+  void thatConnectionsCanBeServedByVirtualThreads() throws Exception {
+    startServer(Thread.ofVirtual().name("test-virtual-", 0).factory());
+
+    BaseClient client = new BaseClient("localhost", getPort());
+    try {
+      assertThat(threadOf(client)).isEqualTo("test-virtual-0 virtual=true");
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  void thatShutdownClosesLiveConnections() throws Exception {
+    startServer(Thread.ofVirtual().factory());
+
+    try (Socket socket = new Socket("localhost", getPort())) {
+      socket.setSoTimeout(10_000);
+      InputStream is = new BufferedInputStream(socket.getInputStream());
+      OutputStream os = new BufferedOutputStream(socket.getOutputStream());
+      new VinciFrame().fadd("op", "thread").toStream(os);
+      os.flush();
+      VinciFrame response = new VinciFrame();
+      response.fromStream(is);
+      assertThat(response.fgetString("thread")).contains("virtual=true");
+
+      // The connection is idle now, its thread blocks reading the next request
+      server.shutdownServing();
+
+      assertThat(is.read()).isEqualTo(-1);
+      for (Thread thread : connectionThreads) {
+        thread.join(10_000);
+        assertThat(thread.isAlive()).isFalse();
+      }
+    }
+  }
+
+  private void startServer(ThreadFactory aThreadFactory) throws Exception {
+    server = new BaseServer(new ThreadNameServable());
+    server.setConnectionThreadFactory(r -> {
+      Thread thread = aThreadFactory.newThread(r);
+      connectionThreads.add(thread);
+      return thread;
+    });
+    server.startServing(0);
+  }
+
+  private int getPort() {
+    return server.getServerSocket().getLocalPort();
+  }
+
+  private static String threadOf(BaseClient aClient) throws Exception {
+    return ((VinciFrame) aClient.sendAndReceive(new VinciFrame().fadd("op", "thread")))
+            .fgetString("thread");
+  }
+
+  private static class ThreadNameServable extends VinciServableAdapter {
+    @Override
+    public Transportable eval(Transportable in) throws ServiceException {
+      Thread thread = Thread.currentThread();
+      return new VinciFrame().fadd("thread", thread.getName() + " virtual=" + thread.isVirtual());
+    }
+  }
+}
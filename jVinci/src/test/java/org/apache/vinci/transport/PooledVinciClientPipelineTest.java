@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.vinci.transport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.vinci.transport.context.VinciContext;
+import org.apache.vinci.transport.vns.VNSConstants;
+import org.apache.vinci.transport.vns.client.ResolveResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PooledVinciClientPipelineTest {
+
+  private static final String SERVICE_NAME = "test.Pipelined";
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private BaseServer server;
+
+  private PooledVinciClient client;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (client != null) {
+      client.close(false);
+    }
+    if (server != null) {
+      server.shutdownServing();
+    }
+  }
+
+  @Test
+  void thatConcurrentPipelinedRequestsGetTheirResponses() throws Exception {
+    client = startServerAndClient(null, 2);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int thread = t;
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 100; i++) {
+            String value = thread + "-" + i;
+            VinciFrame response = (VinciFrame) client.sendAndReceive(request("echo", value));
+            assertThat(response.fgetString("echo")).isEqualTo(value);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void thatResponsesCanCompleteOutOfOrder() throws Exception {
+    client = startServerAndClient(Thread::new, 1);
+
+    CompletableFuture<Transportable> blocked = client
+            .sendAndReceiveAsync(request("block", "first"));
+    CompletableFuture<Transportable> echoed = client.sendAndReceiveAsync(request("echo", "second"));
+
+    assertThat(((VinciFrame) echoed.get(10, SECONDS)).fgetString("echo")).isEqualTo("second");
+    assertThat(blocked).isNotDone();
+
+    release.countDown();
+    assertThat(((VinciFrame) blocked.get(10, SECONDS)).fgetString("echo")).isEqualTo("first");
+  }
+
+  @Test
+  void thatServerWithoutPipeliningSupportFails() throws Exception {
+    try (ServerSocket legacyServer = new ServerSocket(0)) {
+      // Serves one request the way a server without pipelining support does: the pipeline
+      // frame is taken for a regular request and evaluated by an echoing service.
+      Thread serving = new Thread(() -> {
+        try (Socket socket = legacyServer.accept()) {
+          InputStream is = new BufferedInputStream(socket.getInputStream());
+          OutputStream os = new BufferedOutputStream(socket.getOutputStream());
+          VinciFrame in = new VinciFrame();
+          in.fromStream(is);
+          in.toStream(os);
+          os.flush();
+        } catch (IOException e) {
+          // client went away
+        }
+      });
+      serving.start();
+
+      client = createClient(legacyServer.getLocalPort(), 1);
+      client.setPipelined(true);
+
+      assertThatExceptionOfType(IOException.class)
+              .isThrownBy(() -> client.sendAndReceive(request("echo", "value")))
+              .withMessageContaining("pipelining");
+      serving.join(10_000);
+    }
+  }
+
+  @Test
+  void thatOpeningAConnectionDoesNotBlockTheClient() throws Exception {
+    try (ServerSocket silentServer = new ServerSocket(0)) {
+      // Accepts the connection but does not answer the pipeline handshake until released
+      CountDownLatch accepted = new CountDownLatch(1);
+      Thread serving = new Thread(() -> {
+        try (Socket socket = silentServer.accept()) {
+          accepted.countDown();
+          release.await();
+        } catch (IOException | InterruptedException e) {
+          // test is over
+        }
+      });
+      serving.start();
+
+      client = createClient(silentServer.getLocalPort(), 1);
+      client.setPipelined(true);
+      client.setSocketTimeout(30_000);
+
+      CompletableFuture<Transportable> opening = CompletableFuture
+              .supplyAsync(() -> client.sendAndReceiveAsync(request("echo", "value")))
+              .thenCompose(response -> response);
+      assertThat(accepted.await(10, SECONDS)).isTrue();
+
+      CompletableFuture.runAsync(() -> client.close(false)).get(10, SECONDS);
+      assertThat(opening).isNotDone();
+
+      release.countDown();
+      assertThatExceptionOfType(ExecutionException.class)
+              .isThrownBy(() -> opening.get(10, SECONDS)).withCauseInstanceOf(IOException.class);
+      serving.join(10_000);
+    }
+  }
+
+  @Test
+  void thatCloseWithWaitingLetsPendingRequestsComplete() throws Exception {
+    client = startServerAndClient(Thread::new, 1);
+
+    CompletableFuture<Transportable> blocked = client
+            .sendAndReceiveAsync(request("block", "value"));
+    CompletableFuture<Void> closing = CompletableFuture.runAsync(() -> client.close(true));
+
+    assertThatExceptionOfType(TimeoutException.class)
+            .isThrownBy(() -> closing.get(500, MILLISECONDS));
+    assertThat(blocked).isNotDone();
+
+    release.countDown();
+    closing.get(10, SECONDS);
+    assertThat(((VinciFrame) blocked.get()).fgetString("echo")).isEqualTo("value");
+    assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> client.sendAndReceive(request("echo", "value")));
+  }
+
+  @Test
+  void thatCloseWithoutWaitingFailsPendingRequests() throws Exception {
+    client = startServerAndClient(Thread::new, 1);
+
+    CompletableFuture<Transportable> blocked = client
+            .sendAndReceiveAsync(request("block", "value"));
+    client.close(false);
+
+    assertThatExceptionOfType(ExecutionException.class)
+            .isThrownBy(() -> blocked.get(10, SECONDS)).withCauseInstanceOf(IOException.class);
+  }
+
+  @Test
+  void thatErrorFrameFailsWithServiceException() throws Exception {
+    client = startServerAndClient(null, 1);
+
+    assertThatExceptionOfType(ServiceException.class)
+            .isThrownBy(() -> client.sendAndReceive(request("fail", "value")))
+            .withMessageContaining("failed on purpose");
+    assertThat(((VinciFrame) client.sendAndReceive(request("echo", "value"))).fgetString("echo"))
+            .isEqualTo("value");
+  }
+
+  @Test
+  void thatTimedOutRequestsAreNoLongerPending() throws Exception {
+    startServer(Thread::new);
+    VinciClient vinciClient = new VinciClient(SERVICE_NAME, createContext(getPort()));
+    PipelinedConnection connection = new PipelinedConnection(vinciClient);
+    try {
+      CompletableFuture<Transportable> blocked = connection.send(request("block", "first"),
+              VinciFrame.getVinciFrameFactory(), 200);
+
+      assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> blocked.get())
+              .withCauseInstanceOf(TimeoutException.class);
+      assertThat(connection.getPendingCount()).isZero();
+
+      // The late response of the timed out request is skipped
+      release.countDown();
+      CompletableFuture<Transportable> echoed = connection.send(request("echo", "second"),
+              VinciFrame.getVinciFrameFactory(), 0);
+      assertThat(((VinciFrame) echoed.get(10, SECONDS)).fgetString("echo")).isEqualTo("second");
+      assertThat(connection.isOpen()).isTrue();
+    } finally {
+      connection.close(false);
+    }
+  }
+
+  @Test
+  void thatBlockingRequestsTimeOut() throws Exception {
+    client = startServerAndClient(Thread::new, 1);
+    client.setSocketTimeout(200);
+
+    assertThatExceptionOfType(SocketTimeoutException.class)
+            .isThrownBy(() -> client.sendAndReceive(request("block", "value")));
+  }
+
+  @Test
+  void thatPipelinedModeCannotBeChangedAfterFirstRequest() throws Exception {
+    startServer(null);
+    client = createClient(getPort(), 1);
+    client.sendAndReceive(request("echo", "value"));
+
+    assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> client.setPipelined(true));
+  }
+
+  private PooledVinciClient startServerAndClient(ThreadFactory aThreadFactory, int aPoolSize)
+          throws IOException {
+    startServer(aThreadFactory);
+    PooledVinciClient pooledClient = createClient(getPort(), aPoolSize);
+    pooledClient.setPipelined(true);
+    return pooledClient;
+  }
+
+  private void startServer(ThreadFactory aThreadFactory) throws IOException {
+    server = new BaseServer(new TestServable());
+    server.setConnectionThreadFactory(aThreadFactory);
+    server.startServing(0);
+  }
+
+  private int getPort() {
+    return server.getServerSocket().getLocalPort();
+  }
+
+  private static PooledVinciClient createClient(int aPort, int aPoolSize) {
+    PooledVinciClient pooledClient = new PooledVinciClient(SERVICE_NAME, aPoolSize);
+    pooledClient.setContext(createContext(aPort));
+    return pooledClient;
+  }
+
+  /**
+   * Create a context which resolves the test service to the given local port without a VNS.
+   */
+  static VinciContext createContext(int aPort) {
+    ResolveResult.ServiceLocator locator = new ResolveResult.ServiceLocator();
+    locator.host = "localhost";
+    locator.port = aPort;
+    ResolveResult resolved = new ResolveResult();
+    resolved.add(VNSConstants.SERVER_KEY, locator);
+
+    VinciContext context = new VinciContext("localhost", 0);
+    context.cacheResolveResult(SERVICE_NAME, resolved);
+    return context;
+  }
+
+  private static VinciFrame request(String aOperation, String aValue) {
+    VinciFrame frame = new VinciFrame();
+    frame.fadd("op", aOperation);
+    frame.fadd("value", aValue);
+    return frame;
+  }
+
+  private class TestServable extends VinciServableAdapter {
+    @Override
+    public Transportable eval(Transportable in) throws ServiceException {
+      VinciFrame request = (VinciFrame) in;
+      switch (request.fgetString("op")) {
+        case "block":
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("interrupted");
+          }
+          break;
+        case "fail":
+          return new ErrorFrame("failed on purpose");
+        default:
+          break;
+      }
+      VinciFrame response = new VinciFrame();
+      response.fadd("echo", request.fgetString("value"));
+      return response;
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.uima.fit.descriptor.FsIndex;
 import org.apache.uima.fit.descriptor.FsIndexKey;
 import org.apache.uima.fit.internal.ClassLoaderUtils;
 import org.apache.uima.fit.internal.MetaDataType;
+import org.apache.uima.fit.internal.PrecomputedMetaData;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceManager;
@@ -294,14 +295,19 @@ public final class FsIndexFactory {
     FsIndexCollection aggFsIdxCol = fsIndexCollectionsByClassloader.get(cl);
     if (aggFsIdxCol == null) {
       synchronized (CREATE_LOCK) {
-        ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
-        List<FsIndexDescription> fsIndexList = new ArrayList<>();
-
-        loadFsIndexCollectionsFromScannedLocations(fsIndexList, resMgr);
-        loadFsIndexCollectionsfromSPIs(fsIndexList);
-
-        aggFsIdxCol = createFsIndexCollection(
-                fsIndexList.toArray(new FsIndexDescription[fsIndexList.size()]));
+        PrecomputedMetaData precomputed = PrecomputedMetaData.get(cl);
+        if (precomputed != null) {
+          aggFsIdxCol = precomputed.getFsIndexes();
+        } else {
+          ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+          List<FsIndexDescription> fsIndexList = new ArrayList<>();
+
+          loadFsIndexCollectionsFromScannedLocations(fsIndexList, resMgr);
+          loadFsIndexCollectionsfromSPIs(fsIndexList);
+
+          aggFsIdxCol = createFsIndexCollection(
+                  fsIndexList.toArray(new FsIndexDescription[fsIndexList.size()]));
+        }
         fsIndexCollectionsByClassloader.put(cl, aggFsIdxCol);
       }
     }
@@ -34,6 +34,7 @@ import java.util.WeakHashMap;
 
 import org.apache.uima.fit.internal.ClassLoaderUtils;
 import org.apache.uima.fit.internal.MetaDataType;
+import org.apache.uima.fit.internal.PrecomputedMetaData;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -130,13 +131,18 @@ public final class TypePrioritiesFactory {
     TypePriorities aggTypePriorities = typePrioritiesByClassloader.get(cl);
     if (aggTypePriorities == null) {
       synchronized (CREATE_LOCK) {
-        ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
-        List<TypePriorities> typePrioritiesList = new ArrayList<>();
+        PrecomputedMetaData precomputed = PrecomputedMetaData.get(cl);
+        if (precomputed != null) {
+          aggTypePriorities = precomputed.getTypePriorities();
+        } else {
+          ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+          List<TypePriorities> typePrioritiesList = new ArrayList<>();
 
-        loadTypePrioritiesFromScannedLocations(typePrioritiesList, resMgr);
-        loadTypePrioritiesFromSPIs(typePrioritiesList);
+          loadTypePrioritiesFromScannedLocations(typePrioritiesList, resMgr);
+          loadTypePrioritiesFromSPIs(typePrioritiesList);
 
-        aggTypePriorities = CasCreationUtils.mergeTypePriorities(typePrioritiesList, resMgr);
+          aggTypePriorities = CasCreationUtils.mergeTypePriorities(typePrioritiesList, resMgr);
+        }
         typePrioritiesByClassloader.put(cl, aggTypePriorities);
       }
     }
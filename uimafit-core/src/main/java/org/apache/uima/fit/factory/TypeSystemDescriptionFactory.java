@@ -33,6 +33,7 @@ import java.util.WeakHashMap;
 
 import org.apache.uima.fit.internal.ClassLoaderUtils;
 import org.apache.uima.fit.internal.MetaDataType;
+import org.apache.uima.fit.internal.PrecomputedMetaData;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceManager;
@@ -133,14 +134,19 @@ public final class TypeSystemDescriptionFactory {
     var tsd = typeDescriptorByClassloader.get(cl);
     if (tsd == null) {
       synchronized (CREATE_LOCK) {
-        var resMgr = ResourceManagerFactory.newResourceManager();
-        var tsdList = new ArrayList<TypeSystemDescription>();
-
-        loadTypeSystemDescriptionsFromScannedLocations(tsdList, resMgr);
-        loadTypeSystemDescriptionsFromSPIs(tsdList);
-
-        LOG.trace("Merging type systems and resolving imports...");
-        tsd = mergeTypeSystems(tsdList, resMgr);
+        var precomputed = PrecomputedMetaData.get(cl);
+        if (precomputed != null) {
+          tsd = precomputed.getTypeSystem();
+        } else {
+          var resMgr = ResourceManagerFactory.newResourceManager();
+          var tsdList = new ArrayList<TypeSystemDescription>();
+
+          loadTypeSystemDescriptionsFromScannedLocations(tsdList, resMgr);
+          loadTypeSystemDescriptionsFromSPIs(tsdList);
+
+          LOG.trace("Merging type systems and resolving imports...");
+          tsd = mergeTypeSystems(tsdList, resMgr);
+        }
         typeDescriptorByClassloader.put(cl, tsd);
       }
     }
@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.fit.factory.FsIndexFactory;
+import org.apache.uima.fit.factory.TypePrioritiesFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.TypePriorities;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * INTERNAL API - The auto-detected type system, indexes and type priorities, resolved and merged at
+ * build time (e.g. by the {@code precompute-metadata} goal of the uimaFIT Maven plugin) and stored
+ * at {@value #LOCATION} in the classpath.
+ * <p>
+ * If such a file is found and it was computed from the same manifests, import patterns, SPI
+ * registrations, descriptors and UIMA version as seen at runtime, the factories use its contents
+ * instead of scanning the classpath and parsing the descriptors. Otherwise, they fall back to
+ * scanning. Only the descriptors in the classpath entries which contain a manifest or SPI
+ * registration are considered - changes to descriptors in other classpath entries are not detected.
+ */
+public final class PrecomputedMetaData {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrecomputedMetaData.class);
+
+  /**
+   * Classpath location of the precomputed meta data.
+   */
+  public static final String LOCATION = "META-INF/org.apache.uima.fit/precomputed.ser";
+
+  /**
+   * Set this system property to {@code true} to ignore precomputed meta data and always scan.
+   */
+  public static final String PROP_DISABLED = "org.apache.uima.fit.precomputed.disabled";
+
+  private static final String[] SPI_NAMES = { //
+      "org.apache.uima.spi.TypeSystemProvider", //
+      "org.apache.uima.spi.TypeSystemDescriptionProvider", //
+      "org.apache.uima.spi.FsIndexCollectionProvider", //
+      "org.apache.uima.spi.TypePrioritiesProvider" };
+
+  /**
+   * Only the meta data classes may be deserialized from the precomputed data.
+   */
+  private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+          "maxdepth=64;org.apache.uima.resource.metadata.**;java.lang.*;java.util.ArrayList;!*");
+
+  private static final PrecomputedMetaData NONE = new PrecomputedMetaData(null, null, null, null);
+
+  private static final WeakHashMap<ClassLoader, PrecomputedMetaData> byClassloader = new WeakHashMap<>();
+
+  private final String fingerprint;
+
+  private final TypeSystemDescription typeSystem;
+
+  private final FsIndexCollection fsIndexes;
+
+  private final TypePriorities typePriorities;
+
+  private PrecomputedMetaData(String aFingerprint, TypeSystemDescription aTypeSystem,
+          FsIndexCollection aFsIndexes, TypePriorities aTypePriorities) {
+    fingerprint = aFingerprint;
+    typeSystem = aTypeSystem;
+    fsIndexes = aFsIndexes;
+    typePriorities = aTypePriorities;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public TypeSystemDescription getTypeSystem() {
+    return typeSystem;
+  }
+
+  public FsIndexCollection getFsIndexes() {
+    return fsIndexes;
+  }
+
+  public TypePriorities getTypePriorities() {
+    return typePriorities;
+  }
+
+  /**
+   * Get the precomputed meta data matching the given class loader. The file is read only once per
+   * class loader.
+   *
+   * @param aClassLoader
+   *          the class loader to look up the precomputed meta data in.
+   * @return the precomputed meta data or {@code null} if there is none or if it does not match.
+   */
+  public static PrecomputedMetaData get(ClassLoader aClassLoader) {
+    if (Boolean.getBoolean(PROP_DISABLED)) {
+      return null;
+    }
+
+    synchronized (byClassloader) {
+      var data = byClassloader.get(aClassLoader);
+      if (data == null) {
+        data = load(aClassLoader);
+        byClassloader.put(aClassLoader, data != null ? data : NONE);
+      }
+      return data != NONE ? data : null;
+    }
+  }
+
+  /**
+   * Forget the precomputed meta data read so far, e.g. because the file has been regenerated.
+   */
+  public static void forget() {
+    synchronized (byClassloader) {
+      byClassloader.clear();
+    }
+  }
+
+  private static PrecomputedMetaData load(ClassLoader aClassLoader) {
+    try {
+      var resources = Collections.list(aClassLoader.getResources(LOCATION));
+      if (resources.isEmpty()) {
+        return null;
+      }
+
+      var expected = fingerprint(aClassLoader);
+      for (var url : resources) {
+        try (var is = new ObjectInputStream(new BufferedInputStream(url.openStream()))) {
+          is.setObjectInputFilter(FILTER);
+          // The fingerprint comes first so we do not need to deserialize mismatching data
+          if (!expected.equals(is.readUTF())) {
+            LOG.debug("Ignoring precomputed meta data at [{}] built for a different classpath", url);
+            continue;
+          }
+
+          var data = new PrecomputedMetaData(expected, (TypeSystemDescription) is.readObject(),
+                  (FsIndexCollection) is.readObject(), (TypePriorities) is.readObject());
+          LOG.debug("Using precomputed meta data at [{}]", url);
+          return data;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+          LOG.warn("Unable to read precomputed meta data at [{}]. Ignoring.", url, e);
+        }
+      }
+
+      LOG.info("Precomputed meta data does not match the classpath - falling back to scanning");
+    } catch (IOException e) {
+      LOG.warn("Unable to locate precomputed meta data. Ignoring.", e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Compute the meta data by scanning the classpath of the given class loader.
+   *
+   * @param aClassLoader
+   *          the class loader to scan. It is used as the context class loader while scanning.
+   * @return the meta data.
+   * @throws ResourceInitializationException
+   *           if the meta data cannot be resolved or merged.
+   */
+  public static PrecomputedMetaData compute(ClassLoader aClassLoader)
+          throws ResourceInitializationException {
+    var thread = Thread.currentThread();
+    var oldClassLoader = thread.getContextClassLoader();
+    try {
+      thread.setContextClassLoader(aClassLoader);
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      FsIndexFactory.forceIndexDescriptorsScan();
+      TypePrioritiesFactory.forceTypePrioritiesDescriptorsScan();
+
+      synchronized (byClassloader) {
+        // Make sure the factories really scan instead of returning previously precomputed data
+        byClassloader.put(aClassLoader, NONE);
+      }
+
+      return new PrecomputedMetaData(fingerprint(aClassLoader),
+              TypeSystemDescriptionFactory.createTypeSystemDescription(),
+              FsIndexFactory.createFsIndexCollection(),
+              TypePrioritiesFactory.createTypePriorities());
+    } catch (IOException e) {
+      throw new ResourceInitializationException(e);
+    } finally {
+      synchronized (byClassloader) {
+        byClassloader.remove(aClassLoader);
+      }
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      FsIndexFactory.forceIndexDescriptorsScan();
+      TypePrioritiesFactory.forceTypePrioritiesDescriptorsScan();
+      thread.setContextClassLoader(oldClassLoader);
+    }
+  }
+
+  /**
+   * Write the meta data in the format expected at {@link #LOCATION}.
+   *
+   * @param aOutputStream
+   *          the stream to write to.
+   * @throws IOException
+   *           if the data cannot be written.
+   */
+  public void write(OutputStream aOutputStream) throws IOException {
+    var os = new ObjectOutputStream(new BufferedOutputStream(aOutputStream));
+    os.writeUTF(fingerprint);
+    os.writeObject(typeSystem);
+    os.writeObject(fsIndexes);
+    os.writeObject(typePriorities);
+    os.flush();
+  }
+
+  /**
+   * Calculate a digest over everything that determines the outcome of the auto-detection but can
+   * be obtained without scanning: the contents of the uimaFIT manifests and the SPI registrations,
+   * the names and checksums of the XML descriptors in the classpath entries providing them, the
+   * import pattern system properties and the UIMA version. The locations of the classpath entries
+   * are not included and a JAR yields the same fingerprint as the directory it was built from, so
+   * the fingerprint is the same no matter where the JARs are installed.
+   *
+   * @param aClassLoader
+   *          the class loader to compute the fingerprint for.
+   * @return the fingerprint.
+   * @throws IOException
+   *           if a manifest or SPI registration cannot be read.
+   */
+  public static String fingerprint(ClassLoader aClassLoader) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    update(digest, UIMAFramework.getVersionString());
+
+    Set<String> roots = new LinkedHashSet<>();
+
+    for (var type : MetaDataType.values()) {
+      update(digest, type.name());
+      for (var property : MetaDataUtil.getImportProperties(type)) {
+        update(digest, property + "=" + System.getProperty(property, ""));
+      }
+      for (var location : MetaDataUtil.getManifestLocations(type)) {
+        updateWithResources(digest, roots, aClassLoader,
+                location.substring(location.indexOf(':') + 1));
+      }
+    }
+
+    for (var spi : SPI_NAMES) {
+      update(digest, spi);
+      updateWithResources(digest, roots, aClassLoader, "META-INF/services/" + spi);
+    }
+
+    // Sort the descriptor lists, the order of the classpath entries does not affect the scan results
+    List<String> descriptors = new ArrayList<>();
+    for (var root : roots) {
+      descriptors.add(listDescriptors(root));
+    }
+    Collections.sort(descriptors);
+    for (var list : descriptors) {
+      update(digest, list);
+    }
+
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void updateWithResources(MessageDigest aDigest, Set<String> aRoots,
+          ClassLoader aClassLoader, String aPath) throws IOException {
+    // Sort the contents, the order of the classpath entries does not affect the scan results
+    List<String> contents = new ArrayList<>();
+    for (URL url : Collections.list(aClassLoader.getResources(aPath))) {
+      try (var is = url.openStream()) {
+        contents.add(new String(is.readAllBytes(), UTF_8));
+      }
+      aRoots.add(getRoot(url, aPath));
+    }
+    Collections.sort(contents);
+    for (var content : contents) {
+      update(aDigest, content);
+    }
+  }
+
+  /**
+   * @return the location of the classpath entry providing the given resource - the JAR file or the
+   *         directory.
+   */
+  private static String getRoot(URL aUrl, String aPath) throws IOException {
+    if ("jar".equals(aUrl.getProtocol())) {
+      return ((JarURLConnection) aUrl.openConnection()).getJarFileURL().toString();
+    }
+
+    var url = aUrl.toString();
+    return url.endsWith(aPath) ? url.substring(0, url.length() - aPath.length()) : url;
+  }
+
+  /**
+   * List the XML files below the given classpath entry with their sizes and checksums in a form
+   * that does not depend on the location of the entry or on whether it is a JAR or a directory.
+   * The checksums of JAR entries are taken from the central directory of the JAR, so the entries
+   * do not need to be read.
+   */
+  private static String listDescriptors(String aRoot) throws IOException {
+    List<String> entries = new ArrayList<>();
+    try {
+      var uri = new URI(aRoot);
+      if (!"file".equals(uri.getScheme())) {
+        // E.g. a nested JAR - we cannot list it, so we can only tell if it is the same
+        return aRoot;
+      }
+
+      var path = Path.of(uri);
+      if (Files.isDirectory(path)) {
+        try (var files = Files.walk(path)) {
+          for (var file : (Iterable<Path>) files::iterator) {
+            var name = path.relativize(file).toString().replace('\\', '/');
+            if (isDescriptor(name) && Files.isRegularFile(file)) {
+              var crc = new CRC32();
+              crc.update(Files.readAllBytes(file));
+              entries.add(name + ":" + Files.size(file) + ":" + crc.getValue());
+            }
+          }
+        }
+      }
+      else {
+        try (var zip = new ZipFile(path.toFile())) {
+          for (var entry : Collections.list(zip.entries())) {
+            if (isDescriptor(entry.getName()) && !entry.isDirectory()) {
+              entries.add(entry.getName() + ":" + entry.getSize() + ":" + entry.getCrc());
+            }
+          }
+        }
+      }
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return aRoot;
+    }
+
+    Collections.sort(entries);
+    return String.join("\n", entries);
+  }
+
+  private static boolean isDescriptor(String aName) {
+    // The POM which Maven adds to JARs is not in the directory the JAR is built from
+    return aName.endsWith(".xml") && !aName.startsWith("META-INF/maven/");
+  }
+
+  private static void update(MessageDigest aDigest, String aValue) {
+    var bytes = aValue.getBytes(UTF_8);
+    aDigest.update((byte) (bytes.length >>> 24));
+    aDigest.update((byte) (bytes.length >>> 16));
+    aDigest.update((byte) (bytes.length >>> 8));
+    aDigest.update((byte) bytes.length);
+    aDigest.update(bytes);
+  }
+}
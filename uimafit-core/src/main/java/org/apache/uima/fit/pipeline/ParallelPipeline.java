@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.fit.util.LifeCycleUtil;
+import org.apache.uima.resource.Resource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.CasPool;
+
+/**
+ * Runs a collection reader and analysis engines as a pipeline using multiple threads. This is a
+ * lightweight alternative to {@link CpePipeline} which does not require the collection processing
+ * engine.
+ * <p>
+ * The reader runs in the calling thread and fills the CASes of a bounded {@link CasPool}. The
+ * analysis engines are instantiated once per worker thread and process the CASes in parallel, so
+ * the order in which they see the documents is not defined. Optionally, a consumer can be given
+ * which sees the documents in the order in which they were produced by the reader. The consumer is
+ * instantiated only once and is never called concurrently.
+ * <p>
+ * After processing all CASes provided by the reader, the method calls
+ * {@link AnalysisEngine#collectionProcessComplete() collectionProcessComplete()} on all instances
+ * of the engines and then on the consumer. It is not called if processing fails. Finally,
+ * {@link CollectionReader#close() close()} is called on the reader and
+ * {@link Resource#destroy() destroy()} on the reader, the engines and the consumer.
+ */
+public final class ParallelPipeline {
+  private ParallelPipeline() {
+    // This class is not meant to be instantiated
+  }
+
+  /**
+   * Run the reader and the analysis engines using the given number of platform threads. The
+   * engines see the documents in no particular order.
+   *
+   * @param aThreads
+   *          the number of threads processing the CASes.
+   * @param aReaderDesc
+   *          the reader that loads the documents into the CASes.
+   * @param aDescs
+   *          the analysis engines that process the CASes, in order.
+   * @throws IOException
+   *           if there is an I/O problem in the reader
+   * @throws ResourceInitializationException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws CollectionException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws AnalysisEngineProcessException
+   *           if there is a problem initializing or running the pipeline.
+   */
+  public static void runPipeline(final int aThreads,
+          final CollectionReaderDescription aReaderDesc, final AnalysisEngineDescription... aDescs)
+          throws IOException, ResourceInitializationException, AnalysisEngineProcessException,
+          CollectionException {
+    runPipeline(Executors.defaultThreadFactory(), aThreads, aReaderDesc,
+            createEngineDescription(aDescs), null);
+  }
+
+  /**
+   * Run the reader, the analysis engine and the consumer using the given number of platform
+   * threads. The consumer sees the documents in the order in which the reader produced them.
+   *
+   * @param aThreads
+   *          the number of threads processing the CASes.
+   * @param aReaderDesc
+   *          the reader that loads the documents into the CASes.
+   * @param aEngineDesc
+   *          the analysis engine that processes the CASes in parallel.
+   * @param aConsumerDesc
+   *          the analysis engine that processes the CASes in reader order, e.g. a writer.
+   * @throws IOException
+   *           if there is an I/O problem in the reader
+   * @throws ResourceInitializationException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws CollectionException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws AnalysisEngineProcessException
+   *           if there is a problem initializing or running the pipeline.
+   */
+  public static void runPipeline(final int aThreads,
+          final CollectionReaderDescription aReaderDesc,
+          final AnalysisEngineDescription aEngineDesc,
+          final AnalysisEngineDescription aConsumerDesc) throws IOException,
+          ResourceInitializationException, AnalysisEngineProcessException, CollectionException {
+    runPipeline(Executors.defaultThreadFactory(), aThreads, aReaderDesc, aEngineDesc,
+            aConsumerDesc);
+  }
+
+  /**
+   * Run the reader, the analysis engine and the consumer using the given number of threads created
+   * by the given factory, e.g. {@code Thread.ofVirtual().factory()} for virtual threads. Note that
+   * the number of CASes and engine instances is bound by the number of threads, no matter which
+   * kind of threads is used.
+   *
+   * @param aThreadFactory
+   *          the factory creating the threads processing the CASes.
+   * @param aThreads
+   *          the number of threads processing the CASes.
+   * @param aReaderDesc
+   *          the reader that loads the documents into the CASes.
+   * @param aEngineDesc
+   *          the analysis engine that processes the CASes in parallel.
+   * @param aConsumerDesc
+   *          the analysis engine that processes the CASes in reader order, e.g. a writer. May be
+   *          {@code null}.
+   * @throws IOException
+   *           if there is an I/O problem in the reader
+   * @throws ResourceInitializationException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws CollectionException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws AnalysisEngineProcessException
+   *           if there is a problem initializing or running the pipeline.
+   */
+  public static void runPipeline(final ThreadFactory aThreadFactory, final int aThreads,
+          final CollectionReaderDescription aReaderDesc,
+          final AnalysisEngineDescription aEngineDesc,
+          final AnalysisEngineDescription aConsumerDesc) throws IOException,
+          ResourceInitializationException, AnalysisEngineProcessException, CollectionException {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("At least one thread is required, but got " + aThreads);
+    }
+
+    CollectionReader reader = null;
+    AnalysisEngine engine = null;
+    AnalysisEngine consumer = null;
+    ResourceManager resMgr = null;
+    try {
+      resMgr = ResourceManagerFactory.newResourceManager();
+
+      // Create the components - the engine is backed by one instance per thread
+      reader = UIMAFramework.produceCollectionReader(aReaderDesc, resMgr, null);
+      Map<String, Object> params = new HashMap<>();
+      params.put(AnalysisEngine.PARAM_NUM_SIMULTANEOUS_REQUESTS, aThreads);
+      engine = UIMAFramework.produceAnalysisEngine(aEngineDesc, resMgr, params);
+      if (aConsumerDesc != null) {
+        consumer = UIMAFramework.produceAnalysisEngine(aConsumerDesc, resMgr, null);
+      }
+
+      // Create the CASes from merged metadata. While the workers process one set of CASes, the
+      // reader can fill another one, or, if there is a consumer, the CASes can wait for their turn
+      List<ProcessingResourceMetaData> metaData = new ArrayList<>();
+      metaData.add(reader.getProcessingResourceMetaData());
+      metaData.add(engine.getAnalysisEngineMetaData());
+      if (consumer != null) {
+        metaData.add(consumer.getAnalysisEngineMetaData());
+      }
+      CasPool casPool = new CasPool(2 * aThreads, metaData, null, resMgr);
+
+      new Run(aThreadFactory, aThreads, reader, engine, consumer, casPool).run();
+    } finally {
+      // Destroy
+      LifeCycleUtil.close(reader);
+      LifeCycleUtil.destroy(reader);
+      LifeCycleUtil.destroy(engine);
+      LifeCycleUtil.destroy(consumer);
+      LifeCycleUtil.destroy(resMgr);
+    }
+  }
+
+  private static final class Run {
+    private final ThreadFactory threadFactory;
+
+    private final int threads;
+
+    private final CollectionReader reader;
+
+    private final AnalysisEngine engine;
+
+    private final AnalysisEngine consumer;
+
+    private final CasPool casPool;
+
+    /**
+     * CASes which have been processed by the engine and wait for the consumer, by sequence number.
+     */
+    private final Map<Long, CAS> processed = new HashMap<>();
+
+    /**
+     * Held by the thread currently passing CASes to the consumer.
+     */
+    private final ReentrantLock consumerLock = new ReentrantLock();
+
+    /**
+     * The sequence number of the next CAS to pass to the consumer. Guarded by {@link #processed}.
+     */
+    private long nextToConsume = 0;
+
+    private volatile Throwable failure;
+
+    Run(ThreadFactory aThreadFactory, int aThreads, CollectionReader aReader,
+            AnalysisEngine aEngine, AnalysisEngine aConsumer, CasPool aCasPool) {
+      threadFactory = aThreadFactory;
+      threads = aThreads;
+      reader = aReader;
+      engine = aEngine;
+      consumer = aConsumer;
+      casPool = aCasPool;
+    }
+
+    void run() throws IOException, ResourceInitializationException, AnalysisEngineProcessException,
+            CollectionException {
+      CAS first = casPool.getCas(0);
+      try {
+        reader.typeSystemInit(first.getTypeSystem());
+      } finally {
+        casPool.releaseCas(first);
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+      try {
+        long seq = 0;
+        while (failure == null && reader.hasNext()) {
+          // Blocks until a CAS has been released by a worker or the consumer
+          CAS cas = casPool.getCas(0);
+          if (failure != null) {
+            casPool.releaseCas(cas);
+            break;
+          }
+
+          try {
+            reader.getNext(cas);
+          } catch (Exception e) {
+            casPool.releaseCas(cas);
+            throw e;
+          }
+
+          long casSeq = seq++;
+          executor.execute(() -> process(casSeq, cas));
+        }
+      } finally {
+        executor.shutdown();
+        awaitTermination(executor);
+      }
+
+      rethrowFailure();
+
+      // Signal end of processing
+      engine.collectionProcessComplete();
+      if (consumer != null) {
+        consumer.collectionProcessComplete();
+      }
+    }
+
+    private void process(long aSeq, CAS aCas) {
+      if (failure != null) {
+        casPool.releaseCas(aCas);
+        return;
+      }
+
+      try {
+        engine.process(aCas);
+      } catch (Throwable e) {
+        fail(e);
+        casPool.releaseCas(aCas);
+        return;
+      }
+
+      if (consumer == null) {
+        casPool.releaseCas(aCas);
+        return;
+      }
+
+      synchronized (processed) {
+        processed.put(aSeq, aCas);
+      }
+      consume();
+    }
+
+    /**
+     * Pass the processed CASes to the consumer in reader order. Only one thread at a time does so
+     * - a thread which cannot get the lock leaves its CAS to the thread holding the lock.
+     */
+    private void consume() {
+      while (consumerLock.tryLock()) {
+        try {
+          CAS cas;
+          while (failure == null && (cas = takeNextToConsume()) != null) {
+            try {
+              consumer.process(cas);
+            } catch (Throwable e) {
+              fail(e);
+            } finally {
+              casPool.releaseCas(cas);
+            }
+          }
+        } finally {
+          consumerLock.unlock();
+        }
+
+        // Another thread may have added the next CAS after we checked but before we unlocked
+        synchronized (processed) {
+          if (failure != null || !processed.containsKey(nextToConsume)) {
+            return;
+          }
+        }
+      }
+    }
+
+    private CAS takeNextToConsume() {
+      synchronized (processed) {
+        CAS cas = processed.remove(nextToConsume);
+        if (cas != null) {
+          nextToConsume++;
+        }
+        return cas;
+      }
+    }
+
+    private void fail(Throwable e) {
+      synchronized (this) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+
+    private void awaitTermination(ExecutorService aExecutor) {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          if (aExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+            break;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+          fail(e);
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void rethrowFailure() throws AnalysisEngineProcessException {
+      Throwable e = failure;
+      if (e == null) {
+        return;
+      }
+      if (e instanceof AnalysisEngineProcessException) {
+        throw (AnalysisEngineProcessException) e;
+      }
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+}
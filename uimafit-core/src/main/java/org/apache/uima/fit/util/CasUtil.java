@@ -43,6 +43,7 @@ import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.FsIndex_annotation;
 import org.apache.uima.cas.impl.Subiterator;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.cas.text.AnnotationIndex;
@@ -676,7 +677,8 @@ public final class CasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}, or enable the interval
+   * index on annotation indexes (see {@link FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param type
    *          a UIMA type.
@@ -703,7 +705,8 @@ public final class CasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}, or enable the interval
+   * index on annotation indexes (see {@link FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param cas
    *          a CAS.
@@ -730,7 +733,8 @@ public final class CasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(CAS, Type, Type)} or a {@link ContainmentIndex}, or enable the interval
+   * index on annotation indexes (see {@link FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param cas
    *          a CAS.
@@ -745,11 +749,17 @@ public final class CasUtil {
    */
   public static List<AnnotationFS> selectCovering(CAS cas, Type type, int begin, int end) {
 
+    AnnotationIndex<AnnotationFS> index = type == null ? cas.getAnnotationIndex()
+            : cas.getAnnotationIndex(type);
+
+    if (FsIndex_annotation.IS_ENABLE_INTERVAL_INDEX && index instanceof FsIndex_annotation) {
+      return ((FsIndex_annotation<AnnotationFS>) index).selectCovering(begin, end);
+    }
+
     List<AnnotationFS> list = new ArrayList<AnnotationFS>();
 
     // withSnapshotIterators() not needed here since we copy the FSes to a list anyway
-    FSIterator<AnnotationFS> iter = type == null ? cas.getAnnotationIndex().iterator()
-            : cas.getAnnotationIndex(type).iterator();
+    FSIterator<AnnotationFS> iter = index.iterator();
 
     while (iter.hasNext()) {
       AnnotationFS a = iter.next();
@@ -784,30 +794,9 @@ public final class CasUtil {
    */
   public static Map<AnnotationFS, List<AnnotationFS>> indexCovering(CAS cas, Type type,
           Type coveringType) {
-    Map<AnnotationFS, List<AnnotationFS>> index = new HashMap<AnnotationFS, List<AnnotationFS>>() {
-      private static final long serialVersionUID = 1L;
-
-      @Override
-      public List<AnnotationFS> get(Object paramObject) {
-        List<AnnotationFS> res = super.get(paramObject);
-        if (res == null) {
-          return emptyList();
-        } else {
-          return res;
-        }
-      }
-    };
-    for (AnnotationFS s : select(cas, coveringType)) {
-      for (AnnotationFS u : selectCovered(cas, type, s)) {
-        List<AnnotationFS> c = index.get(u);
-        if (c == EMPTY_LIST) {
-          c = new ArrayList<AnnotationFS>();
-          index.put(u, c);
-        }
-        c.add(s);
-      }
-    }
-    return unmodifiableMap(index);
+    // A single sweep over both types instead of one selectCovered per covering annotation
+    return new CoveringSweep(select(cas, coveringType), select(cas, type))
+            .coveringByCovered(emptyList());
   }
 
   /**
@@ -984,8 +973,19 @@ public final class CasUtil {
           int aSelEnd) {
     requireAnnotationType(aCas, aType);
 
+    AnnotationIndex<AnnotationFS> index = aCas.getAnnotationIndex(aType);
+
+    if (FsIndex_annotation.IS_ENABLE_INTERVAL_INDEX && index instanceof FsIndex_annotation) {
+      // candidates start at or before the last overlapped offset and do not end before the
+      // selection; the filter then applies the same rules as the loop below
+      return ((FsIndex_annotation<AnnotationFS>) index).selectSpanning(
+              Math.max(aSelBegin, aSelEnd - 1), aSelBegin,
+              t -> t.getBegin() == aSelBegin
+                      || (t.getBegin() < aSelEnd && t.getEnd() > aSelBegin));
+    }
+
     List<AnnotationFS> annotations = new ArrayList<>();
-    for (AnnotationFS t : aCas.getAnnotationIndex(aType)) {
+    for (AnnotationFS t : index) {
       int begin = t.getBegin();
       int end = t.getEnd();
 
@@ -19,13 +19,12 @@
 
 package org.apache.uima.fit.util;
 
+import static java.util.Collections.emptyMap;
 import static org.apache.uima.fit.util.CasUtil.select;
-import static org.apache.uima.fit.util.CasUtil.selectCovered;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.uima.cas.CAS;
@@ -47,9 +46,13 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
     DIRECT, REVERSE, BOTH
   }
 
-  private final Map<AnnotationFS, Collection<AnnotationFS>> data = new LinkedHashMap<AnnotationFS, Collection<AnnotationFS>>();
+  private final Map<AnnotationFS, List<AnnotationFS>> data;
 
-  private final Map<AnnotationFS, Collection<AnnotationFS>> dataRev = new LinkedHashMap<AnnotationFS, Collection<AnnotationFS>>();
+  private final Map<AnnotationFS, List<AnnotationFS>> dataRev;
+
+  private final CoveringSweep sweep;
+
+  private final Type type;
 
   /**
    * Create a new index on the given JCas using the specified two types. The last argument indicates
@@ -66,34 +69,11 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    */
   protected ContainmentIndex(CAS cas, org.apache.uima.cas.Type aSuper,
           org.apache.uima.cas.Type aUnder, Type aType) {
-    Collection<AnnotationFS> over = select(cas, aSuper);
-    for (AnnotationFS s : over) {
-      Collection<AnnotationFS> under = selectCovered(cas, aUnder, s);
-      for (AnnotationFS u : under) {
-        switch (aType) {
-          case DIRECT: {
-            put(data, s, u);
-            break;
-          }
-          case REVERSE:
-            put(dataRev, u, s);
-            break;
-          case BOTH:
-            put(data, s, u);
-            put(dataRev, u, s);
-            break;
-        }
-      }
-    }
-  }
-
-  private <X, Y> void put(Map<X, Collection<Y>> map, X key, Y value) {
-    Collection<Y> c = map.get(key);
-    if (c == null) {
-      c = new LinkedList<Y>();
-      map.put(key, c);
-    }
-    c.add(value);
+    // A single sweep over both types instead of one selectCovered per covering annotation
+    sweep = new CoveringSweep(select(cas, aSuper), select(cas, aUnder));
+    type = aType;
+    data = (aType == Type.REVERSE) ? emptyMap() : sweep.coveredByCovering(null);
+    dataRev = (aType == Type.DIRECT) ? emptyMap() : sweep.coveringByCovered(null);
   }
 
   /**
@@ -142,7 +122,7 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    * @return whether the covered instance is contained in the covering instance.
    */
   public boolean isContainedIn(S aSuper, U aUnder) {
-    return containedIn(aSuper).contains(aUnder);
+    return type != Type.REVERSE && sweep.isCovered(aSuper, aUnder);
   }
 
   /**
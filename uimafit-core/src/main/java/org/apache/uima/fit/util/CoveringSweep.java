@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.apache.uima.cas.text.AnnotationFS;
+
+/**
+ * The pairs of covering and covered annotations of two annotation collections, found by a single
+ * sweep over both collections in annotation index order.
+ * <p>
+ * An annotation is covered if its begin and end are within the begin and end of the covering
+ * annotation. An annotation never covers itself. The pairs are stored in compressed sparse row form
+ * in both directions: for the covered annotation {@code i}, the covering annotations are
+ * {@code covering[coveringOf[coveringStart[i]]]} up to (excluding)
+ * {@code covering[coveringOf[coveringStart[i + 1]]]}, and vice versa. Both lists are in the order of
+ * the respective input collection.
+ */
+final class CoveringSweep {
+
+  private final AnnotationFS[] covering;
+
+  private final AnnotationFS[] covered;
+
+  private final int[] coveringStart;
+
+  private final int[] coveringOf;
+
+  private final int[] coveredStart;
+
+  private final int[] coveredOf;
+
+  private long[] coveringPos;
+
+  private long[] coveredPos;
+
+  /**
+   * @param aCovering
+   *          the covering annotations in annotation index order.
+   * @param aCovered
+   *          the covered annotations in annotation index order.
+   */
+  CoveringSweep(Collection<? extends AnnotationFS> aCovering,
+          Collection<? extends AnnotationFS> aCovered) {
+    covering = aCovering.toArray(new AnnotationFS[aCovering.size()]);
+    covered = aCovered.toArray(new AnnotationFS[aCovered.size()]);
+
+    int[] sBegin = new int[covering.length];
+    int[] sEnd = new int[covering.length];
+    for (int s = 0; s < covering.length; s++) {
+      sBegin[s] = covering[s].getBegin();
+      sEnd[s] = covering[s].getEnd();
+    }
+
+    // The covering annotations starting at or before the current covered annotation which may
+    // still cover it or a later one, sorted by descending end
+    int[] active = new int[16];
+    int activeSize = 0;
+
+    coveringStart = new int[covered.length + 1];
+    int[] pairs = new int[Math.max(16, covered.length)];
+    int pairCount = 0;
+
+    int next = 0;
+    for (int u = 0; u < covered.length; u++) {
+      AnnotationFS uFS = covered[u];
+      int uBegin = uFS.getBegin();
+      int uEnd = uFS.getEnd();
+
+      while (next < covering.length && sBegin[next] <= uBegin) {
+        if (activeSize == active.length) {
+          active = Arrays.copyOf(active, active.length * 2);
+        }
+        // Insert after all annotations with an end greater or equal to the end of the new one
+        int end = sEnd[next];
+        int lo = 0;
+        int hi = activeSize;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (sEnd[active[mid]] >= end) {
+            lo = mid + 1;
+          } else {
+            hi = mid;
+          }
+        }
+        System.arraycopy(active, lo, active, lo + 1, activeSize - lo);
+        active[lo] = next;
+        activeSize++;
+        next++;
+      }
+
+      // The covered annotations are visited by ascending begin, so annotations ending before the
+      // current begin cannot cover this or any later annotation
+      while (activeSize > 0 && sEnd[active[activeSize - 1]] < uBegin) {
+        activeSize--;
+      }
+
+      int first = pairCount;
+      for (int i = 0; i < activeSize && sEnd[active[i]] >= uEnd; i++) {
+        if (covering[active[i]] != uFS) {
+          if (pairCount == pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+          }
+          pairs[pairCount++] = active[i];
+        }
+      }
+      // Restore the order of the covering annotations
+      Arrays.sort(pairs, first, pairCount);
+      coveringStart[u + 1] = pairCount;
+    }
+    coveringOf = (pairs.length == pairCount) ? pairs : Arrays.copyOf(pairs, pairCount);
+
+    // Transpose - visiting the covered annotations in order keeps the lists in order
+    coveredStart = new int[covering.length + 1];
+    for (int i = 0; i < pairCount; i++) {
+      coveredStart[coveringOf[i] + 1]++;
+    }
+    for (int s = 0; s < covering.length; s++) {
+      coveredStart[s + 1] += coveredStart[s];
+    }
+    coveredOf = new int[pairCount];
+    int[] fill = Arrays.copyOf(coveredStart, covering.length);
+    for (int u = 0; u < covered.length; u++) {
+      for (int i = coveringStart[u]; i < coveringStart[u + 1]; i++) {
+        coveredOf[fill[coveringOf[i]]++] = u;
+      }
+    }
+  }
+
+  /**
+   * @param aDefault
+   *          the value the map returns for annotations which are not contained in it.
+   * @return the covering annotations by covered annotation. Only covered annotations which are
+   *         covered by at least one annotation are contained in the map.
+   */
+  Map<AnnotationFS, List<AnnotationFS>> coveringByCovered(List<AnnotationFS> aDefault) {
+    return new IndexMap(covered, coveringPositions(false), coveringStart, coveringOf, covering,
+            aDefault);
+  }
+
+  /**
+   * @param aDefault
+   *          the value the map returns for annotations which are not contained in it.
+   * @return the covered annotations by covering annotation. Only covering annotations which cover
+   *         at least one annotation are contained in the map.
+   */
+  Map<AnnotationFS, List<AnnotationFS>> coveredByCovering(List<AnnotationFS> aDefault) {
+    return new IndexMap(covering, coveringPositions(true), coveredStart, coveredOf, covered,
+            aDefault);
+  }
+
+  /**
+   * @return whether the covered annotation is covered by the covering annotation.
+   */
+  boolean isCovered(AnnotationFS aCovering, AnnotationFS aCovered) {
+    int s = positionOf(coveringPositions(true), covering, aCovering);
+    int u = positionOf(coveringPositions(false), covered, aCovered);
+    if (s < 0 || u < 0) {
+      return false;
+    }
+    return Arrays.binarySearch(coveredOf, coveredStart[s], coveredStart[s + 1], u) >= 0;
+  }
+
+  /**
+   * @return the positions of the covering ({@code true}) or covered ({@code false}) annotations,
+   *         see {@link #positions(AnnotationFS[])}.
+   */
+  private synchronized long[] coveringPositions(boolean aCovering) {
+    if (aCovering) {
+      if (coveringPos == null) {
+        coveringPos = positions(covering);
+      }
+      return coveringPos;
+    }
+
+    if (coveredPos == null) {
+      coveredPos = positions(covered);
+    }
+    return coveredPos;
+  }
+
+  /**
+   * @return the positions of the annotations in the array, each combined with the annotation ID in
+   *         the upper half and sorted by ID.
+   */
+  private static long[] positions(AnnotationFS[] aAnnotations) {
+    long[] positions = new long[aAnnotations.length];
+    for (int i = 0; i < aAnnotations.length; i++) {
+      positions[i] = ((long) aAnnotations[i]._id() << 32) | i;
+    }
+    Arrays.sort(positions);
+    return positions;
+  }
+
+  /**
+   * @return the position of the annotation in the array or -1 if it is not in the array.
+   */
+  private static int positionOf(long[] aPositions, AnnotationFS[] aAnnotations,
+          Object aAnnotation) {
+    if (!(aAnnotation instanceof AnnotationFS)) {
+      return -1;
+    }
+
+    AnnotationFS fs = (AnnotationFS) aAnnotation;
+    int id = fs._id();
+    int lo = 0;
+    int hi = aPositions.length - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int midId = (int) (aPositions[mid] >>> 32);
+      if (midId < id) {
+        lo = mid + 1;
+      } else if (midId > id) {
+        hi = mid - 1;
+      } else {
+        int pos = (int) aPositions[mid];
+        // IDs are only unique within a CAS
+        return (aAnnotations[pos] == fs) ? pos : -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * An unmodifiable map view on one direction of the pairs.
+   */
+  private static final class IndexMap extends AbstractMap<AnnotationFS, List<AnnotationFS>> {
+    private final AnnotationFS[] keys;
+
+    private final long[] keyPos;
+
+    private final int[] start;
+
+    private final int[] values;
+
+    private final AnnotationFS[] valueFSes;
+
+    private final List<AnnotationFS> defaultValue;
+
+    private Set<Entry<AnnotationFS, List<AnnotationFS>>> entrySet;
+
+    IndexMap(AnnotationFS[] aKeys, long[] aKeyPos, int[] aStart, int[] aValues,
+            AnnotationFS[] aValueFSes, List<AnnotationFS> aDefault) {
+      keys = aKeys;
+      keyPos = aKeyPos;
+      start = aStart;
+      values = aValues;
+      valueFSes = aValueFSes;
+      defaultValue = aDefault;
+    }
+
+    private int indexOf(Object aKey) {
+      int k = positionOf(keyPos, keys, aKey);
+      return (k >= 0 && start[k] < start[k + 1]) ? k : -1;
+    }
+
+    @Override
+    public List<AnnotationFS> get(Object aKey) {
+      int k = indexOf(aKey);
+      return (k < 0) ? defaultValue : new Segment(values, start[k], start[k + 1], valueFSes);
+    }
+
+    @Override
+    public boolean containsKey(Object aKey) {
+      return indexOf(aKey) >= 0;
+    }
+
+    @Override
+    public Set<Entry<AnnotationFS, List<AnnotationFS>>> entrySet() {
+      if (entrySet == null) {
+        int size = 0;
+        for (int k = 0; k < keys.length; k++) {
+          if (start[k] < start[k + 1]) {
+            size++;
+          }
+        }
+        int entrySetSize = size;
+
+        entrySet = new AbstractSet<Entry<AnnotationFS, List<AnnotationFS>>>() {
+          @Override
+          public Iterator<Entry<AnnotationFS, List<AnnotationFS>>> iterator() {
+            return new Iterator<Entry<AnnotationFS, List<AnnotationFS>>>() {
+              private int k = skipEmpty(0);
+
+              private int skipEmpty(int aK) {
+                int i = aK;
+                while (i < keys.length && start[i] == start[i + 1]) {
+                  i++;
+                }
+                return i;
+              }
+
+              @Override
+              public boolean hasNext() {
+                return k < keys.length;
+              }
+
+              @Override
+              public Entry<AnnotationFS, List<AnnotationFS>> next() {
+                if (!hasNext()) {
+                  throw new NoSuchElementException();
+                }
+                Entry<AnnotationFS, List<AnnotationFS>> e = new SimpleImmutableEntry<>(keys[k],
+                        new Segment(values, start[k], start[k + 1], valueFSes));
+                k = skipEmpty(k + 1);
+                return e;
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            return entrySetSize;
+          }
+        };
+      }
+      return entrySet;
+    }
+  }
+
+  /**
+   * An unmodifiable list view on a range of the pairs.
+   */
+  private static final class Segment extends AbstractList<AnnotationFS> implements RandomAccess {
+    private final int[] values;
+
+    private final int from;
+
+    private final int to;
+
+    private final AnnotationFS[] valueFSes;
+
+    Segment(int[] aValues, int aFrom, int aTo, AnnotationFS[] aValueFSes) {
+      values = aValues;
+      from = aFrom;
+      to = aTo;
+      valueFSes = aValueFSes;
+    }
+
+    @Override
+    public AnnotationFS get(int aIndex) {
+      if (aIndex < 0 || aIndex >= to - from) {
+        throw new IndexOutOfBoundsException(aIndex);
+      }
+      return valueFSes[values[from + aIndex]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+}
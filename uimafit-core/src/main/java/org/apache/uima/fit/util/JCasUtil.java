@@ -397,7 +397,9 @@ public final class JCasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}, or enable the
+   * interval index on annotation indexes (see
+   * {@link org.apache.uima.cas.impl.FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param <T>
    *          the JCas type.
@@ -426,7 +428,9 @@ public final class JCasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}, or enable the
+   * interval index on annotation indexes (see
+   * {@link org.apache.uima.cas.impl.FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param <T>
    *          the JCas type.
@@ -455,7 +459,9 @@ public final class JCasUtil {
    * 
    * <p>
    * <b>Note:</b> this is <b>REALLY SLOW!</b> You don't want to use this. Instead, consider using
-   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}.
+   * {@link #indexCovering(JCas, Class, Class)} or a {@link ContainmentIndex}, or enable the
+   * interval index on annotation indexes (see
+   * {@link org.apache.uima.cas.impl.FsIndex_annotation#ENABLE_INTERVAL_INDEX}).
    * 
    * @param <T>
    *          the JCas type.
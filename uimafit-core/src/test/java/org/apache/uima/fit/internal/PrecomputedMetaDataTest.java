@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.uima.fit.factory.FsIndexFactory;
+import org.apache.uima.fit.factory.TypePrioritiesFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrecomputedMetaDataTest {
+
+  @TempDir
+  Path dir;
+
+  @AfterEach
+  void tearDown() {
+    PrecomputedMetaData.forget();
+  }
+
+  @Test
+  void thatFactoriesUsePrecomputedMetaData() throws Exception {
+    var parent = getClass().getClassLoader();
+    var data = PrecomputedMetaData.compute(parent);
+    assertThat(data.getTypeSystem().getTypes()).isNotEmpty();
+    assertThat(data.getFsIndexes().getFsIndexes()).isNotEmpty();
+    assertThat(data.getTypePriorities().getPriorityLists()).isNotEmpty();
+
+    var file = dir.resolve(PrecomputedMetaData.LOCATION);
+    Files.createDirectories(file.getParent());
+    try (var os = Files.newOutputStream(file)) {
+      data.write(os);
+    }
+
+    try (var cl = new URLClassLoader(new URL[] { dir.toUri().toURL() }, parent)) {
+      var precomputed = PrecomputedMetaData.get(cl);
+      assertThat(precomputed).isNotNull();
+      assertThat(precomputed.getFingerprint()).isEqualTo(data.getFingerprint());
+
+      var thread = Thread.currentThread();
+      var oldClassLoader = thread.getContextClassLoader();
+      try {
+        thread.setContextClassLoader(cl);
+        assertThat(TypeSystemDescriptionFactory.createTypeSystemDescription().getTypes())
+                .extracting(TypeDescription::getName) //
+                .containsExactly(names(data.getTypeSystem().getTypes()));
+        assertThat(FsIndexFactory.createFsIndexCollection().getFsIndexes())
+                .hasSameSizeAs(data.getFsIndexes().getFsIndexes());
+        assertThat(TypePrioritiesFactory.createTypePriorities().getPriorityLists())
+                .hasSameSizeAs(data.getTypePriorities().getPriorityLists());
+      } finally {
+        thread.setContextClassLoader(oldClassLoader);
+        TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+        FsIndexFactory.forceIndexDescriptorsScan();
+        TypePrioritiesFactory.forceTypePrioritiesDescriptorsScan();
+      }
+    }
+  }
+
+  @Test
+  void thatPrecomputedMetaDataIsIgnoredWhenManifestsChange() throws Exception {
+    var parent = getClass().getClassLoader();
+    var data = PrecomputedMetaData.compute(parent);
+
+    var file = dir.resolve(PrecomputedMetaData.LOCATION);
+    Files.createDirectories(file.getParent());
+    try (var os = Files.newOutputStream(file)) {
+      data.write(os);
+    }
+    Files.write(file.resolveSibling("types.txt"),
+            "classpath*:org/example/**/*.xml".getBytes(UTF_8));
+
+    try (var cl = new URLClassLoader(new URL[] { dir.toUri().toURL() }, parent)) {
+      assertThat(PrecomputedMetaData.fingerprint(cl)).isNotEqualTo(data.getFingerprint());
+      assertThat(PrecomputedMetaData.get(cl)).isNull();
+    }
+  }
+
+  @Test
+  void thatPrecomputedMetaDataIsIgnoredWhenDescriptorsChange() throws Exception {
+    var parent = getClass().getClassLoader();
+    var classes = dir.resolve("classes");
+    var manifest = classes.resolve("META-INF/org.apache.uima.fit/types.txt");
+    var descriptor = classes.resolve("org/example/Types.xml");
+    Files.createDirectories(manifest.getParent());
+    Files.createDirectories(descriptor.getParent());
+    Files.write(manifest, "classpath*:org/example/**/*.xml".getBytes(UTF_8));
+    Files.write(descriptor, "<typeSystemDescription/>".getBytes(UTF_8));
+
+    String fingerprint;
+    try (var cl = new URLClassLoader(new URL[] { classes.toUri().toURL() }, parent)) {
+      fingerprint = PrecomputedMetaData.fingerprint(cl);
+    }
+
+    var jar = dir.resolve("example.jar");
+    try (var os = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (var file : new Path[] { manifest, descriptor }) {
+        os.putNextEntry(new ZipEntry(classes.relativize(file).toString().replace('\\', '/')));
+        os.write(Files.readAllBytes(file));
+        os.closeEntry();
+      }
+    }
+    try (var cl = new URLClassLoader(new URL[] { jar.toUri().toURL() }, parent)) {
+      assertThat(PrecomputedMetaData.fingerprint(cl)).isEqualTo(fingerprint);
+    }
+
+    Files.write(descriptor, "<typeSystemDescription></typeSystemDescription>".getBytes(UTF_8));
+    try (var cl = new URLClassLoader(new URL[] { classes.toUri().toURL() }, parent)) {
+      assertThat(PrecomputedMetaData.fingerprint(cl)).isNotEqualTo(fingerprint);
+    }
+  }
+
+  @Test
+  void thatUnexpectedClassesAreNotDeserialized() throws Exception {
+    var parent = getClass().getClassLoader();
+
+    var file = dir.resolve(PrecomputedMetaData.LOCATION);
+    Files.createDirectories(file.getParent());
+    try (var cl = new URLClassLoader(new URL[] { dir.toUri().toURL() }, parent)) {
+      try (var os = new ObjectOutputStream(Files.newOutputStream(file))) {
+        os.writeUTF(PrecomputedMetaData.fingerprint(cl));
+        os.writeObject(new Probe());
+      }
+
+      assertThat(PrecomputedMetaData.get(cl)).isNull();
+      assertThat(Probe.deserialized).isFalse();
+    }
+  }
+
+  static class Probe implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static boolean deserialized;
+
+    private void readObject(ObjectInputStream aIn) {
+      deserialized = true;
+    }
+  }
+
+  private static String[] names(TypeDescription[] aTypes) {
+    var names = new String[aTypes.length];
+    for (int i = 0; i < aTypes.length; i++) {
+      names[i] = aTypes[i].getName();
+    }
+    return names;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelPipelineTest {
+
+  private static final int DOCUMENTS = 200;
+
+  public static class Reader extends JCasCollectionReader_ImplBase {
+    private int current = 0;
+
+    @Override
+    public Progress[] getProgress() {
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return current < DOCUMENTS;
+    }
+
+    @Override
+    public void getNext(JCas aJCas) {
+      aJCas.setDocumentText("document " + current);
+      current++;
+    }
+  }
+
+  public static class Annotator extends JCasAnnotator_ImplBase {
+    static final Set<Thread> THREADS = ConcurrentHashMap.newKeySet();
+
+    static final AtomicInteger PROCESSED = new AtomicInteger();
+
+    static final AtomicInteger COMPLETED = new AtomicInteger();
+
+    public static final String PARAM_FAIL_AT = "failAt";
+    @ConfigurationParameter(name = PARAM_FAIL_AT, defaultValue = "-1")
+    private int failAt;
+
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      THREADS.add(Thread.currentThread());
+      if (aJCas.getDocumentText().equals("document " + failAt)) {
+        throw new AnalysisEngineProcessException(new IllegalStateException("fail"));
+      }
+      try {
+        Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+      } catch (InterruptedException e) {
+        throw new AnalysisEngineProcessException(e);
+      }
+      PROCESSED.incrementAndGet();
+    }
+
+    @Override
+    public void collectionProcessComplete() {
+      COMPLETED.incrementAndGet();
+    }
+  }
+
+  public static class Writer extends JCasAnnotator_ImplBase {
+    static final List<String> DOCUMENTS_SEEN = new ArrayList<>();
+
+    static int completed;
+
+    @Override
+    public void process(JCas aJCas) {
+      DOCUMENTS_SEEN.add(aJCas.getDocumentText());
+    }
+
+    @Override
+    public void collectionProcessComplete() {
+      completed++;
+    }
+  }
+
+  @BeforeEach
+  void setup() {
+    Annotator.THREADS.clear();
+    Annotator.PROCESSED.set(0);
+    Annotator.COMPLETED.set(0);
+    Writer.DOCUMENTS_SEEN.clear();
+    Writer.completed = 0;
+  }
+
+  @Test
+  void thatAllDocumentsAreProcessed() throws Exception {
+    ParallelPipeline.runPipeline(4, createReaderDescription(Reader.class),
+            createEngineDescription(Annotator.class));
+
+    assertThat(Annotator.PROCESSED).hasValue(DOCUMENTS);
+    assertThat(Annotator.THREADS).hasSizeGreaterThan(1).hasSizeLessThanOrEqualTo(4);
+    assertThat(Annotator.COMPLETED).hasValue(4);
+  }
+
+  @Test
+  void thatConsumerSeesDocumentsInReaderOrder() throws Exception {
+    ParallelPipeline.runPipeline(Thread.ofVirtual().factory(), 8,
+            createReaderDescription(Reader.class), createEngineDescription(Annotator.class),
+            createEngineDescription(Writer.class));
+
+    var expected = new ArrayList<String>();
+    for (int i = 0; i < DOCUMENTS; i++) {
+      expected.add("document " + i);
+    }
+    assertThat(Writer.DOCUMENTS_SEEN).containsExactlyElementsOf(expected);
+    assertThat(Annotator.COMPLETED).hasValue(8);
+    assertThat(Writer.completed).isEqualTo(1);
+  }
+
+  @Test
+  void thatFailureIsPropagatedAndCollectionIsNotCompleted() {
+    assertThatExceptionOfType(AnalysisEngineProcessException.class)
+            .isThrownBy(() -> ParallelPipeline.runPipeline(4,
+                    createReaderDescription(Reader.class),
+                    createEngineDescription(Annotator.class, Annotator.PARAM_FAIL_AT, 50),
+                    createEngineDescription(Writer.class)));
+
+    assertThat(Writer.DOCUMENTS_SEEN).hasSizeLessThanOrEqualTo(50);
+    assertThat(Annotator.COMPLETED).hasValue(0);
+    assertThat(Writer.completed).isZero();
+  }
+}
@@ -37,6 +37,7 @@ import static org.apache.uima.fit.util.AnnotationPredicateTestData.RelativePosit
 import static org.apache.uima.fit.util.CasUtil.exists;
 import static org.apache.uima.fit.util.CasUtil.getAnnotationType;
 import static org.apache.uima.fit.util.CasUtil.getType;
+import static org.apache.uima.fit.util.CasUtil.indexCovering;
 import static org.apache.uima.fit.util.CasUtil.iterator;
 import static org.apache.uima.fit.util.CasUtil.iteratorFS;
 import static org.apache.uima.fit.util.CasUtil.select;
@@ -60,6 +61,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.ArrayFS;
@@ -318,6 +321,30 @@ public class CasUtilTest extends ComponentTestBase {
             (cas, type, context) -> selectAt(cas, type, context.getBegin(), context.getEnd()));
   }
 
+  @Test
+  public void thatIndexCoveringAlignsWithSelectCoveredOnRandomData() throws Exception {
+    CAS cas = CasCreationUtils.createCas(createTypeSystemDescription(), null, null);
+    Type type = cas.getAnnotationType();
+    Random rnd = new Random(1);
+    for (int i = 0; i < 300; i++) {
+      int begin = rnd.nextInt(50);
+      cas.addFsToIndexes(cas.createAnnotation(type, begin, begin + rnd.nextInt(8)));
+    }
+
+    Map<AnnotationFS, List<AnnotationFS>> index = indexCovering(cas, type, type);
+
+    for (AnnotationFS covered : select(cas, type)) {
+      List<AnnotationFS> expected = new ArrayList<>();
+      for (AnnotationFS covering : select(cas, type)) {
+        if (selectCovered(cas, type, covering).contains(covered)) {
+          expected.add(covering);
+        }
+      }
+      assertEquals(expected, index.get(covered));
+      assertEquals(!expected.isEmpty(), index.containsKey(covered));
+    }
+  }
+
   @SafeVarargs
   public static <T> List<T> union(List<T>... aLists) {
     List<T> all = new ArrayList<>();
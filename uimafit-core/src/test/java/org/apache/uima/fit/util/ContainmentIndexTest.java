@@ -28,11 +28,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.fit.ComponentTestBase;
 import org.apache.uima.fit.type.Sentence;
 import org.apache.uima.fit.type.Token;
 import org.apache.uima.fit.util.ContainmentIndex.Type;
+import org.apache.uima.util.CasCreationUtils;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -66,4 +70,36 @@ public class ContainmentIndexTest extends ComponentTestBase {
     idx = ContainmentIndex.create(jCas, Sentence.class, Token.class, Type.BOTH);
     assertFalse(idx.isContainedInAny(tokens.get(0)));
   }
+
+  @Test
+  public void thatIndexAlignsWithSelectCoveredOnRandomData() throws Exception {
+    CAS cas = CasCreationUtils.createCas(typeSystemDescription, null, null);
+    org.apache.uima.cas.Type type = cas.getAnnotationType();
+    Random rnd = new Random(1);
+    for (int i = 0; i < 300; i++) {
+      int begin = rnd.nextInt(50);
+      cas.addFsToIndexes(cas.createAnnotation(type, begin, begin + rnd.nextInt(8)));
+    }
+
+    ContainmentIndex<AnnotationFS, AnnotationFS> idx = ContainmentIndex.create(cas, type, type,
+            Type.BOTH);
+
+    for (AnnotationFS covering : CasUtil.select(cas, type)) {
+      List<AnnotationFS> expected = CasUtil.selectCovered(cas, type, covering);
+      assertEquals(expected, new ArrayList<>(idx.containedIn(covering)));
+      for (AnnotationFS covered : CasUtil.select(cas, type)) {
+        assertEquals(expected.contains(covered), idx.isContainedIn(covering, covered));
+      }
+    }
+
+    for (AnnotationFS covered : CasUtil.select(cas, type)) {
+      List<AnnotationFS> expected = new ArrayList<>();
+      for (AnnotationFS covering : CasUtil.select(cas, type)) {
+        if (CasUtil.selectCovered(cas, type, covering).contains(covered)) {
+          expected.add(covering);
+        }
+      }
+      assertEquals(expected, new ArrayList<>(idx.containing(covered)));
+    }
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.maven;
+
+import static org.apache.maven.plugins.annotations.LifecyclePhase.PROCESS_CLASSES;
+import static org.apache.maven.plugins.annotations.ResolutionScope.TEST;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.uima.fit.internal.PrecomputedMetaData;
+import org.apache.uima.fit.maven.util.Util;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+/**
+ * Resolve and merge the type system, indexes and type priorities which uimaFIT detects on the
+ * classpath and store them in {@code META-INF/org.apache.uima.fit/precomputed.ser}. At runtime,
+ * uimaFIT uses this file instead of scanning the classpath as long as the uimaFIT manifests, the SPI
+ * registrations and the descriptors next to them on the classpath are the same as during the build.
+ */
+@Mojo( //
+        name = "precompute-metadata", //
+        defaultPhase = PROCESS_CLASSES, //
+        requiresDependencyResolution = TEST, //
+        requiresDependencyCollection = TEST, //
+        threadSafe = true)
+public class PrecomputeMetaDataMojo extends AbstractMojo {
+  @Parameter(defaultValue = "${project}", readonly = true)
+  private MavenProject project;
+
+  @Component
+  private BuildContext buildContext;
+
+  /**
+   * Path where the precomputed meta data is written.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/classes", required = true)
+  private File outputDirectory;
+
+  /**
+   * Skip plugin execution.
+   */
+  @Parameter(property = "uima-precompute.skip", defaultValue = "false", required = true)
+  private boolean skip;
+
+  /**
+   * Skip plugin execution only during incremental builds (e.g. triggered from m2e).
+   */
+  @Parameter(defaultValue = "false", required = true)
+  private boolean skipDuringIncrementalBuilds;
+
+  /**
+   * Scope threshold to include. The default is "runtime" (which implies compile and runtime
+   * dependencies) and should match the classpath the meta data is used with.
+   */
+  @Parameter(defaultValue = "runtime", required = true)
+  private String includeScope;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (isSkipped()) {
+      return;
+    }
+
+    var out = new File(outputDirectory, PrecomputedMetaData.LOCATION);
+
+    // Remove the output of a previous build so it does not end up in the scan
+    if (out.exists() && !out.delete()) {
+      throw new MojoExecutionException("Cannot delete [" + out + "]");
+    }
+
+    try (var componentLoader = Util.getClassloader(project, includeScope)) {
+      var data = PrecomputedMetaData.compute(componentLoader);
+
+      out.getParentFile().mkdirs();
+      try (var os = new FileOutputStream(out)) {
+        data.write(os);
+      }
+      buildContext.refresh(out);
+
+      getLog().info("Precomputed meta data with " + data.getTypeSystem().getTypes().length
+              + " types, " + data.getFsIndexes().getFsIndexes().length + " indexes and "
+              + data.getTypePriorities().getPriorityLists().length
+              + " type priority lists written to [" + out + "]");
+    } catch (ResourceInitializationException e) {
+      throw new MojoExecutionException(
+              "Cannot precompute meta data: " + ExceptionUtils.getRootCauseMessage(e), e);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Cannot write precomputed meta data to [" + out + "]: "
+              + ExceptionUtils.getRootCauseMessage(e), e);
+    }
+  }
+
+  private boolean isSkipped() {
+    if (skipDuringIncrementalBuilds && buildContext.isIncremental()) {
+      getLog().info("Precomputing uimaFIT meta data skipped in incremental build.");
+      return true;
+    }
+
+    if (skip) {
+      getLog().info("Precomputing uimaFIT meta data skipped.");
+      return true;
+    }
+
+    return false;
+  }
+}
@@ -313,8 +313,13 @@ public class VinciAnalysisEngineService_impl extends VinciServableAdapter {
       System.out.println("VinciAnalysisEngineService_impl: Starting Server with Socket Timeout:"
               + descriptor.getServerSocketTimeout());
       _server.setSocketTimeout(descriptor.getServerSocketTimeout());
-      _server.setThreadPoolSize(descriptor.getThreadPoolMinSize(),
-              descriptor.getThreadPoolMaxSize());
+      if (descriptor.isVirtualThreads()) {
+        _server.setConnectionThreadFactory(
+                Thread.ofVirtual().name("VinciConnection#", 0).factory());
+      } else {
+        _server.setThreadPoolSize(descriptor.getThreadPoolMinSize(),
+                descriptor.getThreadPoolMaxSize());
+      }
 
       _server.serve();
     } catch (ServiceDownException e) {
@@ -453,7 +458,7 @@ public class VinciAnalysisEngineService_impl extends VinciServableAdapter {
    * @see org.apache.vinci.transport.TransportableFactory#makeTransportable()
    */
   @Override
-  public synchronized Transportable makeTransportable() {
+  public Transportable makeTransportable() {
     return new CASTransportable(mCasPool, new OutOfTypeSystemData(), null, false);
   }
 }
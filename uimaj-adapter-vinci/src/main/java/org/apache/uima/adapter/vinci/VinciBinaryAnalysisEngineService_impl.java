@@ -337,8 +337,13 @@ public class VinciBinaryAnalysisEngineService_impl extends VinciServableAdapter
               .println("VinciBinaryAnalysisEngineService_impl: Starting Server with Socket Timeout:"
                       + descriptor.getServerSocketTimeout());
       _server.setSocketTimeout(descriptor.getServerSocketTimeout());
-      _server.setThreadPoolSize(descriptor.getThreadPoolMinSize(),
-              descriptor.getThreadPoolMaxSize());
+      if (descriptor.isVirtualThreads()) {
+        _server.setConnectionThreadFactory(
+                Thread.ofVirtual().name("VinciConnection#", 0).factory());
+      } else {
+        _server.setThreadPoolSize(descriptor.getThreadPoolMinSize(),
+                descriptor.getThreadPoolMaxSize());
+      }
       _server.serve();
     } catch (ServiceDownException e) {
       UIMAFramework.getLogger().log(Level.SEVERE, e.getMessage());
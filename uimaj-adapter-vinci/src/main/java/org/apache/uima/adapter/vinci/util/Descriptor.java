@@ -63,6 +63,9 @@ public class Descriptor extends DefaultHandler {
   /** The thread pool max size. */
   private int threadPoolMaxSize = 20;
 
+  /** Whether to serve each connection in its own virtual thread instead of the thread pool. */
+  private boolean virtualThreads = false;
+
   /**
    * Constructor responsible for parsing the descriptor file named in filePath.
    * 
@@ -101,6 +104,7 @@ public class Descriptor extends DefaultHandler {
       UIMAFramework.getLogger().log(Level.CONFIG, "Naming Service Host::" + getNamingServiceHost());
       UIMAFramework.getLogger().log(Level.CONFIG,
               "Server Socket Timeout::" + getServerSocketTimeout());
+      UIMAFramework.getLogger().log(Level.CONFIG, "Virtual Threads::" + isVirtualThreads());
 
     } catch (Exception ex) {
       ex.printStackTrace();
@@ -197,6 +201,8 @@ public class Descriptor extends DefaultHandler {
         } catch (NumberFormatException nbe) {
           setThreadPoolMaxSize(20);
         }
+      } else if ("virtualThreads".equals(att)) {
+        setVirtualThreads(Boolean.parseBoolean(value));
       }
     }
     // if none of the above, it is an unexpected element. we ignore these for now
@@ -240,6 +246,25 @@ public class Descriptor extends DefaultHandler {
     this.threadPoolMinSize = threadPoolMinSize;
   }
 
+  /**
+   * Checks whether each connection is served in its own virtual thread.
+   *
+   * @return true if each connection is served in its own virtual thread
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Sets whether each connection is served in its own virtual thread.
+   *
+   * @param virtualThreads
+   *          true to serve each connection in its own virtual thread
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
   /**
    * Returns the instanceCount.
    * 
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.Serialization;
+import org.apache.uima.cas.impl.XmiCasDeserializer;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserializing the benchmark document from the compressed binary forms 4 (BinaryCasSerDes4) and
+ * 6 (BinaryCasSerDes6) and from XMI into an empty CAS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark extends DocumentState {
+
+  private CAS target;
+
+  private byte[] form4;
+
+  private byte[] form6;
+
+  private byte[] xmi;
+
+  @Override
+  protected void prepare() throws Exception {
+    target = createCas();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Serialization.serializeWithCompression(cas, out);
+    form4 = out.toByteArray();
+
+    out = new ByteArrayOutputStream();
+    Serialization.serializeWithCompression(cas, out, cas.getTypeSystem());
+    form6 = out.toByteArray();
+
+    out = new ByteArrayOutputStream();
+    XmiCasSerializer.serialize(cas, out);
+    xmi = out.toByteArray();
+  }
+
+  @Setup(Level.Invocation)
+  public void resetTarget() {
+    target.reset();
+  }
+
+  @Benchmark
+  public CAS deserializeForm4() {
+    Serialization.deserializeCAS(target, new ByteArrayInputStream(form4));
+    return target;
+  }
+
+  @Benchmark
+  public CAS deserializeForm6() {
+    Serialization.deserializeCAS(target, new ByteArrayInputStream(form6));
+    return target;
+  }
+
+  @Benchmark
+  public CAS deserializeXmi() throws Exception {
+    XmiCasDeserializer.deserialize(new ByteArrayInputStream(xmi), target);
+    return target;
+  }
+}
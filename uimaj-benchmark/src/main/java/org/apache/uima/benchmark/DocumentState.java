@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Common state of the benchmarks: a CAS holding a document of {@link #documentSize} tokens, grouped
+ * into sentences of {@link #TOKENS_PER_SENTENCE} tokens. The document is built once per trial and
+ * is identical for all runs, so results of different runs can be compared.
+ */
+@State(Scope.Benchmark)
+public class DocumentState {
+
+  public static final String TYPE_NAME_TOKEN = "org.apache.uima.benchmark.Token";
+
+  public static final String TYPE_NAME_SENTENCE = "org.apache.uima.benchmark.Sentence";
+
+  public static final int TOKENS_PER_SENTENCE = 20;
+
+  private static final String WORD = "lorem";
+
+  /** The number of tokens in the document */
+  @Param({ "1000", "10000", "100000" })
+  public int documentSize;
+
+  public CAS cas;
+
+  public Type tokenType;
+
+  public Type sentenceType;
+
+  public Annotation[] tokens;
+
+  public Annotation[] sentences;
+
+  /** Tokens picked at random, with a fixed seed, for benchmarks which do point lookups */
+  public Annotation[] probes;
+
+  @Setup(Level.Trial)
+  public final void setupDocument() throws Exception {
+    cas = createCas();
+    fill(cas, documentSize);
+    tokenType = cas.getTypeSystem().getType(TYPE_NAME_TOKEN);
+    sentenceType = cas.getTypeSystem().getType(TYPE_NAME_SENTENCE);
+    tokens = cas.<Annotation> select(tokenType).asArray(Annotation.class);
+    sentences = cas.<Annotation> select(sentenceType).asArray(Annotation.class);
+
+    Random rnd = new Random(42);
+    probes = new Annotation[Math.min(1000, tokens.length)];
+    for (int i = 0; i < probes.length; i++) {
+      probes[i] = tokens[rnd.nextInt(tokens.length)];
+    }
+
+    prepare();
+  }
+
+  /**
+   * Called after the document has been set up; override to set up additional state.
+   * 
+   * @throws Exception
+   *           if the setup fails
+   */
+  protected void prepare() throws Exception {
+    // nothing by default
+  }
+
+  /**
+   * @return a new empty CAS with the benchmark type system
+   * @throws ResourceInitializationException
+   *           if the CAS cannot be created
+   */
+  public static CAS createCas() throws ResourceInitializationException {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+    tsd.addType(TYPE_NAME_TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    tsd.addType(TYPE_NAME_SENTENCE, "", CAS.TYPE_NAME_ANNOTATION);
+    return CasCreationUtils.createCas(tsd, null, null);
+  }
+
+  /**
+   * Sets the document text of the given CAS and adds the token and sentence annotations to its
+   * indexes.
+   * 
+   * @param aCas
+   *          an empty CAS created by {@link #createCas()}
+   * @param aDocumentSize
+   *          the number of tokens
+   */
+  public static void fill(CAS aCas, int aDocumentSize) {
+    Type token = aCas.getTypeSystem().getType(TYPE_NAME_TOKEN);
+    Type sentence = aCas.getTypeSystem().getType(TYPE_NAME_SENTENCE);
+
+    int wordLength = WORD.length() + 1;
+    StringBuilder text = new StringBuilder(aDocumentSize * wordLength);
+    for (int i = 0; i < aDocumentSize; i++) {
+      text.append(WORD).append(' ');
+    }
+    aCas.setDocumentText(text.toString());
+
+    for (int i = 0; i < aDocumentSize; i++) {
+      int begin = i * wordLength;
+      aCas.addFsToIndexes(aCas.createAnnotation(token, begin, begin + WORD.length()));
+    }
+    for (int first = 0; first < aDocumentSize; first += TOKENS_PER_SENTENCE) {
+      int last = Math.min(first + TOKENS_PER_SENTENCE, aDocumentSize) - 1;
+      int end = last * wordLength + WORD.length();
+      aCas.addFsToIndexes(aCas.createAnnotation(sentence, first * wordLength, end));
+    }
+  }
+}
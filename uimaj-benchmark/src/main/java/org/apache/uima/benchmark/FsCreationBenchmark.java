@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating feature structures through the CAS, which goes through the generated FsGenerator3 of
+ * the type, with and without adding them to the indexes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsCreationBenchmark extends DocumentState {
+
+  private CAS target;
+
+  @Override
+  protected void prepare() throws Exception {
+    target = createCas();
+  }
+
+  @Setup(Level.Invocation)
+  public void resetTarget() {
+    target.reset();
+  }
+
+  @Benchmark
+  public AnnotationFS createAnnotations() {
+    AnnotationFS last = null;
+    for (AnnotationFS token : tokens) {
+      last = target.createAnnotation(tokenType, token.getBegin(), token.getEnd());
+    }
+    return last;
+  }
+
+  @Benchmark
+  public AnnotationFS createAndIndexAnnotations() {
+    AnnotationFS last = null;
+    for (AnnotationFS token : tokens) {
+      last = target.createAnnotation(tokenType, token.getBegin(), token.getEnd());
+      target.addFsToIndexes(last);
+    }
+    return last;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding feature structures to and removing them from the indexes of the FSIndexRepositoryImpl.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexRepositoryBenchmark extends DocumentState {
+
+  private CAS target;
+
+  private Annotation[] annotations;
+
+  @Override
+  protected void prepare() throws Exception {
+    target = createCas();
+    annotations = new Annotation[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      annotations[i] = (Annotation) target.createAnnotation(tokenType, tokens[i].getBegin(),
+              tokens[i].getEnd());
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void clearIndexes() {
+    target.getIndexRepository().removeAllIncludingSubtypes(tokenType);
+  }
+
+  @Benchmark
+  public int addToIndexes() {
+    for (Annotation a : annotations) {
+      target.addFsToIndexes(a);
+    }
+    return target.getAnnotationIndex(tokenType).size();
+  }
+
+  @Benchmark
+  public int addToAndRemoveFromIndexes() {
+    for (Annotation a : annotations) {
+      target.addFsToIndexes(a);
+    }
+    for (Annotation a : annotations) {
+      target.removeFsFromIndexes(a);
+    }
+    return target.getAnnotationIndex(tokenType).size();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterating over a single type sorted index (FsIterator_set_sorted2), sequentially and by moveTo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IteratorBenchmark extends DocumentState {
+
+  @Benchmark
+  public void iterateForward(Blackhole bh) {
+    FSIterator<Annotation> it = cas.<Annotation> getAnnotationIndex(tokenType).iterator();
+    for (it.moveToFirst(); it.isValid(); it.moveToNext()) {
+      bh.consume(it.get());
+    }
+  }
+
+  @Benchmark
+  public void iterateBackward(Blackhole bh) {
+    FSIterator<Annotation> it = cas.<Annotation> getAnnotationIndex(tokenType).iterator();
+    for (it.moveToLast(); it.isValid(); it.moveToPrevious()) {
+      bh.consume(it.get());
+    }
+  }
+
+  @Benchmark
+  public void moveTo(Blackhole bh) {
+    FSIterator<Annotation> it = cas.<Annotation> getAnnotationIndex(tokenType).iterator();
+    for (Annotation probe : probes) {
+      it.moveTo(probe);
+      bh.consume(it.get());
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Bounded selects (SelectFSs_impl) as typically used by annotators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectBenchmark extends DocumentState {
+
+  @Benchmark
+  public void selectCoveredBy(Blackhole bh) {
+    for (Annotation sentence : sentences) {
+      cas.<Annotation> select(tokenType).coveredBy(sentence).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCovering(Blackhole bh) {
+    for (Annotation probe : probes) {
+      cas.<Annotation> select(sentenceType).covering(probe).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectFollowing(Blackhole bh) {
+    for (Annotation probe : probes) {
+      cas.<Annotation> select(tokenType).following(probe).limit(10).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectPreceding(Blackhole bh) {
+    for (Annotation probe : probes) {
+      cas.<Annotation> select(tokenType).preceding(probe).limit(10).forEach(bh::consume);
+    }
+  }
+}
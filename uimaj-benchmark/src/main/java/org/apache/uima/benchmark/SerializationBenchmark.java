@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.impl.Serialization;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.json.JsonCasSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializing the benchmark document in the compressed binary forms 4 (BinaryCasSerDes4) and 6
+ * (BinaryCasSerDes6), as XMI and as JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark extends DocumentState {
+
+  @Benchmark
+  public int serializeForm4() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Serialization.serializeWithCompression(cas, out);
+    return out.size();
+  }
+
+  @Benchmark
+  public int serializeForm6() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Serialization.serializeWithCompression(cas, out, cas.getTypeSystem());
+    return out.size();
+  }
+
+  @Benchmark
+  public int serializeXmi() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    XmiCasSerializer.serialize(cas, out);
+    return out.size();
+  }
+
+  @Benchmark
+  public int serializeJson() throws Exception {
+    StringWriter out = new StringWriter();
+    JsonCasSerializer.jsonSerialize(cas, out);
+    return out.getBuffer().length();
+  }
+}
@@ -187,6 +187,28 @@ public interface AnalysisEngine extends ConfigurableResource, CasObjectProcessor
    */
   String PARAM_THROTTLE_EXCESSIVE_ANNOTATOR_LOGGING = "PARAM_THROTTLE_EXCESSIVE_ANNOTATOR_LOGGING";
 
+  /**
+   * Key for the initialization parameter whose value is a {@link java.util.concurrent.Executor}
+   * which an aggregate AnalysisEngine uses to run the delegates named in a
+   * {@link org.apache.uima.flow.ParallelStep} concurrently. If this is not set, the delegates of a
+   * ParallelStep are run one after another.
+   * <p>
+   * Delegates are only run concurrently if their declared capabilities show that they are
+   * independent of each other: none of them may be a CAS Multiplier, each must declare at least one
+   * output, and no delegate may output a type (or a sub- or supertype of it) or a Sofa which
+   * another delegate of the same step takes as input or produces as output. Each delegate then
+   * processes its own copy of the CAS, and the Feature Structures of its declared output types are
+   * merged back into the CAS in the order in which the delegates are listed in the step. Steps
+   * which do not meet these conditions are run sequentially as usual.
+   * <p>
+   * The executor is used by the aggregate it is passed to only; it is not passed on to nested
+   * aggregates.
+   * <p>
+   * This value is used as a key in the <code>aAdditionalParams</code> Map that is passed to the
+   * {@link #initialize(ResourceSpecifier,Map)} method.
+   */
+  String PARAM_PARALLEL_STEP_EXECUTOR = "PARALLEL_STEP_EXECUTOR";
+
   String MDC_ANNOTATOR_IMPL_NAME = "uima_annotator";
   String MDC_ANNOTATOR_CONTEXT_NAME = "uima_annotator_context_name";
   String MDC_ROOT_CONTEXT_ID = "uima_root_context_id";
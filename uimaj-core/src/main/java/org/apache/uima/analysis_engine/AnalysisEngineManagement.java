@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.resource.ManagementObject;
+import org.apache.uima.util.Histogram;
 
 /**
  * Monitoring and management interface to an AnalysisEngine. An application can obtain an instance
@@ -96,6 +97,62 @@ public interface AnalysisEngineManagement extends ManagementObject {
    */
   String getCASesPerSecond();
 
+  /**
+   * Gets the distribution of the durations of calls to the process methods of this AnalysisEngine.
+   * Unlike {@link #getAnalysisTime()}, this does not include the time spent in the CasIterator
+   * returned from the processAndOutputNewCASes method. For an Aggregate AnalysisEngine, the
+   * durations of its components are available from their own AnalysisEngineManagement objects, see
+   * {@link #getComponents()}.
+   * 
+   * @return the process time histogram, in nanoseconds
+   */
+  default Histogram getProcessTimeHistogram() {
+    return new Histogram();
+  }
+
+  /**
+   * Gets the distribution of the sizes of the CASes passed to the process methods of this
+   * AnalysisEngine. The size is the number of Feature Structure ids the CAS had used when it was
+   * passed in.
+   * 
+   * @return the CAS size histogram
+   */
+  default Histogram getCasSizeAtEntryHistogram() {
+    return new Histogram();
+  }
+
+  /**
+   * Gets the distribution of the time this AnalysisEngine waited for a pooled resource: an empty
+   * CAS requested by a CAS Multiplier, or a free instance in a multiprocessing AnalysisEngine.
+   * 
+   * @return the wait time histogram, in nanoseconds
+   */
+  default Histogram getWaitTimeHistogram() {
+    return new Histogram();
+  }
+
+  /**
+   * Gets the total number of Feature Structures created in the input CASes while this
+   * AnalysisEngine processed them.
+   * 
+   * @return the number of Feature Structures created
+   */
+  default long getNumberOfFeatureStructuresCreated() {
+    return 0;
+  }
+
+  /**
+   * Gets the number of Feature Structures created in the input CASes by this AnalysisEngine, by
+   * type name. These are only collected for primitive AnalysisEngines, if the JVM property
+   * <code>uima.enable_fs_creation_metrics</code> is set.
+   * 
+   * @return a map from type names to the number of Feature Structures of that type created, empty
+   *         if not collected
+   */
+  default Map<String, Long> getFeatureStructuresCreatedByType() {
+    return Map.of();
+  }
+
   /**
    * For an Aggregate AnalysisEngine, gets a Map whose values are AnalysisEngineManagement objects
    * that contain the statistics for the components of the aggregate. The keys in the Map are the
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
 
 import org.apache.uima.ResourceFactory;
 import org.apache.uima.UIMAFramework;
@@ -48,6 +49,7 @@ import org.apache.uima.analysis_engine.metadata.FlowControllerDeclaration;
 import org.apache.uima.analysis_engine.metadata.SofaMapping;
 import org.apache.uima.analysis_engine.metadata.impl.AnalysisEngineMetaData_impl;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.CASImpl;
 import org.apache.uima.flow.FinalStep;
 import org.apache.uima.flow.FlowControllerContext;
 import org.apache.uima.flow.ParallelStep;
@@ -120,6 +122,17 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
    */
   private UimaContextAdmin mAggregateUimaContext;
 
+  /**
+   * Executor used to run the delegates of a ParallelStep concurrently. Null if ParallelSteps are
+   * run sequentially.
+   */
+  private Executor mParallelStepExecutor;
+
+  /**
+   * Runs the delegates of a ParallelStep concurrently. Null if no executor was configured.
+   */
+  private ParallelStepRunner mParallelStepRunner;
+
   /**
    * Initializes this ASB.
    * 
@@ -156,6 +169,10 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
     // if (mSofaMappings != null)
     // mInitParams.remove(mInitParams.get(Resource.PARAM_AGGREGATE_SOFA_MAPPINGS));
 
+    // the executor for ParallelSteps is only used by this aggregate, not by nested aggregates
+    mParallelStepExecutor = (Executor) mInitParams
+            .remove(AnalysisEngine.PARAM_PARALLEL_STEP_EXECUTOR);
+
     UIMAFramework.getLogger(CLASS_NAME).logrb(Level.CONFIG, CLASS_NAME.getName(), "initialize",
             LOG_RESOURCE_BUNDLE, "UIMA_asb_init_successful__CONFIG");
     return true;
@@ -273,6 +290,12 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
 
     mOutputNewCASes = aAggregateMetadata.getOperationalProperties().getOutputsNewCASes();
 
+    if (mParallelStepExecutor != null) {
+      mParallelStepRunner = new ParallelStepRunner(mParallelStepExecutor,
+              mComponentAnalysisEngineMap, mComponentAnalysisEngineMetaDataMap, mSofaMappings,
+              getResourceManager());
+    }
+
     // initialize the FlowController
     initFlowController(aFlowControllerDeclaration, aParentContext, aAggregateMetadata);
 
@@ -410,6 +433,8 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
      */
     public AggregateCasIterator(CAS inputCas) throws AnalysisEngineProcessException {
       timer.startIt();
+      long start = System.nanoTime();
+      getMBean().reportCasSizeAtEntry(((CASImpl) inputCas).getLastUsedFsId());
       try {
         mInputCas = inputCas;
         // compute the flow for this CAS
@@ -424,6 +449,7 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
       } finally {
         timer.stopIt();
         getMBean().reportAnalysisTime(timer.getDuration());
+        getMBean().reportProcessTimeNanos(System.nanoTime() - start);
       }
     }
 
@@ -624,7 +650,12 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
               }
             }
             // ParallelStep (TODO: refactor out common parts with SimpleStep?)
-            else if (nextStep instanceof ParallelStep) {
+            else if (nextStep instanceof ParallelStep parallelStep && mParallelStepRunner != null
+                    && mParallelStepRunner.canRunConcurrently(
+                            parallelStep.getAnalysisEngineKeys(), cas)) {
+              // run the destinations concurrently, each on its own copy of the CAS
+              mParallelStepRunner.run(parallelStep.getAnalysisEngineKeys(), cas, flow);
+            } else if (nextStep instanceof ParallelStep) {
               // create modifiable list of destinations
               List<String> destinations = new LinkedList<>(
                       ((ParallelStep) nextStep).getAnalysisEngineKeys());
@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.analysis_engine.asb.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.CasIterator;
+import org.apache.uima.analysis_engine.TypeOrFeature;
+import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
+import org.apache.uima.analysis_engine.metadata.SofaMapping;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.resource.CasDefinition;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.Capability;
+import org.apache.uima.util.CasCopier;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.Level;
+
+/**
+ * Runs the delegates named in a {@link org.apache.uima.flow.ParallelStep} concurrently on an
+ * {@link Executor}. Used by {@link ASB_impl} when an executor was passed using
+ * {@link AnalysisEngine#PARAM_PARALLEL_STEP_EXECUTOR}.
+ * <p>
+ * A CAS cannot be updated from several threads at once, so each delegate processes a private copy
+ * of the CAS. When all delegates have finished, the new Feature Structures of the types each
+ * delegate declares as outputs are copied back into the original CAS, one delegate after another
+ * in the order of the step, so the result does not depend on thread scheduling.
+ * <p>
+ * This is only done if the declared capabilities of the delegates show that they do not interfere
+ * with each other; see {@link #canRunConcurrently(Collection, CAS)}.
+ */
+class ParallelStepRunner {
+  /**
+   * resource bundle for log messages
+   */
+  private static final String LOG_RESOURCE_BUNDLE = "org.apache.uima.impl.log_messages";
+
+  /**
+   * current class
+   */
+  private static final Class<ParallelStepRunner> CLASS_NAME = ParallelStepRunner.class;
+
+  private final Executor mExecutor;
+
+  private final Map<String, AnalysisEngine> mComponentAnalysisEngineMap;
+
+  private final Map<String, AnalysisEngineMetaData> mComponentAnalysisEngineMetaDataMap;
+
+  private final SofaMapping[] mSofaMappings;
+
+  private final ResourceManager mResourceManager;
+
+  /**
+   * The type system the cached isolation checks were made against. The checks are redone when the
+   * type system of the CAS changes.
+   */
+  private TypeSystem mTypeSystem;
+
+  /**
+   * Map from the keys of a parallel step to the output types of each of its delegates, or to null
+   * if the delegates of that step cannot be run concurrently.
+   */
+  private final Map<List<String>, List<List<Type>>> mIsolationCache = new HashMap<>();
+
+  /** CASes, reset, which are used as private copies for the delegates. */
+  private final Deque<CAS> mFreeCopies = new ArrayDeque<>();
+
+  ParallelStepRunner(Executor aExecutor, Map<String, AnalysisEngine> aComponentAnalysisEngineMap,
+          Map<String, AnalysisEngineMetaData> aComponentAnalysisEngineMetaDataMap,
+          SofaMapping[] aSofaMappings, ResourceManager aResourceManager) {
+    mExecutor = aExecutor;
+    mComponentAnalysisEngineMap = aComponentAnalysisEngineMap;
+    mComponentAnalysisEngineMetaDataMap = aComponentAnalysisEngineMetaDataMap;
+    mSofaMappings = aSofaMappings;
+    mResourceManager = aResourceManager;
+  }
+
+  /**
+   * Checks whether the delegates with the given keys may be run concurrently on the given CAS. This
+   * is the case if
+   * <ul>
+   * <li>there are at least two delegates, all of them known,</li>
+   * <li>no delegate is a CAS Multiplier,</li>
+   * <li>every delegate declares at least one output type or output Sofa, and declares feature
+   * outputs only for its own output types (so it does not update Feature Structures it has not
+   * created),</li>
+   * <li>no output type of one delegate is the same as, a subtype or a supertype of an input or
+   * output type of another delegate, and</li>
+   * <li>no output Sofa of one delegate is an input or output Sofa of another delegate.</li>
+   * </ul>
+   *
+   * @param aKeys
+   *          the keys of the delegates in the parallel step
+   * @param aCas
+   *          the CAS to be processed
+   * @return true if the delegates can be run concurrently
+   */
+  boolean canRunConcurrently(Collection<String> aKeys, CAS aCas) {
+    return getOutputTypes(new ArrayList<>(aKeys), aCas.getTypeSystem()) != null;
+  }
+
+  /**
+   * Runs the delegates with the given keys concurrently, each on its own copy of the CAS, and then
+   * merges their outputs back into the CAS. Must only be called if
+   * {@link #canRunConcurrently(Collection, CAS)} returned true.
+   *
+   * @param aKeys
+   *          the keys of the delegates in the parallel step
+   * @param aCas
+   *          the CAS to be processed
+   * @param aFlow
+   *          the flow of the CAS, consulted if a delegate fails
+   * @throws Exception
+   *           if a delegate failed and the flow does not continue on that failure
+   */
+  void run(Collection<String> aKeys, CAS aCas, FlowContainer aFlow) throws Exception {
+    List<String> keys = new ArrayList<>(aKeys);
+    List<List<Type>> outputTypes = getOutputTypes(keys, aCas.getTypeSystem());
+    CASImpl baseCas = ((CASImpl) aCas.getLowLevelCAS()).getBaseCAS();
+    String viewName = aCas.getViewName();
+
+    int n = keys.size();
+    CAS[] copies = new CAS[n];
+    CasCopier[] copiers = new CasCopier[n];
+    int[] marks = new int[n];
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+    try {
+      // the original CAS is only read on this thread
+      for (int i = 0; i < n; i++) {
+        copies[i] = getCopy(aCas.getTypeSystem());
+        CASImpl copyBaseCas = ((CASImpl) copies[i].getLowLevelCAS()).getBaseCAS();
+        copiers[i] = new CasCopier(baseCas, copyBaseCas);
+        Iterator<CAS> views = baseCas.getViewIterator();
+        while (views.hasNext()) {
+          copiers[i].copyCasView(views.next(), true);
+        }
+        marks[i] = copyBaseCas.getLastUsedFsId();
+
+        AnalysisEngine ae = mComponentAnalysisEngineMap.get(keys.get(i));
+        CAS startView = (viewName == null) ? copyBaseCas : copyBaseCas.getView(viewName);
+        futures[i] = CompletableFuture.runAsync(() -> process(ae, startView), mExecutor);
+      }
+
+      Throwable[] failures = new Throwable[n];
+      for (int i = 0; i < n; i++) {
+        try {
+          futures[i].join();
+        } catch (CompletionException e) {
+          failures[i] = (e.getCause() == null) ? e : e.getCause();
+        }
+      }
+
+      for (int i = 0; i < n; i++) {
+        if (failures[i] != null) {
+          Throwable failure = (failures[i] instanceof ProcessFailure) ? failures[i].getCause()
+                  : failures[i];
+          if (!(failure instanceof Exception exception)) {
+            throw (Error) failure;
+          }
+          // ask the FlowController if we should continue
+          if (!aFlow.continueOnFailure(keys.get(i), exception)) {
+            throw exception;
+          }
+          UIMAFramework.getLogger(CLASS_NAME).logrb(Level.FINE, CLASS_NAME.getName(), "run",
+                  LOG_RESOURCE_BUNDLE, "UIMA_continuing_after_exception__FINE", exception);
+        } else {
+          merge(copiers[i], copies[i], baseCas, marks[i], outputTypes.get(i));
+        }
+      }
+    } finally {
+      for (int i = 0; i < n; i++) {
+        if (futures[i] != null) {
+          // don't reuse a copy which a delegate may still be working on
+          try {
+            futures[i].join();
+          } catch (CompletionException e) {
+            // already handled above
+          }
+        }
+        if (copies[i] != null) {
+          copies[i].reset();
+          mFreeCopies.push(copies[i]);
+        }
+      }
+    }
+  }
+
+  private void process(AnalysisEngine aAe, CAS aView) {
+    try {
+      CasIterator casIter = aAe.processAndOutputNewCASes(aView);
+      // not a CAS Multiplier, so there are no output CASes
+      while (casIter.hasNext()) {
+        casIter.next().release();
+      }
+      aView.setCurrentComponentInfo(null);
+    } catch (Exception e) {
+      throw new ProcessFailure(e);
+    }
+  }
+
+  /**
+   * Copies the Feature Structures a delegate created in its copy of the CAS back into the original
+   * CAS. In views which existed before, only the indexed Feature Structures of the delegate's output
+   * types are copied, together with everything they reference. Views created by the delegate are
+   * copied completely.
+   */
+  private void merge(CasCopier aCopier, CAS aCopy, CASImpl aBaseCas, int aMark,
+          List<Type> aOutputTypes) {
+    CasCopier reverse = aCopier.reverse();
+    TypeSystem ts = aBaseCas.getTypeSystem();
+    Set<String> originalViews = new HashSet<>();
+    Iterator<CAS> views = aBaseCas.getViewIterator();
+    while (views.hasNext()) {
+      originalViews.add(views.next().getViewName());
+    }
+
+    Iterator<CAS> copyViews = aCopy.getViewIterator();
+    while (copyViews.hasNext()) {
+      CAS copyView = copyViews.next();
+      if (!originalViews.contains(copyView.getViewName())) {
+        reverse.copyCasView(copyView, true);
+        continue;
+      }
+      CAS originalView = aBaseCas.getView(copyView.getViewName());
+      for (TOP fs : copyView.getIndexedFSs()) {
+        if (fs._id() > aMark && isOutputType(ts, fs._getTypeImpl(), aOutputTypes)) {
+          originalView.addFsToIndexes(reverse.copyFs(fs));
+        }
+      }
+    }
+  }
+
+  private static boolean isOutputType(TypeSystem aTs, Type aType, List<Type> aOutputTypes) {
+    for (Type outputType : aOutputTypes) {
+      if (aTs.subsumes(outputType, aType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private CAS getCopy(TypeSystem aTypeSystem) throws ResourceInitializationException {
+    while (!mFreeCopies.isEmpty()) {
+      CAS cas = mFreeCopies.pop();
+      if (cas.getTypeSystem() == aTypeSystem) {
+        return cas;
+      }
+    }
+    CasDefinition casDef = mResourceManager.getCasManager().getCasDefinition();
+    return CasCreationUtils.createCas(aTypeSystem, casDef.getTypePriorities(),
+            casDef.getFsIndexDescriptions(), null, mResourceManager);
+  }
+
+  /**
+   * Returns the output types of each of the delegates with the given keys, or null if they cannot
+   * be run concurrently. Results are cached per type system.
+   */
+  private List<List<Type>> getOutputTypes(List<String> aKeys, TypeSystem aTs) {
+    if (aTs != mTypeSystem) {
+      mIsolationCache.clear();
+      mFreeCopies.clear();
+      mTypeSystem = aTs;
+    }
+    if (mIsolationCache.containsKey(aKeys)) {
+      return mIsolationCache.get(aKeys);
+    }
+    List<List<Type>> result = computeOutputTypes(aKeys, aTs);
+    mIsolationCache.put(aKeys, result);
+    return result;
+  }
+
+  private List<List<Type>> computeOutputTypes(List<String> aKeys, TypeSystem aTs) {
+    int n = aKeys.size();
+    if (n < 2) {
+      return null;
+    }
+    List<List<Type>> inputTypes = new ArrayList<>(n);
+    List<List<Type>> outputTypes = new ArrayList<>(n);
+    List<List<String>> inputSofas = new ArrayList<>(n);
+    List<List<String>> outputSofas = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      String key = aKeys.get(i);
+      AnalysisEngineMetaData md = mComponentAnalysisEngineMetaDataMap.get(key);
+      if (md == null || !mComponentAnalysisEngineMap.containsKey(key)) {
+        return null;
+      }
+      if (md.getOperationalProperties() == null
+              || md.getOperationalProperties().getOutputsNewCASes()) {
+        return null;
+      }
+      inputTypes.add(new ArrayList<>());
+      outputTypes.add(new ArrayList<>());
+      inputSofas.add(new ArrayList<>());
+      outputSofas.add(new ArrayList<>());
+      List<String> featureOutputTypes = new ArrayList<>();
+      Capability[] capabilities = md.getCapabilities();
+      if (capabilities != null) {
+        for (Capability capability : capabilities) {
+          for (TypeOrFeature tof : capability.getInputs()) {
+            addType(aTs, typeName(tof), inputTypes.get(i));
+          }
+          for (TypeOrFeature tof : capability.getOutputs()) {
+            if (tof.isType()) {
+              addType(aTs, tof.getName(), outputTypes.get(i));
+            } else {
+              featureOutputTypes.add(typeName(tof));
+            }
+          }
+          for (String sofa : capability.getInputSofas()) {
+            inputSofas.get(i).add(aggregateSofaName(key, sofa));
+          }
+          for (String sofa : capability.getOutputSofas()) {
+            outputSofas.get(i).add(aggregateSofaName(key, sofa));
+          }
+        }
+      }
+      if (outputTypes.get(i).isEmpty() && outputSofas.get(i).isEmpty()) {
+        return null; // don't know what the delegate writes
+      }
+      for (String name : featureOutputTypes) {
+        Type type = aTs.getType(name);
+        if (type != null && !outputTypes.get(i).contains(type)) {
+          return null; // delegate updates Feature Structures created by others
+        }
+      }
+    }
+
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (i == j) {
+          continue;
+        }
+        if (anyRelated(aTs, outputTypes.get(i), inputTypes.get(j))
+                || anyRelated(aTs, outputTypes.get(i), outputTypes.get(j))) {
+          return null;
+        }
+        for (String sofa : outputSofas.get(i)) {
+          if (inputSofas.get(j).contains(sofa) || outputSofas.get(j).contains(sofa)) {
+            return null;
+          }
+        }
+      }
+    }
+    return outputTypes;
+  }
+
+  private static String typeName(TypeOrFeature aTof) {
+    String name = aTof.getName();
+    int colon = name.indexOf(TypeSystem.FEATURE_SEPARATOR);
+    return (aTof.isType() || colon < 0) ? name : name.substring(0, colon);
+  }
+
+  private static void addType(TypeSystem aTs, String aName, List<Type> aTypes) {
+    Type type = aTs.getType(aName);
+    if (type != null && !aTypes.contains(type)) {
+      aTypes.add(type);
+    }
+  }
+
+  private static boolean anyRelated(TypeSystem aTs, List<Type> aTypes1, List<Type> aTypes2) {
+    for (Type t1 : aTypes1) {
+      for (Type t2 : aTypes2) {
+        if (aTs.subsumes(t1, t2) || aTs.subsumes(t2, t1)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private String aggregateSofaName(String aKey, String aComponentSofaName) {
+    if (mSofaMappings != null) {
+      for (SofaMapping mapping : mSofaMappings) {
+        if (mapping.getComponentKey().equals(aKey)
+                && aComponentSofaName.equals(mapping.getComponentSofaName())) {
+          return mapping.getAggregateSofaName();
+        }
+      }
+    }
+    return aComponentSofaName;
+  }
+
+  /**
+   * Carries a checked exception thrown by a delegate out of the executor.
+   */
+  private static class ProcessFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ProcessFailure(Exception aCause) {
+      super(aCause);
+    }
+  }
+}
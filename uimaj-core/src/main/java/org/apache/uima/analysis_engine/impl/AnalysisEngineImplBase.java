@@ -123,6 +123,15 @@ public abstract class AnalysisEngineImplBase extends ConfigurableResource_ImplBa
 
   private UimaTimer mProcessTimer = UIMAFramework.newTimer();
 
+  /** start of the current process call, see {@link #enterProcess(CAS)} */
+  private long mProcessStartNanos;
+
+  /** last FS id used in the CAS when the current process call started */
+  private int mProcessStartFsId;
+
+  /** per-type FS creation counts, reused across process calls */
+  private int[] mFsCreationCounts;
+
   private boolean mProcessTraceEnabled = true;
 
   /**
@@ -454,6 +463,41 @@ public abstract class AnalysisEngineImplBase extends ConfigurableResource_ImplBa
     getMBean().reportAnalysisTime(mProcessTimer.getDuration());
   }
 
+  /**
+   * Like {@link #enterProcess()}, but also records the per-call statistics of the management
+   * interface for the given input CAS. Must be paired with {@link #exitProcess(CAS)}.
+   * 
+   * @param aCAS
+   *          the CAS passed to the process method
+   */
+  protected void enterProcess(CAS aCAS) {
+    enterProcess();
+    CASImpl casImpl = (CASImpl) aCAS;
+    mProcessStartFsId = casImpl.getLastUsedFsId();
+    getMBean().reportCasSizeAtEntry(mProcessStartFsId);
+    if (AnalysisEngineManagementImpl.IS_ENABLE_FS_CREATION_METRICS) {
+      int size = casImpl.getTypeSystemImpl().getLargestTypeCode() + 1;
+      if (mFsCreationCounts == null || mFsCreationCounts.length != size) {
+        mFsCreationCounts = new int[size];
+      }
+      casImpl.setFsCreationCounts(mFsCreationCounts);
+    }
+    mProcessStartNanos = System.nanoTime();
+  }
+
+  protected void exitProcess(CAS aCAS) {
+    long nanos = System.nanoTime() - mProcessStartNanos;
+    exitProcess();
+    CASImpl casImpl = (CASImpl) aCAS;
+    AnalysisEngineManagementImpl mbean = getMBean();
+    mbean.reportProcessTimeNanos(nanos);
+    mbean.reportFeatureStructuresCreated(casImpl.getLastUsedFsId() - mProcessStartFsId);
+    if (AnalysisEngineManagementImpl.IS_ENABLE_FS_CREATION_METRICS) {
+      casImpl.setFsCreationCounts(null);
+      mbean.reportFeatureStructuresCreatedByType(casImpl.getTypeSystemImpl(), mFsCreationCounts);
+    }
+  }
+
   protected void enterBatchProcessComplete() {
     mProcessTimer.startIt();
   }
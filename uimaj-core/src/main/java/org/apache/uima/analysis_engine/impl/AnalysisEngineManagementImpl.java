@@ -26,11 +26,15 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.regex.Pattern;
 
 import org.apache.uima.UimaContextAdmin;
 import org.apache.uima.analysis_engine.AnalysisEngineManagement;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.internal.util.Misc;
 import org.apache.uima.util.ConcurrentHashMapWithProducer;
+import org.apache.uima.util.Histogram;
 
 /**
  * Implements Monitoring/Management interface to an AnalysisEngine.
@@ -41,6 +45,16 @@ public class AnalysisEngineManagementImpl
 
   private static final long serialVersionUID = 1988620286191379887L;
 
+  /**
+   * Set this JVM property to have primitive AnalysisEngines count the Feature Structures they create
+   * per type, see {@link #getFeatureStructuresCreatedByType()}. Adds a small cost to every Feature
+   * Structure creation while a component is processing, so it is off by default.
+   */
+  public static final String ENABLE_FS_CREATION_METRICS = "uima.enable_fs_creation_metrics";
+
+  public static final boolean IS_ENABLE_FS_CREATION_METRICS = Misc
+          .getNoValueSystemProperty(ENABLE_FS_CREATION_METRICS);
+
   private static final Pattern RESERVED_CHAR_PATTERN = Pattern.compile("[\",=:*?]");
 
   static final DecimalFormat format = new DecimalFormat("0.##");
@@ -71,6 +85,19 @@ public class AnalysisEngineManagementImpl
 
   private final AtomicLong serviceCallTime = new AtomicLong(0);
 
+  private final Histogram processTime = new Histogram();
+
+  private final Histogram casSizeAtEntry = new Histogram();
+
+  private final Histogram waitTime = new Histogram();
+
+  private final AtomicLong numFsCreated = new AtomicLong(0);
+
+  /** type names by type code, set with the first per-type report */
+  private volatile String[] fsCreatedTypeNames;
+
+  private volatile AtomicLongArray fsCreatedByType;
+
   private final Map<String, AnalysisEngineManagement> components = Collections
           .synchronizedMap(new LinkedHashMap<>());
 
@@ -124,6 +151,83 @@ public class AnalysisEngineManagementImpl
     numProcessed.incrementAndGet();
   }
 
+  /**
+   * Records the duration of one process call, in addition to the total time reported via
+   * {@link #reportAnalysisTime(long)}.
+   * 
+   * @param nanos
+   *          the duration in nanoseconds
+   */
+  public void reportProcessTimeNanos(long nanos) {
+    processTime.record(nanos);
+  }
+
+  /**
+   * @param size
+   *          the size of the CAS passed to a process call, as the last Feature Structure id used
+   */
+  public void reportCasSizeAtEntry(int size) {
+    casSizeAtEntry.record(size);
+  }
+
+  /**
+   * @param nanos
+   *          time spent waiting for a pooled CAS or AnalysisEngine instance, in nanoseconds
+   */
+  public void reportWaitTimeNanos(long nanos) {
+    waitTime.record(nanos);
+  }
+
+  /**
+   * @param count
+   *          the number of Feature Structures created during a process call
+   */
+  public void reportFeatureStructuresCreated(int count) {
+    numFsCreated.addAndGet(count);
+  }
+
+  /**
+   * Adds per-type Feature Structure creation counts collected during a process call, and clears
+   * the counts so the array can be reused for the next call.
+   * 
+   * @param tsi
+   *          the type system of the processed CAS, used to name the type codes
+   * @param counts
+   *          the counts, indexed by type code
+   */
+  public void reportFeatureStructuresCreatedByType(TypeSystemImpl tsi, int[] counts) {
+    AtomicLongArray byType = fsCreatedByType;
+    if (byType == null || byType.length() < counts.length) {
+      byType = initFsCreatedByType(tsi, counts.length);
+    }
+    for (int i = 0; i < counts.length; i++) {
+      int c = counts[i];
+      if (c != 0) {
+        byType.addAndGet(i, c);
+        counts[i] = 0;
+      }
+    }
+  }
+
+  private synchronized AtomicLongArray initFsCreatedByType(TypeSystemImpl tsi, int size) {
+    AtomicLongArray byType = fsCreatedByType;
+    if (byType == null || byType.length() < size) {
+      String[] names = new String[size];
+      for (int i = 1; i < size; i++) {
+        names[i] = tsi.getTypeForCode(i).getName();
+      }
+      AtomicLongArray newByType = new AtomicLongArray(size);
+      if (byType != null) {
+        for (int i = 0; i < byType.length(); i++) {
+          newByType.set(i, byType.get(i));
+        }
+      }
+      fsCreatedTypeNames = names;
+      fsCreatedByType = byType = newByType;
+    }
+    return byType;
+  }
+
   @Override
   public long getBatchProcessCompleteTime() {
     return batchProcessCompleteTime.get();
@@ -208,6 +312,78 @@ public class AnalysisEngineManagementImpl
     return format.format(docsPerSecond);
   }
 
+  @Override
+  public Histogram getProcessTimeHistogram() {
+    return processTime;
+  }
+
+  @Override
+  public Histogram getCasSizeAtEntryHistogram() {
+    return casSizeAtEntry;
+  }
+
+  @Override
+  public Histogram getWaitTimeHistogram() {
+    return waitTime;
+  }
+
+  @Override
+  public long getNumberOfFeatureStructuresCreated() {
+    return numFsCreated.get();
+  }
+
+  @Override
+  public Map<String, Long> getFeatureStructuresCreatedByType() {
+    AtomicLongArray byType = fsCreatedByType;
+    if (byType == null) {
+      return Collections.emptyMap();
+    }
+    String[] names = fsCreatedTypeNames;
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int i = 0; i < byType.length(); i++) {
+      long c = byType.get(i);
+      if (c != 0) {
+        result.put(names[i], c);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public long getProcessTimeP50Micros() {
+    return processTime.getValueAtPercentile(50) / 1000;
+  }
+
+  @Override
+  public long getProcessTimeP99Micros() {
+    return processTime.getValueAtPercentile(99) / 1000;
+  }
+
+  @Override
+  public long getProcessTimeMaxMicros() {
+    return processTime.getMax() / 1000;
+  }
+
+  @Override
+  public long getCasSizeAtEntryP50() {
+    return casSizeAtEntry.getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getCasSizeAtEntryMax() {
+    return casSizeAtEntry.getMax();
+  }
+
+  @Override
+  public long getWaitTimeP99Micros() {
+    return waitTime.getValueAtPercentile(99) / 1000;
+  }
+
+  @Override
+  public long getWaitTimeMaxMicros() {
+    return waitTime.getMax() / 1000;
+  }
+
   @Override
   public Map<String, AnalysisEngineManagement> getComponents() {
     return Collections.unmodifiableMap(components);
@@ -238,6 +414,16 @@ public class AnalysisEngineManagementImpl
     markedBatchProcessCompleteTime.set(0);
     markedCollectionProcessCompleteTime.set(0);
     markedServiceCallTime.set(0);
+    processTime.reset();
+    casSizeAtEntry.reset();
+    waitTime.reset();
+    numFsCreated.set(0);
+    AtomicLongArray byType = fsCreatedByType;
+    if (byType != null) {
+      for (int i = 0; i < byType.length(); i++) {
+        byType.set(i, 0);
+      }
+    }
     // reset components also
     for (AnalysisEngineManagement component : components.values()) {
       component.resetStats();
@@ -46,4 +46,20 @@ public interface AnalysisEngineManagementImplMBean extends Serializable {
   long getThreadId();
 
   long getInitializationTime();
+
+  long getProcessTimeP50Micros();
+
+  long getProcessTimeP99Micros();
+
+  long getProcessTimeMaxMicros();
+
+  long getCasSizeAtEntryP50();
+
+  long getCasSizeAtEntryMax();
+
+  long getWaitTimeP99Micros();
+
+  long getWaitTimeMaxMicros();
+
+  long getNumberOfFeatureStructuresCreated();
 }
@@ -123,7 +123,9 @@ public class MultiprocessingAnalysisEngine_impl extends AnalysisEngineImplBase
   }
 
   private AnalysisEngine getAeFromPool() throws AnalysisEngineProcessException {
+    long start = System.nanoTime();
     AnalysisEngine ae = mPool.getAnalysisEngine(mTimeout);
+    getMBean().reportWaitTimeNanos(System.nanoTime() - start);
     if (ae == null) { // timeout elapsed
       throw new AnalysisEngineProcessException(AnalysisEngineProcessException.TIMEOUT_ELAPSED,
               new Object[] { getTimeout() });
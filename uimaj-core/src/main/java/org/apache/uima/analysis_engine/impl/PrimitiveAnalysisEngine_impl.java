@@ -290,7 +290,7 @@ public class PrimitiveAnalysisEngine_impl extends AnalysisEngineImplBase impleme
    */
   @Override
   public CasIterator processAndOutputNewCASes(CAS aCAS) throws AnalysisEngineProcessException {
-    enterProcess();
+    enterProcess(aCAS);
     try {
       // make initial call to the AnalysisComponent
       callAnalysisComponentProcess(aCAS);
@@ -299,7 +299,7 @@ public class PrimitiveAnalysisEngine_impl extends AnalysisEngineImplBase impleme
       // of this AnalysisComponent (if any)
       return new AnalysisComponentCasIterator(mAnalysisComponent, aCAS);
     } finally {
-      exitProcess();
+      exitProcess(aCAS);
     }
   }
 
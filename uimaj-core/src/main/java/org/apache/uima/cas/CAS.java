@@ -18,7 +18,9 @@
  */
 package org.apache.uima.cas;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.ListIterator;
@@ -1072,6 +1074,21 @@ public interface CAS extends AbstractCas {
    */
   InputStream getSofaDataStream();
 
+  /**
+   * Get the Sofa data as a read-only byte buffer, having the same content as
+   * {@link #getSofaDataStream()}. Where possible, the data is not copied: byte array Sofas are
+   * wrapped, and Sofas with a <code>file:</code> URI are memory mapped.
+   * 
+   * @return A read-only buffer of the Sofa Data, or <code>null</code> if not set.
+   */
+  default ByteBuffer getSofaDataBuffer() {
+    try (InputStream is = getSofaDataStream()) {
+      return (is == null) ? null : ByteBuffer.wrap(is.readAllBytes()).asReadOnlyBuffer();
+    } catch (IOException e) {
+      throw new CASRuntimeException(CASRuntimeException.SOFADATASTREAM_ERROR, e.getMessage());
+    }
+  }
+
   /**
    * Get the mime type of the Sofa data being analyzed.
    * 
@@ -1155,6 +1172,33 @@ public interface CAS extends AbstractCas {
    */
   Marker createMarker();
 
+  /**
+   * Makes this CAS, with all its views, read-only until the next {@link #reset()}, so that it can
+   * be read by multiple threads at the same time, for example to run several serializers or
+   * consumers over the same analyzed CAS concurrently.
+   * <p>
+   * Freezing prepares the internal structures which are otherwise created lazily while reading,
+   * such as the snapshots used by index iterators. Afterwards, creating Feature Structures, setting
+   * features or array elements, and adding to or removing from indexes throws a
+   * {@link CASRuntimeException} without changing the CAS.
+   * <p>
+   * Call this method before handing the CAS to the reading threads, for example before submitting
+   * the tasks to an executor. Calling it on a frozen CAS has no effect.
+   * <p>
+   * CAS implementations which do not support freezing throw an UnsupportedOperationException.
+   */
+  default void freeze() {
+    throw new UnsupportedOperationException("freeze is not supported by " + getClass().getName());
+  }
+
+  /**
+   * @return true if this CAS is frozen, see {@link #freeze()}; false for CAS implementations which
+   *         do not support freezing
+   */
+  default boolean isFrozen() {
+    return false;
+  }
+
   /**
    * Call this method to set up a region, ended by a {@link java.lang.AutoCloseable#close()} call on
    * the returned object, You can use this or the {@link #protectIndexes(Runnable)} method to
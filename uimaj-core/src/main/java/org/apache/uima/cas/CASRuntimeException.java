@@ -375,6 +375,9 @@ public class CASRuntimeException extends UIMARuntimeException {
   /** Index "{0}" must be an AnnotationIndex. */
   public static final String ANNOTATION_INDEX_REQUIRED = "ANNOTATION_INDEX_REQUIRED";
 
+  /** The CAS is frozen, it can''t be modified until it is reset. */
+  public static final String CAS_IS_FROZEN = "CAS_IS_FROZEN";
+
   /**
    * Subiterator {0} has bound type: {1}, begin: {2}, end: {3}, for coveredBy, not using type
    * priorities, matching FS with same begin end and different type {4}, cannot order these
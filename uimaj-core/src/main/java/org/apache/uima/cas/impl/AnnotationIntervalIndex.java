@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.text.AnnotationFS;
+
+//@formatter:off
+/**
+ * An immutable snapshot of an annotation index, augmented with a max-end segment tree, used to
+ * answer span queries without scanning the index.
+ *
+ * The annotations are held in index order, which sorts by begin ascending. For a query
+ *   - all annotations whose begin is &lt;= some limit form a prefix of the list (binary search)
+ *   - within that prefix, the segment tree, which holds for each node the largest end of the
+ *     annotations below it, lets whole subtrees ending too early be skipped.
+ * This makes a query O(log n + k log n) for k results, instead of O(n).
+ *
+ * Instances are built by {@link FsIndex_annotation} and are discarded when the index changes.
+ */
+//@formatter:on
+class AnnotationIntervalIndex<T extends AnnotationFS> {
+
+  private final List<T> annotations;
+
+  private final int[] begins;
+
+  /** the max-end tree; leaves are at [leafStart + i], unused leaves hold Integer.MIN_VALUE */
+  private final int[] maxEnds;
+
+  private final int leafStart;
+
+  /** the sum of the modification counts of the leaf indexes this snapshot was built from */
+  final int modificationStamp;
+
+  AnnotationIntervalIndex(FSIterator<T> it, int size, int modificationStamp) {
+    this.modificationStamp = modificationStamp;
+    annotations = new ArrayList<>(size);
+    while (it.isValid()) {
+      annotations.add(it.nextNvc());
+    }
+
+    int n = annotations.size();
+    begins = new int[n];
+
+    int m = 1;
+    while (m < n) {
+      m <<= 1;
+    }
+    leafStart = m;
+    maxEnds = new int[2 * m];
+    for (int i = 0; i < m; i++) {
+      if (i < n) {
+        T a = annotations.get(i);
+        begins[i] = a.getBegin();
+        maxEnds[m + i] = a.getEnd();
+      } else {
+        maxEnds[m + i] = Integer.MIN_VALUE;
+      }
+    }
+    for (int i = m - 1; i > 0; i--) {
+      maxEnds[i] = Math.max(maxEnds[2 * i], maxEnds[2 * i + 1]);
+    }
+  }
+
+  /**
+   * Collects, in index order, the annotations whose begin is &lt;= aMaxBegin and whose end is &gt;=
+   * aMinEnd, and which pass the filter.
+   *
+   * @param aMaxBegin
+   *          the largest begin to include
+   * @param aMinEnd
+   *          the smallest end to include
+   * @param aFilter
+   *          an additional filter, or null
+   * @return the matching annotations
+   */
+  List<T> select(int aMaxBegin, int aMinEnd, Predicate<? super T> aFilter) {
+    List<T> result = new ArrayList<>();
+    int limit = upperBound(aMaxBegin);
+    if (limit > 0) {
+      collect(1, 0, leafStart, limit, aMinEnd, aFilter, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of annotations whose begin is &lt;= aBegin
+   */
+  private int upperBound(int aBegin) {
+    int lo = 0;
+    int hi = annotations.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (begins[mid] <= aBegin) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private void collect(int node, int nodeStart, int nodeSize, int limit, int aMinEnd,
+          Predicate<? super T> aFilter, List<T> result) {
+    if (nodeStart >= limit || maxEnds[node] < aMinEnd) {
+      return;
+    }
+    if (node >= leafStart) {
+      T a = annotations.get(nodeStart);
+      if (aFilter == null || aFilter.test(a)) {
+        result.add(a);
+      }
+      return;
+    }
+    int half = nodeSize >>> 1;
+    collect(2 * node, nodeStart, half, limit, aMinEnd, aFilter, result);
+    collect(2 * node + 1, nodeStart + half, half, limit, aMinEnd, aFilter, result);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.apache.uima.internal.util.ServiceLoaderUtil.loadServicesSafely;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.uima.internal.util.ClassLoaderUtils;
+import org.apache.uima.internal.util.WeakIdentityMap;
+import org.apache.uima.spi.BinaryCasCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks up the {@link BinaryCasCodec}s used for compressed binary form 6 serialization: the
+ * built-in ones, and user-provided ones registered via the Java service loader.
+ * <p>
+ * Deflate, the default, is built into {@link BinaryCasSerDes6} because it supports the
+ * {@link BinaryCasSerDes6.CompressLevel} and {@link BinaryCasSerDes6.CompressStrat} settings and
+ * incremental inflating. It is represented by a <code>null</code> codec.
+ */
+public final class BinaryCasCodecs {
+
+  /**
+   * Set this JVM property to the name of a codec to have it used by default for compressed binary
+   * form 6 serialization, e.g. <code>-Duima.bcf6_codec=lz4</code>. Deserialization picks the codec
+   * recorded in the serialized form, regardless of this setting.
+   */
+  public static final String BCF6_CODEC = "uima.bcf6_codec";
+
+  private static final String DEFAULT_CODEC_NAME = System.getProperty(BCF6_CODEC);
+
+  public static final int DEFLATE_ID = 0;
+
+  public static final String DEFLATE_NAME = "deflate";
+
+  /** user-provided codecs use ids from here up to {@link #MAX_CODEC_ID} */
+  public static final int MIN_USER_CODEC_ID = 128;
+
+  public static final int MAX_CODEC_ID = 255;
+
+  public static final Lz4BinaryCasCodec LZ4 = new Lz4BinaryCasCodec();
+
+  private static final Logger LOG = LoggerFactory.getLogger(BinaryCasCodecs.class);
+
+  /** the user-provided codecs, discovered once per class loader */
+  private static final WeakIdentityMap<ClassLoader, UserCodecs> userCodecs = WeakIdentityMap
+          .newHashMap();
+
+  private BinaryCasCodecs() {
+    // no instances
+  }
+
+  /**
+   * @param aId
+   *          the codec id recorded in the serialized form
+   * @return the codec with this id, or <code>null</code> for deflate
+   * @throws IOException
+   *           if no codec with this id is available
+   */
+  public static BinaryCasCodec forId(int aId) throws IOException {
+    if (aId == DEFLATE_ID) {
+      return null;
+    }
+    if (aId == Lz4BinaryCasCodec.ID) {
+      return LZ4;
+    }
+    if (aId == DictionaryDeflateBinaryCasCodec.ID) {
+      throw new IOException("The binary CAS compression codec with id " + aId
+              + " needs the dictionary it was written with, e.g. load it with a CasArchiveReader");
+    }
+    BinaryCasCodec codec = getUserCodecs().byId.get(aId);
+    if (codec == null) {
+      throw new IOException("No binary CAS compression codec with id " + aId + " is available");
+    }
+    return codec;
+  }
+
+  /**
+   * @param aName
+   *          the name of the codec
+   * @return the codec with this name, or <code>null</code> for deflate
+   * @throws IllegalArgumentException
+   *           if no codec with this name is available
+   */
+  public static BinaryCasCodec forName(String aName) {
+    if (aName == null || aName.isEmpty() || DEFLATE_NAME.equalsIgnoreCase(aName)) {
+      return null;
+    }
+    if (Lz4BinaryCasCodec.NAME.equalsIgnoreCase(aName)) {
+      return LZ4;
+    }
+    BinaryCasCodec codec = getUserCodecs().byName.get(aName.toLowerCase(Locale.ROOT));
+    if (codec == null) {
+      throw new IllegalArgumentException(
+              "No binary CAS compression codec named " + aName + " is available");
+    }
+    return codec;
+  }
+
+  /**
+   * @return the codec selected by the {@value #BCF6_CODEC} JVM property, or <code>null</code> for
+   *         deflate. The property is read once, when this class is initialized.
+   */
+  public static BinaryCasCodec getDefault() {
+    return forName(DEFAULT_CODEC_NAME);
+  }
+
+  private static UserCodecs getUserCodecs() {
+    ClassLoader cl = ClassLoaderUtils.findClassLoader();
+    synchronized (userCodecs) {
+      UserCodecs codecs = userCodecs.get(cl);
+      if (codecs == null) {
+        codecs = new UserCodecs(cl);
+        userCodecs.put(cl, codecs);
+      }
+      return codecs;
+    }
+  }
+
+  private static final class UserCodecs {
+    final Map<Integer, BinaryCasCodec> byId = new HashMap<>();
+
+    final Map<String, BinaryCasCodec> byName = new HashMap<>();
+
+    UserCodecs(ClassLoader aClassLoader) {
+      loadServicesSafely(BinaryCasCodec.class, aClassLoader).forEach(codec -> {
+        int id = codec.getId();
+        if (id < MIN_USER_CODEC_ID || id > MAX_CODEC_ID) {
+          LOG.warn("Ignoring binary CAS compression codec {} with id {} - user-provided codecs must "
+                  + "use ids {} to {}", codec.getClass().getName(), id, MIN_USER_CODEC_ID,
+                  MAX_CODEC_ID);
+          return;
+        }
+        // the first codec found for an id or name wins, like the service loader order
+        byId.putIfAbsent(id, codec);
+        if (codec.getName() != null) {
+          byName.putIfAbsent(codec.getName().toLowerCase(Locale.ROOT), codec);
+        }
+      });
+    }
+  }
+}
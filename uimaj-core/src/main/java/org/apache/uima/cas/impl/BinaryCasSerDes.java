@@ -59,6 +59,7 @@ import org.apache.uima.jcas.cas.StringArray;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.spi.BinaryCasCodec;
 import org.apache.uima.util.CasLoadMode;
 
 // @formatter:off
@@ -583,7 +584,12 @@ public class BinaryCasSerDes {
           try {
             BinaryCasSerDes6 bcsd = (f6 != null) ? new BinaryCasSerDes6(f6, ts_for_decoding)
                     : new BinaryCasSerDes6(baseCas, ts_for_decoding);
-            bcsd.deserializeAfterVersion(dis, delta, AllowPreexistingFS.allow);
+            // a codec given to the f6 instance takes precedence, it may hold state like a
+            // dictionary which is not part of the serialized form
+            BinaryCasCodec codec = (f6 != null && f6.getCodec() != null
+                    && f6.getCodec().getId() == h.getCodecId()) ? f6.getCodec()
+                            : BinaryCasCodecs.forId(h.getCodecId());
+            bcsd.deserializeAfterVersion(dis, delta, AllowPreexistingFS.allow, codec);
             return h.typeSystemIndexDefIncluded ? SerialFormat.COMPRESSED_FILTERED_TSI
                     : h.typeSystemIncluded ? SerialFormat.COMPRESSED_FILTERED_TS
                             : SerialFormat.COMPRESSED_FILTERED;
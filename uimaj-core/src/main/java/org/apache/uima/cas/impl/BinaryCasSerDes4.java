@@ -52,7 +52,7 @@ import org.apache.uima.cas.Marker;
 import org.apache.uima.cas.impl.CASImpl.FsChange;
 import org.apache.uima.cas.impl.FSsTobeAddedback.FSsTobeAddedbackSingle;
 import org.apache.uima.cas.impl.SlotKinds.SlotKind;
-import org.apache.uima.internal.util.Int2ObjHashMap;
+import org.apache.uima.internal.util.Int2ObjPagedArray;
 import org.apache.uima.internal.util.IntListIterator;
 import org.apache.uima.internal.util.IntVector;
 import org.apache.uima.internal.util.Misc;
@@ -1655,7 +1655,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
      */
     // private final Obj2IntIdentityHashMap<TOP> fs2seq = new Obj2IntIdentityHashMap<TOP>(TOP.class,
     // TOP.singleton);
-    private final Int2ObjHashMap<TOP, TOP> seq2fs = new Int2ObjHashMap<>(TOP.class);
+    private final Int2ObjPagedArray<TOP> seq2fs = new Int2ObjPagedArray<>();
 
     /**
      * Called after header was read and determined that this was a compressed binary
@@ -41,8 +41,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
@@ -76,6 +80,7 @@ import org.apache.uima.jcas.cas.Sofa;
 import org.apache.uima.jcas.cas.StringArray;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.spi.BinaryCasCodec;
 import org.apache.uima.util.AutoCloseableNoException;
 import org.apache.uima.util.CasIOUtils;
 import org.apache.uima.util.CasLoadMode;
@@ -208,6 +213,18 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
 
   private static final boolean TRACE_STR_ARRAY = false;
 
+  /**
+   * Set this JVM property to have the independent per-slot-kind streams deflated in parallel on the
+   * common fork-join pool when serializing, and inflated in parallel when deserializing. The
+   * serialized form is the same either way. When deserializing, each stream is then inflated fully
+   * up front instead of incrementally, which needs more memory for the duration of the
+   * deserialization. This is the default for {@link #setParallelCompression(boolean)}.
+   */
+  public static final String ENABLE_PARALLEL_COMPRESSION = "uima.enable_bcf6_parallel_compression";
+
+  public static final boolean IS_ENABLE_PARALLEL_COMPRESSION = Misc
+          .getNoValueSystemProperty(ENABLE_PARALLEL_COMPRESSION);
+
   /**
    * Compression alternatives
    */
@@ -277,6 +294,22 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     }
   }
 
+  BinaryCasCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Deflate the per-slot-kind streams in parallel when serializing, and inflate them in parallel
+   * when deserializing. The serialized form is the same either way. Defaults to the
+   * {@link #ENABLE_PARALLEL_COMPRESSION} JVM property.
+   * 
+   * @param aParallelCompression
+   *          true to compress and decompress the streams in parallel
+   */
+  public void setParallelCompression(boolean aParallelCompression) {
+    parallelCompression = aParallelCompression;
+  }
+
   public ReuseInfo getReuseInfo() {
     return new ReuseInfo(foundFSs, fssToSerialize, fsStartIndexes);
   }
@@ -288,6 +321,11 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   private final TypeSystemImpl tgtTs;
   private final CompressLevel compressLevel;
   private final CompressStrat compressStrategy;
+  /** null for the built-in deflate; for deserialization, set from the header */
+  private BinaryCasCodec codec;
+  private boolean parallelCompression = IS_ENABLE_PARALLEL_COMPRESSION;
+  /** true while deserializing without knowing the codec from the header, deflate is assumed */
+  private boolean verifyDeflated = false;
 
   /*****************************************************
    * Things for both serialization and Deserialization
@@ -549,12 +587,45 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   public BinaryCasSerDes6(AbstractCas aCas, MarkerImpl mark, TypeSystemImpl tgtTs, ReuseInfo rfs,
           boolean doMeasurements, CompressLevel compressLevel, CompressStrat compressStrategy)
           throws ResourceInitializationException {
-    this(aCas, mark, tgtTs, false, false, rfs, doMeasurements, compressLevel, compressStrategy);
+    this(aCas, mark, tgtTs, false, false, rfs, doMeasurements, compressLevel, compressStrategy,
+            BinaryCasCodecs.getDefault());
+  }
+
+  /**
+   * Setup to serialize using a compression codec other than deflate. The codec id is recorded in
+   * the serialized form, so deserialization picks the same codec.
+   * 
+   * @param aCas
+   *          required - refs the CAS being serialized
+   * @param mark
+   *          if not null is the serialization mark for delta serialization
+   * @param tgtTs
+   *          if not null is the target type system, a subset of the CASs TS
+   * @param rfs
+   *          see {@link #BinaryCasSerDes6(AbstractCas, MarkerImpl, TypeSystemImpl, ReuseInfo)}
+   * @param codec
+   *          the compression codec, see {@link BinaryCasCodecs}; null means deflate with the
+   *          default level and strategy
+   * @throws ResourceInitializationException
+   *           if the target type system is incompatible with the source type system
+   */
+  public BinaryCasSerDes6(AbstractCas aCas, MarkerImpl mark, TypeSystemImpl tgtTs, ReuseInfo rfs,
+          BinaryCasCodec codec) throws ResourceInitializationException {
+    this(aCas, mark, tgtTs, false, false, rfs, false, CompressLevel.Default,
+            CompressStrat.Default, codec);
   }
 
   private BinaryCasSerDes6(AbstractCas aCas, MarkerImpl mark, TypeSystemImpl tgtTs, boolean storeTS,
           boolean storeTSI, ReuseInfo rfs, boolean doMeasurements, CompressLevel compressLevel,
           CompressStrat compressStrategy) throws ResourceInitializationException {
+    this(aCas, mark, tgtTs, storeTS, storeTSI, rfs, doMeasurements, compressLevel,
+            compressStrategy, BinaryCasCodecs.getDefault());
+  }
+
+  private BinaryCasSerDes6(AbstractCas aCas, MarkerImpl mark, TypeSystemImpl tgtTs, boolean storeTS,
+          boolean storeTSI, ReuseInfo rfs, boolean doMeasurements, CompressLevel compressLevel,
+          CompressStrat compressStrategy, BinaryCasCodec codec)
+          throws ResourceInitializationException {
     cas = ((CASImpl) (aCas instanceof JCas ? ((JCas) aCas).getCas() : aCas)).getBaseCAS();
     bcsd = cas.getBinaryCasSerDes();
 
@@ -590,6 +661,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
 
     this.compressLevel = compressLevel;
     this.compressStrategy = compressStrategy;
+    this.codec = codec;
     reuseInfoProvided = rfs != null;
     if (reuseInfoProvided) {
       foundFSs = rfs.foundFSs; // broken for serialization - not reused
@@ -626,6 +698,8 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     this.tgtTs = tgtTs; // passed in argument !
     compressLevel = f6.compressLevel;
     compressStrategy = f6.compressStrategy;
+    codec = f6.codec;
+    parallelCompression = f6.parallelCompression;
 
     mark = f6.mark;
     if (null != mark && !mark.isValid()) {
@@ -797,6 +871,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
       CommonSerDes.createHeader().form6().delta(isSerializingDelta).seqVer(2) // 2 == version 3 (or
                                                                               // later)
               .v3().typeSystemIncluded(isTsIncluded).typeSystemIndexDefIncluded(isTsiIncluded)
+              .codec(codec == null ? BinaryCasCodecs.DEFLATE_ID : codec.getId())
               .write(serializedOut);
 
       if (isTsIncluded || isTsiIncluded) {
@@ -1218,34 +1293,57 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   // @formatter:on
   private void collectAndZip() throws IOException {
     ByteArrayOutputStream baosZipped = new ByteArrayOutputStream(4096);
-    Deflater deflater = new Deflater(compressLevel.lvl, true);
-    deflater.setStrategy(compressStrategy.strat);
     int nbrEntries = 0;
 
     List<Integer> idxAndLen = new ArrayList<>();
 
-    for (int i = 0; i < baosZipSources.length; i++) {
-      ByteArrayOutputStream baos = baosZipSources[i];
-      if (baos != null) {
-        nbrEntries++;
-        dosZipSources[i].close();
-        long startTime = System.currentTimeMillis();
-        int zipBufSize = Math.max(1024, baos.size() / 100);
-        deflater.reset();
-        try (var cds = new DeflaterOutputStream(baosZipped, deflater, zipBufSize)) {
-          baos.writeTo(cds);
+    if (parallelCompression) {
+      List<Future<Zipped>> zipTasks = new ArrayList<>();
+      for (int i = 0; i < baosZipSources.length; i++) {
+        if (baosZipSources[i] != null) {
+          dosZipSources[i].close();
+          final int slotIndex = i;
+          zipTasks.add(ForkJoinPool.commonPool().submit(() -> zip(slotIndex)));
         }
-        idxAndLen.add(i);
-        if (doMeasurements) {
-          idxAndLen.add((int) (sm.statDetails[i].afterZip = deflater.getBytesWritten()));
-          idxAndLen.add((int) (sm.statDetails[i].beforeZip = deflater.getBytesRead()));
-          sm.statDetails[i].zipTime = System.currentTimeMillis() - startTime;
-        } else {
-          idxAndLen.add((int) deflater.getBytesWritten());
-          idxAndLen.add((int) deflater.getBytesRead());
+      }
+      for (Future<Zipped> zipTask : zipTasks) {
+        Zipped zipped = getZipResult(zipTask);
+        nbrEntries++;
+        zipped.writeTo(baosZipped);
+        addZipEntry(idxAndLen, zipped.slotIndex, zipped.bytesWritten, zipped.bytesRead,
+                zipped.zipTime);
+      }
+    } else if (codec != null) {
+      for (int i = 0; i < baosZipSources.length; i++) {
+        if (baosZipSources[i] != null) {
+          dosZipSources[i].close();
+          Zipped zipped = zip(i);
+          nbrEntries++;
+          zipped.writeTo(baosZipped);
+          addZipEntry(idxAndLen, i, zipped.bytesWritten, zipped.bytesRead, zipped.zipTime);
         }
       }
-    } // end of for loop
+    } else {
+      Deflater deflater = new Deflater(compressLevel.lvl, true);
+      deflater.setStrategy(compressStrategy.strat);
+
+      for (int i = 0; i < baosZipSources.length; i++) {
+        ByteArrayOutputStream baos = baosZipSources[i];
+        if (baos != null) {
+          nbrEntries++;
+          dosZipSources[i].close();
+          long startTime = System.currentTimeMillis();
+          int zipBufSize = Math.max(1024, baos.size() / 100);
+          deflater.reset();
+          try (var cds = new DeflaterOutputStream(baosZipped, deflater, zipBufSize)) {
+            baos.writeTo(cds);
+          }
+          addZipEntry(idxAndLen, i, deflater.getBytesWritten(), deflater.getBytesRead(),
+                  System.currentTimeMillis() - startTime);
+        }
+      } // end of for loop
+      deflater.end();
+    }
 
     // @formatter:off
     /** 
@@ -1267,6 +1365,91 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     baosZipped.writeTo(serializedOut); // write Compressed info
   }
 
+  private void addZipEntry(List<Integer> idxAndLen, int i, long bytesWritten, long bytesRead,
+          long zipTime) {
+    idxAndLen.add(i);
+    if (doMeasurements) {
+      idxAndLen.add((int) (sm.statDetails[i].afterZip = bytesWritten));
+      idxAndLen.add((int) (sm.statDetails[i].beforeZip = bytesRead));
+      sm.statDetails[i].zipTime = zipTime;
+    } else {
+      idxAndLen.add((int) bytesWritten);
+      idxAndLen.add((int) bytesRead);
+    }
+  }
+
+  /**
+   * The compressed form of one slot kind stream, either deflated or compressed by a codec
+   */
+  private static class Zipped {
+    final int slotIndex;
+    final ByteArrayOutputStream deflated;
+    final byte[] compressed;
+    final long bytesWritten;
+    final long bytesRead;
+    final long zipTime;
+
+    Zipped(int slotIndex, ByteArrayOutputStream deflated, byte[] compressed, long bytesWritten,
+            long bytesRead, long zipTime) {
+      this.slotIndex = slotIndex;
+      this.deflated = deflated;
+      this.compressed = compressed;
+      this.bytesWritten = bytesWritten;
+      this.bytesRead = bytesRead;
+      this.zipTime = zipTime;
+    }
+
+    void writeTo(ByteArrayOutputStream out) throws IOException {
+      if (compressed != null) {
+        out.write(compressed);
+      } else {
+        deflated.writeTo(out);
+      }
+    }
+  }
+
+  /**
+   * Compresses one slot kind stream on its own Deflater or with the codec, so it can run in
+   * parallel with the others. The result is the same as when compressing serially: each stream is
+   * compressed independently.
+   */
+  private Zipped zip(int slotIndex) throws IOException {
+    long startTime = System.currentTimeMillis();
+    ByteArrayOutputStream baos = baosZipSources[slotIndex];
+    if (codec != null) {
+      byte[] compressed = codec.compress(baos.toByteArray(), baos.size());
+      return new Zipped(slotIndex, null, compressed, compressed.length, baos.size(),
+              System.currentTimeMillis() - startTime);
+    }
+    ByteArrayOutputStream zipped = new ByteArrayOutputStream(Math.max(1024, baos.size() / 4));
+    Deflater deflater = new Deflater(compressLevel.lvl, true);
+    try {
+      deflater.setStrategy(compressStrategy.strat);
+      int zipBufSize = Math.max(1024, baos.size() / 100);
+      try (var cds = new DeflaterOutputStream(zipped, deflater, zipBufSize)) {
+        baos.writeTo(cds);
+      }
+      return new Zipped(slotIndex, zipped, null, deflater.getBytesWritten(),
+              deflater.getBytesRead(), System.currentTimeMillis() - startTime);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static <T> T getZipResult(Future<T> aTask) throws IOException {
+    try {
+      return aTask.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
   private void writeLong(long v, long prev) throws IOException {
     writeDiff(long_High_i, (int) (v >>> 32), (int) (prev >>> 32));
     writeDiff(long_Low_i, (int) v, (int) prev);
@@ -1870,9 +2053,50 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     bcsd.reinit(h, deserIn, null, CasLoadMode.DEFAULT, this, aAllowPreexistingFS, null);
   }
 
+  /**
+   * Deserializes data compressed with deflate. Data compressed with another codec fails with an
+   * IOException.
+   * 
+   * @param istream
+   *          positioned after the header
+   * @param aIsDelta
+   *          true if the serialized form is a delta CAS
+   * @param aAllowPreexistingFS
+   *          how to treat modifications to FSs below the delta mark
+   * @throws IOException
+   *           passthru, or if the data was not compressed with deflate
+   * @deprecated the header may name a codec other than deflate. Use
+   *             {@link #deserializeAfterVersion(DataInputStream, boolean, AllowPreexistingFS, BinaryCasCodec)}
+   *             with the codec {@link BinaryCasCodecs#forId(int)} returns for the codec id of the
+   *             header.
+   */
+  @Deprecated(since = "3.7.0")
   public void deserializeAfterVersion(DataInputStream istream, boolean aIsDelta,
           AllowPreexistingFS aAllowPreexistingFS) throws IOException {
+    verifyDeflated = true;
+    try {
+      deserializeAfterVersion(istream, aIsDelta, aAllowPreexistingFS, null);
+    } finally {
+      verifyDeflated = false;
+    }
+  }
+
+  /**
+   * @param istream
+   *          positioned after the header
+   * @param aIsDelta
+   *          true if the serialized form is a delta CAS
+   * @param aAllowPreexistingFS
+   *          how to treat modifications to FSs below the delta mark
+   * @param aCodec
+   *          the compression codec recorded in the header, null for deflate
+   * @throws IOException
+   *           passthru
+   */
+  public void deserializeAfterVersion(DataInputStream istream, boolean aIsDelta,
+          AllowPreexistingFS aAllowPreexistingFS, BinaryCasCodec aCodec) throws IOException {
 
+    codec = aCodec;
     allowPreexistingFS = aAllowPreexistingFS;
     if (aAllowPreexistingFS == AllowPreexistingFS.ignore) {
       throw new UnsupportedOperationException("AllowPreexistingFS.ignore not an allowed setting");
@@ -3420,11 +3644,37 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     for (int i = 0; i < nbrEntries; i++) {
       idxAndLen.add(deserIn.readUnsignedByte()); // slot ordinal number
       idxAndLen.add(deserIn.readInt()); // compressed size, bytes
-      idxAndLen.add(deserIn.readInt()); // decompressed size, bytes (not currently used)
+      idxAndLen.add(deserIn.readInt()); // decompressed size, bytes
     }
 
-    for (int i = 0; i < idxAndLen.size();) {
-      setupReadStream(idxAndLen.get(i++), idxAndLen.get(i++), idxAndLen.get(i++));
+    if (codec == null && verifyDeflated) {
+      // inflate each stream fully, so data written with another codec fails here
+      for (int i = 0; i < idxAndLen.size(); i += 3) {
+        int bytesCompr = idxAndLen.get(i + 1);
+        byte[] b = new byte[bytesCompr + 1]; // extra 0 byte, see setupReadStream
+        deserIn.readFully(b, 0, bytesCompr);
+        try {
+          dataInputs[idxAndLen.get(i)] = new DataInputStream(
+                  new ByteArrayInputStream(unzip(b, idxAndLen.get(i + 2))));
+        } catch (IOException e) {
+          throw new IOException("Cannot inflate the compressed binary form 6 data, it may have "
+                  + "been written with another codec than deflate, see BinaryCasCodecs", e);
+        }
+      }
+    } else if (parallelCompression) {
+      setupReadStreamsInParallel(idxAndLen);
+    } else if (codec != null) {
+      for (int i = 0; i < idxAndLen.size(); i += 3) {
+        int bytesCompr = idxAndLen.get(i + 1);
+        byte[] b = new byte[bytesCompr];
+        deserIn.readFully(b);
+        dataInputs[idxAndLen.get(i)] = new DataInputStream(
+                new ByteArrayInputStream(codec.decompress(b, bytesCompr, idxAndLen.get(i + 2))));
+      }
+    } else {
+      for (int i = 0; i < idxAndLen.size();) {
+        setupReadStream(idxAndLen.get(i++), idxAndLen.get(i++), idxAndLen.get(i++));
+      }
     }
 
     arrayLength_dis = dataInputs[arrayLength_i];
@@ -3483,6 +3733,51 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     dataInputs[slotIndex] = new DataInputStream(new BufferedInputStream(iis, zipBufSize * 1));
   }
 
+  /**
+   * Reads all the compressed streams, then inflates or decompresses them in parallel, each fully
+   * into memory.
+   */
+  private void setupReadStreamsInParallel(IntVector idxAndLen) throws IOException {
+    List<Future<byte[]>> unzipTasks = new ArrayList<>();
+    for (int i = 0; i < idxAndLen.size(); i += 3) {
+      int bytesCompr = idxAndLen.get(i + 1);
+      int bytesOrig = idxAndLen.get(i + 2);
+      byte[] b = new byte[bytesCompr + 1]; // extra 0 byte, see setupReadStream
+      deserIn.readFully(b, 0, bytesCompr);
+      unzipTasks.add(ForkJoinPool.commonPool().submit(() -> (codec == null) ? unzip(b, bytesOrig)
+              : codec.decompress(b, bytesCompr, bytesOrig)));
+    }
+    for (int i = 0; i < idxAndLen.size(); i += 3) {
+      byte[] uncompressed = getZipResult(unzipTasks.get(i / 3));
+      dataInputs[idxAndLen.get(i)] = new DataInputStream(new ByteArrayInputStream(uncompressed));
+    }
+  }
+
+  private static byte[] unzip(byte[] aCompressed, int aBytesOrig) throws IOException {
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(aCompressed);
+      byte[] uncompressed = new byte[aBytesOrig];
+      int n = 0;
+      while (n < aBytesOrig && !inflater.finished()) {
+        int k = inflater.inflate(uncompressed, n, aBytesOrig - n);
+        if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        n += k;
+      }
+      if (n != aBytesOrig) {
+        throw new IOException("Compressed stream inflated to " + n + " bytes, expected "
+                + aBytesOrig);
+      }
+      return uncompressed;
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+
   private void closeDataInputs() {
     for (DataInputStream is : dataInputs) {
       if (null != is) {
@@ -35,9 +35,15 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.MutableCallSite;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -105,11 +111,14 @@ import org.apache.uima.cas.impl.SlotKinds.SlotKind;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.cas.text.Language;
+import org.apache.uima.internal.util.ByteBufferInputStream;
 import org.apache.uima.internal.util.IntVector;
 import org.apache.uima.internal.util.Misc;
 import org.apache.uima.internal.util.PositiveIntSet;
 import org.apache.uima.internal.util.PositiveIntSet_impl;
+import org.apache.uima.internal.util.PrimitiveArrayInputStream;
 import org.apache.uima.internal.util.UIMAClassLoader;
+import org.apache.uima.internal.util.Utf8InputStream;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.AnnotationBase;
 import org.apache.uima.jcas.cas.BooleanArray;
@@ -248,6 +257,16 @@ public class CASImpl extends AbstractCas_ImplBase
           .getNoValueSystemProperty(DISABLE_PROTECT_INDEXES) && !IS_REPORT_FS_UPDATE_CORRUPTS_INDEX
           && !IS_THROW_EXCEPTION_CORRUPT_INDEX;
 
+  /**
+   * Set this JVM property to have getSofaDataStream read sofas with a file: URI from a memory
+   * mapping of the file, which is made once and kept until the CAS is reset, instead of opening the
+   * URI on every call.
+   */
+  public static final String ENABLE_MMAP_FILE_SOFA_URI = "uima.enable_mmap_file_sofa_uri";
+  // not final, so tests can switch it
+  static boolean IS_ENABLE_MMAP_FILE_SOFA_URI = Misc
+          .getNoValueSystemProperty(ENABLE_MMAP_FILE_SOFA_URI);
+
   public static final String ALWAYS_HOLD_ONTO_FSS = "uima.default_v2_id_references";
   static final boolean IS_ALWAYS_HOLD_ONTO_FSS = // debug and users of low-level cas apis with
                                                  // deserialization
@@ -452,6 +471,9 @@ public class CASImpl extends AbstractCas_ImplBase
     // often, the framework disables this before calling users code
     private boolean flushEnabled = true;
 
+    // If this CAS is frozen: read-only and safe to be read by multiple threads, until reset
+    private boolean isFrozen = false;
+
     // not final because set with reinit deserialization
     private TypeSystemImpl tsi;
 
@@ -525,6 +547,18 @@ public class CASImpl extends AbstractCas_ImplBase
      */
     AtomicInteger fsIdLastValue = new AtomicInteger(0);
 
+    /**
+     * Counts of created FSs by type code, or null. Set by a component while it processes this CAS,
+     * see {@link CASImpl#setFsCreationCounts(int[])}.
+     */
+    private int[] fsCreationCounts;
+
+    /**
+     * Memory mappings of sofas with a file: URI, made on first use and kept until reset. Guarded by
+     * itself.
+     */
+    private final Map<Sofa, ByteBuffer> sofaMappings = new IdentityHashMap<>();
+
     // mostly for debug - counts # times cas is reset
     private final AtomicInteger casResets = new AtomicInteger(0);
 
@@ -729,9 +763,15 @@ public class CASImpl extends AbstractCas_ImplBase
     }
 
     void clearCasReset() {
+      unfreeze();
+
       // fss
       fsIdGenerator = 0;
       lastFsV2Size = 1;
+      fsCreationCounts = null;
+      synchronized (sofaMappings) {
+        sofaMappings.clear();
+      }
       id2fs.clear();
 
       // pear caches
@@ -871,6 +911,23 @@ public class CASImpl extends AbstractCas_ImplBase
       switchControl.clear(); // https://issues.apache.org/jira/browse/UIMA-6057
     }
 
+    private void unfreeze() {
+      if (!isFrozen) {
+        return;
+      }
+      isFrozen = false;
+
+      int numViews = viewCount;
+      for (int view = 1; view <= numViews; view++) {
+        CASImpl tcas = ((view == 1) ? getInitialView() : getViewFromSofaNbr(view));
+        if (tcas != null) {
+          tcas.indexRepository.unfreeze();
+          tcas.frozenDocAnnot = null;
+        }
+      }
+      baseCAS.indexRepository.unfreeze();
+    }
+
     private void flushIndexRepositoriesAllViews() {
       int numViews = viewCount;
       for (int view = 1; view <= numViews; view++) {
@@ -1128,6 +1185,49 @@ public class CASImpl extends AbstractCas_ImplBase
     return !svd.flushEnabled;
   }
 
+  @Override
+  public boolean isFrozen() {
+    return svd.isFrozen;
+  }
+
+  /**
+   * Freezing sets up, for all views, the structures which readers otherwise create lazily: the
+   * views and their JCas, the copy-on-write wrappers used by iterators, the subtype caches and
+   * flattened arrays of the indexes, the annotation indexes by type and the document annotation.
+   * 
+   * @see org.apache.uima.cas.CAS#freeze()
+   */
+  @Override
+  public void freeze() {
+    if (svd.isFrozen) {
+      return;
+    }
+
+    List<CASImpl> views = new ArrayList<>();
+    svd.baseCAS.forAllViews(views::add);
+
+    svd.baseCAS.indexRepository.freeze();
+    for (CASImpl view : views) {
+      view.getJCasImpl();
+      view.indexRepository.freeze();
+      view.frozenDocAnnot = view.getDocumentAnnotationNoCreate();
+    }
+    svd.isFrozen = true;
+  }
+
+  /**
+   * Called before any modification of the CAS. Public for the array classes, not for general use.
+   * 
+   * @throws CASRuntimeException
+   *           if the CAS is frozen
+   */
+  public final void checkNotFrozen() {
+    if (svd.isFrozen) {
+      /** The CAS is frozen, it can''t be modified until it is reset. */
+      throw new CASRuntimeException(CASRuntimeException.CAS_IS_FROZEN);
+    }
+  }
+
   /** The index repository. Referenced by XmiCasSerializer */
   FSIndexRepositoryImpl indexRepository;
 
@@ -1176,6 +1276,12 @@ public class CASImpl extends AbstractCas_ImplBase
   // @formatter:on
   private volatile FSIterator<Annotation> docAnnotIter = null;
 
+  /**
+   * While the CAS is frozen, the document annotation of this view, since the shared docAnnotIter
+   * can't be used by multiple threads
+   */
+  private Annotation frozenDocAnnot = null;
+
   // UIMA-6199 provides access to non-indexed doc annot
   // to allow sofa setting to set the "length" of the local sofa data string
   // @see updateDocumentAnnotation() updateDocumentAnnotation.
@@ -1814,76 +1920,41 @@ public class CASImpl extends AbstractCas_ImplBase
     String sd = sofa.getLocalStringData();
 
     if (null != sd) {
-      ByteArrayInputStream bis;
-      bis = new ByteArrayInputStream(sd.getBytes(StandardCharsets.UTF_8));
-      return bis;
+      return new Utf8InputStream(sd);
 
     } else if (null != aSofa.getLocalFSData()) {
       TOP fs = (TOP) sofa.getLocalFSData();
-      ByteBuffer buf = null;
       switch (fs._getTypeCode()) {
 
-        case stringArrayTypeCode: {
-          StringBuilder sb = new StringBuilder();
-          final String[] theArray = ((StringArray) fs)._getTheArray();
+        case stringArrayTypeCode:
+          return new Utf8InputStream(((StringArray) fs)._getTheArray(), '\n');
 
-          for (int i = 0; i < theArray.length; i++) {
-            if (i != 0) {
-              sb.append('\n');
-            }
-            sb.append(theArray[i]);
-          }
-          return new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
-        }
-        case intArrayTypeCode: {
-          final int[] theArray = ((IntegerArray) fs)._getTheArray();
-          (buf = ByteBuffer.allocate(theArray.length * 4)).asIntBuffer().put(theArray, 0,
-                  theArray.length);
-          break;
-        }
+        case byteArrayTypeCode:
+          return new ByteArrayInputStream(((ByteArray) fs)._getTheArray());
 
-        case floatArrayTypeCode: {
-          final float[] theArray = ((FloatArray) fs)._getTheArray();
-          (buf = ByteBuffer.allocate(theArray.length * 4)).asFloatBuffer().put(theArray, 0,
-                  theArray.length);
-          break;
-        }
+        case intArrayTypeCode:
+          return new PrimitiveArrayInputStream(((IntegerArray) fs)._getTheArray());
 
-        case byteArrayTypeCode: {
-          final byte[] theArray = ((ByteArray) fs)._getTheArray();
-          buf = ByteBuffer.wrap(theArray);
-          break;
-        }
+        case floatArrayTypeCode:
+          return new PrimitiveArrayInputStream(((FloatArray) fs)._getTheArray());
 
-        case shortArrayTypeCode: {
-          final short[] theArray = ((ShortArray) fs)._getTheArray();
-          (buf = ByteBuffer.allocate(theArray.length * 2)).asShortBuffer().put(theArray, 0,
-                  theArray.length);
-          break;
-        }
+        case shortArrayTypeCode:
+          return new PrimitiveArrayInputStream(((ShortArray) fs)._getTheArray());
 
-        case longArrayTypeCode: {
-          final long[] theArray = ((LongArray) fs)._getTheArray();
-          (buf = ByteBuffer.allocate(theArray.length * 8)).asLongBuffer().put(theArray, 0,
-                  theArray.length);
-          break;
-        }
+        case longArrayTypeCode:
+          return new PrimitiveArrayInputStream(((LongArray) fs)._getTheArray());
 
-        case doubleArrayTypeCode: {
-          final double[] theArray = ((DoubleArray) fs)._getTheArray();
-          (buf = ByteBuffer.allocate(theArray.length * 8)).asDoubleBuffer().put(theArray, 0,
-                  theArray.length);
-          break;
-        }
+        case doubleArrayTypeCode:
+          return new PrimitiveArrayInputStream(((DoubleArray) fs)._getTheArray());
 
         default:
           throw Misc.internalError();
       }
 
-      ByteArrayInputStream bis = new ByteArrayInputStream(buf.array());
-      return bis;
-
     } else if (null != aSofa.getSofaURI()) {
+      if (IS_ENABLE_MMAP_FILE_SOFA_URI && isFileUri(aSofa.getSofaURI())) {
+        return new ByteBufferInputStream(getSofaMapping(sofa));
+      }
       URL url;
       try {
         url = new URL(aSofa.getSofaURI());
@@ -1895,6 +1966,86 @@ public class CASImpl extends AbstractCas_ImplBase
     return null;
   }
 
+  // @formatter:off
+  /**
+   * Gets the sofa data as a read-only byte buffer, with the same content as getSofaDataStream.
+   *   - byte array sofas are wrapped, not copied
+   *   - sofas with a file: URI are memory mapped; the mapping is made once and kept until reset
+   *   - other sofas are encoded or read into a new heap buffer
+   * 
+   * For internal use only
+   * 
+   * @param aSofa the sofa
+   * @return the sofa data, or null if not set
+   */
+  // @formatter:on
+  public ByteBuffer getSofaDataBuffer(SofaFS aSofa) {
+    Sofa sofa = (Sofa) aSofa;
+    if (sofa.getLocalStringData() == null && sofa.getLocalFSData() == null) {
+      String uri = sofa.getSofaURI();
+      if (uri == null) {
+        return null;
+      }
+      if (isFileUri(uri)) {
+        return getSofaMapping(sofa).asReadOnlyBuffer();
+      }
+    } else if (sofa.getLocalFSData() instanceof ByteArray) {
+      return ByteBuffer.wrap(((ByteArray) sofa.getLocalFSData())._getTheArray())
+              .asReadOnlyBuffer();
+    }
+
+    try (InputStream is = getSofaDataStream(sofa)) {
+      return ByteBuffer.wrap(is.readAllBytes()).asReadOnlyBuffer();
+    } catch (IOException exc) {
+      throw new CASRuntimeException(CASRuntimeException.SOFADATASTREAM_ERROR, exc.getMessage());
+    }
+  }
+
+  private static boolean isFileUri(String uri) {
+    return uri.regionMatches(true, 0, "file:", 0, 5);
+  }
+
+  /**
+   * @return a buffer over the memory mapped file of a sofa with a file: URI, shared by all callers
+   *         until reset, positioned at 0
+   */
+  private ByteBuffer getSofaMapping(Sofa sofa) {
+    synchronized (svd.sofaMappings) {
+      ByteBuffer mapping = svd.sofaMappings.get(sofa);
+      if (mapping == null) {
+        String uri = sofa.getSofaURI();
+        try (FileChannel channel = FileChannel.open(fileUriToPath(uri), StandardOpenOption.READ)) {
+          long size = channel.size();
+          if (size > Integer.MAX_VALUE) {
+            throw new IOException("Sofa file too large to map: " + uri);
+          }
+          mapping = channel.map(MapMode.READ_ONLY, 0, size);
+        } catch (IOException | IllegalArgumentException exc) {
+          throw new CASRuntimeException(CASRuntimeException.SOFADATASTREAM_ERROR,
+                  exc.getMessage());
+        }
+        svd.sofaMappings.put(sofa, mapping);
+      }
+      return mapping.duplicate();
+    }
+  }
+
+  /**
+   * file: URIs are often written with a relative path, e.g. "file:./x.txt", which
+   * URL.openStream accepts but Paths.get(URI) does not; those are resolved like URL does.
+   */
+  private static Path fileUriToPath(String uri) throws IOException {
+    try {
+      URI u = new URI(uri);
+      if (u.isOpaque()) {
+        return Paths.get(u.getSchemeSpecificPart());
+      }
+      return Paths.get(u);
+    } catch (URISyntaxException e) {
+      return Paths.get(new URL(uri).getPath());
+    }
+  }
+
   @Override
   public <T extends FeatureStructure> FSIterator<T> createFilteredIterator(FSIterator<T> it,
           FSMatchConstraint cons) {
@@ -2138,6 +2289,7 @@ public class CASImpl extends AbstractCas_ImplBase
   }
 
   final void setWithCheckAndJournal(TOP fs, FeatureImpl fi, Runnable setter) {
+    checkNotFrozen();
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, fi.getCode());
       setter.run();
@@ -2152,6 +2304,7 @@ public class CASImpl extends AbstractCas_ImplBase
   }
 
   public final void setWithCheckAndJournal(TOP fs, int featCode, Runnable setter) {
+    checkNotFrozen();
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, featCode);
       setter.run();
@@ -2184,6 +2337,7 @@ public class CASImpl extends AbstractCas_ImplBase
    *          -
    */
   public final void setWithJournal(FeatureStructureImplC fs, FeatureImpl fi, Runnable setter) {
+    checkNotFrozen();
     setter.run();
     maybeLogUpdate(fs, fi);
   }
@@ -2233,12 +2387,14 @@ public class CASImpl extends AbstractCas_ImplBase
   }
 
   public final void maybeLogUpdate(FeatureStructureImplC fs, FeatureImpl feat) {
+    checkNotFrozen();
     if (isLoggingNeeded(fs)) {
       this.logFSUpdate((TOP) fs, feat);
     }
   }
 
   public final void maybeLogUpdate(FeatureStructureImplC fs, int featCode) {
+    checkNotFrozen();
     if (isLoggingNeeded(fs)) {
       this.logFSUpdate((TOP) fs, getFeatFromCode_checked(featCode));
     }
@@ -2285,6 +2441,7 @@ public class CASImpl extends AbstractCas_ImplBase
    *          -
    */
   public void setLongValue(FeatureStructureImplC fsIn, FeatureImpl feat, long v) {
+    checkNotFrozen();
     TOP fs = (TOP) fsIn;
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, feat.getCode());
@@ -2628,6 +2785,7 @@ public class CASImpl extends AbstractCas_ImplBase
 
   @Override
   public CAS createView(String aSofaID) {
+    checkNotFrozen();
     // do sofa mapping for current component
     String absoluteSofaName = null;
     if (getCurrentComponentInfo() != null) {
@@ -4569,6 +4727,10 @@ public class CASImpl extends AbstractCas_ImplBase
       // base CAS has no document
       return null;
     }
+    if (svd.isFrozen) {
+      Annotation r = frozenDocAnnot;
+      return (T) ((r != null && inPearContext()) ? pearConvert(r) : r);
+    }
     FSIterator<Annotation> it = getDocAnnotIter();
     it.moveToFirst(); // revalidate in case index updated
     if (it.isValid()) {
@@ -4651,6 +4813,15 @@ public class CASImpl extends AbstractCas_ImplBase
 
   }
 
+  @Override
+  public ByteBuffer getSofaDataBuffer() {
+    if (this == svd.baseCAS) {
+      // base CAS has no Sofa
+      return null;
+    }
+    return mySofaIsValid() ? this.getSofaDataBuffer(mySofaRef) : null;
+  }
+
   @Override
   public String getSofaMimeType() {
     if (this == svd.baseCAS) {
@@ -5151,9 +5322,25 @@ public class CASImpl extends AbstractCas_ImplBase
   }
 
   public final int getNextFsId(TOP fs) {
+    checkNotFrozen();
+    final int[] counts = svd.fsCreationCounts;
+    if (counts != null) {
+      counts[fs._getTypeCode()]++;
+    }
     return svd.getNextFsId(fs);
   }
 
+  /**
+   * Internal use only. While set, each FS created in this CAS (in any view) increments the entry
+   * for its type code in the given array.
+   * 
+   * @param counts
+   *          an array at least as large as the largest type code + 1, or null to stop counting
+   */
+  public void setFsCreationCounts(int[] counts) {
+    svd.fsCreationCounts = counts;
+  }
+
   public void adjustLastFsV2Size_arrays(int arrayLength) {
     svd.lastFsV2Size += 1 + arrayLength; // 1 is for array length value
   }
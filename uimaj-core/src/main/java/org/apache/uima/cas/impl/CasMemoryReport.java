@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CommonArrayFS;
+import org.apache.uima.cas.FSIndex;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.jcas.cas.BooleanArray;
+import org.apache.uima.jcas.cas.ByteArray;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.ShortArray;
+import org.apache.uima.jcas.cas.Sofa;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.cas.TOP;
+
+// @formatter:off
+/**
+ * An estimate of the heap retained by a CAS, broken down by type, by index and by view.
+ *
+ * The estimate covers
+ *   - the Feature Structures which are indexed in any view, reachable from those, or kept in the
+ *     id to FS map, including their feature data, array contents and strings,
+ *   - the storage of all indexes of all views, including the free slots,
+ *   - the id to FS map.
+ *
+ * Sizes are computed for a 64 bit JVM with compressed object references, i.e. 12 byte object
+ * headers and 4 byte references, with objects aligned to 8 bytes. Strings are counted with 2
+ * bytes per character. Shared objects such as type system metadata are not counted.
+ *
+ * Creating a report walks all Feature Structures of the CAS, so the CAS must not be modified
+ * concurrently.
+ */
+// @formatter:on
+public final class CasMemoryReport {
+
+  private static final int OBJECT_HEADER = 12;
+
+  private static final int ARRAY_HEADER = 16;
+
+  private static final int REFERENCE = 4;
+
+  /** _intData, _refData, _casView, _typeImpl, _id and _flags of FeatureStructureImplC */
+  private static final int FS_FIELDS = 4 * REFERENCE + 2 * 4;
+
+  private final long featureStructureBytes;
+
+  private final long indexBytes;
+
+  private final long idMapBytes;
+
+  private final long retainedEmptyIndexBytes;
+
+  private final Map<String, Long> bytesByType;
+
+  private final Map<String, Long> bytesByIndex;
+
+  private final Map<String, Long> bytesByView;
+
+  private CasMemoryReport(long aFeatureStructureBytes, long aIndexBytes, long aIdMapBytes,
+          long aRetainedEmptyIndexBytes, Map<String, Long> aBytesByType,
+          Map<String, Long> aBytesByIndex, Map<String, Long> aBytesByView) {
+    featureStructureBytes = aFeatureStructureBytes;
+    indexBytes = aIndexBytes;
+    idMapBytes = aIdMapBytes;
+    retainedEmptyIndexBytes = aRetainedEmptyIndexBytes;
+    bytesByType = unmodifiableMap(aBytesByType);
+    bytesByIndex = unmodifiableMap(aBytesByIndex);
+    bytesByView = unmodifiableMap(aBytesByView);
+  }
+
+  /**
+   * Estimate the heap retained by the given CAS.
+   *
+   * @param aCas
+   *          the CAS or any of its views.
+   * @return the report.
+   */
+  public static CasMemoryReport of(CAS aCas) {
+    CASImpl cas = ((CASImpl) aCas).getBaseCAS();
+
+    long fsBytes = 0;
+    Map<String, Long> byType = new TreeMap<>();
+    for (TOP fs : new AllFSs(cas).getAllFSsAllViews_sofas_reachable().getAllFSs()) {
+      long bytes = estimateFs(fs);
+      fsBytes += bytes;
+      byType.merge(fs._getTypeImpl().getName(), bytes, Long::sum);
+    }
+
+    long idxBytes = 0;
+    long retainedBytes = 0;
+    Map<String, Long> byIndex = new TreeMap<>();
+    Map<String, Long> byView = new TreeMap<>();
+    // Views may share the index repository of the base CAS
+    Set<FSIndexRepositoryImpl> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<CASImpl> views = new ArrayList<>();
+    cas.forAllViews(views::add);
+    for (CASImpl view : views) {
+      FSIndexRepositoryImpl ir = view.indexRepository;
+      long viewBytes = 0;
+      if (ir != null && seen.add(ir)) {
+        for (FSIndexRepositoryImpl.IndexesForType i4t : ir.indexArray) {
+          if (i4t == null) {
+            continue;
+          }
+          for (FsIndex_iicp<TOP> iicp : i4t.indexesForType) {
+            FsIndex_singletype<TOP> index = iicp.fsIndex_singletype;
+            viewBytes += estimateIndex(index.getCapacity());
+            if (index.size() == 0 && index.getCapacity() > index.getInitialCapacity()) {
+              retainedBytes += estimateIndex(index.getCapacity())
+                      - estimateIndex(index.getInitialCapacity());
+            }
+          }
+        }
+        idxBytes += viewBytes;
+
+        for (Entry<String, FsIndex_iicp<TOP>> e : ir.name2indexMap.entrySet()) {
+          byIndex.put(view.getViewName() + "/" + e.getKey(), estimateIndex(ir, e.getValue()));
+        }
+      }
+
+      Sofa sofa = view.getSofa();
+      if (sofa != null) {
+        viewBytes += estimateFs(sofa);
+        TOP sofaArray = sofa.getSofaArray();
+        if (sofaArray != null) {
+          viewBytes += estimateFs(sofaArray);
+        }
+      }
+      byView.put(view.getViewName(), viewBytes);
+    }
+
+    Id2FS id2fs = cas.getId2FSs();
+    long idBytes = (id2fs == null) ? 0
+            : align(ARRAY_HEADER + (long) REFERENCE * id2fs.getCapacity());
+
+    return new CasMemoryReport(fsBytes, idxBytes, idBytes, retainedBytes, byType, byIndex, byView);
+  }
+
+  /**
+   * @return the estimated number of bytes retained by the CAS.
+   */
+  public long getTotalBytes() {
+    return featureStructureBytes + indexBytes + idMapBytes;
+  }
+
+  /**
+   * @return the estimated number of bytes of all Feature Structures.
+   */
+  public long getFeatureStructureBytes() {
+    return featureStructureBytes;
+  }
+
+  /**
+   * @return the estimated number of bytes of the storage of all indexes of all views.
+   */
+  public long getIndexBytes() {
+    return indexBytes;
+  }
+
+  /**
+   * @return the estimated number of bytes of the id to FS map.
+   */
+  public long getIdMapBytes() {
+    return idMapBytes;
+  }
+
+  /**
+   * The storage of indexes only shrinks gradually, so after a {@link CAS#reset()} the indexes of a
+   * pooled CAS can still hold the storage they have grown to for a large document. A large value
+   * right after a reset indicates that the CAS retains memory for such a document.
+   *
+   * @return the estimated number of bytes which empty indexes hold in addition to the storage of a
+   *         newly created index.
+   */
+  public long getRetainedEmptyIndexBytes() {
+    return retainedEmptyIndexBytes;
+  }
+
+  /**
+   * @return the estimated number of bytes of the Feature Structures by type name.
+   */
+  public Map<String, Long> getBytesByType() {
+    return bytesByType;
+  }
+
+  /**
+   * An index is counted with the storage for its type and all its subtypes. Since indexes defined
+   * with the same specification share their storage, the sum of these values can be greater than
+   * {@link #getIndexBytes()}.
+   *
+   * @return the estimated number of bytes of the storage of each index, by view name and index
+   *         label separated by a slash.
+   */
+  public Map<String, Long> getBytesByIndex() {
+    return bytesByIndex;
+  }
+
+  /**
+   * @return the estimated number of bytes of the index storage and the sofa data of each view, by
+   *         view name.
+   */
+  public Map<String, Long> getBytesByView() {
+    return bytesByView;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("CasMemoryReport [total=").append(getTotalBytes())
+            .append(", featureStructures=").append(featureStructureBytes).append(", indexes=")
+            .append(indexBytes).append(", idMap=").append(idMapBytes)
+            .append(", retainedEmptyIndexes=").append(retainedEmptyIndexBytes).append("]");
+    appendLargest(sb, "types", bytesByType);
+    appendLargest(sb, "indexes", bytesByIndex);
+    appendLargest(sb, "views", bytesByView);
+    return sb.toString();
+  }
+
+  private static void appendLargest(StringBuilder sb, String aTitle, Map<String, Long> aBytes) {
+    sb.append("\n  ").append(aTitle).append(":");
+    aBytes.entrySet().stream() //
+            .sorted(Entry.<String, Long> comparingByValue().reversed()) //
+            .limit(10) //
+            .forEachOrdered(e -> sb.append("\n    ").append(e.getKey()).append(": ")
+                    .append(e.getValue()));
+    if (aBytes.size() > 10) {
+      sb.append("\n    ... and ").append(aBytes.size() - 10).append(" more");
+    }
+  }
+
+  private static long estimateIndex(FSIndexRepositoryImpl aIr, FsIndex_iicp<TOP> aIicp) {
+    TypeImpl rootType = (TypeImpl) aIicp.fsIndex_singletype.getType();
+    int kind = aIicp.getIndexingStrategy();
+    FSIndexComparatorImpl comp = aIicp.fsIndex_singletype.getComparatorImplForIndexSpecs();
+
+    Set<FsIndex_singletype<?>> indexes = Collections.newSetFromMap(new IdentityHashMap<>());
+    indexes.add(aIicp.fsIndex_singletype);
+    if (kind != FSIndex.DEFAULT_BAG_INDEX) {
+      rootType.getAllSubtypes().forEach(subType -> {
+        FsIndex_iicp<FeatureStructure> sub = aIr.getIndexBySpec(subType.getCode(), kind, comp);
+        if (sub != null) {
+          indexes.add(sub.fsIndex_singletype);
+        }
+      });
+    }
+
+    long bytes = 0;
+    for (FsIndex_singletype<?> index : indexes) {
+      bytes += estimateIndex(index.getCapacity());
+    }
+    return bytes;
+  }
+
+  private static long estimateIndex(int aCapacity) {
+    return (aCapacity == 0) ? 0 : align(ARRAY_HEADER + (long) REFERENCE * aCapacity);
+  }
+
+  private static long estimateFs(TOP aFs) {
+    TypeImpl ti = aFs._getTypeImpl();
+
+    long bytes = align(OBJECT_HEADER + FS_FIELDS);
+    if (ti.nbrOfUsedIntDataSlots > 0) {
+      bytes += align(ARRAY_HEADER + 4L * ti.nbrOfUsedIntDataSlots);
+    }
+    if (ti.nbrOfUsedRefDataSlots > 0) {
+      bytes += align(ARRAY_HEADER + (long) REFERENCE * ti.nbrOfUsedRefDataSlots);
+    }
+
+    if (aFs instanceof CommonArrayFS) {
+      bytes += align(ARRAY_HEADER + (long) elementSize(aFs) * ((CommonArrayFS<?>) aFs).size());
+      if (aFs instanceof StringArray) {
+        for (String s : ((StringArray) aFs)) {
+          bytes += estimateString(s);
+        }
+      }
+    }
+
+    for (FeatureImpl feat : ti.getFeatureImpls()) {
+      if (feat.getRangeImpl().isStringOrStringSubtype()) {
+        bytes += estimateString(aFs._getStringValueNc(feat));
+      }
+    }
+    return bytes;
+  }
+
+  private static int elementSize(TOP aArray) {
+    if (aArray instanceof BooleanArray || aArray instanceof ByteArray) {
+      return 1;
+    }
+    if (aArray instanceof ShortArray) {
+      return 2;
+    }
+    if (aArray instanceof LongArray || aArray instanceof DoubleArray) {
+      return 8;
+    }
+    // int, float and reference arrays
+    return 4;
+  }
+
+  private static long estimateString(String aString) {
+    if (aString == null) {
+      return 0;
+    }
+    // the String object with hash and coder, plus the value array
+    return align(OBJECT_HEADER + REFERENCE + 4 + 1) + align(ARRAY_HEADER + 2L * aString.length());
+  }
+
+  private static long align(long aBytes) {
+    return (aBytes + 7) & ~7L;
+  }
+}
@@ -68,6 +68,8 @@ public class CommonSerDes {
    * 
    *   Second word:
    *     - bit in 0x01 position: on means form6, off = form 4 
+   *     - byte in 0xFF 00 position: form 6 compression codec id, 0 = deflate
+   *                                 (see BinaryCasCodec)
    *********************************************/
   // @formatter:on
   public static class Header {
@@ -79,6 +81,7 @@ public class CommonSerDes {
     boolean typeSystemIndexDefIncluded;
     byte seqVersionNbr = 2; // safety, might be changed to write v2 style
     boolean isV3;
+    int codecId; // form 6 compression codec, 0 = deflate
     boolean swap;
     int v; // for error messages
 
@@ -128,6 +131,15 @@ public class CommonSerDes {
       return this;
     }
 
+    public Header codec(int id) {
+      if (id < 0 || id > BinaryCasCodecs.MAX_CODEC_ID) {
+        throw new IllegalArgumentException("Binary CAS compression codec id " + id
+                + " is not between 0 and " + BinaryCasCodecs.MAX_CODEC_ID);
+      }
+      codecId = id;
+      return this;
+    }
+
     public void write(DataOutputStream dos) throws IOException {
       if (isV3) {
         assert seqVersionNbr >= 2;
@@ -160,7 +172,7 @@ public class CommonSerDes {
       dos.writeInt(v);
 
       if (isCompressed) {
-        dos.writeInt(form6 ? 1 : 0);
+        dos.writeInt((form6 ? 1 : 0) | (codecId << 8));
       }
 
     }
@@ -198,6 +210,10 @@ public class CommonSerDes {
       return isV3;
     }
 
+    public int getCodecId() {
+      return codecId;
+    }
+
   }
 
   public static Header createHeader() {
@@ -251,8 +267,9 @@ public class CommonSerDes {
 
     if (h.isCompressed) {
       v = r.readInt();
-      h.form4 = v == 0;
-      h.form6 = v == 1;
+      h.form4 = (v & 0xFF) == 0;
+      h.form6 = (v & 0xFF) == 1;
+      h.codecId = (v & 0xFF00) >> 8;
     }
 
     return h;
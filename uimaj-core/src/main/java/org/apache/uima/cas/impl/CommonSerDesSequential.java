@@ -76,6 +76,8 @@ public class CommonSerDesSequential {
    * For delta, the addr is the modeled addr for the full CAS including both above and below the
    * line.
    * 
+   * This is a hash map rather than an array indexed by the addr: arrays take 1 + their length addrs,
+   * so a few large arrays would leave most slots of such an array empty.
    */
   final Int2ObjHashMap<TOP, TOP> addr2fs = new Int2ObjHashMap<>(TOP.class);
 
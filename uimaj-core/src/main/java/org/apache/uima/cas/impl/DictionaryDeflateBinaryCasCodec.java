@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.uima.spi.BinaryCasCodec;
+
+/**
+ * Deflate with a preset dictionary shared by many serialized CASes, for instance the feature
+ * values which repeat across the documents of a {@link org.apache.uima.util.CasArchiveWriter CAS
+ * archive}. Repeated values are then encoded as back references into the dictionary, even in the
+ * first CAS using them.
+ * <p>
+ * The dictionary is not part of the serialized form, so this codec can't be looked up by its id;
+ * the deserializer has to be given the instance holding the same dictionary.
+ */
+public class DictionaryDeflateBinaryCasCodec implements BinaryCasCodec {
+
+  public static final int ID = 2;
+
+  public static final String NAME = "deflate-dictionary";
+
+  /** deflate only refers back this far, a longer dictionary is not used */
+  public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  private final byte[] dictionary;
+
+  /**
+   * @param aDictionary
+   *          the preset dictionary, most frequent content last; only the last
+   *          {@value #MAX_DICTIONARY_SIZE} bytes are used
+   */
+  public DictionaryDeflateBinaryCasCodec(byte[] aDictionary) {
+    dictionary = aDictionary.length > MAX_DICTIONARY_SIZE
+            ? Arrays.copyOfRange(aDictionary, aDictionary.length - MAX_DICTIONARY_SIZE,
+                    aDictionary.length)
+            : aDictionary.clone();
+  }
+
+  public byte[] getDictionary() {
+    return dictionary.clone();
+  }
+
+  @Override
+  public int getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] compress(byte[] aData, int aLength) throws IOException {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      if (dictionary.length > 0) {
+        deflater.setDictionary(dictionary);
+      }
+      deflater.setInput(aData, 0, aLength);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, aLength / 4));
+      byte[] buf = new byte[Math.max(1024, Math.min(aLength, 1 << 15))];
+      while (!deflater.finished()) {
+        int n = deflater.deflate(buf);
+        out.write(buf, 0, n);
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte[] decompress(byte[] aCompressed, int aCompressedLength, int aOriginalLength)
+          throws IOException {
+    // an extra 0 byte may be required by the Inflater with the nowrap option
+    byte[] input = Arrays.copyOf(aCompressed, aCompressedLength + 1);
+    Inflater inflater = new Inflater(true);
+    try {
+      if (dictionary.length > 0) {
+        inflater.setDictionary(dictionary);
+      }
+      inflater.setInput(input);
+      byte[] uncompressed = new byte[aOriginalLength];
+      int n = 0;
+      while (n < aOriginalLength && !inflater.finished()) {
+        int k = inflater.inflate(uncompressed, n, aOriginalLength - n);
+        if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        n += k;
+      }
+      if (n != aOriginalLength) {
+        throw new IOException(
+                "Compressed stream inflated to " + n + " bytes, expected " + aOriginalLength);
+      }
+      return uncompressed;
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -380,9 +380,9 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   // */
   // private List<FsIndex_iicp<?>> iicps4allFSs = null;
 
-  // Monitor which indexes are iterated over, to allow resetting flatIndexes
-  // final private List<FsIndex_iicp<? extends FeatureStructure>> iteratedSortedIndexes =
-  // Collections.synchronizedList(new ArrayList<FsIndex_iicp<? extends FeatureStructure>>());
+  // Monitor which indexes have flattened arrays, to allow dropping them on flush
+  private final List<FsIndex_iicp<? extends FeatureStructure>> iteratedSortedIndexes = Collections
+          .synchronizedList(new ArrayList<>());
 
   private final SharedIndexInfo sii;
 
@@ -666,6 +666,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
       return;
     }
 
+    clearIteratedSortedIndexes();
     annotationIndexes.clear();
     isUsed.clear();
     // isUsedChanged = true;
@@ -692,6 +693,59 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     usedIndexes.removeAllElements();
   }
 
+  /**
+   * Sets up the lazily created parts of all indexes of this view, so the view can be read by
+   * multiple threads, see {@link CASImpl#freeze()}
+   */
+  void freeze() {
+    if (!cas.isBaseCas()) {
+      // annotation indexes are otherwise looked up and remembered on first use
+      TypeImpl annotType = sii.tsi.annotType;
+      getAnnotationIndex(annotType);
+      annotType.getAllSubtypes().forEach(this::getAnnotationIndex);
+    }
+
+    for (IndexesForType i4t : indexArray) {
+      if (i4t != null) {
+        for (FsIndex_iicp<TOP> iicp : i4t.indexesForType) {
+          iicp.freeze();
+        }
+      }
+    }
+  }
+
+  /**
+   * Called when a frozen CAS is reset
+   */
+  void unfreeze() {
+    for (IndexesForType i4t : indexArray) {
+      if (i4t != null) {
+        for (FsIndex_iicp<TOP> iicp : i4t.indexesForType) {
+          iicp.unfreeze();
+        }
+      }
+    }
+  }
+
+  void addToIteratedSortedIndexes(FsIndex_iicp<? extends FeatureStructure> iicp) {
+    iteratedSortedIndexes.add(iicp);
+  }
+
+  private void clearIteratedSortedIndexes() {
+    if (iteratedSortedIndexes.isEmpty()) {
+      return;
+    }
+    // copy first, to not hold the list lock while taking the iicp locks
+    Object[] iicps;
+    synchronized (iteratedSortedIndexes) {
+      iicps = iteratedSortedIndexes.toArray();
+      iteratedSortedIndexes.clear();
+    }
+    for (Object iicp : iicps) {
+      ((FsIndex_iicp<?>) iicp).clearFlatArrays();
+    }
+  }
+
   // // for now, with flattened index optimization disabled, this should be a no-op
   // private void clearIteratedSortedIndexes() {
   // int sz = iteratedSortedIndexes.size();
@@ -1074,6 +1128,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
    */
   @Override
   public void removeAllExcludingSubtypes(Type type) {
+    cas.checkNotFrozen();
     final int typeCode = ((TypeImpl) type).getCode();
     // incrementIllegalIndexUpdateDetector(typeCode);
     // get a list of all indexes defined over this type
@@ -1330,6 +1385,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   }
 
   private <T extends TOP> void addFS_common(T fs, boolean isAddback) {
+    cas.checkNotFrozen();
     if (fs._isPearTrampoline()) {
       fs = fs._casView.getBaseFsFromTrampoline(fs);
     }
@@ -1446,6 +1502,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
    * @return true if it was removed
    */
   boolean removeFS_ret(TOP fs, boolean skipBagIndexes) {
+    cas.checkNotFrozen();
     if (skipBagIndexes && !fs._inSetSortedIndex()) {
       return false;
     }
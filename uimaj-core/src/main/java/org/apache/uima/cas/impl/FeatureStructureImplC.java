@@ -648,6 +648,7 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
     if (IS_ENABLE_RUNTIME_FEATURE_VALUE_VALIDATION) {
       featureValueValidation(feat, v);
     }
+    _casView.checkNotFrozen();
     // no need to check for index corruption because fs refs can't be index keys
     _setRefValueCommon(fi, _maybeGetBaseForPearFs((TOP) v));
     _casView.maybeLogUpdate(this, fi);
@@ -1897,6 +1898,7 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
 
   // used also for sofa string setting
   protected void _setRefValueCommonWj(FeatureImpl fi, Object v) {
+    _casView.checkNotFrozen();
     _setRefValueCommon(fi, v);
     _casView.maybeLogUpdate(this, fi);
   }
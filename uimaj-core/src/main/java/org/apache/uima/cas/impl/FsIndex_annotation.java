@@ -19,12 +19,17 @@
 
 package org.apache.uima.cas.impl;
 
+import java.util.List;
+import java.util.function.Predicate;
+
 import org.apache.uima.cas.FSIndex;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.impl.Subiterator.BoundsUse;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.cas.text.AnnotationTree;
+import org.apache.uima.internal.util.Misc;
+import org.apache.uima.jcas.cas.TOP;
 
 /**
  * Implementation of annotation indexes. Implements AnnotationIndex replaces AnnotationIndexImpl in
@@ -33,6 +38,23 @@ import org.apache.uima.cas.text.AnnotationTree;
 public class FsIndex_annotation<T extends AnnotationFS> extends FsIndex_iicp<T>
         implements AnnotationIndex<T> {
 
+  /**
+   * Set this JVM property to have covering and overlapping queries on annotation indexes answered
+   * from a lazily built interval index instead of by scanning the index. The interval index is
+   * rebuilt on the first query after the index was modified, so this pays off when such queries
+   * are frequent compared to index updates.
+   */
+  public static final String ENABLE_INTERVAL_INDEX = "uima.enable_annotation_interval_index";
+
+  public static final boolean IS_ENABLE_INTERVAL_INDEX = Misc
+          .getNoValueSystemProperty(ENABLE_INTERVAL_INDEX);
+
+  /** lazily built interval index in index order */
+  private AnnotationIntervalIndex<T> intervalIndex;
+
+  /** lazily built interval index in index order ignoring type */
+  private AnnotationIntervalIndex<T> intervalIndexIgnoringType;
+
   public FsIndex_annotation(FsIndex_singletype<T> fsIndex_singletype) {
     super(fsIndex_singletype);
   }
@@ -151,4 +173,61 @@ public class FsIndex_annotation<T extends AnnotationFS> extends FsIndex_iicp<T>
     return new FsIndex_snapshot<>(this, idx.comparatorWithoutID, idx.comparatorNoTypeWithoutID);
   }
 
+  /**
+   * Returns the annotations in this index which begin at or before the given begin and end at or
+   * after the given end, in index order. Uses the interval index, see
+   * {@link #ENABLE_INTERVAL_INDEX}.
+   * 
+   * @param begin
+   *          the largest begin of a returned annotation
+   * @param end
+   *          the smallest end of a returned annotation
+   * @return the covering annotations
+   */
+  public List<T> selectCovering(int begin, int end) {
+    return getIntervalIndex(false).select(begin, end, null);
+  }
+
+  /**
+   * Returns the annotations in this index which begin at or before the given begin and end at or
+   * after the given end, and which pass the filter, in index order. Uses the interval index, see
+   * {@link #ENABLE_INTERVAL_INDEX}.
+   * 
+   * @param maxBegin
+   *          the largest begin of a returned annotation
+   * @param minEnd
+   *          the smallest end of a returned annotation
+   * @param filter
+   *          an additional filter
+   * @return the matching annotations
+   */
+  public List<T> selectSpanning(int maxBegin, int minEnd, Predicate<? super T> filter) {
+    return getIntervalIndex(false).select(maxBegin, minEnd, filter);
+  }
+
+  /**
+   * For read-only CASes, this may be called on multiple threads, so it is synchronized
+   * 
+   * @param ignoreType
+   *          true to have the results ordered ignoring the type order
+   * @return an interval index which is up to date with the contents of this index
+   */
+  synchronized AnnotationIntervalIndex<T> getIntervalIndex(boolean ignoreType) {
+    createIndexIteratorCache();
+    int stamp = 0;
+    for (FsIndex_singletype<TOP> leaf : cachedSubFsLeafIndexes) {
+      stamp += leaf.modificationCount;
+    }
+
+    AnnotationIntervalIndex<T> r = ignoreType ? intervalIndexIgnoringType : intervalIndex;
+    if (r == null || r.modificationStamp != stamp) {
+      r = new AnnotationIntervalIndex<>(iterator(false, ignoreType), size(), stamp);
+      if (ignoreType) {
+        intervalIndexIgnoringType = r;
+      } else {
+        intervalIndex = r;
+      }
+    }
+    return r;
+  }
 }
@@ -77,6 +77,16 @@ public class FsIndex_bag<T extends FeatureStructure> extends FsIndex_singletype<
     return newComp;
   }
 
+  @Override
+  int getCapacity() {
+    return index.getCapacity();
+  }
+
+  @Override
+  int getInitialCapacity() {
+    return index.getInitialCapacity();
+  }
+
   @Override
   public void flush() {
     super.flush();
@@ -29,6 +29,7 @@ import org.apache.uima.cas.FSIndex;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.admin.FSIndexComparator;
+import org.apache.uima.internal.util.Misc;
 import org.apache.uima.jcas.cas.TOP;
 
 /**
@@ -53,6 +54,18 @@ class FsIndex_iicp<T extends FeatureStructure> extends AbstractCollection<T>
 
   // private final static boolean DEBUG = false;
 
+  /**
+   * Set this JVM property to always iterate sorted indexes over a type with subtypes by merging the
+   * subtype indexes, instead of using a cached flattened array when the index is iterated
+   * repeatedly without being updated.
+   */
+  public static final String DISABLE_FLAT_INDEX = "uima.disable_flat_index";
+
+  static final boolean IS_DISABLE_FLAT_INDEX = Misc.getNoValueSystemProperty(DISABLE_FLAT_INDEX);
+
+  /** upper limit for the adaptive number of iterators to wait for before flattening */
+  private static final int MAX_FLAT_BUILD_THRESHOLD = 64;
+
   final FSIndexRepositoryImpl fsIndexRepositoryImpl;
   /**
    * The "root" index, i.e., index of the type of the iterator. default visibility to make it
@@ -76,6 +89,41 @@ class FsIndex_iicp<T extends FeatureStructure> extends AbstractCollection<T>
    */
   int[] sortedTypeCodes;
 
+  // @formatter:off
+  /**
+   * Flattened index support (sorted indexes with subtypes only), guarded by this.
+   * 
+   * The flattened arrays hold the contents of the type + subtype indexes in iteration order,
+   * [0] in index order, [1] ignoring the type order. They are shared by all iterators created 
+   * while the index is not updated, and are never modified: an update just causes new arrays to 
+   * be built for later iterators.
+   * 
+   * An array is built once the number of ordered iterators created since the last update reaches 
+   * the threshold. The threshold adapts to the iteration-vs-update ratio observed so far: it is
+   * doubled when arrays were discarded after serving fewer than 2 iterators, and halved otherwise.
+   */
+  // @formatter:on
+  private final TOP[][] flatArrays = new TOP[2][];
+
+  /** the modification stamp the flatArrays and iteratorsSinceUpdate correspond to */
+  private int flatStamp = -1;
+
+  /** ordered iterators requested since the last update */
+  private int iteratorsSinceUpdate = 0;
+
+  /** iterators served from the current flatArrays */
+  private int flatArrayUses = 0;
+
+  private int flatBuildThreshold = 2;
+
+  private boolean isRegisteredForFlush = false;
+
+  /**
+   * While the CAS is frozen, the flattened arrays (elements may be null if not worth flattening),
+   * read without locking. null if not frozen.
+   */
+  private TOP[][] frozenFlatArrays = null;
+
   FsIndex_iicp(FsIndex_singletype<T> fsIndex_singletype) {
     this.fsIndex_singletype = fsIndex_singletype;
     fsIndexRepositoryImpl = fsIndex_singletype.casImpl.indexRepository;
@@ -513,9 +561,142 @@ class FsIndex_iicp<T extends FeatureStructure> extends AbstractCollection<T>
               comparatorMaybeNoTypeWithoutId);
     }
 
+    if (!IS_DISABLE_FLAT_INDEX) {
+      int stamp = getModificationStamp();
+      TOP[][] frozen = frozenFlatArrays;
+      TOP[] flat = (frozen != null) ? frozen[ignoreType ? 1 : 0]
+              : getFlatArray(ignoreType, false);
+      if (flat != null) {
+        return new FsIterator_subtypes_flat<>(this, flat, stamp, ignoreType,
+                comparatorMaybeNoTypeWithoutId);
+      }
+    }
+
     return new FsIterator_subtypes_ordered<>(this, comparatorMaybeNoTypeWithoutId);
   }
 
+  /**
+   * @return a value which changes whenever the index of the type or of one of its subtypes is
+   *         updated
+   */
+  int getModificationStamp() {
+    createIndexIteratorCache();
+    int stamp = 0;
+    for (FsIndex_singletype<TOP> leaf : cachedSubFsLeafIndexes) {
+      stamp += leaf.modificationCount;
+    }
+    return stamp;
+  }
+
+  /**
+   * For read-only CASes, this may be called on multiple threads, so it is synchronized
+   * 
+   * @param ignoreType
+   *          true to get the array ordered ignoring the type order
+   * @param force
+   *          true to build the array if it isn't cached, regardless of the adaptive threshold
+   * @return the contents of the index in iteration order, or null if not (yet) worth flattening
+   */
+  synchronized TOP[] getFlatArray(boolean ignoreType, boolean force) {
+    int stamp = getModificationStamp();
+    if (stamp != flatStamp) {
+      if (flatArrays[0] != null || flatArrays[1] != null) {
+        flatBuildThreshold = (flatArrayUses < 2)
+                ? Math.min(flatBuildThreshold << 1, MAX_FLAT_BUILD_THRESHOLD)
+                : Math.max(flatBuildThreshold >> 1, 1);
+        flatArrays[0] = flatArrays[1] = null;
+      }
+      flatStamp = stamp;
+      iteratorsSinceUpdate = 0;
+      flatArrayUses = 0;
+    }
+
+    int i = ignoreType ? 1 : 0;
+    TOP[] flat = flatArrays[i];
+    if (flat == null) {
+      if (!force && (++iteratorsSinceUpdate < flatBuildThreshold || !hasNonEmptySubtypes())) {
+        return null;
+      }
+      flat = flatArrays[i] = fillFlatArray(ignoreType);
+      if (!isRegisteredForFlush) {
+        fsIndexRepositoryImpl.addToIteratedSortedIndexes(this);
+        isRegisteredForFlush = true;
+      }
+    }
+    flatArrayUses++;
+    return flat;
+  }
+
+  /**
+   * @return true if more than one of the type + subtype indexes is non-empty, that is, if
+   *         iterating needs merging
+   */
+  private boolean hasNonEmptySubtypes() {
+    int n = 0;
+    for (FsIndex_singletype<TOP> leaf : cachedSubFsLeafIndexes) {
+      if (leaf.size() > 0 && ++n > 1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private TOP[] fillFlatArray(boolean ignoreType) {
+    FsIndex_singletype<T> idx = getFsIndex_singleType();
+    LowLevelIterator<T> it = new FsIterator_subtypes_ordered<>(this,
+            ignoreType ? idx.comparatorNoTypeWithoutID : idx.comparatorWithoutID);
+    TOP[] a = new TOP[size()];
+    int i = 0;
+    while (it.isValid()) {
+      a[i++] = (TOP) it.nextNvc();
+    }
+    return a;
+  }
+
+  /**
+   * Called when the CAS is frozen: sets up everything which is otherwise created lazily by readers,
+   * and publishes the flattened arrays of a sorted index with subtypes, so concurrent readers
+   * iterate without locking, see {@link CASImpl#freeze()}
+   */
+  void freeze() {
+    createIndexIteratorCache();
+    for (FsIndex_singletype<TOP> leaf : cachedSubFsLeafIndexes) {
+      leaf.freeze();
+    }
+
+    TOP[][] frozen = new TOP[2][];
+    if (!IS_DISABLE_FLAT_INDEX && cachedSubFsLeafIndexes.length > 1
+            && fsIndex_singletype.isSorted() && hasNonEmptySubtypes()) {
+      frozen[0] = getFlatArray(false, true);
+      frozen[1] = getFlatArray(true, true);
+    }
+    frozenFlatArrays = frozen;
+  }
+
+  /**
+   * Called when a frozen CAS is reset
+   */
+  void unfreeze() {
+    frozenFlatArrays = null;
+    if (cachedSubFsLeafIndexes != null) {
+      for (FsIndex_singletype<TOP> leaf : cachedSubFsLeafIndexes) {
+        leaf.unfreeze();
+      }
+    }
+  }
+
+  /**
+   * Drops the flattened arrays, called when the index repository is flushed, so they don't keep the
+   * Feature Structures reachable
+   */
+  synchronized void clearFlatArrays() {
+    flatArrays[0] = flatArrays[1] = null;
+    flatStamp = -1;
+    iteratorsSinceUpdate = 0;
+    flatArrayUses = 0;
+    isRegisteredForFlush = false;
+  }
+
   /**
    * Iterator over arbitrary Feature Structures, but also filters out non-AnnotationFS
    * FeatureStructures
@@ -29,7 +29,9 @@ import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.admin.FSIndexComparator;
 import org.apache.uima.internal.util.CopyOnWriteOrderedFsSet_array;
+import org.apache.uima.internal.util.Misc;
 import org.apache.uima.internal.util.OrderedFsSet_array;
+import org.apache.uima.internal.util.OrderedFsSet_chunked;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.jcas.tcas.Annotation;
 
@@ -58,6 +60,16 @@ public final class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
   // fast insert.
   // */
 
+  /**
+   * Define this JVM property to keep the entries of set and sorted indexes in chunks instead of one
+   * array, so adding and removing FSs in the middle of large indexes does not shift half of the
+   * index.
+   */
+  public static final String ENABLE_CHUNKED_INDEX_STORAGE = "uima.enable_chunked_index_storage";
+
+  public static final boolean IS_ENABLE_CHUNKED_INDEX_STORAGE = Misc
+          .getNoValueSystemProperty(ENABLE_CHUNKED_INDEX_STORAGE);
+
   // The index, a custom high-performance array impl
   private final OrderedFsSet_array<T> indexedFSs;
 
@@ -68,7 +80,19 @@ public final class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
           FSIndexComparator comparatorForIndexSpecs) {
     super(cas, type, indexType, comparatorForIndexSpecs);
 
-    indexedFSs = new OrderedFsSet_array<>(comparatorNoTypeWithID, comparatorNoTypeWithoutID);
+    indexedFSs = IS_ENABLE_CHUNKED_INDEX_STORAGE
+            ? new OrderedFsSet_chunked<>(comparatorNoTypeWithID, comparatorNoTypeWithoutID)
+            : new OrderedFsSet_array<>(comparatorNoTypeWithID, comparatorNoTypeWithoutID);
+  }
+
+  @Override
+  int getCapacity() {
+    return indexedFSs.getCapacity();
+  }
+
+  @Override
+  int getInitialCapacity() {
+    return indexedFSs.getInitialCapacity();
   }
 
   @Override
@@ -131,8 +155,7 @@ public final class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
   // @formatter:on
   @Override
   public T find(FeatureStructure templateKey) {
-    int pos = indexedFSs.findWithoutID((TOP) templateKey);
-    return (pos >= 0) ? indexedFSs.getAtPos(pos) : null;
+    return indexedFSs.findEqualWithoutID((TOP) templateKey);
   }
 
   // @Override
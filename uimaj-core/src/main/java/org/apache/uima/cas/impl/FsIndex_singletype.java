@@ -124,6 +124,18 @@ public abstract class FsIndex_singletype<T extends FeatureStructure> extends Abs
    */
   protected WeakReference<CopyOnWriteIndexPart<T>> wr_cow = null;
 
+  /**
+   * While the CAS is frozen, the copy-on-write wrapper shared by all iterators. Held strongly, so
+   * concurrent readers never need to create a new one.
+   */
+  private CopyOnWriteIndexPart<T> frozenCow = null;
+
+  /**
+   * Incremented on every modification of this index (add, remove, clear); used to detect when
+   * structures derived from the index contents, like the {@link AnnotationIntervalIndex}, are stale
+   */
+  int modificationCount = 0;
+
   @Override
   public String toString() {
     String kind = (indexType >= 0 && indexType < 4) ? indexTypes[indexType] : "Invalid";
@@ -522,7 +534,12 @@ public abstract class FsIndex_singletype<T extends FeatureStructure> extends Abs
   }
 
   protected CopyOnWriteIndexPart<T> getNonNullCow() {
-    CopyOnWriteIndexPart<T> n = getCopyOnWriteIndexPart();
+    CopyOnWriteIndexPart<T> n = frozenCow;
+    if (n != null) {
+      return n;
+    }
+
+    n = getCopyOnWriteIndexPart();
     if (n != null) {
       if (CASImpl.traceCow) {
         casImpl.traceCowReinit("reuse", this);
@@ -555,6 +572,7 @@ public abstract class FsIndex_singletype<T extends FeatureStructure> extends Abs
    * preserving copy of the index part, and set wr_cow to null
    */
   protected void maybeCopy() {
+    modificationCount++;
     if (wr_cow != null) {
       CopyOnWriteIndexPart v = wr_cow.get();
       if (v != null) {
@@ -564,9 +582,40 @@ public abstract class FsIndex_singletype<T extends FeatureStructure> extends Abs
     }
   }
 
+  /**
+   * Called when the CAS is frozen, see {@link CASImpl#freeze()}
+   */
+  void freeze() {
+    if (frozenCow == null) {
+      frozenCow = getNonNullCow();
+    }
+  }
+
+  /**
+   * Called when a frozen CAS is reset
+   */
+  void unfreeze() {
+    frozenCow = null;
+  }
+
+  /**
+   * @return the number of slots allocated by the storage of this index, including the free ones
+   */
+  int getCapacity() {
+    return 0;
+  }
+
+  /**
+   * @return the number of slots allocated by the storage of a newly created index
+   */
+  int getInitialCapacity() {
+    return 0;
+  }
+
   @Override
   public void flush() {
     // maybeCopy(); // https://issues.apache.org/jira/browse/UIMA-5687
+    modificationCount++;
     wr_cow = null;
     // casImpl.indexRepository.isUsedChanged = true;
   }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.jcas.cas.TOP;
+
+/**
+ * An ordered iterator over a sorted index of a type and its subtypes, which walks the flattened
+ * array cached by the {@link FsIndex_iicp} instead of merging the iterators of the subtype indexes.
+ *
+ * The cached array is never modified; like an iterator over a copy-on-write index part, this
+ * iterator continues over the contents the index had when the iterator was created or last
+ * re-initialized. moveToFirst, moveToLast and moveTo switch to the current contents if the index
+ * was updated in the meantime.
+ *
+ * @param <T>
+ *          result type
+ */
+class FsIterator_subtypes_flat<T extends FeatureStructure> implements LowLevelIterator<T> {
+
+  private final FsIndex_iicp<T> iicp;
+
+  private final boolean ignoreType;
+
+  private final Comparator<TOP> comparatorMaybeNoTypeWithoutId;
+
+  /** the flattened index, ordered by the comparator, then by id */
+  private TOP[] flat;
+
+  /** the modification stamp of the iicp the flattened index corresponds to */
+  private int stamp;
+
+  private int pos = 0;
+
+  FsIterator_subtypes_flat(FsIndex_iicp<T> iicp, TOP[] flat, int stamp, boolean ignoreType,
+          Comparator<TOP> comparatorMaybeNoTypeWithoutId) {
+    this.iicp = iicp;
+    this.flat = flat;
+    this.stamp = stamp;
+    this.ignoreType = ignoreType;
+    this.comparatorMaybeNoTypeWithoutId = comparatorMaybeNoTypeWithoutId;
+  }
+
+  @Override
+  public boolean isValid() {
+    return (0 <= pos) && (pos < flat.length);
+  }
+
+  @Override
+  public T getNvc() {
+    return (T) flat[pos];
+  }
+
+  @Override
+  public T get() throws NoSuchElementException {
+    if (isValid()) {
+      return (T) flat[pos];
+    }
+    throw new NoSuchElementException();
+  }
+
+  @Override
+  public void moveToNextNvc() {
+    pos++;
+  }
+
+  @Override
+  public void moveToPreviousNvc() {
+    pos--;
+  }
+
+  @Override
+  public void moveToFirstNoReinit() {
+    pos = 0;
+  }
+
+  @Override
+  public void moveToLastNoReinit() {
+    pos = flat.length - 1;
+  }
+
+  /**
+   * Moves to the leftmost element which is not less than fs, like the iterator merging the subtype
+   * indexes does.
+   */
+  @Override
+  public void moveToNoReinit(FeatureStructure fs) {
+    int lo = 0;
+    int hi = flat.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comparatorMaybeNoTypeWithoutId.compare(flat[mid], (TOP) fs) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    pos = lo;
+  }
+
+  @Override
+  public boolean isIndexesHaveBeenUpdated() {
+    return stamp != iicp.getModificationStamp();
+  }
+
+  @Override
+  public boolean maybeReinitIterator() {
+    int currentStamp = iicp.getModificationStamp();
+    if (currentStamp == stamp) {
+      return false;
+    }
+    flat = iicp.getFlatArray(ignoreType, true);
+    stamp = currentStamp;
+    return true;
+  }
+
+  @Override
+  public FSIterator<T> copy() {
+    FsIterator_subtypes_flat<T> it = new FsIterator_subtypes_flat<>(iicp, flat, stamp, ignoreType,
+            comparatorMaybeNoTypeWithoutId);
+    it.pos = pos;
+    return it;
+  }
+
+  @Override
+  public int ll_indexSizeMaybeNotCurrent() {
+    return flat.length;
+  }
+
+  @Override
+  public int ll_maxAnnotSpan() {
+    return iicp.ll_maxAnnotSpan();
+  }
+
+  @Override
+  public LowLevelIndex<T> ll_getIndex() {
+    return iicp;
+  }
+
+  @Override
+  public Comparator<TOP> getComparator() {
+    return comparatorMaybeNoTypeWithoutId;
+  }
+
+  @Override
+  public boolean isMoveToSupported() {
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return flat.length;
+  }
+}
@@ -94,6 +94,13 @@ public class Id2FS implements Iterable<TOP> {
     new Throwable().printStackTrace(System.out);
   }
 
+  /**
+   * @return the number of slots allocated by the map, including the free ones
+   */
+  int getCapacity() {
+    return id2fs.getCapacity();
+  }
+
   /** put but assert wasn't there before */
   void put(int id, TOP fs) {
     TOP prev = id2fs.put(id, fs);
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.uima.spi.BinaryCasCodec;
+
+/**
+ * A pure Java codec writing the LZ4 block format. It trades compression ratio for speed: it
+ * compresses and decompresses several times faster than deflate.
+ * <p>
+ * The compressor is a greedy single-probe hash matcher; the decompressor accepts any valid LZ4
+ * block.
+ */
+public class Lz4BinaryCasCodec implements BinaryCasCodec {
+
+  public static final int ID = 1;
+
+  public static final String NAME = "lz4";
+
+  private static final int MIN_MATCH = 4;
+  private static final int MAX_DISTANCE = 65535;
+  private static final int LAST_LITERALS = 5; // block ends with at least this many literals
+  private static final int MF_LIMIT = 12; // last match starts at least this far from the end
+  private static final int RUN_MASK = 15;
+  private static final int MAX_HASH_LOG = 16;
+
+  @Override
+  public int getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] compress(byte[] aData, int aLength) throws IOException {
+    byte[] out = new byte[aLength + aLength / 255 + 16];
+    int op = 0;
+    int anchor = 0;
+
+    if (aLength > MF_LIMIT) {
+      // smaller tables for small streams, to avoid clearing a large table for a few bytes
+      int hashLog = Math.min(MAX_HASH_LOG, 32 - Integer.numberOfLeadingZeros(aLength));
+      int[] table = new int[1 << hashLog]; // position + 1, 0 == empty
+      int matchLimit = aLength - LAST_LITERALS;
+      int ipLimit = aLength - MF_LIMIT;
+      int ip = 0;
+      while (ip < ipLimit) {
+        int seq = readInt(aData, ip);
+        int h = (seq * -1640531535) >>> (32 - hashLog);
+        int ref = table[h] - 1;
+        table[h] = ip + 1;
+        if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(aData, ref) != seq) {
+          ip++;
+          continue;
+        }
+
+        // extend the match backwards into pending literals
+        while (ip > anchor && ref > 0 && aData[ip - 1] == aData[ref - 1]) {
+          ip--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while (ip + matchLength < matchLimit && aData[ip + matchLength] == aData[ref + matchLength]) {
+          matchLength++;
+        }
+
+        op = writeSequence(out, op, aData, anchor, ip - anchor, ip - ref, matchLength);
+        ip += matchLength;
+        anchor = ip;
+      }
+    }
+
+    // last literals, without a match
+    int literalLength = aLength - anchor;
+    int tokenPos = op++;
+    if (literalLength >= RUN_MASK) {
+      out[tokenPos] = (byte) (RUN_MASK << 4);
+      op = writeLength(out, op, literalLength - RUN_MASK);
+    } else {
+      out[tokenPos] = (byte) (literalLength << 4);
+    }
+    System.arraycopy(aData, anchor, out, op, literalLength);
+    op += literalLength;
+
+    return Arrays.copyOf(out, op);
+  }
+
+  private static int writeSequence(byte[] out, int op, byte[] src, int literalStart,
+          int literalLength, int offset, int matchLength) {
+    int tokenPos = op++;
+    int token;
+    if (literalLength >= RUN_MASK) {
+      token = RUN_MASK << 4;
+      op = writeLength(out, op, literalLength - RUN_MASK);
+    } else {
+      token = literalLength << 4;
+    }
+    System.arraycopy(src, literalStart, out, op, literalLength);
+    op += literalLength;
+
+    out[op++] = (byte) offset;
+    out[op++] = (byte) (offset >>> 8);
+
+    int ml = matchLength - MIN_MATCH;
+    if (ml >= RUN_MASK) {
+      token |= RUN_MASK;
+      op = writeLength(out, op, ml - RUN_MASK);
+    } else {
+      token |= ml;
+    }
+    out[tokenPos] = (byte) token;
+    return op;
+  }
+
+  private static int writeLength(byte[] out, int op, int length) {
+    while (length >= 255) {
+      out[op++] = (byte) 255;
+      length -= 255;
+    }
+    out[op++] = (byte) length;
+    return op;
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | ((b[i + 2] & 0xFF) << 16)
+            | ((b[i + 3] & 0xFF) << 24);
+  }
+
+  @Override
+  public byte[] decompress(byte[] aCompressed, int aCompressedLength, int aOriginalLength)
+          throws IOException {
+    byte[] out = new byte[aOriginalLength];
+    int ip = 0;
+    int op = 0;
+    try {
+      while (true) {
+        int token = aCompressed[ip++] & 0xFF;
+
+        int literalLength = token >>> 4;
+        if (literalLength == RUN_MASK) {
+          int b;
+          do {
+            b = aCompressed[ip++] & 0xFF;
+            literalLength += b;
+          } while (b == 255);
+        }
+        if (ip + literalLength > aCompressedLength || op + literalLength > aOriginalLength) {
+          throw new IOException("Malformed LZ4 block: literals exceed the block");
+        }
+        System.arraycopy(aCompressed, ip, out, op, literalLength);
+        ip += literalLength;
+        op += literalLength;
+
+        if (ip == aCompressedLength) {
+          break; // the last sequence has no match
+        }
+
+        int offset = (aCompressed[ip++] & 0xFF) | ((aCompressed[ip++] & 0xFF) << 8);
+        if (offset == 0 || offset > op) {
+          throw new IOException("Malformed LZ4 block: invalid match offset " + offset);
+        }
+        int matchLength = token & RUN_MASK;
+        if (matchLength == RUN_MASK) {
+          int b;
+          do {
+            b = aCompressed[ip++] & 0xFF;
+            matchLength += b;
+          } while (b == 255);
+        }
+        matchLength += MIN_MATCH;
+        if (op + matchLength > aOriginalLength) {
+          throw new IOException("Malformed LZ4 block: match exceeds the original length");
+        }
+
+        int ref = op - offset;
+        if (offset >= matchLength) {
+          System.arraycopy(out, ref, out, op, matchLength);
+          op += matchLength;
+        } else {
+          // overlapping copy repeats the last offset bytes
+          for (int end = op + matchLength; op < end;) {
+            out[op++] = out[ref++];
+          }
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Malformed LZ4 block: truncated", e);
+    }
+
+    if (op != aOriginalLength) {
+      throw new IOException("Compressed stream decompressed to " + op + " bytes, expected "
+              + aOriginalLength);
+    }
+    return out;
+  }
+}
@@ -871,6 +871,11 @@ public class SelectFSs_impl<T extends FeatureStructure> implements SelectFSs<T>
       return it;
     }
 
+    if (boundsUse == BoundsUse.covering && FsIndex_annotation.IS_ENABLE_INTERVAL_INDEX
+            && !isNonOverlapping && !isTypePriority && !isFollowing && !isPreceding) {
+      return coveringIntervalIndexIterator(idx, ai);
+    }
+
     // bounds in use or non-overlapping, so index must be annotation index, is ordered
     Annotation secondaryBoundingFs = null;
     boolean isIncludeZeroWidthAtBegin = true;
@@ -899,6 +904,34 @@ public class SelectFSs_impl<T extends FeatureStructure> implements SelectFSs<T>
             isIncludeZeroWidthAtBegin, isIncludeZeroWidthAtEnd);
   }
 
+  /**
+   * Covering select answered from the interval index of the annotation index, instead of by
+   * scanning the index with a Subiterator. Skips the bounding FS the same way the Subiterator does.
+   * 
+   * @param idx
+   *          the annotation index
+   * @param ai
+   *          the same index, as annotation index
+   * @return a snapshot iterator over the covering annotations, in index order ignoring type
+   */
+  @SuppressWarnings("unchecked")
+  private LowLevelIterator<T> coveringIntervalIndexIterator(LowLevelIndex<T> idx,
+          FsIndex_annotation<Annotation> ai) {
+    Annotation bound = (Annotation) boundingFs;
+    int boundBegin = bound.getBegin();
+    int boundEnd = bound.getEnd();
+    TypeImpl boundType = bound._getTypeImpl();
+    int boundId = bound._id;
+
+    List<Annotation> covering = ai.getIntervalIndex(true).select(boundBegin, boundEnd,
+            fs -> fs._id != boundId && !(isSkipSameBeginEndType && fs.getBegin() == boundBegin
+                    && fs.getEnd() == boundEnd && fs._getTypeImpl() == boundType));
+
+    // the covering annotations come from idx, so they are Ts
+    return new FsIterator_subtypes_snapshot<>((T[]) covering.toArray(new Annotation[0]), idx,
+            IS_ORDERED, ai.getFsIndex_singleType().comparatorNoTypeWithoutID);
+  }
+
   private LowLevelIterator<T> maybeWrapBackwards(LowLevelIterator<T> it) {
     if (isBackwards) {
       it = new FsIterator_backwards<>(it); // positions the underlying iterator to last,
@@ -1026,52 +1059,86 @@ public class SelectFSs_impl<T extends FeatureStructure> implements SelectFSs<T>
    *   ORDERED - unless orderNotNeeded index or not SORTED_INDEX or SET_INDEX
    *   SORTED - only for SORTED_INDEX (and not orderNotNeeded?)
    *   SIZED - if exact size is (easily) known, just from index.
-   *           false if bounded, unambiguous
-   *   SUBSIZED - if spliterator result from trysplit also is SIZED, set to true for now
+   *           false if bounded, unambiguous, positioned or limited
+   *   SUBSIZED - together with SIZED: the spliterators returned by trySplit are SIZED
    * 
    * trySplit impl: 
-   *   always returns null (no parallelism support for now) 
+   *   the first split copies the remaining selected elements into an array, in iteration order;
+   *   this and all later splits hand out the first half of the remaining part of that array.
+   *   After the first split, all the spliterators are SIZED and SUBSIZED. 
+   *   
+   *   This supports parallel streams over a CAS which is not modified while the stream runs.
    * @return the spliterator
    */
 //@formatter:on
   @Override
   public Spliterator<T> spliterator() {
-    return new Spliterator<T>() {
+    return new SelectSpliterator();
+  }
 
-      private final FSIterator<T> it = fsIterator();
+  private class SelectSpliterator implements Spliterator<T> {
 
-      private final FSIndex<T> localIndex = index;
+    /** the iterator, until the first split copies the remaining elements into the array */
+    private LowLevelIterator<T> it;
 
-      private final Comparator<? super T> comparator = (localIndex != null
-              && localIndex.getIndexingStrategy() == FSIndex.SORTED_INDEX)
-                      ? (Comparator<? super T>) localIndex
-                      : null;
+    private final FSIndex<T> localIndex;
 
-      private final int characteristics;
-      { // set the characteristics and comparator
-        // always set
-        int c = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT;
+    private final Comparator<? super T> comparator;
 
-        if (!isAltSource && boundsUse == BoundsUse.notBounded && !isNonOverlapping) {
-          c |= Spliterator.SIZED | Spliterator.SUBSIZED;
-        }
+    private int characteristics;
 
-        // set per indexing strategy
-        switch ((null == localIndex) ? -1 : localIndex.getIndexingStrategy()) {
-          case FSIndex.SORTED_INDEX:
-            c |= Spliterator.ORDERED | Spliterator.SORTED;
-            break;
-          case FSIndex.SET_INDEX:
-            c |= Spliterator.ORDERED;
-            break;
-          default: // do nothing
-        }
+    /** the elements, after the first split */
+    private Object[] a;
+
+    /** the next element of the array to return */
+    private int pos;
+
+    /** one past the last element of the array to return */
+    private int end;
+
+    SelectSpliterator() {
+      it = (LowLevelIterator<T>) fsIterator();
+      localIndex = index;
+      comparator = (localIndex != null && localIndex.getIndexingStrategy() == FSIndex.SORTED_INDEX)
+              ? (Comparator<? super T>) localIndex
+              : null;
 
-        characteristics = c;
+      // always set
+      int c = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT;
+
+      if (!isAltSource && boundsUse == BoundsUse.notBounded && !isNonOverlapping && !isAllViews
+              && startingFs == null && shift == 0 && limit == -1 && !isFollowing
+              && !isPreceding) {
+        c |= Spliterator.SIZED | Spliterator.SUBSIZED;
+      }
+
+      // set per indexing strategy
+      switch ((null == localIndex) ? -1 : localIndex.getIndexingStrategy()) {
+        case FSIndex.SORTED_INDEX:
+          c |= Spliterator.ORDERED | Spliterator.SORTED;
+          break;
+        case FSIndex.SET_INDEX:
+          c |= Spliterator.ORDERED;
+          break;
+        default: // do nothing
       }
 
-      @Override
-      public boolean tryAdvance(Consumer<? super T> action) {
+      characteristics = c;
+    }
+
+    /** a spliterator for a part of the array of a split spliterator */
+    private SelectSpliterator(SelectSpliterator aParent, int aPos, int aEnd) {
+      localIndex = aParent.localIndex;
+      comparator = aParent.comparator;
+      characteristics = aParent.characteristics;
+      a = aParent.a;
+      pos = aPos;
+      end = aEnd;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (it != null) {
         if (it.isValid()) {
           action.accept(it.getNvc());
           incr(it);
@@ -1080,42 +1147,88 @@ public class SelectFSs_impl<T extends FeatureStructure> implements SelectFSs<T>
         return false;
       }
 
-      @Override
-      public Spliterator<T> trySplit() {
-        // return null for now
-        // could implement something based on type of fsIterator.
-        return null;
+      if (pos < end) {
+        action.accept((T) a[pos++]);
+        return true;
       }
+      return false;
+    }
 
-      @Override
-      public long estimateSize() {
-        if ((characteristics & Spliterator.SIZED) == Spliterator.SIZED && localIndex != null) {
-          return localIndex.size();
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      if (it != null) {
+        while (it.isValid()) {
+          action.accept(it.getNvc());
+          incr(it);
         }
+        return;
+      }
 
-        if (isAltSource) {
-          return altSourceIterator().size();
-        }
+      Object[] la = a;
+      int lend = end;
+      for (int i = pos; i < lend; i++) {
+        action.accept((T) la[i]);
+      }
+      pos = lend;
+    }
 
-        return fsIterator().size();
+    @Override
+    public Spliterator<T> trySplit() {
+      if (it != null) {
+        // the elements are copied in the thread starting the stream, respecting all the
+        // settings of the select; the parts are then processed without iterators
+        ArrayList<T> remaining = new ArrayList<>();
+        it.getArrayList(remaining);
+        it = null;
+        a = remaining.toArray();
+        pos = 0;
+        end = a.length;
+        characteristics |= Spliterator.SIZED | Spliterator.SUBSIZED;
       }
 
-      @Override
-      public int characteristics() {
-        return characteristics;
+      int mid = (pos + end) >>> 1;
+      if (pos >= mid) {
+        return null;
       }
 
-      @Override
-      public Comparator<? super T> getComparator() {
-        if (comparator != null) {
-          return comparator;
-        }
-        if ((characteristics & Spliterator.SORTED) == Spliterator.SORTED) {
-          return null;
-        }
-        throw new IllegalStateException();
+      // the prefix is split off, to keep the encounter order
+      SelectSpliterator prefix = new SelectSpliterator(this, pos, mid);
+      pos = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      if (it == null) {
+        return end - pos;
+      }
+
+      if ((characteristics & Spliterator.SIZED) == Spliterator.SIZED && localIndex != null) {
+        return localIndex.size();
+      }
+
+      if (isAltSource) {
+        return altSourceIterator().size();
       }
-    };
+
+      return fsIterator().size();
+    }
+
+    @Override
+    public int characteristics() {
+      return characteristics;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+      if (comparator != null) {
+        return comparator;
+      }
+      if ((characteristics & Spliterator.SORTED) == Spliterator.SORTED) {
+        return null;
+      }
+      throw new IllegalStateException();
+    }
   }
 
   /*
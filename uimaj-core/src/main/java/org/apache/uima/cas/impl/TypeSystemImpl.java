@@ -2179,6 +2179,25 @@ public class TypeSystemImpl implements TypeSystem, TypeSystemMgr, LowLevelTypeSy
     return m;
   }
 
+  /** the XMI deserializer shared by all users of this type system, created on first use */
+  private volatile XmiCasDeserializer xmiCasDeserializer;
+
+  XmiCasDeserializer getXmiCasDeserializer() {
+    if (!isCommitted()) {
+      return new XmiCasDeserializer(this);
+    }
+    XmiCasDeserializer d = xmiCasDeserializer;
+    if (d == null) {
+      synchronized (this) {
+        d = xmiCasDeserializer;
+        if (d == null) {
+          xmiCasDeserializer = d = new XmiCasDeserializer(this);
+        }
+      }
+    }
+    return d;
+  }
+
   // /**
   // * @param otherTs type system to compare to this one
   // * @return true if one or more identically named features have differently named ranges
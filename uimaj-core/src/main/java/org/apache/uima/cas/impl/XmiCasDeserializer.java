@@ -31,7 +31,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
 import org.apache.uima.UIMAException;
@@ -500,10 +503,9 @@ public class XmiCasDeserializer {
      */
     private void readFS(String nameSpaceURI, String localName, String qualifiedName,
             Attributes attrs) throws SAXException {
-      String typeName = xmiElementName2uimaTypeName(nameSpaceURI, localName);
-
-      currentType = (TypeImpl) ts.getType(typeName);
+      currentType = lookupType(nameSpaceURI, localName);
       if (currentType == null) {
+        String typeName = xmiElementName2uimaTypeName(nameSpaceURI, localName);
         // ignore NULL type
         if ("uima.cas.NULL".equals(typeName)) {
           return;
@@ -2108,15 +2110,31 @@ public class XmiCasDeserializer {
     }
   }
 
-  private TypeSystemImpl ts;
+  /** set on XML readers being returned to the pool, so they don't hold on to a CAS */
+  private static final DefaultHandler NO_HANDLER = new DefaultHandler();
 
-  private Map<String, String> xmiNamespaceToUimaNamespaceMap = new HashMap<>();
+  private final TypeSystemImpl ts;
+
+  /**
+   * For committed type systems: the types by UIMA namespace (with trailing dot, or "" for no
+   * namespace) and short name, so types are found without building their full names. null
+   * otherwise.
+   */
+  private final Map<String, Map<String, TypeImpl>> namespaceToTypes;
+
+  private final Map<String, String> xmiNamespaceToUimaNamespaceMap = new ConcurrentHashMap<>();
+
+  /** XML readers not in use by the read methods */
+  private final Queue<XMLReader> xmlReaders = new ConcurrentLinkedQueue<>();
 
   /**
    * Create a new deserializer from a type system.
    * <p>
    * Note: all CAS arguments later supplied to <code>getXCASHandler()</code> must have this type
    * system as their type system.
+   * <p>
+   * A deserializer may be used by multiple threads at the same time, and can be reused for any
+   * number of CASes; see {@link #forTypeSystem(TypeSystem)}.
    * 
    * @param ts
    *          The type system of the CASes to be deserialized.
@@ -2125,12 +2143,36 @@ public class XmiCasDeserializer {
    */
   public XmiCasDeserializer(TypeSystem ts, UimaContext uimaContext) {
     this.ts = (TypeSystemImpl) ts;
+    if (this.ts.isCommitted()) {
+      Map<String, Map<String, TypeImpl>> m = new HashMap<>();
+      for (TypeImpl type : this.ts.getAllTypes()) {
+        String name = type.getName();
+        int lastDot = name.lastIndexOf('.');
+        m.computeIfAbsent(name.substring(0, lastDot + 1), k -> new HashMap<>())
+                .put(name.substring(lastDot + 1), type);
+      }
+      namespaceToTypes = m;
+    } else {
+      namespaceToTypes = null;
+    }
   }
 
   public XmiCasDeserializer(TypeSystem ts) {
     this(ts, null);
   }
 
+  /**
+   * Gets a deserializer shared by all users of a committed type system. Using it instead of a new
+   * deserializer avoids redoing the setup work, such as creating an XML reader, for each CAS.
+   * 
+   * @param ts
+   *          a committed type system
+   * @return the deserializer for CASes having this type system
+   */
+  public static XmiCasDeserializer forTypeSystem(TypeSystem ts) {
+    return ((TypeSystemImpl) ts).getXmiCasDeserializer();
+  }
+
   // @formatter:off
   /* ========================================================= */
   /*      getters for Xmi Cas Handler                          */
@@ -2349,11 +2391,8 @@ public class XmiCasDeserializer {
   public static void deserialize(InputStream aStream, CAS aCAS, boolean aLenient,
           XmiSerializationSharedData aSharedData, int aMergePoint)
           throws SAXException, IOException {
-    XMLReader xmlReader = XMLUtils.createXMLReader();
-    XmiCasDeserializer deser = new XmiCasDeserializer(aCAS.getTypeSystem());
-    ContentHandler handler = deser.getXmiCasHandler(aCAS, aLenient, aSharedData, aMergePoint);
-    xmlReader.setContentHandler(handler);
-    xmlReader.parse(new InputSource(aStream));
+    forTypeSystem(aCAS.getTypeSystem()).read(aStream, aCAS, aLenient, aSharedData, aMergePoint,
+            AllowPreexistingFS.ignore);
   }
 
 //@formatter:off
@@ -2420,12 +2459,71 @@ public class XmiCasDeserializer {
   public static void deserialize(InputStream aStream, CAS aCAS, boolean aLenient,
           XmiSerializationSharedData aSharedData, int aMergePoint,
           AllowPreexistingFS allowPreexistingFS) throws SAXException, IOException {
-    XMLReader xmlReader = XMLUtils.createXMLReader();
-    XmiCasDeserializer deser = new XmiCasDeserializer(aCAS.getTypeSystem());
-    ContentHandler handler = deser.getXmiCasHandler(aCAS, aLenient, aSharedData, aMergePoint,
+    forTypeSystem(aCAS.getTypeSystem()).read(aStream, aCAS, aLenient, aSharedData, aMergePoint,
+            allowPreexistingFS);
+  }
+
+  /**
+   * Deserializes a CAS from XMI, using an XML reader pooled by this deserializer.
+   * 
+   * @param aStream
+   *          input stream from which to read the XMI document
+   * @param aCAS
+   *          CAS into which to deserialize. This CAS must have the type system of this
+   *          deserializer
+   * @param aLenient
+   *          if true, unknown Types will be ignored. If false, unknown Types will cause an
+   *          exception.
+   * 
+   * @throws SAXException
+   *           if an XML Parsing error occurs
+   * @throws IOException
+   *           if an I/O failure occurs
+   */
+  public void read(InputStream aStream, CAS aCAS, boolean aLenient)
+          throws SAXException, IOException {
+    read(aStream, aCAS, aLenient, null, -1, AllowPreexistingFS.ignore);
+  }
+
+  /**
+   * Deserializes a CAS from XMI, using an XML reader pooled by this deserializer. See
+   * {@link #deserialize(InputStream, CAS, boolean, XmiSerializationSharedData, int, AllowPreexistingFS)}
+   * for the arguments.
+   * 
+   * @param aStream
+   *          input stream from which to read the XMI document
+   * @param aCAS
+   *          CAS into which to deserialize. This CAS must have the type system of this
+   *          deserializer
+   * @param aLenient
+   *          if true, unknown Types will be ignored. If false, unknown Types will cause an
+   *          exception.
+   * @param aSharedData
+   *          a container for data that is shared between the {@link XmiCasSerializer} and the
+   *          {@link XmiCasDeserializer}, or null
+   * @param aMergePoint
+   *          used to support merging multiple XMI CASes, or -1
+   * @param allowPreexistingFS
+   *          used when deserializing delta CAS
+   * @throws SAXException
+   *           if an XML Parsing error occurs
+   * @throws IOException
+   *           if an I/O failure occurs
+   */
+  public void read(InputStream aStream, CAS aCAS, boolean aLenient,
+          XmiSerializationSharedData aSharedData, int aMergePoint,
+          AllowPreexistingFS allowPreexistingFS) throws SAXException, IOException {
+    XMLReader xmlReader = xmlReaders.poll();
+    if (xmlReader == null) {
+      xmlReader = XMLUtils.createXMLReader();
+    }
+    ContentHandler handler = getXmiCasHandler(aCAS, aLenient, aSharedData, aMergePoint,
             allowPreexistingFS);
     xmlReader.setContentHandler(handler);
     xmlReader.parse(new InputSource(aStream));
+    // only readers which completed a parse are reused
+    xmlReader.setContentHandler(NO_HANDLER);
+    xmlReaders.offer(xmlReader);
   }
 
   /**
@@ -2439,6 +2537,32 @@ public class XmiCasDeserializer {
    * @return the UIMA type name corresponding to the XMI element name
    */
   private String xmiElementName2uimaTypeName(String nsUri, String localName) throws SAXException {
+    return xmiNamespace2uimaNamespace(nsUri) + localName;
+  }
+
+  /**
+   * Finds the type of an XMI element, like
+   * <code>ts.getType(xmiElementName2uimaTypeName(nsUri, localName))</code>, but without building
+   * the type name
+   * 
+   * @return the type, or null if not in the type system
+   */
+  private TypeImpl lookupType(String nsUri, String localName) throws SAXException {
+    String uimaNamespace = xmiNamespace2uimaNamespace(nsUri);
+    if (namespaceToTypes != null) {
+      Map<String, TypeImpl> types = namespaceToTypes.get(uimaNamespace);
+      TypeImpl type = (types == null) ? null : types.get(localName);
+      if (type != null) {
+        return type;
+      }
+    }
+    return ts.getType(uimaNamespace + localName);
+  }
+
+  /**
+   * @return the UIMA namespace, with a trailing dot, or "" for the no-namespace URI
+   */
+  private String xmiNamespace2uimaNamespace(String nsUri) throws SAXException {
     // check map first to see if we've already computed the namespace mapping
     String uimaNamespace = xmiNamespaceToUimaNamespaceMap.get(nsUri);
     if (uimaNamespace == null) {
@@ -2465,7 +2589,7 @@ public class XmiCasDeserializer {
       }
       xmiNamespaceToUimaNamespaceMap.put(nsUri, uimaNamespace);
     }
-    return uimaNamespace + localName;
+    return uimaNamespace;
   }
 
   /*
@@ -40,6 +40,7 @@ import org.apache.uima.cas.impl.CasSerializerSupport.CasSerializerSupportSeriali
 import org.apache.uima.cas.impl.XmiSerializationSharedData.OotsElementData;
 import org.apache.uima.cas.impl.XmiSerializationSharedData.XmiArrayElement;
 import org.apache.uima.internal.util.Misc;
+import org.apache.uima.internal.util.Utf8XmlWriter;
 import org.apache.uima.internal.util.XmlAttribute;
 import org.apache.uima.internal.util.XmlElementName;
 import org.apache.uima.internal.util.XmlElementNameAndContents;
@@ -156,6 +157,15 @@ public class XmiCasSerializer {
 
   public static final char[] INT_TO_HEX = "0123456789ABCDEF".toCharArray();
 
+  /**
+   * Define this JVM property to have the static serialize methods write XMI through a JAXP
+   * Transformer, as before, instead of writing it directly to the output stream.
+   */
+  public static final String DISABLE_DIRECT_XMI_WRITER = "uima.disable_direct_xmi_writer";
+
+  public static final boolean IS_DISABLE_DIRECT_XMI_WRITER = Misc
+          .getNoValueSystemProperty(DISABLE_DIRECT_XMI_WRITER);
+
   private final CasSerializerSupport css = new CasSerializerSupport();
 
   private Map<String, String> nsUriToSchemaLocationMap = null;
@@ -401,11 +411,18 @@ public class XmiCasSerializer {
           boolean aPrettyPrint, XmiSerializationSharedData aSharedData, Marker aMarker,
           boolean useXml_1_1) throws SAXException {
     XmiCasSerializer xmiCasSerializer = new XmiCasSerializer(aTargetTypeSystem);
-    XMLSerializer sax2xml = new XMLSerializer(aStream, aPrettyPrint);
-    if (useXml_1_1) {
-      sax2xml.setOutputProperty(OutputKeys.VERSION, "1.1");
+    ContentHandler ch;
+    if (!IS_DISABLE_DIRECT_XMI_WRITER && Utf8XmlWriter.isSameOutputAsTransformer()) {
+      // same bytes as the Transformer, without its per-event overhead
+      ch = new Utf8XmlWriter(aStream, aPrettyPrint, useXml_1_1);
+    } else {
+      XMLSerializer sax2xml = new XMLSerializer(aStream, aPrettyPrint);
+      if (useXml_1_1) {
+        sax2xml.setOutputProperty(OutputKeys.VERSION, "1.1");
+      }
+      ch = sax2xml.getContentHandler();
     }
-    xmiCasSerializer.serialize(aCAS, sax2xml.getContentHandler(), null, aSharedData, aMarker);
+    xmiCasSerializer.serialize(aCAS, ch, null, aSharedData, aMarker);
   }
 
 //@formatter:off
@@ -587,6 +604,12 @@ public class XmiCasSerializer {
 
     private final AttributesImpl workAttrs = new AttributesImpl();
 
+    /**
+     * the writer, if it is the content handler. The feature structures are then written to it
+     * directly, without collecting their attributes in workAttrs
+     */
+    private final Utf8XmlWriter directWriter;
+
     // the number of children can't be easily computed, until serialization is attempted,
     // because the decision on whether to serialize arrays and lists "inline" or as separate
     // sub-elements is made at the point they're about to be serialized.
@@ -611,6 +634,7 @@ public class XmiCasSerializer {
             MarkerImpl marker) {
       cds = css.new CasDocSerializer(ch, cas, sharedData, marker, this);
       this.ch = ch;
+      directWriter = (ch instanceof Utf8XmlWriter) ? (Utf8XmlWriter) ch : null;
     }
 
     @Override
@@ -811,9 +835,11 @@ public class XmiCasSerializer {
       // encode features. this populates the attributes (workAttrs). It also
       // populates the child elements list with features that are to be encoded
       // as child elements (currently required for string arrays).
-      List<XmlElementNameAndContents> childElements = encodeFeatures(fs, workAttrs, isListAsFSs);
+      List<XmlElementNameAndContents> childElements = encodeFeatures(fs, isListAsFSs);
       XmlElementName xmlElementName = cds.typeCode2namespaceNames[typeCode];
-      startElement(xmlElementName, workAttrs, childElements.size());
+      if (directWriter == null) { // else started by writeFsStart
+        startElement(xmlElementName, workAttrs, childElements.size());
+      }
       sendElementEvents(childElements);
       endElement(xmlElementName);
     }
@@ -827,10 +853,15 @@ public class XmiCasSerializer {
         // string arrays are encoded as elements, in case they contain whitespace
         List<XmlElementNameAndContents> childElements = new ArrayList<>();
         stringArrayToElementList("elements", stringArray, childElements);
-        startElement(xmlElementName, workAttrs, childElements.size());
+        if (directWriter == null) { // else started by writeFsStart
+          startElement(xmlElementName, workAttrs, childElements.size());
+        }
         sendElementEvents(childElements);
         endElement(xmlElementName);
 
+      } else if (directWriter != null) { // started by writeFsStart
+        directWriter.attribute("elements", arrayToString(fsArray, typeClass));
+        endElement(xmlElementName);
       } else {
         // Saxon requirement? - can't omit (by using "") just one of localName & qName
         workAttrs.addAttribute("", "elements", "elements", "CDATA",
@@ -947,8 +978,6 @@ public class XmiCasSerializer {
      * 
      * @param addr
      *          Address of the FS
-     * @param attrs
-     *          SAX Attributes object, to which we will add attributes
      * @param insideListNode
      *          true iff this FS is a List type.
      * 
@@ -957,8 +986,8 @@ public class XmiCasSerializer {
      * @throws SAXException
      *           passthru
      */
-    private List<XmlElementNameAndContents> encodeFeatures(TOP fs, AttributesImpl attrs,
-            boolean insideListNode) throws SAXException {
+    private List<XmlElementNameAndContents> encodeFeatures(TOP fs, boolean insideListNode)
+            throws SAXException {
       List<XmlElementNameAndContents> childElements = new ArrayList<>();
       // int heapValue = cds.cas.getHeapValue(addr);
       // int[] feats = cds.tsi.ll_getAppropriateFeatures(heapValue);
@@ -1087,7 +1116,7 @@ public class XmiCasSerializer {
         } // end of switch
 
         if (attrValue != null && featName != null) {
-          addAttribute(attrs, featName, attrValue, "");
+          addFeatureAttribute(featName, attrValue, "");
         }
       } // end of for loop over all features
 
@@ -1099,7 +1128,7 @@ public class XmiCasSerializer {
           Iterator<XmlAttribute> attrIter = oed.attributes.iterator();
           while (attrIter.hasNext()) {
             XmlAttribute attr = attrIter.next();
-            addAttribute(workAttrs, attr.name, attr.value);
+            addFeatureAttribute(attr.name, attr.value, CDATA_TYPE);
           }
           // child elements
           childElements.addAll(oed.childElements);
@@ -1291,7 +1320,12 @@ public class XmiCasSerializer {
       Iterator<? extends XmlElementNameAndContents> childIter = elements.iterator();
       while (childIter.hasNext()) {
         XmlElementNameAndContents elem = childIter.next();
-        if (elem.contents != null) {
+        if (directWriter != null) {
+          directWriter.startElement(elem.name.qName);
+          if (elem.contents != null) {
+            directWriter.characters(elem.contents);
+          }
+        } else if (elem.contents != null) {
           startElement(elem.name, emptyAttrs, 1);
           addText(elem.contents);
         } else {
@@ -1336,6 +1370,19 @@ public class XmiCasSerializer {
       // but handles a missing localName correctly
     }
 
+    /**
+     * Adds an attribute of the feature structure being written, directly to the writer if there is
+     * one, otherwise to workAttrs.
+     */
+    private void addFeatureAttribute(String attrName, String attrValue, String type)
+            throws SAXException {
+      if (directWriter != null) {
+        directWriter.attribute(attrName, attrValue);
+      } else {
+        addAttribute(workAttrs, attrName, attrValue, type);
+      }
+    }
+
     private void addIdAttribute(AttributesImpl attrs, String attrValue) {
       attrs.addAttribute(XMI_NS_URI, "id", ID_ATTR_NAME, CDATA_TYPE, attrValue);
     }
@@ -1353,7 +1400,13 @@ public class XmiCasSerializer {
     };
 
     @Override
-    protected boolean writeFsStart(TOP fs, int typeCode /* ignored */) {
+    protected boolean writeFsStart(TOP fs, int typeCode) throws SAXException {
+      if (directWriter != null) {
+        // the element is started here, the writeXxx methods called next add to it
+        directWriter.startElement(cds.typeCode2namespaceNames[typeCode].qName);
+        directWriter.attribute(ID_ATTR_NAME, cds.getXmiId(fs));
+        return false; // ignored
+      }
       workAttrs.clear();
       addIdAttribute(workAttrs, cds.getXmiId(fs));
       return false; // ignored
@@ -124,7 +124,15 @@ public class XmiSerializationSharedData {
   Map<TOP, TOP> nonsharedfeatureIdToFSId = new IdentityHashMap<>();
   // Int2IntHashMap nonsharedfeatureIdToFSId = new Int2IntHashMap();
 
-  void addIdMapping(TOP fs, int xmiId) {
+  /**
+   * Records the id of a FS, as used by deserializers
+   * 
+   * @param fs
+   *          the feature structure
+   * @param xmiId
+   *          its id in the serialized form
+   */
+  public void addIdMapping(TOP fs, int xmiId) {
     fsToXmiId.put(fs, xmiId);
     xmiIdToFs.put(xmiId, fs);
     if (xmiId > maxXmiId) {
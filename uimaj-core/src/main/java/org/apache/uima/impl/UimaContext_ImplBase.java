@@ -744,7 +744,9 @@ public abstract class UimaContext_ImplBase implements UimaContextAdmin {
       CasManager casManager = getResourceManager().getCasManager();
       // CAS cas = casManager.getCas(getQualifiedContextName());
       // this might wait, if the cas pool is empty
+      long start = System.nanoTime();
       cas = casManager.getCas(getUniqueName());
+      mMBean.reportWaitTimeNanos(System.nanoTime() - start);
 
       // add to the set of outstanding CASes
       mOutstandingCASes.add(((CASImpl) cas).getBaseCAS());
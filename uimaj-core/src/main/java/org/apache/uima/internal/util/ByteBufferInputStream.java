@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading the remaining bytes of a byte buffer, for instance a memory mapped file,
+ * without copying them to the heap first.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+  private final ByteBuffer buf;
+
+  /**
+   * @param buf
+   *          the buffer to read; it is duplicated, so its position is not changed
+   */
+  public ByteBufferInputStream(ByteBuffer buf) {
+    this.buf = buf.duplicate();
+  }
+
+  @Override
+  public int read() {
+    return buf.hasRemaining() ? (buf.get() & 0xff) : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    if (!buf.hasRemaining()) {
+      return -1;
+    }
+    final int n = Math.min(len, buf.remaining());
+    buf.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) {
+    final int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+    buf.position(buf.position() + k);
+    return k;
+  }
+
+  @Override
+  public int available() {
+    return buf.remaining();
+  }
+}
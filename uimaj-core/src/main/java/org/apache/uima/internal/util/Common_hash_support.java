@@ -471,11 +471,20 @@ public abstract class Common_hash_support {
     }
   }
 
-  // test case use
-  int getCapacity() {
+  /**
+   * @return the number of slots of the table, including the free ones
+   */
+  public int getCapacity() {
     return keys_length();
   }
 
+  /**
+   * @return the number of slots of the table when it was created
+   */
+  public int getInitialCapacity() {
+    return initialCapacity;
+  }
+
   protected abstract class CommonKeyIterator implements IntListIterator {
 
     protected int curPosition;
@@ -40,14 +40,18 @@ public class CopyOnWriteOrderedFsSet_array<T extends FeatureStructure>
 
   public T[] a; // derived from "set" above
 
+  /** true after the index was modified, see {@link #makeReadOnlyCopy()} */
+  private boolean isCopied = false;
+
   public CopyOnWriteOrderedFsSet_array(OrderedFsSet_array<T> original) {
-    set = original;
+    // for the array implementation this is the original, otherwise an immutable snapshot of it
+    set = original.snapshotForIteration();
     this.original = original;
     // this.comparatorNoTypeWithoutID = original.comparatorNoTypeWithoutID;
     // this.comparatorNoTypeWithID = original.comparatorNoTypeWithID;
-    a_firstUsedslot = original.a_firstUsedslot;
-    a_nextFreeslot = original.a_nextFreeslot;
-    a = (T[]) original.a;
+    a_firstUsedslot = set.a_firstUsedslot;
+    a_nextFreeslot = set.a_nextFreeslot;
+    a = (T[]) set.a;
     original_size = original.size();
   }
 
@@ -57,8 +61,11 @@ public class CopyOnWriteOrderedFsSet_array<T extends FeatureStructure>
    */
   @Override
   public void makeReadOnlyCopy() {
-    set = new OrderedFsSet_array<>(set, true); // true = make read only copy
-    a = (T[]) set.a;
+    if (set == original) {
+      set = new OrderedFsSet_array<>(set, true); // true = make read only copy
+      a = (T[]) set.a;
+    } // else already using an immutable snapshot, which the update does not affect
+    isCopied = true;
   }
 
   /*
@@ -68,7 +75,7 @@ public class CopyOnWriteOrderedFsSet_array<T extends FeatureStructure>
    */
   @Override
   public boolean isOriginal() {
-    return set == original;
+    return !isCopied;
   }
 
   /**
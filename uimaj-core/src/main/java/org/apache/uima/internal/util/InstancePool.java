@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//@formatter:off
+/**
+ * A fixed set of reusable instances, checked out and checked back in by multiple threads. This is
+ * the common mechanism behind the CAS pools and the resource pool.
+ * <p>
+ * Design considerations:
+ *   - no monitors are used: the free instances are held in a lock-free deque and waiting is done
+ *     with a fair {@link Semaphore}, which parks the thread, so waiting virtual threads do not pin
+ *     their carrier thread.
+ *   - waiting threads are served in arrival order, also when they wait with a timeout, so no thread
+ *     starves.
+ *   - the most recently released instance is reused first, so if only a few instances are
+ *     needed at a time, the same few are used.
+ *   - each instance has a checked-out flag which is switched atomically, so releasing an instance
+ *     which is not checked out (e.g. releasing it twice) is detected without locking.
+ * <p>
+ * Instances are compared by identity.
+ *
+ * @param <T>
+ *          the kind of instance pooled
+ */
+//@formatter:on
+public class InstancePool<T> {
+
+  /** read-only after construction, maps each instance to its checked-out flag */
+  private final Map<T, AtomicBoolean> mCheckedOut;
+
+  private final List<T> mAllInstances;
+
+  private final ConcurrentLinkedDeque<T> mFreeInstances = new ConcurrentLinkedDeque<>();
+
+  /** one permit per free instance; released only after the instance is in mFreeInstances */
+  private final Semaphore mPermits;
+
+  private final AtomicInteger mInUse = new AtomicInteger();
+
+  private final AtomicInteger mPeakInUse = new AtomicInteger();
+
+  private final LongAdder mAcquireCount = new LongAdder();
+
+  private final LongAdder mTimeoutCount = new LongAdder();
+
+  private volatile boolean mCleared = false;
+
+  /** threads in {@link #acquire(Object)} wait on this to be signalled when an instance is released */
+  private final ReentrantLock mSpecificLock = new ReentrantLock();
+
+  private final Condition mReleased = mSpecificLock.newCondition();
+
+  /** the number of threads in {@link #acquire(Object)}, so releasing only signals if needed */
+  private final AtomicInteger mSpecificWaiters = new AtomicInteger();
+
+  /**
+   * @param aInstances
+   *          the instances to pool; all are initially free
+   */
+  public InstancePool(Collection<? extends T> aInstances) {
+    Map<T, AtomicBoolean> checkedOut = new IdentityHashMap<>(aInstances.size());
+    List<T> all = new ArrayList<>(aInstances.size());
+    for (T instance : aInstances) {
+      if (checkedOut.putIfAbsent(instance, new AtomicBoolean()) == null) {
+        all.add(instance);
+      }
+    }
+    mCheckedOut = checkedOut;
+    mAllInstances = Collections.unmodifiableList(all);
+    mFreeInstances.addAll(mAllInstances);
+    mPermits = new Semaphore(mAllInstances.size(), true);
+  }
+
+  /**
+   * Checks out an instance if one is free and no other thread is waiting for one.
+   *
+   * @return an instance, or <code>null</code> if none is available
+   */
+  public T tryAcquire() {
+    // the untimed tryAcquire() would barge ahead of waiting threads
+    try {
+      return acquire(0, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  /**
+   * Checks out an instance, waiting up to the given time for one to be released.
+   *
+   * @param aTimeout
+   *          the maximum time to wait
+   * @param aUnit
+   *          the unit of the timeout
+   * @return an instance, or <code>null</code> if none became available in time
+   * @throws InterruptedException
+   *           if the thread is interrupted while waiting
+   */
+  public T acquire(long aTimeout, TimeUnit aUnit) throws InterruptedException {
+    if (!mPermits.tryAcquire(aTimeout, aUnit)) {
+      mTimeoutCount.increment();
+      return null;
+    }
+    return checkOut(mFreeInstances.pop());
+  }
+
+  /**
+   * Checks out an instance, waiting as long as needed for one to be released.
+   *
+   * @return an instance
+   */
+  public T acquireUninterruptibly() {
+    mPermits.acquireUninterruptibly();
+    return checkOut(mFreeInstances.pop());
+  }
+
+  /**
+   * Checks out a particular instance of this pool, waiting as long as needed until it is released.
+   * Meant for rare administrative operations on all instances.
+   *
+   * @param aInstance
+   *          the instance to check out
+   * @throws IllegalArgumentException
+   *           if the instance does not belong to this pool
+   */
+  public void acquire(T aInstance) {
+    if (!mCheckedOut.containsKey(aInstance)) {
+      throw new IllegalArgumentException("Instance does not belong to this pool");
+    }
+    // registered before checking, so a release happening after the check signals this thread
+    mSpecificWaiters.incrementAndGet();
+    mSpecificLock.lock();
+    try {
+      while (true) {
+        // the untimed tryAcquire() barges ahead of waiting threads, but the permit is kept only if
+        // the instance is free, otherwise it is handed on right away
+        if (mPermits.tryAcquire()) {
+          if (removeFree(aInstance)) {
+            checkOut(aInstance);
+            return;
+          }
+          mPermits.release();
+        }
+        mReleased.awaitUninterruptibly();
+      }
+    } finally {
+      mSpecificLock.unlock();
+      mSpecificWaiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Checks an instance back in and wakes up the longest waiting thread, if any.
+   *
+   * @param aInstance
+   *          the instance to release
+   * @return <code>false</code> if the instance does not belong to this pool or is not checked out,
+   *         in which case nothing is done
+   */
+  public boolean release(T aInstance) {
+    if (!beginRelease(aInstance)) {
+      return false;
+    }
+    endRelease(aInstance);
+    return true;
+  }
+
+  /**
+   * First half of {@link #release(Object)}, for callers which need to clean up an instance before
+   * it can be handed out again. Marks the instance as no longer checked out, so that concurrent
+   * attempts to release the same instance fail, without making it available yet. Must be followed
+   * by {@link #endRelease(Object)} if successful.
+   *
+   * @param aInstance
+   *          the instance to release
+   * @return <code>false</code> if the instance does not belong to this pool or is not checked out,
+   *         in which case nothing is done
+   */
+  public boolean beginRelease(T aInstance) {
+    AtomicBoolean checkedOut = mCheckedOut.get(aInstance);
+    if (mCleared || checkedOut == null || !checkedOut.compareAndSet(true, false)) {
+      return false;
+    }
+    mInUse.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Second half of {@link #release(Object)}: makes the instance available and wakes up the longest
+   * waiting thread, if any.
+   *
+   * @param aInstance
+   *          an instance for which {@link #beginRelease(Object)} succeeded
+   */
+  public void endRelease(T aInstance) {
+    mFreeInstances.push(aInstance);
+    mPermits.release(); // must follow adding the instance to the free instances
+    if (mSpecificWaiters.get() > 0) {
+      mSpecificLock.lock();
+      try {
+        mReleased.signalAll();
+      } finally {
+        mSpecificLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Takes a particular free instance out of the pool for a short inspection, e.g. to measure it,
+   * without checking it out: the statistics of the pool are not affected. Fails instead of waiting
+   * if the instance is not free or if other threads are waiting for an instance, so an inspection
+   * never delays a thread which needs an instance. Must be followed by
+   * {@link #endInspection(Object)} if successful.
+   *
+   * @param aInstance
+   *          the instance to inspect
+   * @return <code>false</code> if the instance is not free or is needed by another thread, in
+   *         which case nothing is done
+   */
+  public boolean beginInspection(T aInstance) {
+    if (mCleared || !mCheckedOut.containsKey(aInstance)) {
+      return false;
+    }
+    try {
+      // the untimed tryAcquire() would barge ahead of waiting threads
+      if (!mPermits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (!removeFree(aInstance)) {
+      mPermits.release();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Puts an instance back into the pool after {@link #beginInspection(Object)} succeeded.
+   *
+   * @param aInstance
+   *          the inspected instance
+   */
+  public void endInspection(T aInstance) {
+    if (!mCleared) {
+      endRelease(aInstance);
+    }
+  }
+
+  /**
+   * Empties the pool, e.g. when the pooled instances are destroyed. Afterwards no instance is
+   * handed out any more and releasing instances checked out before has no effect.
+   */
+  public void clear() {
+    mCleared = true;
+    while (mPermits.tryAcquire()) {
+      mFreeInstances.pop();
+    }
+  }
+
+  /**
+   * @param aInstance
+   *          an instance
+   * @return true if the instance belongs to this pool
+   */
+  public boolean contains(T aInstance) {
+    return !mCleared && mCheckedOut.containsKey(aInstance);
+  }
+
+  /**
+   * @param aInstance
+   *          an instance
+   * @return true if the instance belongs to this pool and is currently checked out
+   */
+  public boolean isCheckedOut(T aInstance) {
+    AtomicBoolean checkedOut = mCheckedOut.get(aInstance);
+    return checkedOut != null && checkedOut.get();
+  }
+
+  /**
+   * @return all instances of this pool, in the order passed to the constructor; empty after
+   *         {@link #clear()}
+   */
+  public List<T> getAllInstances() {
+    return mCleared ? Collections.emptyList() : mAllInstances;
+  }
+
+  /**
+   * @return a snapshot of the instances currently free
+   */
+  public List<T> getFreeInstances() {
+    return new ArrayList<>(mFreeInstances);
+  }
+
+  /**
+   * @return a snapshot of the instances currently checked out, in the order of
+   *         {@link #getAllInstances()}
+   */
+  public List<T> getCheckedOutInstances() {
+    List<T> result = new ArrayList<>();
+    for (T instance : getAllInstances()) {
+      if (mCheckedOut.get(instance).get()) {
+        result.add(instance);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the total number of instances in this pool
+   */
+  public int getSize() {
+    return mAllInstances.size();
+  }
+
+  /**
+   * @return the number of instances currently free
+   */
+  public int getNumAvailable() {
+    return mPermits.availablePermits();
+  }
+
+  /**
+   * @return the number of instances currently checked out
+   */
+  public int getNumInUse() {
+    return mInUse.get();
+  }
+
+  /**
+   * @return the largest number of instances checked out at the same time so far
+   */
+  public int getPeakInUse() {
+    return mPeakInUse.get();
+  }
+
+  /**
+   * @return an estimate of the number of threads waiting for an instance
+   */
+  public int getNumWaiting() {
+    return mPermits.getQueueLength();
+  }
+
+  /**
+   * @return the number of times an instance was checked out so far
+   */
+  public long getAcquireCount() {
+    return mAcquireCount.sum();
+  }
+
+  /**
+   * @return the number of times no instance could be checked out within the requested time
+   */
+  public long getTimeoutCount() {
+    return mTimeoutCount.sum();
+  }
+
+  private T checkOut(T aInstance) {
+    mCheckedOut.get(aInstance).set(true);
+    mPeakInUse.accumulateAndGet(mInUse.incrementAndGet(), Math::max);
+    mAcquireCount.increment();
+    return aInstance;
+  }
+
+  /**
+   * ConcurrentLinkedDeque.remove(Object) uses equals, the pool uses identity
+   */
+  private boolean removeFree(T aInstance) {
+    var it = mFreeInstances.iterator();
+    while (it.hasNext()) {
+      if (it.next() == aInstance) {
+        it.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.apache.uima.util.IteratorNvc;
+
+// @formatter:off
+/**
+ * A map&lt;int, T&gt; for non-negative keys which are (mostly) densely allocated, such as FS ids or
+ * sequence numbers.
+ *
+ * The values are stored directly at their key in an array which is split into pages. Page 0 holds
+ * the first 1024 keys, and each following page is twice as big as the previous one, so the page
+ * holding a key is computed from the position of the highest one bit, and growing never copies
+ * entries.  Pages are allocated on first use.
+ *
+ * Compared to a hash map this needs no key array and no probing; the cost is one slot per key
+ * between 0 and the largest key used, so it should not be used with sparse keys.
+ *
+ * null is the value returned by get if not found, so values should not be null.  Remove is not
+ * supported, except by clearing the whole map.
+ *
+ * Threading: updates must be done by one thread at a time.  Reads (get) do not lock and may be
+ * concurrent with updates; they see values once put has returned.  Iterators are weakly
+ * consistent.
+ *
+ * @param <T>
+ *          the type of the values
+ */
+// @formatter:on
+public class Int2ObjPagedArray<T> implements Iterable<T> {
+
+  private static final int PAGE_0_BITS = 10;
+
+  private static final int PAGE_0_SIZE = 1 << PAGE_0_BITS;
+
+  /** the largest page has 2^30 slots, for keys up to 2^31 - 1025 */
+  private static final int MAX_PAGES = 31 - PAGE_0_BITS;
+
+  private static final int MAX_KEY = Integer.MAX_VALUE - PAGE_0_SIZE;
+
+  private static final VarHandle PAGE = MethodHandles.arrayElementVarHandle(Object[][].class);
+
+  private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+  private final Object[][] pages = new Object[MAX_PAGES][];
+
+  /** pages up to and including this one are kept when clearing */
+  private final int minPagesToKeep;
+
+  private int size = 0;
+
+  /** the largest key put since the last clear, -1 if none */
+  private int maxKey = -1;
+
+  public Int2ObjPagedArray() {
+    this(PAGE_0_SIZE);
+  }
+
+  /**
+   * @param initialCapacity
+   *          the pages holding keys up to this are kept when clearing
+   */
+  public Int2ObjPagedArray(int initialCapacity) {
+    minPagesToKeep = pageIndex(Math.max(0, initialCapacity - 1));
+  }
+
+  /**
+   * @param key
+   *          -
+   * @return the value for the key, or null if there is none
+   */
+  public T get(int key) {
+    if (key < 0 || key > MAX_KEY) {
+      return null;
+    }
+    final int pi = pageIndex(key);
+    final Object[] page = (Object[]) PAGE.getAcquire(pages, pi);
+    return (page == null) ? null : (T) SLOT.getAcquire(page, key - pageStart(pi));
+  }
+
+  /**
+   * @param key
+   *          a non-negative int, less than 2^31 - 1024
+   * @param value
+   *          -
+   * @return the previous value for the key, or null
+   */
+  public T put(int key, T value) {
+    if (key < 0 || key > MAX_KEY) {
+      throw new IllegalArgumentException("key out of range: " + key);
+    }
+    final int pi = pageIndex(key);
+    Object[] page = pages[pi];
+    if (page == null) {
+      page = new Object[PAGE_0_SIZE << pi];
+      PAGE.setRelease(pages, pi, page);
+    }
+    final int offset = key - pageStart(pi);
+    final T prev = (T) page[offset];
+    SLOT.setRelease(page, offset, value);
+    if (prev == null) {
+      size++;
+    }
+    if (key > maxKey) {
+      maxKey = key;
+    }
+    return prev;
+  }
+
+  /**
+   * @return the number of keys having a value
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the largest key put since the last clear, or -1 if none
+   */
+  public int getMaxKey() {
+    return maxKey;
+  }
+
+  /**
+   * @return the number of slots of the allocated pages, including the ones without a value
+   */
+  public int getCapacity() {
+    int capacity = 0;
+    for (Object[] page : pages) {
+      if (page != null) {
+        capacity += page.length;
+      }
+    }
+    return capacity;
+  }
+
+  /**
+   * Removes all entries.
+   *
+   * Pages which were not used since the last clear are released, except for the ones holding
+   * keys up to the initial capacity, so a spike in size is not kept for the life of the map.
+   */
+  public void clear() {
+    final int lastUsedPage = (maxKey < 0) ? -1 : pageIndex(maxKey);
+    for (int pi = 0; pi < MAX_PAGES; pi++) {
+      Object[] page = pages[pi];
+      if (page == null) {
+        continue;
+      }
+      if (pi > lastUsedPage && pi > minPagesToKeep) {
+        pages[pi] = null;
+      } else if (pi < lastUsedPage) {
+        Arrays.fill(page, null);
+      } else if (pi == lastUsedPage) {
+        Arrays.fill(page, 0, maxKey - pageStart(pi) + 1, null);
+      }
+    }
+    size = 0;
+    maxKey = -1;
+    VarHandle.releaseFence();
+  }
+
+  /**
+   * @return an iterator over the values, in key order
+   */
+  @Override
+  public IteratorNvc<T> iterator() {
+    return new IteratorNvc<T>() {
+      final int end = maxKey + 1;
+
+      int key = nextFilled(0, end);
+
+      @Override
+      public boolean hasNext() {
+        return key < end;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return nextNvc();
+      }
+
+      @Override
+      public T nextNvc() {
+        T r = get(key);
+        key = nextFilled(key + 1, end);
+        return r;
+      }
+    };
+  }
+
+  /**
+   * @return an iterator over the keys having a value, in ascending order
+   */
+  public IntListIterator keyIterator() {
+    return new IntListIterator() {
+      final int end = maxKey + 1;
+
+      /** the next key to return by nextNvc, or end */
+      int key = nextFilled(0, end);
+
+      @Override
+      public boolean hasNext() {
+        return key < end;
+      }
+
+      @Override
+      public int nextNvc() {
+        int r = key;
+        key = nextFilled(key + 1, end);
+        return r;
+      }
+
+      @Override
+      public boolean hasPrevious() {
+        return previousFilled(key - 1) >= 0;
+      }
+
+      @Override
+      public int previousNvc() {
+        key = previousFilled(key - 1);
+        return key;
+      }
+
+      @Override
+      public void moveToStart() {
+        key = nextFilled(0, end);
+      }
+
+      @Override
+      public void moveToEnd() {
+        key = end;
+      }
+    };
+  }
+
+  /**
+   * @return the first key &ge; key and &lt; end having a value, or end
+   */
+  private int nextFilled(int key, int end) {
+    while (key < end) {
+      final int pi = pageIndex(key);
+      final Object[] page = (Object[]) PAGE.getAcquire(pages, pi);
+      final int start = pageStart(pi);
+      final int pageEnd = Math.min(end, start + (PAGE_0_SIZE << pi));
+      if (page != null) {
+        for (; key < pageEnd; key++) {
+          if (SLOT.getAcquire(page, key - start) != null) {
+            return key;
+          }
+        }
+      }
+      key = pageEnd;
+    }
+    return end;
+  }
+
+  /**
+   * @return the last key &le; key having a value, or -1
+   */
+  private int previousFilled(int key) {
+    for (; key >= 0; key--) {
+      if (get(key) != null) {
+        return key;
+      }
+    }
+    return -1;
+  }
+
+  // package private for testing
+  static int pageIndex(int key) {
+    return (63 - Long.numberOfLeadingZeros((long) key + PAGE_0_SIZE)) - PAGE_0_BITS;
+  }
+
+  // package private for testing
+  static int pageStart(int pageIndex) {
+    return (PAGE_0_SIZE << pageIndex) - PAGE_0_SIZE;
+  }
+}
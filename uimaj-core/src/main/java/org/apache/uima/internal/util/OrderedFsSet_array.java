@@ -121,6 +121,39 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
     // this.modificationCount = set.modificationCount;
   }
 
+  /**
+   * makes a read-only view sharing the given array, which must not be modified afterwards
+   * 
+   * @param a
+   *          the sorted items, starting at index 0
+   * @param size
+   *          the number of items in the array
+   * @param comparatorNoTypeWithID
+   *          -
+   * @param comparatorNoTypeWithoutID
+   *          -
+   */
+  OrderedFsSet_array(TOP[] a, int size, Comparator<TOP> comparatorNoTypeWithID,
+          Comparator<TOP> comparatorNoTypeWithoutID) {
+    this.a = a;
+    a_firstUsedslot = 0;
+    a_nextFreeslot = size;
+    this.comparatorNoTypeWithID = comparatorNoTypeWithID;
+    this.comparatorNoTypeWithoutID = comparatorNoTypeWithoutID;
+    maxSize = size;
+  }
+
+  /**
+   * The set whose array and positions iterators use. For this class, this is the set itself; its
+   * array is copied by {@link CopyOnWriteOrderedFsSet_array} before it is modified while iterators
+   * are using it.
+   * 
+   * @return the set to iterate over
+   */
+  public OrderedFsSet_array<T> snapshotForIteration() {
+    return this;
+  }
+
   public int size() {
     return a_nextFreeslot - a_firstUsedslot;
   }
@@ -342,6 +375,19 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
     return binarySearch(a, a_firstUsedslot, a_nextFreeslot, fs, comparatorNoTypeWithoutID);
   }
 
+  /**
+   * using NoType because all callers of this have already used the type of fs to select the right
+   * index.
+   * 
+   * @param fs
+   *          -
+   * @return an arbitrary item equal to fs using the comparator without ID, or null if there is none
+   */
+  public T findEqualWithoutID(TOP fs) {
+    int pos = findWithoutID(fs);
+    return (pos >= 0) ? getAtPos(pos) : null;
+  }
+
   public int find(TOP fs, Comparator<TOP> comparator) {
     return binarySearch(a, a_firstUsedslot, a_nextFreeslot, fs, comparator);
   }
@@ -451,6 +497,20 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
     return true;
   }
 
+  /**
+   * @return the number of slots of the backing array, including the free ones
+   */
+  public int getCapacity() {
+    return a.length;
+  }
+
+  /**
+   * @return the number of slots of the backing array when the set was created
+   */
+  public int getInitialCapacity() {
+    return DEFAULT_SIZE;
+  }
+
   /**
    * @see Set#clear()
    */
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.jcas.cas.TOP;
+
+//@formatter:off
+/**
+ * A variant of {@link OrderedFsSet_array} for large indexes with many adds and removes which are
+ * not at the end.
+ *
+ * Entries kept in order in a list of sorted chunks (a two level B+ tree)
+ *   - each chunk holds at most CHUNK_SIZE entries
+ *   - the chunk for an entry is found by a binary search over the last entries of the chunks,
+ *     the position within it by a binary search in the chunk
+ *   - adds and removes shift at most one chunk, instead of up to half of the entries
+ *   - a full chunk is split in two; an empty chunk is dropped
+ *
+ * Adds optimized:
+ *   - if &gt; last entry, add to end, starting a new chunk when the last one is full, so chunks
+ *     filled by ascending adds are completely full
+ *
+ * Iterators need positions in one array. For these, a flat array of all entries is made on demand
+ * and kept until the next modification; see {@link #snapshotForIteration()}. That array is never
+ * changed, so iterators using it do not need to copy it when this set is modified.
+ *
+ * Not thread-safe, use on single thread only
+ */
+//@formatter:on
+public class OrderedFsSet_chunked<T extends FeatureStructure> extends OrderedFsSet_array<T> {
+
+  static final int CHUNK_SIZE = 512;
+
+  private static final int INITIAL_NBR_OF_CHUNKS = 4;
+
+  private static final TOP[] EMPTY = new TOP[0];
+
+  private final Comparator<TOP> comparatorWithID;
+  private final Comparator<TOP> comparatorWithoutID;
+
+  private TOP[][] chunks = new TOP[INITIAL_NBR_OF_CHUNKS][];
+  private int[] chunkSizes = new int[INITIAL_NBR_OF_CHUNKS];
+  private int nbrOfChunks = 0;
+  private int size = 0;
+
+  /** lazily made flat copy of all entries, null after a modification */
+  private OrderedFsSet_array<T> snapshot = null;
+
+  public OrderedFsSet_chunked(Comparator<TOP> comparatorNoTypeWithID,
+          Comparator<TOP> comparatorNoTypeWithoutID) {
+    super(EMPTY, 0, comparatorNoTypeWithID, comparatorNoTypeWithoutID);
+    comparatorWithID = comparatorNoTypeWithID;
+    comparatorWithoutID = comparatorNoTypeWithoutID;
+  }
+
+  /**
+   * @return a read-only set sharing a flat array of the entries, which stays valid (and unchanged)
+   *         when this set is modified
+   */
+  @Override
+  public OrderedFsSet_array<T> snapshotForIteration() {
+    if (snapshot == null) {
+      snapshot = new OrderedFsSet_array<>(toArray(), size, comparatorWithID, comparatorWithoutID);
+    }
+    return snapshot;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean add(T fs1, Comparator<TOP> comparator) {
+    if (fs1 == null) {
+      throw new IllegalArgumentException("Null cannot be added to this set.");
+    }
+    TOP fs = (TOP) fs1;
+
+    if (nbrOfChunks == 0) {
+      insertChunk(0, new TOP[CHUNK_SIZE], 0);
+    }
+
+    int last = nbrOfChunks - 1;
+    int lastSize = chunkSizes[last];
+    int c = (lastSize == 0) ? 1 : comparator.compare(fs, chunks[last][lastSize - 1]);
+    if (c == 0) {
+      return false;
+    }
+    if (c > 0) { // add to end
+      if (lastSize == CHUNK_SIZE) {
+        insertChunk(nbrOfChunks, new TOP[CHUNK_SIZE], 0);
+        last++;
+        lastSize = 0;
+      }
+      chunks[last][lastSize] = fs;
+      chunkSizes[last]++;
+      modified(1);
+      return true;
+    }
+
+    // fs is less than the last entry, so there is a chunk whose last entry is >= fs
+    int ci = findChunk(fs, comparator);
+    int pos = Arrays.binarySearch(chunks[ci], 0, chunkSizes[ci], fs, comparator);
+    if (pos >= 0) {
+      return false;
+    }
+    pos = (-pos) - 1;
+
+    if (chunkSizes[ci] == CHUNK_SIZE) {
+      split(ci);
+      int half = chunkSizes[ci];
+      if (pos > half) {
+        ci++;
+        pos -= half;
+      }
+    }
+
+    TOP[] chunk = chunks[ci];
+    System.arraycopy(chunk, pos, chunk, pos + 1, chunkSizes[ci] - pos);
+    chunk[pos] = fs;
+    chunkSizes[ci]++;
+    modified(1);
+    return true;
+  }
+
+  /**
+   * Removes the exactly matching (including ID) FS if present
+   *
+   * @param o
+   *          the object (must be a FS of the type of this index) to remove
+   * @return true if it was removed, false if it wasn't in the index
+   */
+  @Override
+  public boolean remove(Object o) {
+    if (o == null) {
+      throw new IllegalArgumentException("Null cannot be the argument to remove");
+    }
+
+    if (!(o instanceof TOP)) {
+      return false;
+    }
+
+    TOP fs = (TOP) o;
+    int ci = findChunk(fs, comparatorWithID);
+    if (ci < 0) {
+      return false;
+    }
+    int pos = Arrays.binarySearch(chunks[ci], 0, chunkSizes[ci], fs, comparatorWithID);
+    if (pos < 0) {
+      return false;
+    }
+
+    TOP[] chunk = chunks[ci];
+    int newSize = --chunkSizes[ci];
+    if (newSize == 0) {
+      removeChunk(ci);
+    } else {
+      System.arraycopy(chunk, pos + 1, chunk, pos, newSize - pos);
+      chunk[newSize] = null;
+    }
+    modified(-1);
+    return true;
+  }
+
+  @Override
+  public int getCapacity() {
+    return nbrOfChunks * CHUNK_SIZE;
+  }
+
+  @Override
+  public int getInitialCapacity() {
+    return 0;
+  }
+
+  @Override
+  public void clear() {
+    if (size == 0) {
+      return;
+    }
+    chunks = new TOP[INITIAL_NBR_OF_CHUNKS][];
+    chunkSizes = new int[INITIAL_NBR_OF_CHUNKS];
+    nbrOfChunks = 0;
+    modified(-size);
+  }
+
+  @Override
+  public T findEqualWithoutID(TOP fs) {
+    int ci = findChunk(fs, comparatorWithoutID);
+    if (ci < 0) {
+      return null;
+    }
+    int pos = Arrays.binarySearch(chunks[ci], 0, chunkSizes[ci], fs, comparatorWithoutID);
+    return (pos >= 0) ? get(ci, pos) : null;
+  }
+
+  /**
+   * The chunks hold only instances of T, they are TOP arrays because they can not be T arrays.
+   */
+  @SuppressWarnings("unchecked")
+  private T get(int ci, int pos) {
+    return (T) chunks[ci][pos];
+  }
+
+  /*
+   * The position based methods work on the positions of the snapshot
+   */
+
+  @Override
+  public int findWithoutID(TOP fs) {
+    return snapshotForIteration().findWithoutID(fs);
+  }
+
+  @Override
+  public int find(TOP fs, Comparator<TOP> comparator) {
+    return snapshotForIteration().find(fs, comparator);
+  }
+
+  @Override
+  public int binarySearchLeftMostEqual(TOP fs, int start, int end, Comparator<TOP> comparator) {
+    return snapshotForIteration().binarySearchLeftMostEqual(fs, start, end, comparator);
+  }
+
+  @Override
+  public T getAtPos(int pos) {
+    return snapshotForIteration().getAtPos(pos);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+
+      int ci = 0;
+      int pos = 0;
+
+      @Override
+      public boolean hasNext() {
+        return ci < nbrOfChunks;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        T r = get(ci, pos++);
+        if (pos == chunkSizes[ci]) {
+          ci++;
+          pos = 0;
+        }
+        return r;
+      }
+    };
+  }
+
+  @Override
+  public TOP[] toArray() {
+    TOP[] r = new TOP[size];
+    int n = 0;
+    for (int i = 0; i < nbrOfChunks; i++) {
+      System.arraycopy(chunks[i], 0, r, n, chunkSizes[i]);
+      n += chunkSizes[i];
+    }
+    return r;
+  }
+
+  @Override
+  public <U> U[] toArray(U[] a1) {
+    if (a1.length < size) {
+      a1 = Arrays.copyOf(a1, size);
+    }
+    int n = 0;
+    for (int i = 0; i < nbrOfChunks; i++) {
+      System.arraycopy(chunks[i], 0, a1, n, chunkSizes[i]);
+      n += chunkSizes[i];
+    }
+    return a1;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder b = new StringBuilder();
+    b.append("OrderedFsSet_chunked [");
+    boolean firstTime = true;
+    for (T fs : this) {
+      if (firstTime) {
+        firstTime = false;
+      } else {
+        b.append(",\n");
+      }
+      b.append(((TOP) fs).toShortString());
+    }
+    b.append(", size=").append(size).append(", nbrOfChunks=").append(nbrOfChunks)
+            .append(", origComparator=").append(comparatorWithID).append("]");
+    return b.toString();
+  }
+
+  /**
+   * @return the index of the first chunk whose last entry is &gt;= fs, or -1 if there is none
+   */
+  private int findChunk(TOP fs, Comparator<TOP> comparator) {
+    int lower = 0;
+    int upper = nbrOfChunks; // exclusive
+    while (lower < upper) {
+      int mid = (lower + upper) >>> 1;
+      int midSize = chunkSizes[mid];
+      if (midSize == 0 || comparator.compare(chunks[mid][midSize - 1], fs) >= 0) {
+        upper = mid;
+      } else {
+        lower = mid + 1;
+      }
+    }
+    return (lower < nbrOfChunks) ? lower : -1;
+  }
+
+  /**
+   * moves the upper half of a full chunk into a new chunk following it
+   */
+  private void split(int ci) {
+    TOP[] chunk = chunks[ci];
+    int half = CHUNK_SIZE >> 1;
+    TOP[] upperHalf = new TOP[CHUNK_SIZE];
+    System.arraycopy(chunk, half, upperHalf, 0, CHUNK_SIZE - half);
+    Arrays.fill(chunk, half, CHUNK_SIZE, null);
+    chunkSizes[ci] = half;
+    insertChunk(ci + 1, upperHalf, CHUNK_SIZE - half);
+  }
+
+  private void insertChunk(int ci, TOP[] chunk, int chunkSize) {
+    if (nbrOfChunks == chunks.length) {
+      chunks = Arrays.copyOf(chunks, nbrOfChunks << 1);
+      chunkSizes = Arrays.copyOf(chunkSizes, nbrOfChunks << 1);
+    }
+    System.arraycopy(chunks, ci, chunks, ci + 1, nbrOfChunks - ci);
+    System.arraycopy(chunkSizes, ci, chunkSizes, ci + 1, nbrOfChunks - ci);
+    chunks[ci] = chunk;
+    chunkSizes[ci] = chunkSize;
+    nbrOfChunks++;
+  }
+
+  private void removeChunk(int ci) {
+    nbrOfChunks--;
+    System.arraycopy(chunks, ci + 1, chunks, ci, nbrOfChunks - ci);
+    System.arraycopy(chunkSizes, ci + 1, chunkSizes, ci, nbrOfChunks - ci);
+    chunks[nbrOfChunks] = null;
+  }
+
+  private void modified(int sizeChange) {
+    size += sizeChange;
+    snapshot = null;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream of the big-endian bytes of a short, int, long, float or double array.
+ *
+ * The elements are converted a chunk at a time as the stream is read, so no copy of the whole array
+ * is made. The array is not copied either; changes to it made while reading may be seen.
+ */
+public class PrimitiveArrayInputStream extends InputStream {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private final Object array;
+
+  private final int length;
+
+  private final int elementSize;
+
+  /** the next element to convert */
+  private int next = 0;
+
+  private final ByteBuffer chunk;
+
+  /**
+   * @param array
+   *          a short[], int[], long[], float[] or double[]
+   */
+  public PrimitiveArrayInputStream(Object array) {
+    this.array = array;
+    if (array instanceof short[]) {
+      length = ((short[]) array).length;
+      elementSize = 2;
+    } else if (array instanceof int[]) {
+      length = ((int[]) array).length;
+      elementSize = 4;
+    } else if (array instanceof float[]) {
+      length = ((float[]) array).length;
+      elementSize = 4;
+    } else if (array instanceof long[]) {
+      length = ((long[]) array).length;
+      elementSize = 8;
+    } else if (array instanceof double[]) {
+      length = ((double[]) array).length;
+      elementSize = 8;
+    } else {
+      throw new IllegalArgumentException("not a supported array: " + array);
+    }
+    chunk = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, (long) length * elementSize));
+    chunk.limit(0);
+  }
+
+  /**
+   * @return false if there is nothing left to read
+   */
+  private boolean fill() {
+    if (chunk.hasRemaining()) {
+      return true;
+    }
+    final int n = Math.min(length - next, chunk.capacity() / elementSize);
+    if (n == 0) {
+      return false;
+    }
+    chunk.clear();
+    if (array instanceof short[]) {
+      chunk.asShortBuffer().put((short[]) array, next, n);
+    } else if (array instanceof int[]) {
+      chunk.asIntBuffer().put((int[]) array, next, n);
+    } else if (array instanceof float[]) {
+      chunk.asFloatBuffer().put((float[]) array, next, n);
+    } else if (array instanceof long[]) {
+      chunk.asLongBuffer().put((long[]) array, next, n);
+    } else {
+      chunk.asDoubleBuffer().put((double[]) array, next, n);
+    }
+    chunk.limit(n * elementSize);
+    next += n;
+    return true;
+  }
+
+  @Override
+  public int read() {
+    return fill() ? (chunk.get() & 0xff) : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    int n = 0;
+    while (n < len && fill()) {
+      final int k = Math.min(len - n, chunk.remaining());
+      chunk.get(b, off + n, k);
+      n += k;
+    }
+    return (n == 0) ? -1 : n;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(Integer.MAX_VALUE,
+            chunk.remaining() + (long) (length - next) * elementSize);
+  }
+}
@@ -19,10 +19,10 @@
 
 package org.apache.uima.internal.util;
 
-import java.util.Date;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.resource.Resource;
@@ -42,9 +42,9 @@ import org.apache.uima.util.Level;
  * pool. All resources are assumed to be equivalent and to share the same metadata. Therefore, the
  * resource metadata can be retrieved via the {@link #getMetaData()} method without checking out a
  * Resource instance from the pool.
- * 
- * 
- * 
+ * <p>
+ * Checking out and checking in Resources does not lock any monitor; threads waiting for a Resource
+ * are served in arrival order.
  */
 public class ResourcePool {
 
@@ -99,31 +99,22 @@ public class ResourcePool {
     mNumInstances = aNumInstances;
 
     fillPool(aResourceSpecifier, aResourceClass, aResourceInitParams);
+    mPool = new InstancePool<>(mFillInstances);
+    mFillInstances = null;
 
     // store metadata so it can be accessed without a check-out
-    mMetaData = mAllInstances.get(0).getMetaData();
+    mMetaData = mPool.getAllInstances().get(0).getMetaData();
   }
 
   /**
    * Checks out a Resource from the pool.
    * 
    * @return a Resource for use by the client. Returns <code>null</code> if none are available (in
-   *         which case the client may wait on this object in order to be notified when an instance
+   *         which case the client may call {@link #getResource(long)} to wait until an instance
    *         becomes available).
    */
-  public synchronized Resource getResource() {
-    if (!mFreeInstances.isEmpty()) {
-      Resource r = mFreeInstances.remove(0);
-      /*
-       * UIMAFramework.getLogger().log( "Acquired resource " + r.getMetaData().getUUID() + " from
-       * pool.");
-       */
-      return r;
-    } else {
-      // no instances available
-      // UIMAFramework.getLogger().log("No Resource instances currently available");
-      return null;
-    }
+  public Resource getResource() {
+    return mPool.tryAcquire();
   }
 
   /**
@@ -133,22 +124,12 @@ public class ResourcePool {
    * @param aResource
    *          the resource to release
    */
-  public synchronized void releaseResource(Resource aResource) {
+  public void releaseResource(Resource aResource) {
     // make sure this Resource was actually belongs to this pool and is checked out
-    if (!mAllInstances.contains(aResource) || mFreeInstances.contains(aResource)) {
+    if (!mPool.release(aResource)) {
       UIMAFramework.getLogger(CLASS_NAME).logrb(Level.WARNING, CLASS_NAME.getName(),
               "releaseResource", LOG_RESOURCE_BUNDLE, "UIMA_return_resource_to_pool__WARNING");
-    } else {
-      /*
-       * UIMAFramework.getLogger().log( "Returned resource " + aResource.getMetaData().getUUID() + "
-       * to the pool.");
-       */
-      // Add the Resource to the end of the free instances List
-      mFreeInstances.add(aResource);
     }
-
-    // Notify any threads waiting on this object
-    notifyAll();
   }
 
   /**
@@ -158,24 +139,21 @@ public class ResourcePool {
    * @param aTimeout
    *          the time to wait in milliseconds. A value of &lt;=0 will wait forever.
    * 
-   * @return a Resource for use by the client. Returns <code>null</code> if none are available (in
-   *         which case the client may wait on this object in order to be notified when an instance
-   *         becomes available).
+   * @return a Resource for use by the client. Returns <code>null</code> if none are available
+   *         within the specified timeout period.
    */
-  public synchronized Resource getResource(long aTimeout) {
-    long startTime = new Date().getTime();
-    Resource resource;
-    while ((resource = getResource()) == null) {
+  public Resource getResource(long aTimeout) {
+    if (aTimeout <= 0) {
+      return mPool.acquireUninterruptibly();
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aTimeout);
+    while (true) {
       try {
-        wait(aTimeout);
+        return mPool.acquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
       } catch (InterruptedException e) {
-      }
-      if (aTimeout > 0 && (new Date().getTime() - startTime) >= aTimeout) {
-        // Timeout has expired
-        return null;
+        // ignored, as before: keep waiting until the timeout expires
       }
     }
-    return resource;
   }
 
   /*
@@ -184,27 +162,19 @@ public class ResourcePool {
    * @param r
    */
 
-  public synchronized void checkoutSpecificResource(Resource r) {
-    while (!mFreeInstances.contains(r)) {
-      try {
-        wait();
-      } catch (InterruptedException e) {
-      }
-    }
-    mFreeInstances.remove(r);
+  public void checkoutSpecificResource(Resource r) {
+    mPool.acquire(r);
   }
 
   /**
    * Destroys all Resources in this pool.
    */
-  public synchronized void destroy() {
-    Iterator<Resource> i = mAllInstances.iterator();
-    while (i.hasNext()) {
-      Resource current = i.next();
+  public void destroy() {
+    List<Resource> all = mPool.getAllInstances();
+    mPool.clear();
+    for (Resource current : all) {
       current.destroy();
     }
-    mAllInstances.clear();
-    mFreeInstances.clear();
   }
 
   /**
@@ -249,22 +219,40 @@ public class ResourcePool {
       Resource_ImplBase resource = (Resource_ImplBase) UIMAFramework.produceResource(aResourceClass,
               aResourceSpecifier, aResourceInitParams);
 
-      mAllInstances.add(resource);
-      mFreeInstances.add(resource);
+      mFillInstances.add(resource);
     }
   }
 
+  /**
+   * While {@link #fillPool(ResourceSpecifier, Class, Map)} runs, this returns the vector the pool
+   * is built from, so instances added to it become part of the pool.
+   * 
+   * @return all instances of this pool
+   * @deprecated Once the pool is constructed, this returns a copy; changing it does not affect the
+   *             pool.
+   */
+  @Deprecated(since = "3.7.0")
   protected Vector<Resource> getAllInstances() {
-    return mAllInstances;
+    return mPool == null ? mFillInstances : new Vector<>(mPool.getAllInstances());
   }
 
+  /**
+   * While {@link #fillPool(ResourceSpecifier, Class, Map)} runs, this returns the vector the pool
+   * is built from, so instances added to it become part of the pool.
+   * 
+   * @return the instances of this pool that are not checked out
+   * @deprecated Once the pool is constructed, this returns a snapshot; changing it does not affect
+   *             the pool.
+   */
+  @Deprecated(since = "3.7.0")
   protected Vector<Resource> getFreeInstances() {
-    return mFreeInstances;
+    return mPool == null ? mFillInstances : new Vector<>(mPool.getFreeInstances());
   }
 
-  private final Vector<Resource> mAllInstances = new Vector<>();
+  /** the instances created by fillPool, only used while the pool is constructed */
+  private Vector<Resource> mFillInstances = new Vector<>();
 
-  private final Vector<Resource> mFreeInstances = new Vector<>();
+  private final InstancePool<Resource> mPool;
 
   private final int mNumInstances;
 
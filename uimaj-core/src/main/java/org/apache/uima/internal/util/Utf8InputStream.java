@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.io.InputStream;
+
+/**
+ * An input stream of the UTF-8 encoding of a sequence of strings, joined by a separator, encoded
+ * as it is read, so the whole encoding is never held in memory.
+ *
+ * The bytes are the same as those of <code>String.getBytes(StandardCharsets.UTF_8)</code> on the
+ * joined string: unpaired surrogates are encoded as '?'. A null part is read as "null", like
+ * StringBuilder.append does.
+ */
+public class Utf8InputStream extends InputStream {
+
+  private final CharSequence[] parts;
+
+  private final byte separator;
+
+  /** index of the part being read */
+  private int part = 0;
+
+  /** index of the next char to encode in the part being read */
+  private int pos = 0;
+
+  /** bytes of an encoded char not yet returned */
+  private final byte[] pending = new byte[4];
+
+  private int pendingPos = 0;
+
+  private int pendingEnd = 0;
+
+  /** for {@link #read()} */
+  private final byte[] single = new byte[1];
+
+  /**
+   * @param s
+   *          the chars to encode
+   */
+  public Utf8InputStream(CharSequence s) {
+    this(new CharSequence[] { s }, '\n');
+  }
+
+  /**
+   * @param parts
+   *          the char sequences to encode
+   * @param separator
+   *          an ASCII char, encoded between the parts
+   */
+  public Utf8InputStream(CharSequence[] parts, char separator) {
+    if (separator >= 0x80) {
+      throw new IllegalArgumentException("separator must be an ASCII char");
+    }
+    this.parts = (parts.length == 0) ? new CharSequence[] { "" } : parts;
+    this.separator = (byte) separator;
+  }
+
+  private CharSequence part(int i) {
+    CharSequence s = parts[i];
+    return (s == null) ? "null" : s;
+  }
+
+  @Override
+  public int read() {
+    return (read(single, 0, 1) == -1) ? -1 : (single[0] & 0xff);
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    int n = 0;
+    while (pendingPos < pendingEnd && n < len) {
+      b[off + n++] = pending[pendingPos++];
+    }
+
+    CharSequence s = part(part);
+    while (n < len) {
+      final int slen = s.length();
+      if (pos == slen) {
+        if (part + 1 >= parts.length) {
+          break;
+        }
+        s = part(++part);
+        pos = 0;
+        b[off + n++] = separator;
+        continue;
+      }
+
+      // ASCII fast path
+      final int limit = Math.min(slen, pos + len - n);
+      char c;
+      while (pos < limit && (c = s.charAt(pos)) < 0x80) {
+        b[off + n++] = (byte) c;
+        pos++;
+      }
+      if (pos == limit) {
+        continue;
+      }
+
+      encode(s, slen);
+      while (pendingPos < pendingEnd && n < len) {
+        b[off + n++] = pending[pendingPos++];
+      }
+    }
+    return (n == 0) ? -1 : n;
+  }
+
+  /**
+   * Encodes the non-ASCII char at pos into pending, and advances pos
+   */
+  private void encode(CharSequence s, int slen) {
+    final char c = s.charAt(pos++);
+    pendingPos = 0;
+    if (c < 0x800) {
+      pending[0] = (byte) (0xc0 | (c >> 6));
+      pending[1] = (byte) (0x80 | (c & 0x3f));
+      pendingEnd = 2;
+    } else if (!Character.isSurrogate(c)) {
+      pending[0] = (byte) (0xe0 | (c >> 12));
+      pending[1] = (byte) (0x80 | ((c >> 6) & 0x3f));
+      pending[2] = (byte) (0x80 | (c & 0x3f));
+      pendingEnd = 3;
+    } else if (Character.isHighSurrogate(c) && pos < slen
+            && Character.isLowSurrogate(s.charAt(pos))) {
+      final int cp = Character.toCodePoint(c, s.charAt(pos++));
+      pending[0] = (byte) (0xf0 | (cp >> 18));
+      pending[1] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+      pending[2] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+      pending[3] = (byte) (0x80 | (cp & 0x3f));
+      pendingEnd = 4;
+    } else {
+      pending[0] = '?';
+      pendingEnd = 1;
+    }
+  }
+
+  /**
+   * @return a lower bound of the number of bytes left to read: each char is at least one byte
+   */
+  @Override
+  public int available() {
+    long r = (pendingEnd - pendingPos) + (part(part).length() - pos);
+    for (int i = part + 1; i < parts.length; i++) {
+      r += 1 + part(i).length();
+    }
+    return (int) Math.min(Integer.MAX_VALUE, r);
+  }
+}
@@ -0,0 +1,520 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.transform.TransformerFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+//@formatter:off
+/**
+ * A SAX ContentHandler which writes XML as UTF-8 directly to an OutputStream, without going
+ * through a JAXP Transformer.
+ *
+ * The output is the same, byte for byte, as that of {@link org.apache.uima.util.XMLSerializer}
+ * using the Transformer built into the JDK, for documents made of
+ *   - elements with only child elements, or only text, or nothing
+ *   - namespace declarations on the root element, reported by startPrefixMapping and also
+ *     passed as xmlns attributes
+ * which is what the XMI serializer writes. Like XMLSerializer, characters which are not allowed
+ * in XML are rejected.
+ *
+ * Besides the SAX events, elements can be started with {@link #startElement(String)} and their
+ * attributes written with {@link #attribute(String, String)}, which the XMI serializer uses to
+ * avoid collecting the attributes of every feature structure in SAX Attributes.
+ *
+ * Not thread-safe; one instance writes one document.
+ */
+//@formatter:on
+public class Utf8XmlWriter implements ContentHandler {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int INDENT_AMOUNT = 4;
+
+  private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(UTF_8);
+
+  private static final String JDK_TRANSFORMER_FACTORY_PACKAGE = "com.sun.org.apache.xalan.internal.";
+
+  private static final boolean IS_JDK_TRANSFORMER_FACTORY = TransformerFactory.newInstance()
+          .getClass().getName().startsWith(JDK_TRANSFORMER_FACTORY_PACKAGE);
+
+  private final OutputStream out;
+
+  private final boolean isIndent;
+
+  private final boolean isXml11;
+
+  private final byte[] buf = new byte[BUFFER_SIZE];
+
+  private int pos = 0;
+
+  /** the name of the current element has been written, but not the closing &gt; */
+  private boolean isStartTagOpen = false;
+
+  private boolean isFirstElement = true;
+
+  private boolean isPrevEndElement = false;
+
+  /** number of open elements */
+  private int depth = 0;
+
+  /** per depth, whether the element has child elements */
+  private boolean[] hasChildElements = new boolean[16];
+
+  /** prefix, uri pairs, declared on the next element */
+  private final List<String> pendingPrefixMappings = new ArrayList<>();
+
+  /**
+   * @param out
+   *          where to write to. It is flushed but not closed at the end of the document.
+   * @param isIndent
+   *          true to indent nested elements by 4 spaces on new lines
+   * @param isXml11
+   *          true to write XML 1.1, false for XML 1.0
+   */
+  public Utf8XmlWriter(OutputStream out, boolean isIndent, boolean isXml11) {
+    this.out = out;
+    this.isIndent = isIndent;
+    this.isXml11 = isXml11;
+  }
+
+  /**
+   * @return true if the JAXP TransformerFactory is the one built into the JDK, whose output this
+   *         class reproduces
+   */
+  public static boolean isSameOutputAsTransformer() {
+    return IS_JDK_TRANSFORMER_FACTORY;
+  }
+
+  @Override
+  public void startDocument() throws SAXException {
+    writeAscii(isXml11 ? "<?xml version=\"1.1\" encoding=\"UTF-8\"?>"
+            : "<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+  }
+
+  @Override
+  public void endDocument() throws SAXException {
+    if (isIndent) {
+      writeBytes(LINE_SEPARATOR);
+    }
+    try {
+      out.write(buf, 0, pos);
+      pos = 0;
+      out.flush();
+    } catch (IOException e) {
+      throw new SAXException(e);
+    }
+  }
+
+  @Override
+  public void startPrefixMapping(String prefix, String uri) throws SAXException {
+    pendingPrefixMappings.add(prefix);
+    pendingPrefixMappings.add(uri);
+  }
+
+  @Override
+  public void endPrefixMapping(String prefix) throws SAXException {
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes atts)
+          throws SAXException {
+    writeStartTag(qName);
+    for (int i = 0; i < atts.getLength(); i++) {
+      String attrName = atts.getQName(i);
+      if (!isPendingDeclaration(attrName)) {
+        writeAttribute(attrName, atts.getValue(i));
+      }
+    }
+    pendingPrefixMappings.clear();
+  }
+
+  /**
+   * Starts an element whose attributes are then written one by one with
+   * {@link #attribute(String, String)}, instead of being collected into SAX Attributes first.
+   * 
+   * @param qName
+   *          the qualified name of the element
+   * @throws SAXException
+   *           if writing fails
+   */
+  public void startElement(String qName) throws SAXException {
+    writeStartTag(qName);
+    pendingPrefixMappings.clear();
+  }
+
+  /**
+   * Writes an attribute of the element started last, which must not have any content yet.
+   * 
+   * @param qName
+   *          the qualified name of the attribute
+   * @param value
+   *          the value of the attribute, unescaped
+   * @throws SAXException
+   *           if the value contains characters not allowed in XML, or if writing fails
+   */
+  public void attribute(String qName, String value) throws SAXException {
+    if (!isStartTagOpen) {
+      throw new IllegalStateException("Attribute " + qName + " written after element content");
+    }
+    writeAttribute(qName, value);
+  }
+
+  private void writeStartTag(String qName) throws SAXException {
+    if (isStartTagOpen) {
+      writeByte('>');
+    }
+    if (isIndent && !isFirstElement) {
+      newLineAndIndent(depth);
+    }
+    hasChildElements[depth] = true;
+    if (++depth == hasChildElements.length) {
+      hasChildElements = Arrays.copyOf(hasChildElements, depth << 1);
+    }
+    hasChildElements[depth] = false;
+
+    writeByte('<');
+    writeName(qName);
+
+    if (!pendingPrefixMappings.isEmpty()) {
+      if (!isIndent && isFirstElement) {
+        // without indenting, the transformer declares the prefix of the first element first
+        moveToFront(qName);
+      }
+      for (int i = 0; i < pendingPrefixMappings.size(); i += 2) {
+        String prefix = pendingPrefixMappings.get(i);
+        writeAttribute(prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+                pendingPrefixMappings.get(i + 1));
+      }
+    }
+
+    isStartTagOpen = true;
+    isFirstElement = false;
+    isPrevEndElement = false;
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName) throws SAXException {
+    if (isStartTagOpen) {
+      writeByte('/');
+      writeByte('>');
+      isStartTagOpen = false;
+    } else {
+      if (isIndent && hasChildElements[depth]) {
+        newLineAndIndent(depth - 1);
+      }
+      writeByte('<');
+      writeByte('/');
+      writeName(qName);
+      writeByte('>');
+    }
+    depth--;
+    isPrevEndElement = true;
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length) throws SAXException {
+    if (length == 0) {
+      return;
+    }
+    checkForInvalidXmlChars(ch, start, length);
+    writeText(CharBuffer.wrap(ch, start, length));
+  }
+
+  /**
+   * Like {@link #characters(char[], int, int)}, without copying the text into a char array first.
+   * 
+   * @param text
+   *          the text content, unescaped
+   * @throws SAXException
+   *           if the text contains characters not allowed in XML, or if writing fails
+   */
+  public void characters(String text) throws SAXException {
+    if (text.isEmpty()) {
+      return;
+    }
+    checkForInvalidXmlChars(text);
+    writeText(text);
+  }
+
+  private void writeText(CharSequence text) throws SAXException {
+    if (isStartTagOpen) {
+      writeByte('>');
+      isStartTagOpen = false;
+    } else if (isIndent && isPrevEndElement) {
+      newLineAndIndent(depth);
+    }
+    isPrevEndElement = false;
+
+    final int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          writeAscii("&amp;");
+          break;
+        case '<':
+          writeAscii("&lt;");
+          break;
+        case '>':
+          writeAscii("&gt;");
+          break;
+        case '\n':
+          writeBytes(LINE_SEPARATOR);
+          break;
+        case '\t':
+          writeByte('\t');
+          break;
+        default:
+          if (c < 0x20 || (c >= 0x7f && c <= 0x9f) || (isXml11 && c == 0x2028)) {
+            writeCharRef(c);
+          } else if (Character.isHighSurrogate(c)) {
+            writeCharRef(Character.toCodePoint(c, text.charAt(++i)));
+          } else {
+            writeChar(c);
+          }
+      }
+    }
+  }
+
+  @Override
+  public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+    characters(ch, start, length);
+  }
+
+  @Override
+  public void processingInstruction(String target, String data) throws SAXException {
+    if (isStartTagOpen) {
+      writeByte('>');
+      isStartTagOpen = false;
+    }
+    writeAscii("<?");
+    writeName(target);
+    writeByte(' ');
+    writeName(data);
+    writeAscii("?>");
+  }
+
+  @Override
+  public void setDocumentLocator(Locator locator) {
+  }
+
+  @Override
+  public void skippedEntity(String name) throws SAXException {
+  }
+
+  private void writeAttribute(String name, String value) throws SAXException {
+    checkForInvalidXmlChars(value);
+    writeByte(' ');
+    writeName(name);
+    writeByte('=');
+    writeByte('"');
+    final int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '&':
+          writeAscii("&amp;");
+          break;
+        case '<':
+          writeAscii("&lt;");
+          break;
+        case '>':
+          writeAscii("&gt;");
+          break;
+        case '"':
+          writeAscii("&quot;");
+          break;
+        default:
+          if (c < 0x20) {
+            writeCharRef(c);
+          } else if (Character.isHighSurrogate(c)) {
+            writeCharRef(Character.toCodePoint(c, value.charAt(++i)));
+          } else {
+            writeChar(c);
+          }
+      }
+    }
+    writeByte('"');
+  }
+
+  private boolean isPendingDeclaration(String attrName) {
+    if (!attrName.startsWith("xmlns")) {
+      return false;
+    }
+    String prefix;
+    if (attrName.length() == 5) {
+      prefix = "";
+    } else if (attrName.charAt(5) == ':') {
+      prefix = attrName.substring(6);
+    } else {
+      return false;
+    }
+    for (int i = 0; i < pendingPrefixMappings.size(); i += 2) {
+      if (pendingPrefixMappings.get(i).equals(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void moveToFront(String qName) {
+    int colon = qName.indexOf(':');
+    String prefix = (colon < 0) ? "" : qName.substring(0, colon);
+    for (int i = 2; i < pendingPrefixMappings.size(); i += 2) {
+      if (pendingPrefixMappings.get(i).equals(prefix)) {
+        String mappedUri = pendingPrefixMappings.remove(i + 1);
+        pendingPrefixMappings.remove(i);
+        pendingPrefixMappings.add(0, mappedUri);
+        pendingPrefixMappings.add(0, prefix);
+        return;
+      }
+    }
+  }
+
+  private void newLineAndIndent(int level) throws SAXException {
+    writeBytes(LINE_SEPARATOR);
+    for (int i = level * INDENT_AMOUNT; i > 0; i--) {
+      writeByte(' ');
+    }
+  }
+
+  private void writeName(String s) throws SAXException {
+    final int length = s.length();
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (Character.isHighSurrogate(c) && i + 1 < length) {
+        writeCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+      } else {
+        writeChar(c);
+      }
+    }
+  }
+
+  private void writeCharRef(int codePoint) throws SAXException {
+    writeByte('&');
+    writeByte('#');
+    writeAscii(Integer.toString(codePoint));
+    writeByte(';');
+  }
+
+  /**
+   * @param c
+   *          a char which is not a surrogate
+   */
+  private void writeChar(char c) throws SAXException {
+    if (c < 0x80) {
+      writeByte(c);
+    } else if (c < 0x800) {
+      ensureSpace(2);
+      buf[pos++] = (byte) (0xc0 | (c >> 6));
+      buf[pos++] = (byte) (0x80 | (c & 0x3f));
+    } else {
+      ensureSpace(3);
+      buf[pos++] = (byte) (0xe0 | (c >> 12));
+      buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+      buf[pos++] = (byte) (0x80 | (c & 0x3f));
+    }
+  }
+
+  private void writeCodePoint(int cp) throws SAXException {
+    ensureSpace(4);
+    buf[pos++] = (byte) (0xf0 | (cp >> 18));
+    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+    buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+  }
+
+  private void writeAscii(String s) throws SAXException {
+    final int length = s.length();
+    ensureSpace(length);
+    for (int i = 0; i < length; i++) {
+      buf[pos++] = (byte) s.charAt(i);
+    }
+  }
+
+  private void writeBytes(byte[] bytes) throws SAXException {
+    ensureSpace(bytes.length);
+    System.arraycopy(bytes, 0, buf, pos, bytes.length);
+    pos += bytes.length;
+  }
+
+  private void writeByte(int b) throws SAXException {
+    if (pos == BUFFER_SIZE) {
+      flushBuffer();
+    }
+    buf[pos++] = (byte) b;
+  }
+
+  private void ensureSpace(int n) throws SAXException {
+    if (pos + n > BUFFER_SIZE) {
+      flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws SAXException {
+    try {
+      out.write(buf, 0, pos);
+    } catch (IOException e) {
+      throw new SAXException(e);
+    }
+    pos = 0;
+  }
+
+  // same messages as XMLSerializer.CharacterValidatingContentHandler
+
+  private void checkForInvalidXmlChars(String s) throws SAXParseException {
+    final int index = XMLUtils.checkForNonXmlCharacters(s, isXml11);
+    if (index >= 0) {
+      String startStr = (index == 0) ? "[The Very First Character]"
+              : s.substring(0, Math.min(index, Math.min(100, s.length())));
+      throw new SAXParseException(invalidCharMessage(s.charAt(index), index, startStr), null);
+    }
+  }
+
+  private void checkForInvalidXmlChars(char[] ch, int start, int length)
+          throws SAXParseException {
+    final int index = XMLUtils.checkForNonXmlCharacters(ch, start, length, isXml11);
+    if (index >= 0) {
+      String startStr = (index == 0) ? "[The Very First Character]"
+              : new String(ch).substring(0, Math.min(index, Math.min(100, ch.length)));
+      throw new SAXParseException(invalidCharMessage(ch[index], index, startStr), null);
+    }
+  }
+
+  private String invalidCharMessage(char c, int index, String startStr) {
+    return String.format(
+            "Trying to serialize non-XML %s character: 0x%x at offset %,d in string starting with %s",
+            (isXml11 ? "1.1" : "1.0"), (int) c, index, startStr);
+  }
+}
@@ -20,6 +20,7 @@
 package org.apache.uima.jcas;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.ListIterator;
@@ -736,6 +737,15 @@ public interface JCas extends AbstractCas {
    */
   InputStream getSofaDataStream();
 
+  /**
+   * Get the Sofa data as a read-only byte buffer, see {@link CAS#getSofaDataBuffer()}.
+   * 
+   * @return A read-only buffer of the Sofa Data, or <code>null</code> if not set.
+   */
+  default ByteBuffer getSofaDataBuffer() {
+    return getCas().getSofaDataBuffer();
+  }
+
   /**
    * Get the mime type of the Sofa data being analyzed.
    * 
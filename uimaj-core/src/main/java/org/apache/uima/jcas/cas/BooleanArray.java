@@ -120,6 +120,7 @@ public final class BooleanArray extends TOP
    */
   @Override
   public void set(int i, boolean v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -129,6 +130,7 @@ public final class BooleanArray extends TOP
    */
   @Override
   public void copyFromArray(boolean[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -171,6 +173,7 @@ public final class BooleanArray extends TOP
    */
   @Override
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, srcPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Boolean.parseBoolean(src[i + srcPos]);
@@ -190,6 +193,7 @@ public final class BooleanArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<Boolean> v) {
+    _casView.checkNotFrozen();
     BooleanArray bv = (BooleanArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
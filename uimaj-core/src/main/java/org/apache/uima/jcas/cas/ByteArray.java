@@ -118,6 +118,7 @@ public final class ByteArray extends TOP
    */
   @Override
   public void set(int i, byte v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -127,6 +128,7 @@ public final class ByteArray extends TOP
    */
   @Override
   public void copyFromArray(byte[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -169,6 +171,7 @@ public final class ByteArray extends TOP
    */
   @Override
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Byte.parseByte(src[i + srcPos]);
@@ -188,6 +191,7 @@ public final class ByteArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<Byte> v) {
+    _casView.checkNotFrozen();
     ByteArray bv = (ByteArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
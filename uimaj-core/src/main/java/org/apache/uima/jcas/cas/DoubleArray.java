@@ -121,6 +121,7 @@ public final class DoubleArray extends TOP
    */
   @Override
   public void set(int i, double v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -130,6 +131,7 @@ public final class DoubleArray extends TOP
    */
   @Override
   public void copyFromArray(double[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
   }
 
@@ -171,6 +173,7 @@ public final class DoubleArray extends TOP
    */
   @Override
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Double.parseDouble(src[i + srcPos]);
@@ -189,6 +192,7 @@ public final class DoubleArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     DoubleArray bv = (DoubleArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
   }
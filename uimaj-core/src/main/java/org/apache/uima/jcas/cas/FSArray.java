@@ -149,6 +149,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
   /** updates the Cas, setting the indexed value with the corresponding Cas FeatureStructure. */
   @Override
   public void set(int i, T av) {
+    _casView.checkNotFrozen();
     TOP v = (TOP) av;
     if (v != null && _casView.getBaseCAS() != v._casView.getBaseCAS()) {
       /**
@@ -164,6 +165,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
 
   // internal use
   void set_without_PEAR_conversion(int i, TOP v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -276,6 +278,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<T> v) {
+    _casView.checkNotFrozen();
     FSArray<T> bv = (FSArray<T>) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
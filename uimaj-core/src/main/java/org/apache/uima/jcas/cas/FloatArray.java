@@ -132,6 +132,7 @@ public final class FloatArray extends TOP
    */
   @Override
   public void set(int i, float v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -141,6 +142,7 @@ public final class FloatArray extends TOP
    */
   @Override
   public void copyFromArray(float[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -207,6 +209,7 @@ public final class FloatArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     FloatArray bv = (FloatArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
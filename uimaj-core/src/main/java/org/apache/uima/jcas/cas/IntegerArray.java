@@ -120,6 +120,7 @@ public final class IntegerArray extends TOP
    */
   @Override
   public void set(int i, int v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -130,6 +131,7 @@ public final class IntegerArray extends TOP
    */
   @Override
   public void copyFromArray(int[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -191,6 +193,7 @@ public final class IntegerArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     IntegerArray bv = (IntegerArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
@@ -121,6 +121,7 @@ public final class LongArray extends TOP
    */
   @Override
   public void set(int i, long v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -130,6 +131,7 @@ public final class LongArray extends TOP
    */
   @Override
   public void copyFromArray(long[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -172,6 +174,7 @@ public final class LongArray extends TOP
    */
   @Override
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Long.parseLong(src[i + srcPos]);
@@ -191,6 +194,7 @@ public final class LongArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     LongArray bv = (LongArray) v;
     System.arraycopy(bv.theArray, 0, theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
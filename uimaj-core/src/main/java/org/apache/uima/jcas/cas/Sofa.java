@@ -22,6 +22,7 @@ package org.apache.uima.jcas.cas;
 import java.io.InputStream;
 import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASRuntimeException;
@@ -285,6 +286,13 @@ public class Sofa extends TOP implements SofaFSImpl {
     return _casView.getSofaDataStream(this);
   }
 
+  /**
+   * @return the sofa data as a read-only byte buffer, see {@link CAS#getSofaDataBuffer()}
+   */
+  public ByteBuffer getSofaDataBuffer() {
+    return _casView.getSofaDataBuffer(this);
+  }
+
   /**
    * These getter methods are for creating method handle access The getter name must match the
    * feature name + transformation - used in generic pretty printing routines
@@ -375,7 +375,10 @@ public class JCasHashMap implements Iterable<TOP> {
     return r;
   }
 
-  int getCapacity() {
+  /**
+   * @return the number of slots of all sub tables, including the free ones
+   */
+  public int getCapacity() {
     int r = 0;
     for (JCasHashMapSubMap subMap : subMaps) {
       r += subMap.table.length;
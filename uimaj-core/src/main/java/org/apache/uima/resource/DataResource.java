@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -50,6 +51,23 @@ public interface DataResource extends Resource {
    */
   InputStream getInputStream() throws IOException;
 
+  /**
+   * Gets a read-only view of the data. The default implementation reads the input stream into a
+   * heap buffer; implementations may instead memory map the data, and share the mapping among all
+   * callers in the JVM.
+   * 
+   * @return a read-only buffer positioned at the start of the data
+   * 
+   * @throws IOException
+   *           if an I/O error occurred when trying to read the data, or if it is larger than a
+   *           buffer can hold
+   */
+  default ByteBuffer getByteBuffer() throws IOException {
+    try (InputStream is = getInputStream()) {
+      return ByteBuffer.wrap(is.readAllBytes()).asReadOnlyBuffer();
+    }
+  }
+
   /**
    * Gets the URI of the data. In general, this method will return a URI that is equivalent to the
    * URL returned by {@link #getUrl()}. However, in the case where {@link #getUrl()} returns null
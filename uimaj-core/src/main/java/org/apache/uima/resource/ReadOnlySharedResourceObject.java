@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.resource;
+
+/**
+ * A {@link SharedResourceObject} which is read-only and thread-safe once loaded. The
+ * {@link ResourceManager} then loads it only once per JVM for the same data: all resource managers,
+ * including those of pooled instances and PEARs, share the instance loaded from the same URL with
+ * the same content, as long as they see the same implementation class.
+ * <p>
+ * Large resources should read their data with {@link DataResource#getByteBuffer()}, which
+ * memory maps files instead of copying them to the heap.
+ * <p>
+ * Since other resource managers may still use it, a shared instance which is also a
+ * {@link Resource} is not destroyed when a resource manager is destroyed.
+ */
+public interface ReadOnlySharedResourceObject extends SharedResourceObject {
+}
@@ -26,6 +26,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.apache.uima.UIMARuntimeException;
@@ -140,6 +141,18 @@ public class DataResource_impl extends Resource_ImplBase implements DataResource
     return mFileUrl.openStream();
   }
 
+  /**
+   * For file URLs, the file is memory mapped once per JVM, and the mapping is shared by all
+   * callers.
+   * 
+   * @see org.apache.uima.resource.DataResource#getByteBuffer()
+   */
+  @Override
+  public ByteBuffer getByteBuffer() throws IOException {
+    ByteBuffer mapping = SharedResourceRegistry.getByteBuffer(mFileUrl);
+    return (mapping != null) ? mapping : DataResource.super.getByteBuffer();
+  }
+
   /**
    * @see org.apache.uima.resource.DataResource#getUrl()
    */
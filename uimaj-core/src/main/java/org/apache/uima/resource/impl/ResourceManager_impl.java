@@ -47,6 +47,7 @@ import org.apache.uima.resource.DataResource;
 import org.apache.uima.resource.ExternalResourceDependency;
 import org.apache.uima.resource.ExternalResourceDescription;
 import org.apache.uima.resource.ParameterizedDataResource;
+import org.apache.uima.resource.ReadOnlySharedResourceObject;
 import org.apache.uima.resource.RelativePathResolver;
 import org.apache.uima.resource.Resource;
 import org.apache.uima.resource.ResourceAccessException;
@@ -56,6 +57,7 @@ import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.resource.SharedResourceObject;
 import org.apache.uima.resource.metadata.ExternalResourceBinding;
 import org.apache.uima.resource.metadata.ResourceManagerConfiguration;
+import org.apache.uima.resource.metadata.ResourceMetaData;
 import org.apache.uima.util.Level;
 import org.apache.uima.util.XMLizable;
 
@@ -456,8 +458,7 @@ public class ResourceManager_impl implements ResourceManager {
       Class<?> sharedResourceObjectClass = mParameterizedResourceImplClassMap.get(aName);
       if (sharedResourceObjectClass != EMPTY_RESOURCE_CLASS) {
         try {
-          SharedResourceObject sro = (SharedResourceObject) sharedResourceObjectClass.newInstance();
-          sro.load(dr);
+          SharedResourceObject sro = loadSharedResourceObject(sharedResourceObjectClass, dr);
           mParameterizedResourceInstanceMap.put(nameAndResource, sro);
           return sro;
         } catch (InstantiationException e) {
@@ -746,10 +747,9 @@ public class ResourceManager_impl implements ResourceManager {
       // instantiate and load the resource object if there is one
       if (implClass != null) {
         try {
-          SharedResourceObject sro = (SharedResourceObject) implClass.newInstance();
-          if (!verificationMode) {
-            sro.load((DataResource) r);
-          }
+          SharedResourceObject sro = verificationMode
+                  ? (SharedResourceObject) implClass.newInstance()
+                  : loadSharedResourceObject(implClass, (DataResource) r);
           implInstance = sro; // so the implementation is registered, for DataResources
         } catch (InstantiationException e) {
           throw new ResourceInitializationException(
@@ -787,6 +787,29 @@ public class ResourceManager_impl implements ResourceManager {
     mInternalResourceRegistrationMap.put(aName, registration);
   }
 
+  /**
+   * Instantiates and loads a shared resource object. A {@link ReadOnlySharedResourceObject} is
+   * loaded only once per JVM for the same data, and that instance is shared by all resource
+   * managers.
+   */
+  private static SharedResourceObject loadSharedResourceObject(Class<?> aImplClass,
+          DataResource aData)
+          throws InstantiationException, IllegalAccessException, ResourceInitializationException {
+    SharedResourceRegistry.Loader loader = () -> {
+      SharedResourceObject sro = (SharedResourceObject) aImplClass.newInstance();
+      sro.load(aData);
+      return sro;
+    };
+
+    if (ReadOnlySharedResourceObject.class.isAssignableFrom(aImplClass)
+            && aData.getUrl() != null) {
+      ResourceMetaData md = aData.getMetaData();
+      return SharedResourceRegistry.getOrLoad(aImplClass, aData.getUrl(),
+              (md == null) ? null : md.getConfigurationParameterSettings(), loader);
+    }
+    return loader.load();
+  }
+
   @Override
   public CasManager getCasManager() {
     // Optimization for case where mCasManager already created
@@ -869,14 +892,17 @@ public class ResourceManager_impl implements ResourceManager {
       return;
     }
 
+    // read-only shared resource objects may be used by other resource managers, they are left to
+    // the garbage collector
     for (ResourceRegistration rr : mInternalResourceRegistrationMap.values()) {
-      if (rr.resource instanceof Resource) {
+      if (rr.resource instanceof Resource
+              && !(rr.resource instanceof ReadOnlySharedResourceObject)) {
         ((Resource) rr.resource).destroy();
       }
     }
 
     for (Object r : mParameterizedResourceInstanceMap.values()) {
-      if (r instanceof Resource) {
+      if (r instanceof Resource && !(r instanceof ReadOnlySharedResourceObject)) {
         ((Resource) r).destroy();
       }
     }
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.resource.impl;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+import org.apache.uima.resource.ReadOnlySharedResourceObject;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.apache.uima.resource.metadata.ConfigurationParameterSettings;
+import org.apache.uima.util.UriUtils;
+
+/**
+ * JVM-wide registry of memory mapped resource files and of loaded
+ * {@link ReadOnlySharedResourceObject}s, so each is held only once, no matter how many resource
+ * managers use it.
+ * <p>
+ * Entries are held weakly: they are kept as long as some resource manager or caller uses them.
+ * Files are identified by their path, and are mapped or hashed again when their size or
+ * modification time changes. Objects are identified by their implementation class, the URL and
+ * content of their data, and the parameter settings of their data resource.
+ */
+final class SharedResourceRegistry {
+
+  /**
+   * Creates and loads a shared resource object
+   */
+  interface Loader {
+    SharedResourceObject load()
+            throws InstantiationException, IllegalAccessException, ResourceInitializationException;
+  }
+
+  private record FileState(long size, FileTime lastModified) {
+    static FileState of(Path aPath) throws IOException {
+      BasicFileAttributes attrs = Files.readAttributes(aPath, BasicFileAttributes.class);
+      return new FileState(attrs.size(), attrs.lastModifiedTime());
+    }
+  }
+
+  private record FileMapping(FileState state, WeakReference<ByteBuffer> buffer) {
+  }
+
+  private record FileHash(FileState state, long hash) {
+  }
+
+  /**
+   * Holds the implementation class weakly, so an entry does not keep a class loader of a PEAR or a
+   * redeployed application alive. A key whose class is gone only equals itself.
+   */
+  private static final class ObjectKey {
+    private final WeakReference<Class<?>> implClass;
+    private final String url;
+    private final long contentHash;
+    private final ConfigurationParameterSettings settings;
+    private final int hashCode;
+
+    ObjectKey(Class<?> aImplClass, String aUrl, long aContentHash,
+            ConfigurationParameterSettings aSettings) {
+      implClass = new WeakReference<>(aImplClass);
+      url = aUrl;
+      contentHash = aContentHash;
+      settings = aSettings;
+      hashCode = Objects.hash(aImplClass, aUrl, aContentHash, aSettings);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object aObj) {
+      if (this == aObj) {
+        return true;
+      }
+      if (!(aObj instanceof ObjectKey)) {
+        return false;
+      }
+      ObjectKey other = (ObjectKey) aObj;
+      Class<?> c = implClass.get();
+      return c != null && c == other.implClass.get() && hashCode == other.hashCode
+              && contentHash == other.contentHash && url.equals(other.url)
+              && Objects.equals(settings, other.settings);
+    }
+  }
+
+  /**
+   * Enqueued when the object is no longer used, to remove its entry
+   */
+  private static final class ObjectRef extends WeakReference<SharedResourceObject> {
+    final ObjectKey key;
+
+    ObjectRef(SharedResourceObject aObject, ObjectKey aKey) {
+      super(aObject, staleObjects);
+      key = aKey;
+    }
+  }
+
+  private static final class ObjectHolder {
+    volatile ObjectRef ref;
+  }
+
+  // guarded by itself; mapping is quick, a single lock is fine
+  private static final Map<Path, FileMapping> mappings = new HashMap<>();
+
+  private static final Map<Path, FileHash> fileHashes = new ConcurrentHashMap<>();
+
+  private static final Map<ObjectKey, ObjectHolder> objects = new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<SharedResourceObject> staleObjects = new ReferenceQueue<>();
+
+  private SharedResourceRegistry() {
+    // no instances
+  }
+
+  /**
+   * @param aUrl
+   *          the URL of the data
+   * @return a read-only buffer over the memory mapped file, shared by all callers in the JVM, or
+   *         null if the URL is not a file
+   * @throws IOException
+   *           if the file can't be mapped, or is larger than a buffer can hold
+   */
+  static ByteBuffer getByteBuffer(URL aUrl) throws IOException {
+    Path path = toPath(aUrl);
+    if (path == null) {
+      return null;
+    }
+
+    FileState state = FileState.of(path);
+    synchronized (mappings) {
+      FileMapping mapping = mappings.get(path);
+      ByteBuffer buffer = (mapping != null && mapping.state().equals(state))
+              ? mapping.buffer().get()
+              : null;
+      if (buffer == null) {
+        if (state.size() > Integer.MAX_VALUE) {
+          throw new IOException("File too large to map into a single buffer: " + path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          buffer = channel.map(READ_ONLY, 0, state.size());
+        }
+        mappings.values().removeIf(m -> m.buffer().get() == null);
+        mappings.put(path, new FileMapping(state, new WeakReference<>(buffer)));
+      }
+      // the duplicate references the mapping, which is thus kept until no caller uses it
+      return buffer.duplicate();
+    }
+  }
+
+  /**
+   * Gets the object loaded from the data at the URL by an instance of the implementation class with
+   * the given parameter settings, loading it if there is none yet.
+   * 
+   * @param aImplClass
+   *          the implementation class of the shared resource object
+   * @param aUrl
+   *          the URL of its data
+   * @param aSettings
+   *          the configuration parameter settings of the data resource, may be null
+   * @param aLoader
+   *          creates and loads the object if it is not loaded yet
+   * @return the shared resource object
+   * @throws ResourceInitializationException
+   *           if the data can't be read for hashing, or passed through from the loader
+   * @throws InstantiationException
+   *           passed through from the loader
+   * @throws IllegalAccessException
+   *           passed through from the loader
+   */
+  static SharedResourceObject getOrLoad(Class<?> aImplClass, URL aUrl,
+          ConfigurationParameterSettings aSettings, Loader aLoader)
+          throws ResourceInitializationException, InstantiationException,
+          IllegalAccessException {
+    removeStaleObjects();
+
+    ObjectKey key;
+    try {
+      // copied, so later changes to the settings do not change the key
+      key = new ObjectKey(aImplClass, aUrl.toString(), contentHash(aUrl),
+              (aSettings == null) ? null : (ConfigurationParameterSettings) aSettings.clone());
+    } catch (IOException e) {
+      throw new ResourceInitializationException(e);
+    }
+
+    ObjectHolder holder = objects.computeIfAbsent(key, k -> new ObjectHolder());
+    synchronized (holder) {
+      ObjectRef ref = holder.ref;
+      SharedResourceObject sro = (ref != null) ? ref.get() : null;
+      if (sro == null) {
+        sro = aLoader.load();
+        holder.ref = new ObjectRef(sro, key);
+        objects.putIfAbsent(key, holder); // in case it was just removed as stale
+      }
+      return sro;
+    }
+  }
+
+  private static void removeStaleObjects() {
+    for (Reference<? extends SharedResourceObject> r; (r = staleObjects.poll()) != null;) {
+      ObjectRef stale = (ObjectRef) r;
+      // keep the entry if the object has been loaded again in the meantime
+      objects.computeIfPresent(stale.key, (k, holder) -> (holder.ref == stale) ? null : holder);
+    }
+  }
+
+  /**
+   * The content hash of files is only computed again when their size or modification time changes,
+   * other URLs are read each time.
+   */
+  private static long contentHash(URL aUrl) throws IOException {
+    Path path = toPath(aUrl);
+    CRC32C crc = new CRC32C();
+    if (path == null) {
+      try (InputStream is = aUrl.openStream()) {
+        byte[] buf = new byte[1 << 16];
+        for (int n; (n = is.read(buf)) >= 0;) {
+          crc.update(buf, 0, n);
+        }
+      }
+      return crc.getValue();
+    }
+
+    FileState state = FileState.of(path);
+    FileHash hash = fileHashes.get(path);
+    if (hash == null || !hash.state().equals(state)) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+        while (channel.read(buf) >= 0) {
+          buf.flip();
+          crc.update(buf);
+          buf.clear();
+        }
+      }
+      hash = new FileHash(state, crc.getValue());
+      fileHashes.put(path, hash);
+    }
+    return hash.hash();
+  }
+
+  private static Path toPath(URL aUrl) {
+    if (!"file".equalsIgnoreCase(aUrl.getProtocol())) {
+      return null;
+    }
+    try {
+      return Paths.get(UriUtils.quote(aUrl));
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      return null; // e.g. a file URL with a host, leave it to URL.openStream
+    }
+  }
+}
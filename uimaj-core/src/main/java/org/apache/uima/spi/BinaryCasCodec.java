@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.spi;
+
+import java.io.IOException;
+
+/**
+ * A block compression codec for the per-slot-kind streams of the compressed binary form 6
+ * serialization. Each stream is compressed as one block. The id of the codec is recorded in the
+ * serialization header, so the matching codec is picked automatically when deserializing.
+ * <p>
+ * Codecs are discovered via the Java service loader. Ids 0 to 127 are reserved for codecs shipped
+ * with UIMA (0 is deflate, 1 is LZ4), user-provided codecs must use ids 128 to 255.
+ */
+public interface BinaryCasCodec {
+
+  /**
+   * @return the id recorded in the serialized form, between 0 and 255
+   */
+  int getId();
+
+  /**
+   * @return the name used to select this codec, e.g. via the
+   *         {@code uima.bcf6_codec} JVM property
+   */
+  String getName();
+
+  /**
+   * @param aData
+   *          the bytes to compress
+   * @param aLength
+   *          the number of bytes of aData to compress, starting at 0
+   * @return the compressed bytes, the array is not retained by the caller
+   * @throws IOException
+   *           if the data could not be compressed
+   */
+  byte[] compress(byte[] aData, int aLength) throws IOException;
+
+  /**
+   * @param aCompressed
+   *          the compressed bytes
+   * @param aCompressedLength
+   *          the number of bytes of aCompressed to decompress, starting at 0
+   * @param aOriginalLength
+   *          the number of bytes the data had before it was compressed
+   * @return the decompressed bytes, an array of exactly aOriginalLength bytes
+   * @throws IOException
+   *           if the compressed data is malformed
+   */
+  byte[] decompress(byte[] aCompressed, int aCompressedLength, int aOriginalLength)
+          throws IOException;
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.BinaryCasSerDes6;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.DictionaryDeflateBinaryCasCodec;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.internal.util.ByteBufferInputStream;
+import org.apache.uima.internal.util.SerializationUtils;
+import org.apache.uima.resource.ResourceInitializationException;
+
+/**
+ * Reads an archive of CASes written by {@link CasArchiveWriter}. The file is memory mapped, so
+ * opening it is cheap regardless of its size, and any CAS can be loaded by its document id. All
+ * methods are thread-safe; each thread needs its own CAS to load into.
+ * <p>
+ * The CASes to load into must have the type system of the archive, see {@link #getTypeSystem()},
+ * or a superset of it.
+ */
+public class CasArchiveReader implements AutoCloseable {
+
+  /** files larger than this are mapped in several segments */
+  private static final long SEGMENT_SIZE = 1L << 30;
+
+  /**
+   * each segment is mapped this much longer, so that the CASes starting in it are likely to end in
+   * it; those which do not are read from the file
+   */
+  private static final long SEGMENT_OVERLAP = 64L << 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer[] segments;
+  private final int size;
+  private final long offsetTable; // file position of the offset of the first CAS
+  private final long entriesEnd;
+  private final TypeSystemImpl typeSystem;
+  private final DictionaryDeflateBinaryCasCodec codec;
+
+  /**
+   * @param aFile
+   *          the archive file
+   * @throws IOException
+   *           if the file can't be read or is not a CAS archive
+   */
+  public CasArchiveReader(Path aFile) throws IOException {
+    channel = FileChannel.open(aFile, StandardOpenOption.READ);
+    try {
+      long fileSize = channel.size();
+      int nbrSegments = (int) Math.max(1, (fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+      segments = new ByteBuffer[nbrSegments];
+      for (int i = 0; i < nbrSegments; i++) {
+        long start = i * SEGMENT_SIZE;
+        segments[i] = channel.map(READ_ONLY, start,
+                Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, fileSize - start));
+      }
+
+      int magicLength = CasArchiveWriter.MAGIC.length;
+      if (fileSize < CasArchiveWriter.TSI_OFFSET + 4 + 4 + 4 + 8 + magicLength
+              || !Arrays.equals(bytes(0, magicLength), CasArchiveWriter.MAGIC)
+              || !Arrays.equals(bytes(fileSize - magicLength, magicLength),
+                      CasArchiveWriter.MAGIC)) {
+        throw new IOException("Not a CAS archive, or not completely written: " + aFile);
+      }
+      int version = slice(magicLength, 4).getInt();
+      if (version != CasArchiveWriter.VERSION) {
+        throw new IOException("Unsupported CAS archive version " + version + ": " + aFile);
+      }
+
+      int tsiLength = slice(CasArchiveWriter.TSI_OFFSET, 4).getInt();
+      typeSystem = (tsiLength == 0) ? null
+              : SerializationUtils
+                      .deserializeCASMgrSerializer(new ByteBufferInputStream(
+                              slice(CasArchiveWriter.TSI_OFFSET + 4, tsiLength)))
+                      .getTypeSystem().commit();
+
+      entriesEnd = slice(fileSize - magicLength - 8, 8).getLong();
+      int dictionaryLength = slice(entriesEnd, 4).getInt();
+      codec = (dictionaryLength == 0) ? null
+              : new DictionaryDeflateBinaryCasCodec(bytes(entriesEnd + 4, dictionaryLength));
+      size = slice(entriesEnd + 4 + dictionaryLength, 4).getInt();
+      offsetTable = entriesEnd + 4 + dictionaryLength + 4;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of CASes in the archive
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the type system of the CASes in the archive, or null if the archive is empty. To
+   *         create a CAS to load into, use e.g.
+   *         {@code CasCreationUtils.createCas(TypeSystemUtil.typeSystem2TypeSystemDescription(ts), null, null)}
+   */
+  public TypeSystem getTypeSystem() {
+    return typeSystem;
+  }
+
+  /**
+   * Loads a CAS, replacing the content of the given CAS.
+   * 
+   * @param aDocId
+   *          the document id, from 0 to size() - 1
+   * @param aCas
+   *          the CAS to load into
+   * @throws IOException
+   *           if the CAS can't be read
+   */
+  public void load(int aDocId, CAS aCas) throws IOException {
+    Objects.checkIndex(aDocId, size);
+    long start = slice(offsetTable + 8L * aDocId, 8).getLong();
+    long end = (aDocId + 1 < size) ? slice(offsetTable + 8L * (aDocId + 1), 8).getLong()
+            : entriesEnd;
+
+    TypeSystemImpl ts = typeSystem.commit(((CASImpl) aCas).getJCasClassLoader());
+    try {
+      new BinaryCasSerDes6(aCas, null, ts, null, codec)
+              .deserialize(new ByteBufferInputStream(slice(start, (int) (end - start))));
+    } catch (ResourceInitializationException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Loads all CASes in parallel. The archive is split into one contiguous range of document ids
+   * per thread, which each thread loads sequentially, in document id order, into its own CAS.
+   * 
+   * @param aThreads
+   *          the number of threads to use
+   * @param aCasFactory
+   *          called once per thread to create the CAS that thread loads into
+   * @param aAction
+   *          called for each loaded CAS and its document id; it must not keep the CAS, which is
+   *          reused for the next document
+   * @throws IOException
+   *           if a CAS can't be read
+   */
+  public void forEach(int aThreads, Supplier<CAS> aCasFactory, ObjIntConsumer<CAS> aAction)
+          throws IOException {
+    int threads = Math.max(1, Math.min(aThreads, size));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> tasks = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        int from = (int) ((long) size * t / threads);
+        int to = (int) ((long) size * (t + 1) / threads);
+        tasks.add(executor.submit(() -> {
+          CAS cas = aCasFactory.get();
+          for (int i = from; i < to; i++) {
+            load(i, cas);
+            aAction.accept(cas, i);
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> task : tasks) {
+        task.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return a buffer over the given range of the file, from the mapping if it is covered by one,
+   *         otherwise read from the file
+   */
+  private ByteBuffer slice(long aPosition, int aLength) throws IOException {
+    int segment = (int) (aPosition / SEGMENT_SIZE);
+    ByteBuffer mapping = segments[segment];
+    long offset = aPosition - segment * SEGMENT_SIZE;
+    if (offset + aLength <= mapping.capacity()) {
+      return mapping.slice((int) offset, aLength);
+    }
+
+    ByteBuffer buf = ByteBuffer.allocate(aLength);
+    while (buf.hasRemaining()) {
+      if (channel.read(buf, aPosition + buf.position()) < 0) {
+        throw new IOException("Unexpected end of CAS archive");
+      }
+    }
+    return buf.flip();
+  }
+
+  private byte[] bytes(long aPosition, int aLength) throws IOException {
+    byte[] b = new byte[aLength];
+    slice(aPosition, aLength).get(b);
+    return b;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.BinaryCasSerDes6;
+import org.apache.uima.cas.impl.DictionaryDeflateBinaryCasCodec;
+import org.apache.uima.jcas.cas.Sofa;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.spi.BinaryCasCodec;
+
+// @formatter:off
+/**
+ * Writes many CASes into one archive file, to be read with {@link CasArchiveReader}, which maps it
+ * into memory for random access by document id and for parallel scanning.
+ * <p>
+ * All CASes must have the same type system; it is written once for the archive. Each CAS is
+ * serialized in compressed form 6 without a type system. The string values of the first CASes are
+ * sampled: the values repeated across documents form a dictionary which is then used to compress
+ * all following CASes, see {@link DictionaryDeflateBinaryCasCodec}.
+ * <p>
+ * Format, all numbers big endian:
+ * <pre>
+ *   magic "UIMACARC", int version
+ *   int length, TSI (type system and index definitions) as written by CasIOUtils.writeTypeSystem
+ *   the serialized CASes, in document id order
+ *   trailer:
+ *     int length, the dictionary
+ *     int number of CASes, long offset of each CAS
+ *     long offset of the trailer, magic "UIMACARC"
+ * </pre>
+ * Adding CASes is thread-safe; they are serialized in parallel and written in the order their
+ * document ids are assigned.
+ */
+// @formatter:on
+public class CasArchiveWriter implements AutoCloseable {
+
+  static final byte[] MAGIC = "UIMACARC".getBytes(US_ASCII);
+
+  static final int VERSION = 1;
+
+  /** offset of the TSI length */
+  static final int TSI_OFFSET = MAGIC.length + 4;
+
+  public static final int DEFAULT_DICTIONARY_SAMPLE_SIZE = 1000;
+
+  /** longer values are hardly repeated across documents */
+  private static final int MAX_SAMPLED_VALUE_LENGTH = 256;
+
+  private final DataOutputStream out;
+  private final int dictionarySampleSize;
+
+  private long position;
+  private long[] offsets = new long[1024];
+  private int size;
+  private TypeSystem typeSystem;
+  private boolean closed;
+
+  /** value to the number of sampled documents containing it */
+  private Map<String, int[]> sampledValues = new HashMap<>();
+  private int nbrSampled;
+  private byte[] dictionary = new byte[0];
+  private BinaryCasCodec codec; // null, deflate, until the dictionary is built
+
+  /**
+   * @param aFile
+   *          the archive file to write, replaced if it exists
+   * @throws IOException
+   *           if the file can't be written
+   */
+  public CasArchiveWriter(Path aFile) throws IOException {
+    this(aFile, DEFAULT_DICTIONARY_SAMPLE_SIZE);
+  }
+
+  /**
+   * @param aFile
+   *          the archive file to write, replaced if it exists
+   * @param aDictionarySampleSize
+   *          the number of CASes sampled to build the string dictionary, 0 for no dictionary
+   * @throws IOException
+   *           if the file can't be written
+   */
+  public CasArchiveWriter(Path aFile, int aDictionarySampleSize) throws IOException {
+    dictionarySampleSize = aDictionarySampleSize;
+    out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(aFile), 1 << 16));
+    out.write(MAGIC);
+    out.writeInt(VERSION);
+    position = TSI_OFFSET;
+    if (dictionarySampleSize <= 0) {
+      sampledValues = null;
+    }
+  }
+
+  /**
+   * @param aCas
+   *          the CAS to add, not changed
+   * @return the document id of the CAS in the archive, counting from 0 in the order of adding
+   * @throws IOException
+   *           if the CAS can't be serialized or written
+   * @throws IllegalArgumentException
+   *           if the CAS has another type system than the CASes added before
+   */
+  public int add(CAS aCas) throws IOException {
+    BinaryCasCodec casCodec;
+    synchronized (this) {
+      ensureOpen();
+      if (typeSystem == null) {
+        typeSystem = aCas.getTypeSystem();
+        ByteArrayOutputStream tsi = new ByteArrayOutputStream();
+        CasIOUtils.writeTypeSystem(aCas, tsi, true);
+        out.writeInt(tsi.size());
+        tsi.writeTo(out);
+        position += 4 + tsi.size();
+      } else if (!typeSystem.equals(aCas.getTypeSystem())) {
+        throw new IllegalArgumentException(
+                "All CASes in an archive must have the same type system");
+      }
+      if (sampledValues != null) {
+        sample(aCas);
+      }
+      casCodec = codec;
+    }
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream(4096);
+    try {
+      new BinaryCasSerDes6(aCas, null, null, null, casCodec).serialize(serialized);
+    } catch (ResourceInitializationException e) {
+      throw new IOException(e);
+    }
+
+    synchronized (this) {
+      ensureOpen();
+      if (size == offsets.length) {
+        offsets = Arrays.copyOf(offsets, size * 2);
+      }
+      offsets[size] = position;
+      serialized.writeTo(out);
+      position += serialized.size();
+      return size++;
+    }
+  }
+
+  /**
+   * @return the number of CASes added so far
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  private void sample(CAS aCas) {
+    Set<String> values = new HashSet<>();
+    for (Iterator<CAS> it = aCas.getViewIterator(); it.hasNext();) {
+      it.next().<TOP> select().forEach(fs -> collectStrings(fs, values));
+    }
+    for (String v : values) {
+      sampledValues.computeIfAbsent(v, k -> new int[1])[0]++;
+    }
+
+    if (++nbrSampled == dictionarySampleSize) {
+      buildDictionary();
+      sampledValues = null; // release space
+    }
+  }
+
+  private static void collectStrings(TOP fs, Set<String> values) {
+    if (fs instanceof Sofa) {
+      return; // the document text is not repeated
+    }
+    if (fs instanceof StringArray) {
+      for (String s : ((StringArray) fs).toArray()) {
+        addSampledValue(s, values);
+      }
+      return;
+    }
+    for (Feature f : fs.getType().getFeatures()) {
+      if (f.getRange().isStringOrStringSubtype()) {
+        addSampledValue(fs.getStringValue(f), values);
+      }
+    }
+  }
+
+  private static void addSampledValue(String s, Set<String> values) {
+    if (s != null && !s.isEmpty() && s.length() <= MAX_SAMPLED_VALUE_LENGTH) {
+      values.add(s);
+    }
+  }
+
+  /**
+   * The values repeated in most sampled documents, weighted by their length, go into the
+   * dictionary. The most valuable ones are put last, where deflate refers to them with the
+   * shortest distances.
+   */
+  private void buildDictionary() {
+    List<Map.Entry<String, int[]>> repeated = sampledValues.entrySet().stream()
+            .filter(e -> e.getValue()[0] > 1)
+            .sorted(Comparator.comparingLong(
+                    (Map.Entry<String, int[]> e) -> (long) e.getValue()[0] * e.getKey().length())
+                    .reversed())
+            .toList();
+
+    Deque<byte[]> selected = new ArrayDeque<>();
+    int length = 0;
+    for (Map.Entry<String, int[]> e : repeated) {
+      byte[] bytes = e.getKey().getBytes(UTF_8);
+      if (length + bytes.length > DictionaryDeflateBinaryCasCodec.MAX_DICTIONARY_SIZE) {
+        continue;
+      }
+      selected.addFirst(bytes); // most valuable last
+      length += bytes.length;
+    }
+
+    if (length > 0) {
+      ByteArrayOutputStream dict = new ByteArrayOutputStream(length);
+      selected.forEach(dict::writeBytes);
+      dictionary = dict.toByteArray();
+      codec = new DictionaryDeflateBinaryCasCodec(dictionary);
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("The CAS archive is closed");
+    }
+  }
+
+  /**
+   * Writes the dictionary and the offset table, and closes the file.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (DataOutputStream o = out) {
+      if (typeSystem == null) {
+        o.writeInt(0); // no CAS added, no TSI
+        position += 4;
+      }
+      long trailerOffset = position;
+      o.writeInt(dictionary.length);
+      o.write(dictionary);
+      o.writeInt(size);
+      for (int i = 0; i < size; i++) {
+        o.writeLong(offsets[i]);
+      }
+      o.writeLong(trailerOffset);
+      o.write(MAGIC);
+    }
+  }
+}
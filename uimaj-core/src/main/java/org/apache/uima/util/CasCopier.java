@@ -339,12 +339,30 @@ public class CasCopier {
     isEqualTypeSystems = srcTsi.equals(tgtTsi);
   }
 
+  /**
+   * Creates a new CasCopier which copies from the destination CAS of this copier back into its
+   * source CAS. The new copier knows about all the Feature Structures this copier has copied so
+   * far: copying one of those copies back yields the original Feature Structure, so references from
+   * newly created Feature Structures to them are not duplicated.
+   *
+   * @return a CasCopier copying in the reverse direction
+   */
+  public CasCopier reverse() {
+    CasCopier reverse = new CasCopier(originalTgtCas, originalSrcCas, lenient);
+    for (Map.Entry<TOP, TOP> e : mFsMap.entrySet()) {
+      if (e.getValue() != null) {
+        reverse.mFsMap.put(e.getValue(), e.getKey());
+      }
+    }
+    return reverse;
+  }
+
   /**
    * Does a complete deep copy of one CAS into another CAS. The contents of each view in the source
    * CAS will be copied to the same-named view in the destination CAS. If the view does not already
    * exist it will be created. All FeatureStructures that are indexed in a view in the source CAS
    * will become indexed in the same-named view in the destination CAS.
-   * 
+   *
    * Note: If the feature structure and/or feature is not defined in the type system of the
    * destination CAS, the copy will fail (in other words, the lenient setting is false, by default).
    *
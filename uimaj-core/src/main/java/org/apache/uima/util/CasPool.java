@@ -19,21 +19,20 @@
 
 package org.apache.uima.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
-import java.util.Set;
 import java.util.Vector;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasMemoryReport;
+import org.apache.uima.internal.util.InstancePool;
 import org.apache.uima.resource.CasDefinition;
 import org.apache.uima.resource.CasManager;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -58,6 +57,9 @@ import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
  *   If more threads request CASes from the pool than are available, the pool (optionally) puts requesting
  *   threads into a wait state.  When CASes become available, the longest-waiting thread gets the CAS; this
  *   approach prevents starvation behavior (where some threads get all the CASes and others get none).
+ *
+ *   Checking out and checking in CASes does not lock any monitor, so many (virtual) threads can share
+ *   a pool without contending on, or being pinned by, a lock.
  */
 //@formatter:on
 public class CasPool {
@@ -72,28 +74,10 @@ public class CasPool {
    */
   private static final Class<CasPool> CLASS_NAME = CasPool.class;
 
-  // no sync needed because this list is filled during initialization of this instance, and
-  // from then on is read-only, which can occur in parallel
-  private final Set<CAS> mAllInstances;
+  private final InstancePool<CAS> mPool;
 
-  // We use this rather than a form of BlockingQueue, to achieve an (arbitrary) LIFO-like reuse of
-  // CASes
-  // this is a set rather than an array, to speed up "contains()" check used when releasing
-  // (user code could call release multiple times on same cas...)
-  private final Set<CAS> mFreeInstances;
-
-  private final int mNumInstances;
-
-  // a fair lock to prevent starvation of a thread
-  private final Semaphore permits;
-
-  private CasPool(int aNumInstances, Set<CAS> allInstances) {
-    mNumInstances = aNumInstances;
-    permits = new Semaphore(mNumInstances, true);
-    mAllInstances = allInstances;
-    Set<CAS> free = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    free.addAll(mAllInstances);
-    mFreeInstances = free; // concurrent safe publishing idiom
+  private CasPool(List<CAS> allInstances) {
+    mPool = new InstancePool<>(allInstances);
   }
 
   /**
@@ -116,7 +100,7 @@ public class CasPool {
           Collection<? extends ProcessingResourceMetaData> aCollectionOfProcessingResourceMetaData,
           Properties aPerformanceTuningSettings, ResourceManager aResourceManager)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCollectionOfProcessingResourceMetaData,
+    this(fillPool(aNumInstances, aCollectionOfProcessingResourceMetaData,
             aPerformanceTuningSettings, aResourceManager));
   }
 
@@ -134,7 +118,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, AnalysisEngine aAnalysisEngine)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances,
+    this(fillPool(aNumInstances,
             Collections.singletonList((ProcessingResourceMetaData) aAnalysisEngine.getMetaData()),
             aAnalysisEngine.getPerformanceTuningSettings(), aAnalysisEngine.getResourceManager()));
   }
@@ -152,7 +136,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, ProcessingResourceMetaData aMetaData)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, Collections.singletonList(aMetaData), null, null));
+    this(fillPool(aNumInstances, Collections.singletonList(aMetaData), null, null));
   }
 
   /**
@@ -169,8 +153,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, ProcessingResourceMetaData aMetaData,
           ResourceManager aResourceManager) throws ResourceInitializationException {
-    this(aNumInstances,
-            fillPool(aNumInstances, Collections.singletonList(aMetaData), null, aResourceManager));
+    this(fillPool(aNumInstances, Collections.singletonList(aMetaData), null, aResourceManager));
   }
 
   /**
@@ -190,7 +173,7 @@ public class CasPool {
   // TODO: do we need this method AND the one that takes a CasManager?
   public CasPool(int aNumInstances, CasDefinition aCasDefinition,
           Properties aPerformanceTuningSettings) throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCasDefinition, aPerformanceTuningSettings));
+    this(fillPool(aNumInstances, aCasDefinition, aPerformanceTuningSettings));
   }
 
   /**
@@ -210,7 +193,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, CasManager aCasManager, Properties aPerformanceTuningSettings)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCasManager, aPerformanceTuningSettings));
+    this(fillPool(aNumInstances, aCasManager, aPerformanceTuningSettings));
   }
 
   /**
@@ -221,13 +204,7 @@ public class CasPool {
    *         instance becomes available).
    */
   public CAS getCas() {
-    boolean gotPermit;
-    gotPermit = permits.tryAcquire();
-    if (!gotPermit) {
-      return null;
-    }
-
-    return getCasAfterPermitAcquired();
+    return mPool.tryAcquire();
   }
 
   /**
@@ -242,39 +219,13 @@ public class CasPool {
    */
   public CAS getCas(long aTimeout) {
     if (aTimeout == 0) {
-      permits.acquireUninterruptibly();
-      return getCasAfterPermitAcquired();
+      return mPool.acquireUninterruptibly();
     }
-    boolean gotIt;
     try {
-      gotIt = permits.tryAcquire(aTimeout, TimeUnit.MILLISECONDS);
+      return mPool.acquire(aTimeout, TimeUnit.MILLISECONDS);
     } catch (InterruptedException e) {
       return null;
     }
-
-    if (!gotIt) {
-      return null;
-    }
-    return getCasAfterPermitAcquired();
-  }
-
-  private CAS getCasAfterPermitAcquired() {
-    // synchronize so only one iterator is running
-    synchronized (mFreeInstances) {
-      final Iterator<CAS> freeIterator = mFreeInstances.iterator();
-      if (!freeIterator.hasNext()) {
-        throw new RuntimeException("internal error");
-      }
-      final CAS cas = freeIterator.next();
-      freeIterator.remove();
-      // mFreeInstances.remove(cas);
-      // int debugFree = mFreeInstances.size();
-      // int debugAvail = permits.availablePermits();
-      // if (debugFree != debugAvail) {
-      // System.out.println(" on acquire permits != free: " + debugAvail + " " + debugFree);
-      // }
-      return cas;
-    }
   }
 
   /**
@@ -282,8 +233,8 @@ public class CasPool {
    * that when the CAS is later retrieved from the pool it will be ready to use. Also notifies other
    * Threads that may be waiting for an instance to become available.
    * <p>
-   * Synchronized on the CAS to avoid the unnatural case where multiple threads attempt to return
-   * the same CAS to the pool at the same time.
+   * If multiple threads attempt to return the same CAS to the pool at the same time, only one of
+   * them resets and returns it.
    * 
    * @param aCas
    *          the Cas to release
@@ -294,23 +245,20 @@ public class CasPool {
     CAS cas = aCas.getView(CAS.NAME_DEFAULT_SOFA);
 
     // make sure this CAS actually belongs to this pool and is checked out
-    // synchronize to avoid the same CAS being released on 2 threads
-    synchronized (cas) {
-      if (!mAllInstances.contains(cas) || mFreeInstances.contains(cas)) {
-        UIMAFramework.getLogger(CLASS_NAME).logrb(Level.WARNING, CLASS_NAME.getName(), "releaseCas",
-                LOG_RESOURCE_BUNDLE, "UIMA_return_cas_to_pool__WARNING");
-      } else {
-        // restore the ClassLoader and unlock the CAS, since release() can be called
-        // from within a CAS Multiplier.
-        ((CASImpl) cas).restoreClassLoaderUnlockCas();
-
-        // reset CAS
-        cas.reset();
-
-        // Add the CAS to the end of the free instances List
-        mFreeInstances.add(cas);
-        permits.release(); // should follow adding cas back to mFreeInstances
-      }
+    // the in-use flag is cleared atomically, so only one of several threads releasing the same CAS
+    // gets past this
+    if (!mPool.beginRelease(cas)) {
+      UIMAFramework.getLogger(CLASS_NAME).logrb(Level.WARNING, CLASS_NAME.getName(), "releaseCas",
+              LOG_RESOURCE_BUNDLE, "UIMA_return_cas_to_pool__WARNING");
+    } else {
+      // restore the ClassLoader and unlock the CAS, since release() can be called
+      // from within a CAS Multiplier.
+      ((CASImpl) cas).restoreClassLoaderUnlockCas();
+
+      // reset CAS
+      cas.reset();
+
+      mPool.endRelease(cas);
     }
 
     // Notify any threads waiting on this object
@@ -326,7 +274,7 @@ public class CasPool {
    * @return the size of this pool
    */
   public int getSize() {
-    return mNumInstances;
+    return mPool.getSize();
   }
 
   /**
@@ -335,10 +283,62 @@ public class CasPool {
    * @return the numberof available CASes
    */
   public int getNumAvailable() {
-    return mFreeInstances.size();
+    return mPool.getNumAvailable();
+  }
+
+  /**
+   * Gets the largest number of CASes that were checked out of this pool at the same time so far.
+   * Together with {@link #getSize()}, this shows whether the pool is sized right.
+   * 
+   * @return the peak number of CASes in use
+   */
+  public int getPeakInUse() {
+    return mPool.getPeakInUse();
+  }
+
+  /**
+   * Gets an estimate of the number of threads currently waiting for a CAS.
+   * 
+   * @return the number of waiting threads
+   */
+  public int getNumWaiting() {
+    return mPool.getNumWaiting();
+  }
+
+  /**
+   * Gets the number of times a CAS could not be checked out within the requested time.
+   * 
+   * @return the number of timeouts so far
+   */
+  public long getTimeoutCount() {
+    return mPool.getTimeoutCount();
+  }
+
+  /**
+   * Estimates the heap retained by each CAS currently available in this pool. The CASes are not
+   * checked out: each one is taken out of the pool only while it is measured, one at a time, and a
+   * CAS is skipped if it is no longer available or if other threads are waiting for a CAS. Since
+   * available CASes have been reset, the reports show how much memory the pool retains between
+   * documents, see {@link CasMemoryReport#getRetainedEmptyIndexBytes()}.
+   * 
+   * @return a report for each CAS that was measured
+   */
+  public List<CasMemoryReport> getAvailableCasMemoryReports() {
+    List<CasMemoryReport> reports = new ArrayList<>();
+    for (CAS cas : mPool.getFreeInstances()) {
+      if (mPool.beginInspection(cas)) {
+        try {
+          reports.add(CasMemoryReport.of(cas));
+        } finally {
+          // The CAS has not been used, so it is returned without another reset
+          mPool.endInspection(cas);
+        }
+      }
+    }
+    return reports;
   }
 
-  private static Set<CAS> fillPool(int aNumInstances,
+  private static List<CAS> fillPool(int aNumInstances,
           Collection<? extends ProcessingResourceMetaData> mdList,
           Properties performanceTuningSettings, ResourceManager resourceManager)
           throws ResourceInitializationException {
@@ -346,11 +346,11 @@ public class CasPool {
     return fillPool(aNumInstances, casDef, performanceTuningSettings);
   }
 
-  private static Set<CAS> fillPool(int aNumInstances, CasDefinition casDef,
+  private static List<CAS> fillPool(int aNumInstances, CasDefinition casDef,
           Properties performanceTuningSettings) throws ResourceInitializationException {
     // create first CAS from metadata
     CAS c0 = CasCreationUtils.createCas(casDef, performanceTuningSettings);
-    Set<CAS> all = new HashSet<>(aNumInstances);
+    List<CAS> all = new ArrayList<>(aNumInstances);
     // set owner so cas.release() can return it to the pool
     ((CASImpl) c0).setOwner(casDef.getCasManager());
     all.add(c0);
@@ -363,9 +363,9 @@ public class CasPool {
     return all;
   }
 
-  private static Set<CAS> fillPool(int aNumInstances, CasManager casManager,
+  private static List<CAS> fillPool(int aNumInstances, CasManager casManager,
           Properties performanceTuningSettings) throws ResourceInitializationException {
-    Set<CAS> all = new HashSet<>(aNumInstances);
+    List<CAS> all = new ArrayList<>(aNumInstances);
     // create additional CASes that share same type system
     for (int i = 0; i < aNumInstances; i++) {
       CAS c = casManager.createNewCas(performanceTuningSettings);
@@ -378,12 +378,12 @@ public class CasPool {
   // no callers as of March 2014
   // left as Vector
   protected Vector<CAS> getAllInstances() {
-    return new Vector<>(mAllInstances);
+    return new Vector<>(mPool.getAllInstances());
   }
 
   // no callers as of March 2014
   // left as Vector
   protected Vector<CAS> getFreeInstances() {
-    return new Vector<>(mFreeInstances);
+    return new Vector<>(mPool.getFreeInstances());
   }
 }
@@ -39,6 +39,17 @@ public interface CasPoolManagement extends ManagementObject {
    */
   int getAvailableInstances();
 
+  /**
+   * Estimate the number of bytes retained by the CAS instances currently available in the pool, in
+   * total and by empty indexes in addition to the storage of newly created indexes. A large value
+   * for the latter indicates that the pooled CASes retain index storage which has grown for large
+   * documents. This walks all available CAS instances, so it is an operation rather than an
+   * attribute.
+   * 
+   * @return a summary of the estimates
+   */
+  String reportAvailableInstancesMemory();
+
   // /**
   // * Get the average time, in milliseconds, that getCas() requests on
   // * the pool have to wait for a CAS to become available
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of non-negative long values, such as latencies in nanoseconds or sizes.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into 16 sub-buckets, so
+ * values reported by {@link #getValueAtPercentile(double)} are within 1/16 (6.25%) of the recorded
+ * values. Values below 16 are counted exactly. The bucket array has a fixed size, so recording a
+ * value does not allocate and costs a few atomic increments.
+ * <p>
+ * Reads are not synchronized with concurrent recording; a percentile computed while values are
+ * being recorded may be slightly off, but never refers to a value that was not recorded.
+ */
+public class Histogram implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int SUB_BUCKET_BITS = 4;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  private final AtomicLong totalCount = new AtomicLong();
+
+  private final AtomicLong sum = new AtomicLong();
+
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value
+   *          the value to record
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketIndex(value));
+    totalCount.incrementAndGet();
+    sum.addAndGet(value);
+    long m = max.get();
+    while (value > m && !max.compareAndSet(m, value)) {
+      m = max.get();
+    }
+  }
+
+  /**
+   * @return the number of recorded values
+   */
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * @return the largest recorded value, or 0 if nothing was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return the sum of all recorded values
+   */
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * @return the mean of the recorded values, or 0 if nothing was recorded
+   */
+  public double getMean() {
+    long n = totalCount.get();
+    return (n == 0) ? 0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Gets the value below or at which the given percentage of the recorded values fall. The result
+   * is the highest value of the bucket holding that value, but never more than {@link #getMax()}.
+   *
+   * @param percentile
+   *          the percentile, between 0 and 100
+   * @return the value at the percentile, or 0 if nothing was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long n = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      n += counts.get(i);
+    }
+    if (n == 0) {
+      return 0;
+    }
+    double p = Math.min(Math.max(percentile, 0), 100);
+    long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(bucketHighestValue(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Clears all recorded values.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", p50=" + getValueAtPercentile(50) + ", p99="
+            + getValueAtPercentile(99) + ", max=" + getMax();
+  }
+
+  // package private for testing
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+  }
+
+  // package private for testing
+  static long bucketHighestValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
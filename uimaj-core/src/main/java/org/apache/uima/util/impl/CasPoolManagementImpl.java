@@ -19,7 +19,9 @@
 package org.apache.uima.util.impl;
 
 import java.lang.ref.WeakReference;
+import java.util.List;
 
+import org.apache.uima.cas.impl.CasMemoryReport;
 import org.apache.uima.util.CasPool;
 import org.apache.uima.util.CasPoolManagement;
 
@@ -56,6 +58,24 @@ public class CasPoolManagementImpl implements CasPoolManagement, CasPoolManageme
     }
   }
 
+  @Override
+  public String reportAvailableInstancesMemory() {
+    CasPool casPool = mCasPoolRef.get();
+    if (casPool == null) {
+      return "CAS pool no longer exists";
+    }
+
+    List<CasMemoryReport> reports = casPool.getAvailableCasMemoryReports();
+    long retainedBytes = 0;
+    long retainedEmptyIndexBytes = 0;
+    for (CasMemoryReport report : reports) {
+      retainedBytes += report.getTotalBytes();
+      retainedEmptyIndexBytes += report.getRetainedEmptyIndexBytes();
+    }
+    return "Measured " + reports.size() + " available CAS instances: retained bytes="
+            + retainedBytes + ", retained empty index bytes=" + retainedEmptyIndexBytes;
+  }
+
   @Override
   public String getUniqueMBeanName() {
     return mUniqueMBeanName;
@@ -35,4 +35,12 @@ public interface CasPoolManagementImplMBean {
    * @return the number of available CAS instances
    */
   int getAvailableInstances();
+
+  /**
+   * Estimate the number of bytes retained by the CAS instances currently available in the pool and
+   * the part of it held by empty indexes. Exposed as an operation because it walks the CASes.
+   * 
+   * @return a summary of the estimates
+   */
+  String reportAvailableInstancesMemory();
 }
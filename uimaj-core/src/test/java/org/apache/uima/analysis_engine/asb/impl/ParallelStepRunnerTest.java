@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.analysis_engine.asb.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.uima.ResourceSpecifierFactory;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_component.CasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.impl.ParallelFlowController;
+import org.apache.uima.analysis_engine.metadata.impl.FlowControllerDeclaration_impl;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.flow.FlowControllerDescription;
+import org.apache.uima.resource.metadata.Capability;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelStepRunnerTest {
+
+  private static final String TYPE_A = "test.TypeA";
+  private static final String TYPE_B = "test.TypeB";
+
+  /** Both annotators must reach the barrier at the same time, so they must run concurrently. */
+  private static CyclicBarrier barrier;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setup() {
+    executor = Executors.newFixedThreadPool(2);
+    barrier = new CyclicBarrier(2);
+  }
+
+  @AfterEach
+  void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void thatIndependentDelegatesRunConcurrently() throws Exception {
+    AnalysisEngine ae = createAggregate(TYPE_B);
+
+    CAS cas = ae.newCAS();
+    cas.setDocumentText("some text");
+    ae.process(cas);
+
+    Type typeA = cas.getTypeSystem().getType(TYPE_A);
+    Type typeB = cas.getTypeSystem().getType(TYPE_B);
+    assertThat(cas.<AnnotationFS> getAnnotationIndex(typeA)) //
+            .extracting(AnnotationFS::getCoveredText) //
+            .containsExactly("some");
+    assertThat(cas.<AnnotationFS> getAnnotationIndex(typeB)) //
+            .extracting(AnnotationFS::getCoveredText) //
+            .containsExactly("text");
+
+    // the private copies are reused for the next CAS
+    cas.reset();
+    cas.setDocumentText("more text");
+    ae.process(cas);
+    assertThat(cas.<AnnotationFS> getAnnotationIndex(typeA)).hasSize(1);
+    assertThat(cas.<AnnotationFS> getAnnotationIndex(typeB)).hasSize(1);
+  }
+
+  @Test
+  void thatDependentDelegatesRunSequentially() throws Exception {
+    barrier = null;
+    // AnnotatorB reads what AnnotatorA writes
+    AnalysisEngine ae = createAggregate(TYPE_A);
+
+    CAS cas = ae.newCAS();
+    cas.setDocumentText("some text");
+    ae.process(cas);
+
+    Type typeA = cas.getTypeSystem().getType(TYPE_A);
+    assertThat(cas.<AnnotationFS> getAnnotationIndex(typeA)).hasSize(1);
+  }
+
+  private AnalysisEngine createAggregate(String aInputOfB) throws Exception {
+    ResourceSpecifierFactory factory = UIMAFramework.getResourceSpecifierFactory();
+
+    TypeSystemDescription tsd = factory.createTypeSystemDescription();
+    tsd.addType(TYPE_A, "", CAS.TYPE_NAME_ANNOTATION);
+    tsd.addType(TYPE_B, "", CAS.TYPE_NAME_ANNOTATION);
+
+    AnalysisEngineDescription aggregate = factory.createAnalysisEngineDescription();
+    aggregate.setPrimitive(false);
+    aggregate.getMetaData().setName("aggregate");
+    aggregate.getDelegateAnalysisEngineSpecifiersWithImports().put("A",
+            createPrimitive(AnnotatorA.class, tsd, null, TYPE_A));
+    aggregate.getDelegateAnalysisEngineSpecifiersWithImports().put("B",
+            createPrimitive(AnnotatorB.class, tsd, aInputOfB, TYPE_B));
+
+    FlowControllerDescription fcDesc = factory.createFlowControllerDescription();
+    fcDesc.setImplementationName(ParallelFlowController.class.getName());
+    fcDesc.getMetaData().setName("parallel");
+    FlowControllerDeclaration_impl fcDecl = new FlowControllerDeclaration_impl();
+    fcDecl.setKey("fc");
+    fcDecl.setSpecifier(fcDesc);
+    aggregate.setFlowControllerDeclaration(fcDecl);
+
+    Map<String, Object> params = new HashMap<>();
+    params.put(AnalysisEngine.PARAM_PARALLEL_STEP_EXECUTOR, executor);
+    return UIMAFramework.produceAnalysisEngine(aggregate, params);
+  }
+
+  private static AnalysisEngineDescription createPrimitive(Class<?> aClass,
+          TypeSystemDescription aTsd, String aInputType, String aOutputType) {
+    ResourceSpecifierFactory factory = UIMAFramework.getResourceSpecifierFactory();
+    AnalysisEngineDescription desc = factory.createAnalysisEngineDescription();
+    desc.setPrimitive(true);
+    desc.setAnnotatorImplementationName(aClass.getName());
+    desc.getAnalysisEngineMetaData().setName(aClass.getSimpleName());
+    desc.getAnalysisEngineMetaData().setTypeSystem(aTsd);
+    Capability capability = factory.createCapability();
+    if (aInputType != null) {
+      capability.addInputType(aInputType, true);
+    }
+    capability.addOutputType(aOutputType, true);
+    desc.getAnalysisEngineMetaData().setCapabilities(new Capability[] { capability });
+    return desc;
+  }
+
+  private static void awaitOther() throws AnalysisEngineProcessException {
+    if (barrier == null) {
+      return;
+    }
+    try {
+      barrier.await(10, SECONDS);
+    } catch (Exception e) {
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
+  public static class AnnotatorA extends CasAnnotator_ImplBase {
+    @Override
+    public void process(CAS aCas) throws AnalysisEngineProcessException {
+      awaitOther();
+      Type type = aCas.getTypeSystem().getType(TYPE_A);
+      aCas.addFsToIndexes(aCas.createAnnotation(type, 0, aCas.getDocumentText().indexOf(' ')));
+    }
+  }
+
+  public static class AnnotatorB extends CasAnnotator_ImplBase {
+    @Override
+    public void process(CAS aCas) throws AnalysisEngineProcessException {
+      awaitOther();
+      Type type = aCas.getTypeSystem().getType(TYPE_B);
+      String text = aCas.getDocumentText();
+      aCas.addFsToIndexes(aCas.createAnnotation(type, text.indexOf(' ') + 1, text.length()));
+    }
+  }
+}
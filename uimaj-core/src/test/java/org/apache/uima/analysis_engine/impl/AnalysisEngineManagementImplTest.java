@@ -25,8 +25,15 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineManagement;
+import org.apache.uima.analysis_engine.CasIterator;
+import org.apache.uima.cas.CAS;
 import org.apache.uima.internal.util.Misc;
 import org.apache.uima.internal.util.MultiThreadUtils;
+import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.apache.uima.util.XMLInputSource;
 import org.junit.jupiter.api.Test;
 
 class AnalysisEngineManagementImplTest {
@@ -66,4 +73,40 @@ class AnalysisEngineManagementImplTest {
     MultiThreadUtils.tstMultiThread("UniqueRootNameGenerator", numberOfThreads, 100, run2isb, null);
     // System.out.println("debug");
   }
+
+  @Test
+  void thatPerCallStatisticsAreRecordedPerComponent() throws Exception {
+    var desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(new XMLInputSource(
+            JUnitExtension.getFile("TextAnalysisEngineImplTest/AggregateWithSegmenter.xml")));
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(desc);
+    try {
+      CAS cas = ae.newCAS();
+      cas.setDocumentText("Line one\nLine two\nLine three");
+      CasIterator iter = ae.processAndOutputNewCASes(cas);
+      while (iter.hasNext()) {
+        iter.next().release();
+      }
+
+      AnalysisEngineManagement aggregate = ae.getManagementInterface();
+      AnalysisEngineManagement segmenter = aggregate.getComponents().get("Segmenter");
+      AnalysisEngineManagement annotator = aggregate.getComponents().get("Annotator");
+
+      assertThat(aggregate.getProcessTimeHistogram().getCount()).isEqualTo(1);
+      assertThat(segmenter.getProcessTimeHistogram().getCount()).isEqualTo(1);
+      assertThat(annotator.getProcessTimeHistogram().getCount()).isEqualTo(3);
+      assertThat(annotator.getProcessTimeHistogram().getMax()).isPositive();
+      // each segment is an empty CAS taken from the segmenter's CAS pool
+      assertThat(segmenter.getWaitTimeHistogram().getCount()).isEqualTo(3);
+      assertThat(segmenter.getCasSizeAtEntryHistogram().getMax())
+              .isEqualTo(aggregate.getCasSizeAtEntryHistogram().getMax()).isPositive();
+      assertThat(((AnalysisEngineManagementImpl) annotator).getProcessTimeMaxMicros())
+              .isEqualTo(annotator.getProcessTimeHistogram().getMax() / 1000);
+
+      aggregate.resetStats();
+      assertThat(annotator.getProcessTimeHistogram().getCount()).isZero();
+      assertThat(segmenter.getWaitTimeHistogram().getCount()).isZero();
+    } finally {
+      ae.destroy();
+    }
+  }
 }
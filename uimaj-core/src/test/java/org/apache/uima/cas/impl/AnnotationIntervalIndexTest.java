@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.serdes.generators.MultiTypeRandomCasGenerator;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class AnnotationIntervalIndexTest {
+
+  @Test
+  void thatCoveringMatchesLinearScanOnRandomData() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      Random rnd = new Random(i);
+      MultiTypeRandomCasGenerator casRandomizer = MultiTypeRandomCasGenerator.builder() //
+              .withRandomGenerator(rnd) //
+              .withSize(100) //
+              .withMinimumAnnotationLength(0) //
+              .withTypeCount(5) //
+              .build();
+      CAS cas = casRandomizer.generateCas(casRandomizer.generateTypeSystem());
+      FsIndex_annotation<Annotation> index = (FsIndex_annotation<Annotation>) cas
+              .<Annotation> getAnnotationIndex();
+
+      for (int q = 0; q < 50; q++) {
+        int begin = rnd.nextInt(120);
+        int end = begin + rnd.nextInt(20);
+
+        assertThat(index.selectCovering(begin, end)) //
+                .containsExactlyElementsOf(linearScan(index, false, begin, end));
+        assertThat(index.getIntervalIndex(true).select(begin, end, null)) //
+                .containsExactlyElementsOf(linearScan(index, true, begin, end));
+      }
+    }
+  }
+
+  @Test
+  void thatIntervalIndexIsRebuiltAfterIndexUpdates() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    FsIndex_annotation<Annotation> index = (FsIndex_annotation<Annotation>) cas
+            .<Annotation> getAnnotationIndex(cas.getAnnotationType());
+
+    Annotation a1 = (Annotation) cas.createAnnotation(cas.getAnnotationType(), 0, 4);
+    cas.addFsToIndexes(a1);
+    assertThat(index.selectCovering(1, 2)).containsExactly(a1);
+
+    Annotation a2 = (Annotation) cas.createAnnotation(cas.getAnnotationType(), 0, 14);
+    cas.addFsToIndexes(a2);
+    assertThat(index.selectCovering(1, 2)).containsExactly(a2, a1);
+
+    cas.removeFsFromIndexes(a1);
+    assertThat(index.selectCovering(1, 2)).containsExactly(a2);
+
+    cas.reset();
+    assertThat(index.selectCovering(1, 2)).isEmpty();
+  }
+
+  @Test
+  void thatSpanningAppliesFilter() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    FsIndex_annotation<Annotation> index = (FsIndex_annotation<Annotation>) cas
+            .<Annotation> getAnnotationIndex(cas.getAnnotationType());
+
+    Annotation a1 = (Annotation) cas.createAnnotation(cas.getAnnotationType(), 0, 4);
+    Annotation a2 = (Annotation) cas.createAnnotation(cas.getAnnotationType(), 5, 7);
+    Annotation a3 = (Annotation) cas.createAnnotation(cas.getAnnotationType(), 10, 14);
+    cas.addFsToIndexes(a1);
+    cas.addFsToIndexes(a2);
+    cas.addFsToIndexes(a3);
+
+    assertThat(index.selectSpanning(6, 3, null)).containsExactly(a1, a2);
+    assertThat(index.selectSpanning(6, 3, a -> a.getBegin() > 0)).containsExactly(a2);
+  }
+
+  private static List<Annotation> linearScan(FsIndex_annotation<Annotation> aIndex,
+          boolean aIgnoreType, int aBegin, int aEnd) {
+    List<Annotation> result = new ArrayList<>();
+    LowLevelIterator<Annotation> it = aIndex.iterator(false, aIgnoreType);
+    while (it.isValid()) {
+      Annotation a = it.nextNvc();
+      if (a.getBegin() <= aBegin && a.getEnd() >= aEnd) {
+        result.add(a);
+      }
+    }
+    return result;
+  }
+}
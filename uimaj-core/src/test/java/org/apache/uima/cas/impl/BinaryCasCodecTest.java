@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.cas.impl.CommonSerDes.Header;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.spi.BinaryCasCodec;
+import org.apache.uima.util.CasIOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryCasCodecTest {
+
+  @Test
+  void thatLz4CodecRoundTrips() throws Exception {
+    Random rnd = new Random(42);
+    Lz4BinaryCasCodec codec = BinaryCasCodecs.LZ4;
+
+    for (int size : new int[] { 0, 1, 12, 13, 100, 65_536, 300_000 }) {
+      byte[] random = new byte[size];
+      rnd.nextBytes(random);
+      byte[] repetitive = new byte[size];
+      for (int i = 0; i < size; i++) {
+        repetitive[i] = (byte) (i % 17 == 0 ? rnd.nextInt(4) : i % 5);
+      }
+
+      for (byte[] data : new byte[][] { random, repetitive }) {
+        byte[] compressed = codec.compress(data, size);
+        assertThat(codec.decompress(compressed, compressed.length, size)).isEqualTo(data);
+      }
+
+      if (size > 100) {
+        assertThat(codec.compress(repetitive, size).length).isLessThan(size / 2);
+      }
+    }
+  }
+
+  @Test
+  void thatMalformedLz4InputIsRejected() throws Exception {
+    byte[] data = "some text some text some text some text".getBytes();
+    byte[] compressed = BinaryCasCodecs.LZ4.compress(data, data.length);
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length - 3);
+
+    assertThatExceptionOfType(IOException.class).isThrownBy(
+            () -> BinaryCasCodecs.LZ4.decompress(truncated, truncated.length, data.length));
+  }
+
+  @Test
+  void thatCodecIsRecordedAndDetectedOnLoad() throws Exception {
+    CAS cas = createCas();
+    cas.setDocumentText("This is a test of a compression codec.");
+    for (int i = 0; i < 1000; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i % 30, i % 30 + 5));
+    }
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    new BinaryCasSerDes6(cas, null, null, null, BinaryCasCodecs.LZ4).serialize(bos);
+
+    CommonSerDes.Header h = CommonSerDes.readHeader(
+            new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+    assertThat(h.isForm6()).isTrue();
+    assertThat(h.getCodecId()).isEqualTo(Lz4BinaryCasCodec.ID);
+
+    CAS cas2 = createCas();
+    SerialFormat format = CasIOUtils.load(new ByteArrayInputStream(bos.toByteArray()), cas2);
+
+    assertThat(format).isEqualTo(SerialFormat.COMPRESSED_FILTERED);
+    assertThat(cas2.getDocumentText()).isEqualTo(cas.getDocumentText());
+    assertThat(cas2.<AnnotationFS> getAnnotationIndex().size())
+            .isEqualTo(cas.<AnnotationFS> getAnnotationIndex().size());
+    assertThat(new BinaryCasSerDes6(cas).compareCASes((CASImpl) cas, (CASImpl) cas2)).isTrue();
+  }
+
+  @Test
+  void thatDeflateRemainsTheDefault() throws Exception {
+    CAS cas = createCas();
+    cas.setDocumentText("text");
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    new BinaryCasSerDes6(cas).serialize(bos);
+
+    CommonSerDes.Header h = CommonSerDes.readHeader(
+            new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+    assertThat(h.getCodecId()).isEqualTo(BinaryCasCodecs.DEFLATE_ID);
+    assertThat(BinaryCasCodecs.forName("deflate")).isNull();
+    assertThat(BinaryCasCodecs.forName("LZ4")).isSameAs(BinaryCasCodecs.LZ4);
+  }
+
+  @Test
+  void thatUserCodecsAreFoundByIdAndNameAndReservedIdsAreIgnored(@TempDir Path aDir)
+          throws Exception {
+    Path services = aDir.resolve("META-INF/services/" + BinaryCasCodec.class.getName());
+    Files.createDirectories(services.getParent());
+    Files.write(services, List.of(UserCodec.class.getName(), ReservedIdCodec.class.getName()));
+
+    CAS cas = createCas();
+    cas.setDocumentText("This is a test of a user codec.");
+
+    Thread thread = Thread.currentThread();
+    ClassLoader oldClassLoader = thread.getContextClassLoader();
+    try (URLClassLoader cl = new URLClassLoader(new URL[] { aDir.toUri().toURL() },
+            getClass().getClassLoader())) {
+      thread.setContextClassLoader(cl);
+
+      BinaryCasCodec codec = BinaryCasCodecs.forId(UserCodec.ID);
+      assertThat(codec).isInstanceOf(UserCodec.class);
+      assertThat(BinaryCasCodecs.forName("USER")).isSameAs(codec);
+      assertThatExceptionOfType(IllegalArgumentException.class)
+              .isThrownBy(() -> BinaryCasCodecs.forName("reserved"));
+      assertThatExceptionOfType(IOException.class)
+              .isThrownBy(() -> BinaryCasCodecs.forId(ReservedIdCodec.ID));
+
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      new BinaryCasSerDes6(cas, null, null, null, codec).serialize(bos);
+      CAS cas2 = createCas();
+      CasIOUtils.load(new ByteArrayInputStream(bos.toByteArray()), cas2);
+      assertThat(cas2.getDocumentText()).isEqualTo(cas.getDocumentText());
+    } finally {
+      thread.setContextClassLoader(oldClassLoader);
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  @Test
+  void thatDeserializingWithoutCodecRejectsOtherCodecs() throws Exception {
+    CAS cas = createCas();
+    cas.setDocumentText("This is a test of a compression codec.");
+    for (int i = 0; i < 100; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i % 30, i % 30 + 5));
+    }
+
+    for (BinaryCasCodec codec : new BinaryCasCodec[] { null, BinaryCasCodecs.LZ4 }) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      new BinaryCasSerDes6(cas, null, null, null, codec).serialize(bos);
+
+      DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+      Header h = CommonSerDes.readHeader(dis);
+      CAS cas2 = createCas();
+      BinaryCasSerDes6 deserializer = new BinaryCasSerDes6(cas2);
+
+      if (codec == null) {
+        deserializer.deserializeAfterVersion(dis, h.isDelta, AllowPreexistingFS.allow);
+        assertThat(new BinaryCasSerDes6(cas).compareCASes((CASImpl) cas, (CASImpl) cas2))
+                .isTrue();
+      } else {
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> deserializer.deserializeAfterVersion(dis, h.isDelta,
+                        AllowPreexistingFS.allow))
+                .withMessageContaining("codec");
+      }
+    }
+  }
+
+  public static class UserCodec implements BinaryCasCodec {
+    static final int ID = 200;
+
+    @Override
+    public int getId() {
+      return ID;
+    }
+
+    @Override
+    public String getName() {
+      return "user";
+    }
+
+    @Override
+    public byte[] compress(byte[] aData, int aLength) {
+      return Arrays.copyOf(aData, aLength);
+    }
+
+    @Override
+    public byte[] decompress(byte[] aCompressed, int aCompressedLength, int aOriginalLength) {
+      return Arrays.copyOf(aCompressed, aOriginalLength);
+    }
+  }
+
+  public static class ReservedIdCodec extends UserCodec {
+    static final int ID = 7;
+
+    @Override
+    public int getId() {
+      return ID;
+    }
+
+    @Override
+    public String getName() {
+      return "reserved";
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.LongArrayFS;
+import org.apache.uima.cas.StringArrayFS;
+import org.apache.uima.spi.BinaryCasCodec;
+import org.junit.jupiter.api.Test;
+
+class BinaryCasSerDes6ParallelCompressionTest {
+
+  @Test
+  void thatParallelCompressionWritesTheSameBytes() throws Exception {
+    CAS cas = createTestCas();
+
+    for (BinaryCasCodec codec : new BinaryCasCodec[] { null, BinaryCasCodecs.LZ4 }) {
+      byte[] serial = serialize(cas, codec, false);
+      byte[] parallel = serialize(cas, codec, true);
+
+      assertThat(parallel).isEqualTo(serial);
+    }
+  }
+
+  @Test
+  void thatParallelDecompressionRoundTrips() throws Exception {
+    CAS cas = createTestCas();
+
+    for (BinaryCasCodec codec : new BinaryCasCodec[] { null, BinaryCasCodecs.LZ4 }) {
+      byte[] serialized = serialize(cas, codec, true);
+
+      CAS cas2 = createCas();
+      BinaryCasSerDes6 deserializer = new BinaryCasSerDes6(cas2);
+      deserializer.setParallelCompression(true);
+      deserializer.deserialize(new ByteArrayInputStream(serialized));
+
+      assertThat(new BinaryCasSerDes6(cas).compareCASes((CASImpl) cas, (CASImpl) cas2)).isTrue();
+    }
+  }
+
+  private static byte[] serialize(CAS aCas, BinaryCasCodec aCodec, boolean aParallel)
+          throws Exception {
+    BinaryCasSerDes6 serializer = new BinaryCasSerDes6(aCas, null, null, null, aCodec);
+    serializer.setParallelCompression(aParallel);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    serializer.serialize(bos);
+    return bos.toByteArray();
+  }
+
+  private static CAS createTestCas() throws Exception {
+    CAS cas = createCas();
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      text.append("token").append(i).append(' ');
+    }
+    cas.setDocumentText(text.toString());
+
+    for (int i = 0; i < 2000; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i * 3, i * 3 + 7));
+    }
+
+    StringArrayFS strings = cas.createStringArrayFS(500);
+    LongArrayFS longs = cas.createLongArrayFS(500);
+    for (int i = 0; i < 500; i++) {
+      strings.set(i, "value" + (i % 37));
+      longs.set(i, i * 1_000_003L);
+    }
+    cas.addFsToIndexes(strings);
+    cas.addFsToIndexes(longs);
+    return cas;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasPool;
+import org.apache.uima.util.impl.CasPoolManagementImpl;
+import org.junit.jupiter.api.Test;
+
+class CasMemoryReportTest {
+
+  @Test
+  void thatReportCoversTypesIndexesAndViews() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("some text");
+    CAS other = cas.createView("other");
+    other.setDocumentText("some other text");
+
+    CasMemoryReport before = CasMemoryReport.of(cas);
+
+    for (int i = 0; i < 1000; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i, i + 1));
+    }
+
+    CasMemoryReport report = CasMemoryReport.of(cas);
+
+    assertThat(report.getTotalBytes()).isGreaterThan(before.getTotalBytes());
+    assertThat(report.getBytesByType().get(CAS.TYPE_NAME_ANNOTATION)).isGreaterThan(1000 * 40L);
+    assertThat(report.getBytesByIndex().get("_InitialView/" + CAS.STD_ANNOTATION_INDEX))
+            .isGreaterThan(1000 * 4L)
+            .isGreaterThan(report.getBytesByIndex().get("other/" + CAS.STD_ANNOTATION_INDEX));
+    assertThat(report.getBytesByView()).containsOnlyKeys("_InitialView", "other");
+    assertThat(report.getBytesByView().get("_InitialView"))
+            .isGreaterThan(report.getBytesByView().get("other"));
+    assertThat(report.getRetainedEmptyIndexBytes()).isZero();
+  }
+
+  @Test
+  void thatGrownEmptyIndexesAreReportedAfterReset() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    assertThat(CasMemoryReport.of(cas).getRetainedEmptyIndexBytes()).isZero();
+
+    for (int i = 0; i < 1000; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i, i + 1));
+    }
+    cas.reset();
+
+    CasMemoryReport report = CasMemoryReport.of(cas);
+    assertThat(report.getBytesByType()).isEmpty();
+    assertThat(report.getRetainedEmptyIndexBytes()).isGreaterThan(1000 * 4L);
+  }
+
+  @Test
+  void thatPoolReportsAvailableInstances() throws Exception {
+    CasPool pool = new CasPool(2, Collections.emptyList(), null, null);
+    CAS cas = pool.getCas();
+
+    assertThat(pool.getAvailableCasMemoryReports()).hasSize(1);
+    assertThat(pool.getNumAvailable()).isEqualTo(1);
+
+    pool.releaseCas(cas);
+    assertThat(pool.getAvailableCasMemoryReports()).hasSize(2);
+    assertThat(pool.getNumAvailable()).isEqualTo(2);
+
+    // measuring does not check the CASes out
+    assertThat(pool.getPeakInUse()).isEqualTo(1);
+  }
+
+  @Test
+  void thatPoolManagementReportsAvailableInstancesInOneOperation() throws Exception {
+    CasPool pool = new CasPool(2, Collections.emptyList(), null, null);
+    CasPoolManagementImpl management = new CasPoolManagementImpl(pool, "test");
+
+    assertThat(management.reportAvailableInstancesMemory())
+            .startsWith("Measured 2 available CAS instances: retained bytes=");
+    assertThat(pool.getPeakInUse()).isZero();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.util.AutoCloseableNoException;
+import org.apache.uima.util.CasIOUtils;
+import org.junit.jupiter.api.Test;
+
+class CommonSerDesSequentialTest {
+
+  private static final int LARGE_ARRAY_LENGTH = 1_000_000;
+
+  /**
+   * The addr2fs map is keyed by modelled v2 heap addresses. An array takes 1 + length addresses,
+   * so its size must depend on the number of FSs only, not on the length of the arrays.
+   */
+  @Test
+  void thatLargeArraysDoNotInflateTheAddressMap() throws Exception {
+    CAS cas = createCas();
+    cas.setDocumentText("some text");
+    cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), 0, 4));
+    IntArrayFS array = cas.createIntArrayFS(LARGE_ARRAY_LENGTH);
+    array.set(LARGE_ARRAY_LENGTH - 1, 42);
+    cas.addFsToIndexes(array);
+    cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), 5, 9));
+
+    for (SerialFormat format : new SerialFormat[] { SerialFormat.BINARY,
+        SerialFormat.COMPRESSED }) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      CasIOUtils.save(cas, bos, format);
+      assertSmallAddressMap((CASImpl) cas);
+
+      CAS cas2 = createCas();
+      CasIOUtils.load(new ByteArrayInputStream(bos.toByteArray()), cas2);
+      assertSmallAddressMap((CASImpl) cas2);
+
+      assertThat(new BinaryCasSerDes6(cas).compareCASes((CASImpl) cas, (CASImpl) cas2)).isTrue();
+    }
+  }
+
+  /**
+   * With v2 id references, every FS is held in the id map and ids advance by the modelled v2 size,
+   * so an array takes 1 + length ids. The map must still grow with the number of FSs only.
+   */
+  @Test
+  void thatLargeArraysDoNotInflateTheIdMap() throws Exception {
+    CASImpl cas = (CASImpl) createCas();
+    int initialCapacity = cas.getId2FSs().getCapacity();
+
+    try (AutoCloseableNoException a = cas.ll_enableV2IdRefs(true)) {
+      cas.setDocumentText("some text");
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), 0, 4));
+      IntArrayFS array = cas.createIntArrayFS(LARGE_ARRAY_LENGTH);
+      cas.addFsToIndexes(array);
+      for (int i = 0; i < 5; i++) {
+        cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i, i + 1));
+      }
+
+      Id2FS id2fs = cas.getId2FSs();
+      assertThat(id2fs.size()).isLessThan(20);
+      assertThat(((TOP) array)._id() + LARGE_ARRAY_LENGTH).isLessThan(cas.peekNextFsId());
+      assertThat(id2fs.getCapacity()).isEqualTo(initialCapacity);
+    }
+  }
+
+  private static void assertSmallAddressMap(CASImpl aCas) {
+    CommonSerDesSequential csds = aCas.getCsds();
+    assertThat(csds.addr2fs.size()).isLessThan(10);
+    assertThat(csds.addr2fs.getCapacity()).isLessThan(LARGE_ARRAY_LENGTH / 100);
+  }
+}
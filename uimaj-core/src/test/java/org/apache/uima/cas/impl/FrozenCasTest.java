@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.Test;
+
+class FrozenCasTest {
+
+  @Test
+  void thatFrozenCasRejectsModifications() throws Exception {
+    JCas jcas = createCas().getJCas();
+    jcas.setDocumentText("some text");
+    Annotation a = new Annotation(jcas, 0, 4);
+    a.addToIndexes();
+    IntegerArray array = new IntegerArray(jcas, 2);
+    array.set(0, 7);
+    StringArray strings = new StringArray(jcas, 2);
+    strings.set(0, "a");
+
+    jcas.getCas().freeze();
+
+    assertThat(jcas.getCas().isFrozen()).isTrue();
+    assertThatExceptionOfType(CASRuntimeException.class).isThrownBy(() -> a.setBegin(1))
+            .withMessageContaining("frozen");
+    assertThatExceptionOfType(CASRuntimeException.class)
+            .isThrownBy(() -> new Annotation(jcas, 0, 1));
+    assertThatExceptionOfType(CASRuntimeException.class).isThrownBy(a::removeFromIndexes);
+    assertThatExceptionOfType(CASRuntimeException.class).isThrownBy(() -> array.set(0, 1));
+    assertThatExceptionOfType(CASRuntimeException.class)
+            .isThrownBy(() -> array.copyFromArray(new int[] { 1, 2 }, 0, 0, 2));
+    assertThatExceptionOfType(CASRuntimeException.class)
+            .isThrownBy(() -> strings.copyFromArray(new String[] { "b" }, 0, 0, 1));
+    assertThat(array.toArray()).containsExactly(7, 0);
+    assertThat(strings.toArray()).containsExactly("a", null);
+    assertThatExceptionOfType(CASRuntimeException.class)
+            .isThrownBy(() -> jcas.getCas().createView("other"));
+
+    assertThat(jcas.getDocumentAnnotationFs()).isNotNull();
+    assertThat(jcas.select(Annotation.class).asList()).contains(a);
+
+    jcas.reset();
+
+    assertThat(jcas.getCas().isFrozen()).isFalse();
+    Annotation b = new Annotation(jcas, 0, 1);
+    b.addToIndexes();
+    assertThat(jcas.select(Annotation.class).asList()).containsExactly(b);
+  }
+
+  @Test
+  void thatFrozenCasCanBeReadConcurrently() throws Exception {
+    JCas jcas = createCas().getJCas();
+    jcas.setDocumentText("some text");
+    for (int i = 0; i < 10_000; i++) {
+      new Annotation(jcas, i, i + 1 + (i % 7)).addToIndexes();
+    }
+    List<Annotation> expected = jcas.select(Annotation.class).asList();
+
+    jcas.getCas().freeze();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<Annotation>>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        results.add(executor.submit(() -> {
+          List<Annotation> r = jcas.select(Annotation.class).collect(toList());
+          // other read paths, results are only checked for not failing
+          jcas.getAnnotationIndex().iterator().forEachRemaining(x -> {
+          });
+          jcas.select(Annotation.class).coveredBy(0, 100).asList();
+          jcas.getDocumentAnnotationFs();
+          return r;
+        }));
+      }
+
+      for (Future<List<Annotation>> result : results) {
+        assertThat(result.get()).containsExactlyElementsOf(expected);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.serdes.generators.MultiTypeRandomCasGenerator;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.Test;
+
+class FsIterator_subtypes_flatTest {
+
+  @Test
+  void thatFlatIteratorMatchesMergingIteratorOnRandomData() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      Random rnd = new Random(i);
+      FsIndex_annotation<Annotation> index = randomIndex(rnd);
+
+      for (boolean ignoreType : new boolean[] { false, true }) {
+        FsIndex_singletype<Annotation> idx = index.getFsIndex_singleType();
+        List<Annotation> expected = toList(new FsIterator_subtypes_ordered<>(index,
+                ignoreType ? idx.comparatorNoTypeWithoutID : idx.comparatorWithoutID));
+
+        LowLevelIterator<Annotation> it = flatIterator(index, ignoreType);
+        assertThat(toList(it)).containsExactlyElementsOf(expected);
+
+        for (int q = 0; q < 50; q++) {
+          Annotation probe = expected.get(rnd.nextInt(expected.size()));
+          Annotation bound = new Annotation(index.getCasImpl().getJCas(), probe.getBegin(),
+                  probe.getEnd() + rnd.nextInt(3) - 1);
+          LowLevelIterator<Annotation> merging = new FsIterator_subtypes_ordered<>(index,
+                  it.getComparator());
+          merging.moveTo(bound);
+          it.moveTo(bound);
+          assertThat(it.isValid()).isEqualTo(merging.isValid());
+          for (int n = 0; n < 3 && merging.isValid(); n++) {
+            assertThat(it.get()).isSameAs(merging.get());
+            merging.moveToPrevious();
+            it.moveToPrevious();
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void thatUpdatesAreSeenAfterReinit() throws Exception {
+    FsIndex_annotation<Annotation> index = randomIndex(new Random(1));
+    CAS cas = index.getCasImpl();
+
+    LowLevelIterator<Annotation> it = flatIterator(index, false);
+    int size = it.size();
+
+    Annotation added = new Annotation(cas.getJCas(), 0, 0);
+    added.addToIndexes();
+
+    // the existing iterator continues over the old contents until it is repositioned
+    assertThat(it.isIndexesHaveBeenUpdated()).isTrue();
+    it.moveToFirstNoReinit();
+    assertThat(remaining(it)).hasSize(size).doesNotContain(added);
+    assertThat(toList(it)).hasSize(size + 1).contains(added);
+    assertThat(it.isIndexesHaveBeenUpdated()).isFalse();
+
+    cas.reset();
+    assertThat(index.iterator().isValid()).isFalse();
+  }
+
+  private static FsIndex_annotation<Annotation> randomIndex(Random rnd) throws Exception {
+    MultiTypeRandomCasGenerator casRandomizer = MultiTypeRandomCasGenerator.builder() //
+            .withRandomGenerator(rnd) //
+            .withSize(100) //
+            .withMinimumAnnotationLength(0) //
+            .withTypeCount(5) //
+            .build();
+    CAS cas = casRandomizer.generateCas(casRandomizer.generateTypeSystem());
+    return (FsIndex_annotation<Annotation>) cas.<Annotation> getAnnotationIndex();
+  }
+
+  /**
+   * Iterates the index until the iterators are served from the flattened array
+   */
+  private static LowLevelIterator<Annotation> flatIterator(FsIndex_annotation<Annotation> index,
+          boolean ignoreType) {
+    for (int i = 0; i < 10; i++) {
+      LowLevelIterator<Annotation> it = index.iterator(false, ignoreType);
+      if (it instanceof FsIterator_subtypes_flat) {
+        return it;
+      }
+      toList(it);
+    }
+    throw new AssertionError("index was not flattened");
+  }
+
+  private static List<Annotation> toList(LowLevelIterator<Annotation> it) {
+    it.moveToFirst();
+    return remaining(it);
+  }
+
+  private static List<Annotation> remaining(LowLevelIterator<Annotation> it) {
+    List<Annotation> result = new ArrayList<>();
+    while (it.isValid()) {
+      result.add(it.nextNvc());
+    }
+    return result;
+  }
+}
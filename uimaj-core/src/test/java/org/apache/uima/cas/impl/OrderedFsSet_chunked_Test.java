@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.internal.util.CopyOnWriteOrderedFsSet_array;
+import org.apache.uima.internal.util.OrderedFsSet_array;
+import org.apache.uima.internal.util.OrderedFsSet_chunked;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderedFsSet_chunked_Test {
+
+  private JCas jcas;
+  private Comparator<TOP> comparatorWithID;
+  private Comparator<TOP> comparatorWithoutID;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    CASImpl cas = (CASImpl) CasCreationUtils.createCas();
+    jcas = cas.getJCas();
+    FSIndexRepositoryImpl ir = (FSIndexRepositoryImpl) cas.getIndexRepository();
+    comparatorWithID = ir.getAnnotationFsComparatorWithId();
+    comparatorWithoutID = ir.getAnnotationFsComparatorWithoutId();
+  }
+
+  @Test
+  void thatRandomAddsAndRemovesMatchArrayImplementation() {
+    Random rnd = new Random(42);
+    List<Annotation> fss = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      int begin = rnd.nextInt(1_000);
+      fss.add(new Annotation(jcas, begin, begin + rnd.nextInt(20)));
+    }
+
+    OrderedFsSet_array<TOP> expected = new OrderedFsSet_array<>(comparatorWithID,
+            comparatorWithoutID);
+    OrderedFsSet_chunked<TOP> actual = new OrderedFsSet_chunked<>(comparatorWithID,
+            comparatorWithoutID);
+
+    for (int i = 0; i < 50_000; i++) {
+      Annotation fs = fss.get(rnd.nextInt(fss.size()));
+      if (rnd.nextInt(3) == 0) {
+        assertThat(actual.remove(fs)).isEqualTo(expected.remove(fs));
+      } else {
+        assertThat(actual.add(fs, comparatorWithID)).isEqualTo(expected.add(fs, comparatorWithID));
+      }
+      if (i % 5_000 == 0) {
+        assertThat(actual).containsExactlyElementsOf(expected);
+      }
+    }
+
+    assertThat(actual.size()).isEqualTo(expected.size());
+    assertThat(actual.toArray()).containsExactly(expected.toArray());
+    for (Annotation fs : fss) {
+      Annotation key = new Annotation(jcas, fs.getBegin(), fs.getEnd());
+      assertThat(actual.findEqualWithoutID(key) != null)
+              .isEqualTo(expected.findEqualWithoutID(key) != null);
+    }
+
+    actual.clear();
+    assertThat(actual.isEmpty()).isTrue();
+    assertThat(actual.iterator().hasNext()).isFalse();
+  }
+
+  @Test
+  void thatSnapshotIsNotAffectedByLaterUpdates() {
+    OrderedFsSet_chunked<TOP> set = new OrderedFsSet_chunked<>(comparatorWithID,
+            comparatorWithoutID);
+    List<Annotation> fss = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      Annotation fs = new Annotation(jcas, i, i + 1);
+      fss.add(fs);
+      set.add(fs, comparatorWithID);
+    }
+
+    CopyOnWriteOrderedFsSet_array<TOP> cow = new CopyOnWriteOrderedFsSet_array<>(set);
+    assertThat(cow.isOriginal()).isTrue();
+
+    cow.makeReadOnlyCopy();
+    set.remove(fss.get(1_000));
+    set.add(new Annotation(jcas, 5, 5), comparatorWithID);
+
+    assertThat(cow.isOriginal()).isFalse();
+    assertThat(cow.getOfsa()).containsExactlyElementsOf(fss);
+    assertThat(set.size()).isEqualTo(2_000);
+    assertThat(set.getAtPos(set.find(fss.get(1_500), comparatorWithID))).isSameAs(fss.get(1_500));
+  }
+}
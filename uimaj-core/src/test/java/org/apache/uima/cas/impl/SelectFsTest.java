@@ -33,6 +33,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.stream.Stream;
 
 import org.apache.uima.UIMAFramework;
@@ -1832,6 +1833,67 @@ public class SelectFsTest {
     assertThat(cas.select(type1).count()).isEqualTo(1);
   }
 
+  @Test
+  void thatParallelStreamsKeepSelectionAndOrder() throws Exception {
+    setup(Mode.ANNOTATION_FIRST, TYPE_NAME_ANNOTATION, Sentence.class.getName(),
+            Token.class.getName());
+
+    JCas jcas = cas.getJCas();
+    for (int i = 0; i < 10_000; i++) {
+      new Token(jcas, i, i + 1).addToIndexes();
+      if (i % 10 == 0) {
+        new Sentence(jcas, i, i + 10).addToIndexes();
+      }
+    }
+
+    var sentence = jcas.select(Sentence.class).get(5);
+
+    assertThat(jcas.select(Token.class).parallel().collect(toList()))
+            .containsExactlyElementsOf(jcas.select(Token.class).asList());
+    assertThat(jcas.select(Annotation.class).parallel().collect(toList()))
+            .containsExactlyElementsOf(jcas.select(Annotation.class).asList());
+    assertThat(jcas.select(Token.class).coveredBy(sentence).parallel().collect(toList()))
+            .containsExactlyElementsOf(jcas.select(Token.class).coveredBy(sentence).asList());
+    assertThat(jcas.select(Token.class).following(sentence).limit(100).parallel()
+            .toArray(Token[]::new)).hasSize(100).containsExactlyElementsOf(
+                    jcas.select(Token.class).following(sentence).limit(100).asList());
+    assertThat(jcas.select(Token.class).backwards().parallel().mapToInt(Token::getBegin).sum())
+            .isEqualTo(10_000 * 9_999 / 2);
+  }
+
+  @Test
+  void thatSpliteratorSplitsIntoSizedParts() throws Exception {
+    setup(Mode.ANNOTATION_FIRST, TYPE_NAME_ANNOTATION, Sentence.class.getName(),
+            Token.class.getName());
+
+    JCas jcas = cas.getJCas();
+    for (int i = 0; i < 100; i++) {
+      new Token(jcas, i, i + 1).addToIndexes();
+    }
+
+    var unbounded = jcas.select(Token.class).spliterator();
+    assertThat(unbounded.hasCharacteristics(Spliterator.SIZED)).isTrue();
+    assertThat(unbounded.hasCharacteristics(Spliterator.SUBSIZED)).isTrue();
+
+    var sentence = new Sentence(jcas, 10, 20);
+    var spliterator = jcas.select(Token.class).coveredBy(sentence).spliterator();
+    assertThat(spliterator.hasCharacteristics(Spliterator.SIZED)).isFalse();
+    assertThat(spliterator.hasCharacteristics(Spliterator.SUBSIZED)).isFalse();
+
+    var prefix = spliterator.trySplit();
+    assertThat(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+    assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED))
+            .isTrue();
+    assertThat(prefix.estimateSize()).isEqualTo(5);
+    assertThat(spliterator.estimateSize()).isEqualTo(5);
+
+    List<Token> tokens = new ArrayList<>();
+    prefix.forEachRemaining(tokens::add);
+    spliterator.forEachRemaining(tokens::add);
+    assertThat(tokens).extracting(Token::getBegin).containsExactly(10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19);
+  }
+
   @SuppressWarnings("unchecked")
   private static <T extends AnnotationFS, R extends AnnotationFS> List<R> toListBackwards(
           SelectFSs<T> select) {
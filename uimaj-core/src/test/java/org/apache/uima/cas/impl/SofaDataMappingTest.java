@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.internal.util.ByteBufferInputStream;
+import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.junit.jupiter.api.Test;
+
+class SofaDataMappingTest {
+
+  private final File dataFile = JUnitExtension
+          .getFile("ResourceTest/ResourceManager_implTest_tempDataFile.dat");
+
+  @Test
+  void thatFileSofaIsStreamedWithAndWithoutMapping() throws Exception {
+    byte[] expected = Files.readAllBytes(dataFile.toPath());
+    boolean saved = CASImpl.IS_ENABLE_MMAP_FILE_SOFA_URI;
+    try {
+      for (boolean mmap : new boolean[] { false, true }) {
+        CASImpl.IS_ENABLE_MMAP_FILE_SOFA_URI = mmap;
+        CAS view = createFileSofaView();
+
+        try (InputStream is = view.getSofaDataStream()) {
+          assertThat(is instanceof ByteBufferInputStream).isEqualTo(mmap);
+          assertThat(is.readAllBytes()).isEqualTo(expected);
+        }
+        // single byte reads and a second stream starting at the beginning again
+        try (InputStream is = view.getSofaDataStream()) {
+          assertThat(is.read()).isEqualTo(expected[0] & 0xff);
+          assertThat(is.readAllBytes()).hasSize(expected.length - 1);
+        }
+      }
+    } finally {
+      CASImpl.IS_ENABLE_MMAP_FILE_SOFA_URI = saved;
+    }
+  }
+
+  @Test
+  void thatFileSofaBufferIsMappedOncePerCas() throws Exception {
+    CAS view = createFileSofaView();
+
+    ByteBuffer b1 = view.getSofaDataBuffer();
+    ByteBuffer b2 = view.getSofaDataBuffer();
+
+    assertThat(b1.isReadOnly()).isTrue();
+    assertThat(b1.isDirect()).isTrue();
+    assertThat(UTF_8.decode(b1.duplicate()).toString())
+            .isEqualTo("This is a test.  This is only a test.");
+    b1.get(); // positions are independent
+    assertThat(b2.position()).isZero();
+    assertThat(b2).isEqualTo(view.getSofaDataBuffer());
+  }
+
+  private CAS createFileSofaView() throws Exception {
+    CAS view = createCas().createView("file");
+    view.setSofaDataURI(dataFile.toURI().toString(), "text/plain");
+    return view;
+  }
+}
@@ -34,6 +34,7 @@ import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
@@ -317,6 +318,39 @@ public class XmiCasDeserializerTest {
     }
   }
 
+  @Test
+  void thatSharedDeserializerCanBeUsedByMultipleThreads() throws Exception {
+    var cas = CasCreationUtils.createCas(typeSystem, new TypePriorities_impl(), indexes);
+    try (var is = new FileInputStream(JUnitExtension.getFile("ExampleCas/cas.xml"))) {
+      XCASDeserializer.deserialize(is, cas, false);
+    }
+    var xml = serialize(cas, null).getBytes(StandardCharsets.UTF_8);
+
+    var deser = XmiCasDeserializer.forTypeSystem(cas.getTypeSystem());
+    assertThat(XmiCasDeserializer.forTypeSystem(cas.getTypeSystem())).isSameAs(deser);
+
+    var failures = new ConcurrentLinkedQueue<Throwable>();
+    var threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          var cas2 = CasCreationUtils.createCas(typeSystem, new TypePriorities_impl(), indexes);
+          for (int j = 0; j < 10; j++) {
+            deser.read(new ByteArrayInputStream(xml), cas2, false);
+            CasComparer.assertEquals(cas, cas2);
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertThat(failures).isEmpty();
+  }
+
   private void doTestDeserializeAndReserialize(File typeSystemDescriptorFile, boolean useJCas)
           throws Exception {
     // deserialize a complex CAS from XCAS
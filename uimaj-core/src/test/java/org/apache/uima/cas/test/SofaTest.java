@@ -19,6 +19,7 @@
 
 package org.apache.uima.cas.test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.Offset.offset;
 
@@ -35,6 +36,8 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -79,6 +82,7 @@ import org.apache.uima.util.XMLSerializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.xml.sax.SAXException;
 
 class SofaTest {
@@ -677,6 +681,42 @@ class SofaTest {
     assertThat(cas.getSofa().getSofaMime()).isEqualTo(TEST_MIME);
   }
 
+  @Test
+  void thatSofaDataBufferHasSameContentAsStream(@TempDir Path tempDir) throws Exception {
+    CAS stringView = cas.createView("string");
+    stringView.setDocumentText("this beer is good \u20ac");
+
+    CAS intArrayView = cas.createView("ints");
+    IntArrayFS intArrayFS = cas.createIntArrayFS(3);
+    intArrayFS.copyFromArray(new int[] { 1, -2, Integer.MAX_VALUE }, 0, 0, 3);
+    intArrayView.setSofaDataArray(intArrayFS, "integers");
+
+    CAS byteArrayView = cas.createView("bytes");
+    ByteArrayFS byteArrayFS = cas.createByteArrayFS(2);
+    byteArrayFS.copyFromArray(new byte[] { 7, -1 }, 0, 0, 2);
+    byteArrayView.setSofaDataArray(byteArrayFS, "bytes");
+
+    Path sofaFile = tempDir.resolve("sofa.txt");
+    Files.write(sofaFile, "remote sofa data".getBytes(UTF_8));
+    CAS remoteView = cas.createView("remote");
+    remoteView.setSofaDataURI(sofaFile.toUri().toString(), "text");
+
+    for (CAS view : new CAS[] { stringView, intArrayView, byteArrayView, remoteView }) {
+      byte[] expected;
+      try (InputStream is = view.getSofaDataStream()) {
+        expected = is.readAllBytes();
+      }
+      ByteBuffer buf = view.getSofaDataBuffer();
+      assertThat(buf.isReadOnly()).isTrue();
+      byte[] actual = new byte[buf.remaining()];
+      buf.get(actual);
+      assertThat(actual).isEqualTo(expected);
+    }
+
+    assertThat(remoteView.getSofaDataBuffer().isDirect()).as("memory mapped").isTrue();
+    assertThat(cas.getSofaDataBuffer()).isNull();
+  }
+
   @Test
   void testReset() {
     cas.reset();
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class InstancePoolTest {
+
+  @Test
+  void thatMostRecentlyReleasedInstanceIsReusedAndDoubleReleaseIsRejected() throws Exception {
+    InstancePool<String> pool = new InstancePool<>(List.of("a", "b", "c"));
+
+    String first = pool.tryAcquire();
+    String second = pool.tryAcquire();
+    assertThat(pool.getNumInUse()).isEqualTo(2);
+    assertThat(pool.getCheckedOutInstances()).containsExactlyInAnyOrder(first, second);
+
+    assertThat(pool.release(second)).isTrue();
+    assertThat(pool.release(second)).isFalse();
+    assertThat(pool.release("x")).isFalse();
+    assertThat(pool.tryAcquire()).isSameAs(second);
+
+    assertThat(pool.tryAcquire()).isNotNull();
+    assertThat(pool.tryAcquire()).isNull();
+    assertThat(pool.acquire(10, MILLISECONDS)).isNull();
+    assertThat(pool.getPeakInUse()).isEqualTo(3);
+    assertThat(pool.getTimeoutCount()).isEqualTo(2);
+  }
+
+  @Test
+  void thatSpecificInstanceIsCheckedOutOnceReleased() throws Exception {
+    InstancePool<String> pool = new InstancePool<>(List.of("a", "b"));
+    pool.tryAcquire();
+    pool.tryAcquire();
+    pool.release("b");
+
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        // ignore
+      }
+      pool.release("a");
+    });
+    releaser.start();
+    pool.acquire("a");
+    releaser.join();
+
+    assertThat(pool.isCheckedOut("a")).isTrue();
+    assertThat(pool.getFreeInstances()).containsExactly("b");
+  }
+
+  @Test
+  void thatInspectionDoesNotCheckOutOrDelayWaitingThreads() throws Exception {
+    InstancePool<String> pool = new InstancePool<>(List.of("a", "b"));
+
+    assertThat(pool.beginInspection("a")).isTrue();
+    assertThat(pool.beginInspection("a")).isFalse();
+    assertThat(pool.isCheckedOut("a")).isFalse();
+    assertThat(pool.getNumAvailable()).isEqualTo(1);
+    assertThat(pool.tryAcquire()).isEqualTo("b");
+    pool.endInspection("a");
+
+    assertThat(pool.getPeakInUse()).isEqualTo(1);
+    assertThat(pool.getAcquireCount()).isEqualTo(1);
+    assertThat(pool.release("a")).isFalse();
+
+    // with another thread waiting, the freed instance is left for that thread
+    assertThat(pool.tryAcquire()).isEqualTo("a");
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> waiting = executor.submit(() -> pool.acquire(10, SECONDS));
+      while (pool.getNumWaiting() == 0) {
+        Thread.sleep(1);
+      }
+      assertThat(pool.beginInspection("b")).isFalse();
+      pool.release("b");
+      assertThat(waiting.get(10, SECONDS)).isEqualTo("b");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void thatInstancesAreNeverSharedBetweenThreads() throws Exception {
+    InstancePool<Object> pool = new InstancePool<>(List.of(new Object(), new Object()));
+    Set<Object> inUse = ConcurrentHashMap.newKeySet();
+    AtomicInteger conflicts = new AtomicInteger();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 2000; i++) {
+            Object instance = pool.acquireUninterruptibly();
+            if (!inUse.add(instance)) {
+              conflicts.incrementAndGet();
+            }
+            inUse.remove(instance);
+            pool.release(instance);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(conflicts).hasValue(0);
+    assertThat(pool.getNumAvailable()).isEqualTo(2);
+    assertThat(pool.getFreeInstances()).hasSize(2);
+    assertThat(pool.getAcquireCount()).isEqualTo(8 * 2000);
+  }
+
+  @Test
+  void thatClearedPoolRefusesReleases() throws Exception {
+    InstancePool<String> pool = new InstancePool<>(List.of("a", "b"));
+    String a = pool.tryAcquire();
+
+    pool.clear();
+
+    assertThat(pool.release(a)).isFalse();
+    assertThat(pool.getFreeInstances()).isEmpty();
+    assertThat(pool.getAllInstances()).isEmpty();
+    assertThat(pool.tryAcquire()).isNull();
+  }
+}
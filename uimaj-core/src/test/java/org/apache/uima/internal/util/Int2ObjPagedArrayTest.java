@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Int2ObjPagedArrayTest {
+
+  Int2ObjPagedArray<Integer> ipa;
+
+  @BeforeEach
+  void setUp() {
+    ipa = new Int2ObjPagedArray<>();
+  }
+
+  @Test
+  void testPages() {
+    assertThat(Int2ObjPagedArray.pageIndex(0)).isEqualTo(0);
+    assertThat(Int2ObjPagedArray.pageIndex(1023)).isEqualTo(0);
+    assertThat(Int2ObjPagedArray.pageIndex(1024)).isEqualTo(1);
+    assertThat(Int2ObjPagedArray.pageIndex(3071)).isEqualTo(1);
+    assertThat(Int2ObjPagedArray.pageIndex(3072)).isEqualTo(2);
+    assertThat(Int2ObjPagedArray.pageIndex(Integer.MAX_VALUE - 1024)).isEqualTo(20);
+
+    for (int pi = 0; pi < 20; pi++) {
+      int start = Int2ObjPagedArray.pageStart(pi);
+      assertThat(Int2ObjPagedArray.pageIndex(start)).isEqualTo(pi);
+      assertThat(Int2ObjPagedArray.pageIndex(start - 1)).isEqualTo(pi - 1);
+    }
+  }
+
+  @Test
+  void testBasic() {
+    assertThat(ipa.get(15)).isNull();
+    assertThat(ipa.put(15, 150)).isNull();
+    assertThat(ipa.put(5000, 50000)).isNull();
+    assertThat(ipa.size()).isEqualTo(2);
+    assertThat(ipa.getMaxKey()).isEqualTo(5000);
+    assertThat((int) ipa.get(15)).isEqualTo(150);
+    assertThat((int) ipa.get(5000)).isEqualTo(50000);
+    assertThat(ipa.get(14)).isNull();
+    assertThat(ipa.get(-1)).isNull();
+    assertThat(ipa.get(Integer.MAX_VALUE)).isNull();
+
+    assertThat((int) ipa.put(15, 151)).isEqualTo(150);
+    assertThat(ipa.size()).isEqualTo(2);
+
+    assertThatIllegalArgumentException().isThrownBy(() -> ipa.put(-1, 0));
+  }
+
+  @Test
+  void testIterators() {
+    TreeMap<Integer, Integer> expected = new TreeMap<>();
+    Random r = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      int key = r.nextInt(100_000);
+      expected.put(key, i);
+      ipa.put(key, i);
+    }
+    assertThat(ipa.size()).isEqualTo(expected.size());
+
+    List<Integer> values = new ArrayList<>();
+    ipa.iterator().forEachRemaining(values::add);
+    assertThat(values).containsExactlyElementsOf(expected.values());
+
+    List<Integer> keys = new ArrayList<>();
+    IntListIterator it = ipa.keyIterator();
+    while (it.hasNext()) {
+      keys.add(it.nextNvc());
+    }
+    assertThat(keys).containsExactlyElementsOf(expected.keySet());
+
+    List<Integer> reversed = new ArrayList<>();
+    while (it.hasPrevious()) {
+      reversed.add(it.previousNvc());
+    }
+    assertThat(reversed).containsExactlyElementsOf(expected.descendingKeySet());
+  }
+
+  @Test
+  void testClear() {
+    for (int i = 1; i < 100_000; i++) {
+      ipa.put(i, i);
+    }
+    ipa.clear();
+    assertThat(ipa.size()).isZero();
+    assertThat(ipa.getMaxKey()).isEqualTo(-1);
+    assertThat(ipa.get(1)).isNull();
+    assertThat(ipa.get(99_999)).isNull();
+    assertThat(ipa.iterator().hasNext()).isFalse();
+
+    ipa.put(2000, 1);
+    ipa.clear();
+    ipa.put(70_000, 2);
+    assertThat(ipa.get(2000)).isNull();
+    assertThat((int) ipa.get(70_000)).isEqualTo(2);
+    assertThat(ipa.size()).isEqualTo(1);
+  }
+}
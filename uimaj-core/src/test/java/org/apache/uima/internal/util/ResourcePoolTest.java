@@ -22,11 +22,15 @@ package org.apache.uima.internal.util;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
+import java.util.Map;
+
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.impl.AnalysisEngineDescription_impl;
 import org.apache.uima.resource.Resource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.resource.metadata.ResourceMetaData;
 import org.apache.uima.test.junit_extension.JUnitExtension;
 import org.apache.uima.util.Level;
@@ -38,6 +42,7 @@ import org.junit.jupiter.api.Test;
  * Tests the ResourcePool_impl class.
  * 
  */
+@SuppressWarnings("deprecation")
 public class ResourcePoolTest {
   @BeforeEach
   public void setUp() throws Exception {
@@ -219,6 +224,33 @@ public class ResourcePoolTest {
     }
   }
 
+  @Test
+  public void thatInstancesAddedByOverriddenFillPoolArePooled() throws Exception {
+    ResourcePool pool = new ResourcePool(2, mDesc, AnalysisEngine.class) {
+      @Override
+      protected void fillPool(ResourceSpecifier aResourceSpecifier,
+              Class<? extends Resource> aResourceClass, Map<String, Object> aResourceInitParams)
+              throws ResourceInitializationException {
+        super.fillPool(aResourceSpecifier, aResourceClass, aResourceInitParams);
+        getAllInstances().add(UIMAFramework.produceResource(aResourceClass, aResourceSpecifier,
+                aResourceInitParams));
+      }
+    };
+    try {
+      assertThat(pool.getAllInstances()).hasSize(3);
+      assertThat(pool.getFreeInstances()).hasSize(3);
+
+      Resource r = pool.getResource();
+      assertThat(pool.getFreeInstances()).hasSize(2).doesNotContain(r);
+
+      // changing the copy does not affect the pool
+      pool.getFreeInstances().clear();
+      assertThat(pool.getFreeInstances()).hasSize(2);
+    } finally {
+      pool.destroy();
+    }
+  }
+
   private AnalysisEngineDescription mDesc;
 
   private ResourcePool pool1;
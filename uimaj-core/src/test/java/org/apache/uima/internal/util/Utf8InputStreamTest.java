@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Utf8InputStreamTest {
+
+  private static final char[] CHARS = { 'a', 'z', '\n', 0x7f, 0x80, 0xe9, 0x7ff, 0x800, 0x20ac,
+      0xffff, 0xd83d, 0xde00 };
+
+  @Test
+  void thatBytesAreSameAsGetBytes() throws Exception {
+    Random r = new Random(1);
+    for (int i = 0; i < 500; i++) {
+      String s = randomString(r);
+      for (int bufSize : new int[] { 1, 3, 4096 }) {
+        assertThat(readAll(new Utf8InputStream(s), bufSize)).as("%s", s)
+                .isEqualTo(s.getBytes(UTF_8));
+      }
+    }
+  }
+
+  @Test
+  void thatPartsAreJoined() throws Exception {
+    Random r = new Random(1);
+    for (int i = 0; i < 100; i++) {
+      String[] parts = new String[r.nextInt(4)];
+      for (int j = 0; j < parts.length; j++) {
+        parts[j] = (r.nextInt(8) == 0) ? null : randomString(r);
+      }
+      byte[] expected = String.join("\n", (CharSequence[]) parts).getBytes(UTF_8);
+      assertThat(readAll(new Utf8InputStream(parts, '\n'), 5)).isEqualTo(expected);
+
+      Utf8InputStream is = new Utf8InputStream(parts, '\n');
+      assertThat(is.available()).isBetween(Math.min(1, expected.length), expected.length);
+    }
+  }
+
+  private static String randomString(Random r) {
+    StringBuilder sb = new StringBuilder();
+    int len = r.nextInt(20);
+    for (int i = 0; i < len; i++) {
+      sb.append(CHARS[r.nextInt(CHARS.length)]);
+    }
+    return sb.toString();
+  }
+
+  private static byte[] readAll(InputStream is, int bufSize) throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    byte[] buf = new byte[bufSize];
+    int n;
+    while ((n = is.read(buf)) != -1) {
+      os.write(buf, 0, n);
+    }
+    return os.toByteArray();
+  }
+}
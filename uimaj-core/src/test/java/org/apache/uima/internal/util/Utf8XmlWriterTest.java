@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.transform.OutputKeys;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.StringArrayFS;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.XMLSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+class Utf8XmlWriterTest {
+
+  private static final String TEXT = "a<b>&\"c' \n\r\t]]> é€\u0085\u007f  "
+          + new String(Character.toChars(0x1F600)) + " end";
+
+  private CAS cas;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    cas = CasCreationUtils.createCas();
+    cas.setDocumentText(TEXT);
+    new Annotation(cas.getJCas(), 0, 3).addToIndexes();
+    CAS view = cas.createView("second");
+    view.setDocumentText("  two\n");
+    CAS arrayView = cas.createView("third");
+    StringArrayFS strings = arrayView.createStringArrayFS(3);
+    strings.set(0, TEXT);
+    strings.set(2, "");
+    arrayView.setSofaDataArray(strings, "text/plain");
+
+    IntArrayFS ints = cas.createIntArrayFS(3);
+    ints.set(0, -1);
+    ints.set(2, 42);
+    cas.addFsToIndexes(ints);
+    ArrayFS fss = cas.createArrayFS(2);
+    fss.set(0, cas.getDocumentAnnotation());
+    cas.addFsToIndexes(fss);
+    StringArrayFS indexedStrings = cas.createStringArrayFS(2);
+    indexedStrings.set(0, "x < y");
+    cas.addFsToIndexes(indexedStrings);
+  }
+
+  @Test
+  void thatOutputIsSameAsTransformer() throws Exception {
+    assumeThat(Utf8XmlWriter.isSameOutputAsTransformer()).isTrue();
+
+    for (boolean isXml11 : new boolean[] { false, true }) {
+      for (boolean isIndent : new boolean[] { false, true }) {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        XMLSerializer sax2xml = new XMLSerializer(expected, isIndent);
+        if (isXml11) {
+          sax2xml.setOutputProperty(OutputKeys.VERSION, "1.1");
+        }
+        serialize(sax2xml.getContentHandler());
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        serialize(new Utf8XmlWriter(actual, isIndent, isXml11));
+
+        assertThat(actual.toByteArray()).as("indent: %s, XML 1.1: %s", isIndent, isXml11)
+                .isEqualTo(expected.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  void thatDirectOutputIsSameAsSaxEvents() throws Exception {
+    for (boolean isIndent : new boolean[] { false, true }) {
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      // the filter hides the writer, so the serializer sends it only SAX events
+      XMLFilterImpl filter = new XMLFilterImpl();
+      filter.setContentHandler(new Utf8XmlWriter(expected, isIndent, false));
+      serialize(filter);
+
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      serialize(new Utf8XmlWriter(actual, isIndent, false));
+
+      assertThat(actual.toByteArray()).as("indent: %s", isIndent)
+              .isEqualTo(expected.toByteArray());
+    }
+  }
+
+  @Test
+  void thatNonXmlCharactersAreRejected() throws Exception {
+    cas.reset();
+    cas.setDocumentText("a\u0001b");
+
+    assertThatExceptionOfType(SAXParseException.class)
+            .isThrownBy(() -> serialize(new Utf8XmlWriter(new ByteArrayOutputStream(), false,
+                    false)))
+            .withMessageContaining("non-XML 1.0 character: 0x1 at offset 1");
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    serialize(new Utf8XmlWriter(os, false, true));
+    assertThat(os.toString("UTF-8")).contains("sofaString=\"a&#1;b\"");
+  }
+
+  private void serialize(ContentHandler ch) throws Exception {
+    new XmiCasSerializer(null).serialize(cas, ch, null, null, null);
+  }
+}
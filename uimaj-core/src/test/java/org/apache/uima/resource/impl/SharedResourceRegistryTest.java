@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.resource.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.ReadOnlySharedResourceObject;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceSpecifier;
+import org.apache.uima.resource.metadata.ConfigurationParameter;
+import org.apache.uima.resource.metadata.ConfigurationParameterDeclarations;
+import org.apache.uima.resource.metadata.ExternalResourceBinding;
+import org.apache.uima.resource.metadata.ResourceManagerConfiguration;
+import org.apache.uima.resource.metadata.ResourceMetaData;
+import org.apache.uima.resource.metadata.impl.ConfigurationParameterDeclarations_impl;
+import org.apache.uima.resource.metadata.impl.ConfigurationParameter_impl;
+import org.apache.uima.resource.metadata.impl.ExternalResourceBinding_impl;
+import org.apache.uima.resource.metadata.impl.ResourceManagerConfiguration_impl;
+import org.apache.uima.resource.metadata.impl.ResourceMetaData_impl;
+import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.junit.jupiter.api.Test;
+
+class SharedResourceRegistryTest {
+
+  private static final String CONTEXT = "/context/";
+
+  private final File dataFile = JUnitExtension
+          .getFile("ResourceTest/ResourceManager_implTest_tempDataFile.dat");
+
+  @Test
+  void thatReadOnlyResourceObjectsAreLoadedOncePerJvm() throws Exception {
+    ResourceManager_impl rm1 = createResourceManager(MappedTestResource.class);
+    ResourceManager_impl rm2 = createResourceManager(MappedTestResource.class);
+
+    MappedTestResource r1 = (MappedTestResource) rm1.getResource(CONTEXT + "key");
+    MappedTestResource r2 = (MappedTestResource) rm2.getResource(CONTEXT + "key");
+
+    assertThat(r1).isSameAs(r2);
+    assertThat(r1.text()).startsWith("This is a test.");
+
+    rm1.destroy();
+    assertThat(((MappedTestResource) rm2.getResource(CONTEXT + "key")).text())
+            .startsWith("This is a test.");
+  }
+
+  @Test
+  void thatOtherResourceObjectsAreLoadedPerResourceManager() throws Exception {
+    ResourceManager_impl rm1 = createResourceManager(TestResourceInterface_impl.class);
+    ResourceManager_impl rm2 = createResourceManager(TestResourceInterface_impl.class);
+
+    assertThat(rm1.getResource(CONTEXT + "key")).isNotSameAs(rm2.getResource(CONTEXT + "key"));
+  }
+
+  @Test
+  void thatResourceObjectsWithDifferentParametersAreNotShared() throws Exception {
+    ResourceManager_impl rm1 = createResourceManager(ParameterizedTestResource.class, "hello");
+    ResourceManager_impl rm2 = createResourceManager(ParameterizedTestResource.class, "bye");
+    ResourceManager_impl rm3 = createResourceManager(ParameterizedTestResource.class, "hello");
+
+    ParameterizedTestResource r1 = (ParameterizedTestResource) rm1.getResource(CONTEXT + "key");
+    ParameterizedTestResource r2 = (ParameterizedTestResource) rm2.getResource(CONTEXT + "key");
+    ParameterizedTestResource r3 = (ParameterizedTestResource) rm3.getResource(CONTEXT + "key");
+
+    assertThat(r1.greeting).isEqualTo("hello");
+    assertThat(r2.greeting).isEqualTo("bye");
+    assertThat(r1).isNotSameAs(r2).isSameAs(r3);
+  }
+
+  @Test
+  void thatFileDataIsMappedReadOnly() throws Exception {
+    FileResourceSpecifier_impl spec = new FileResourceSpecifier_impl();
+    spec.setFileUrl(dataFile.toURI().toURL().toString());
+    DataResource_impl dr = new DataResource_impl();
+    dr.initialize(spec, Collections.emptyMap());
+
+    ByteBuffer b1 = dr.getByteBuffer();
+    ByteBuffer b2 = dr.getByteBuffer();
+
+    assertThat(b1.isReadOnly()).isTrue();
+    assertThat(b1.isDirect()).isTrue();
+    assertThat(b1.remaining()).isEqualTo(dataFile.length());
+    assertThat(b1).isEqualTo(b2);
+    b1.get(); // positions are independent
+    assertThat(b2.position()).isZero();
+  }
+
+  private ResourceManager_impl createResourceManager(Class<?> aImplClass) throws Exception {
+    FileResourceSpecifier_impl spec = new FileResourceSpecifier_impl();
+    spec.setFileUrl(dataFile.toURI().toURL().toString());
+    return createResourceManager(aImplClass, spec);
+  }
+
+  private ResourceManager_impl createResourceManager(Class<?> aImplClass, String aGreeting)
+          throws Exception {
+    ConfigurationParameter param = new ConfigurationParameter_impl();
+    param.setName(ParameterizedTestResource.PARAM_GREETING);
+    param.setType(ConfigurationParameter.TYPE_STRING);
+    ConfigurationParameterDeclarations decls = new ConfigurationParameterDeclarations_impl();
+    decls.addConfigurationParameter(param);
+    ResourceMetaData md = new ResourceMetaData_impl();
+    md.setConfigurationParameterDeclarations(decls);
+    md.getConfigurationParameterSettings()
+            .setParameterValue(ParameterizedTestResource.PARAM_GREETING, aGreeting);
+
+    ConfigurableDataResourceSpecifier_impl spec = new ConfigurableDataResourceSpecifier_impl();
+    spec.setUrl(dataFile.toURI().toURL().toString());
+    spec.setMetaData(md);
+    return createResourceManager(aImplClass, spec);
+  }
+
+  private ResourceManager_impl createResourceManager(Class<?> aImplClass, ResourceSpecifier aSpec)
+          throws Exception {
+    ExternalResourceDescription desc = new ExternalResourceDescription_impl();
+    desc.setName("resource");
+    desc.setResourceSpecifier(aSpec);
+    desc.setImplementationName(aImplClass.getName());
+
+    ExternalResourceBinding binding = new ExternalResourceBinding_impl();
+    binding.setKey("key");
+    binding.setResourceName("resource");
+
+    ResourceManagerConfiguration cfg = new ResourceManagerConfiguration_impl();
+    cfg.setExternalResources(new ExternalResourceDescription[] { desc });
+    cfg.setExternalResourceBindings(binding);
+
+    ResourceManager_impl rm = new ResourceManager_impl();
+    rm.initializeExternalResources(cfg, CONTEXT, null);
+    return rm;
+  }
+
+  public static class MappedTestResource implements ReadOnlySharedResourceObject {
+    private ByteBuffer data;
+
+    @Override
+    public void load(DataResource aData) throws ResourceInitializationException {
+      try {
+        data = aData.getByteBuffer();
+      } catch (IOException e) {
+        throw new ResourceInitializationException(e);
+      }
+    }
+
+    String text() {
+      return UTF_8.decode(data.duplicate()).toString();
+    }
+  }
+
+  public static class ParameterizedTestResource implements ReadOnlySharedResourceObject {
+    static final String PARAM_GREETING = "greeting";
+
+    private String greeting;
+
+    @Override
+    public void load(DataResource aData) throws ResourceInitializationException {
+      greeting = (String) aData.getMetaData().getConfigurationParameterSettings()
+              .getParameterValue(PARAM_GREETING);
+    }
+  }
+}
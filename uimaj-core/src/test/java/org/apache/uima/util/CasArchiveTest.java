@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import static org.apache.uima.util.CasCreationUtils.createCas;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CasArchiveTest {
+
+  private static final String[] LABELS = { "PERSON", "LOCATION", "ORGANIZATION",
+      "http://example.org/ontology#Event" };
+
+  @Test
+  void thatCasesCanBeLoadedByIdAndScannedInParallel(@TempDir Path aTempDir) throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+    tsd.addType("Entity", "", CAS.TYPE_NAME_ANNOTATION).addFeature("label", "",
+            CAS.TYPE_NAME_STRING);
+    Path file = aTempDir.resolve("cases.car");
+
+    CAS cas = createCas(tsd, null, null);
+    try (CasArchiveWriter writer = new CasArchiveWriter(file, 10)) {
+      for (int i = 0; i < 50; i++) {
+        cas.reset();
+        fill(cas, i);
+        assertThat(writer.add(cas)).isEqualTo(i);
+      }
+    }
+
+    try (CasArchiveReader reader = new CasArchiveReader(file)) {
+      assertThat(reader.size()).isEqualTo(50);
+      assertThat(reader.getTypeSystem().getType("Entity")).isNotNull();
+
+      CAS target = createCas(tsd, null, null);
+      reader.load(37, target);
+      assertThat(target.getDocumentText()).isEqualTo(text(37));
+      assertThat(labels(target)).containsExactly(LABELS[37 % 4], LABELS[38 % 4], "id-37");
+      reader.load(3, target);
+      assertThat(target.getDocumentText()).isEqualTo(text(3));
+
+      Map<Integer, String> texts = new ConcurrentHashMap<>();
+      reader.forEach(4, () -> newCas(tsd), (c, id) -> texts.put(id, c.getDocumentText()));
+      assertThat(texts).hasSize(50);
+      texts.forEach((id, text) -> assertThat(text).isEqualTo(text(id)));
+
+      assertThatExceptionOfType(IndexOutOfBoundsException.class)
+              .isThrownBy(() -> reader.load(50, target));
+    }
+  }
+
+  @Test
+  void thatEmptyArchiveCanBeRead(@TempDir Path aTempDir) throws Exception {
+    Path file = aTempDir.resolve("empty.car");
+    new CasArchiveWriter(file).close();
+
+    try (CasArchiveReader reader = new CasArchiveReader(file)) {
+      assertThat(reader.size()).isZero();
+      assertThat(reader.getTypeSystem()).isNull();
+    }
+  }
+
+  private static void fill(CAS cas, int i) {
+    cas.setDocumentText(text(i));
+    Type entity = cas.getTypeSystem().getType("Entity");
+    Feature label = entity.getFeatureByBaseName("label");
+    for (int k = 0; k < 3; k++) {
+      AnnotationFS a = cas.createAnnotation(entity, k, k + 1);
+      a.setStringValue(label, k < 2 ? LABELS[(i + k) % 4] : "id-" + i);
+      cas.addFsToIndexes(a);
+    }
+  }
+
+  private static List<String> labels(CAS cas) {
+    Type entity = cas.getTypeSystem().getType("Entity");
+    Feature label = entity.getFeatureByBaseName("label");
+    return cas.<AnnotationFS> getAnnotationIndex(entity).select().asList().stream()
+            .map(a -> a.getStringValue(label)).toList();
+  }
+
+  private static String text(int i) {
+    return "Document " + i + " of the archive";
+  }
+
+  private static CAS newCas(TypeSystemDescription tsd) {
+    try {
+      return createCas(tsd, null, null);
+    } catch (ResourceInitializationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -368,4 +368,14 @@ public class CasWrapperForTstng implements CAS {
     return originalCAS.protectIndexes();
   }
 
+  @Override
+  public void freeze() {
+    originalCAS.freeze();
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return originalCAS.isFrozen();
+  }
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  @Test
+  void thatBucketsCoverAllValues() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      long value = random.nextLong() >>> (1 + random.nextInt(63));
+      int index = Histogram.bucketIndex(value);
+      long highest = Histogram.bucketHighestValue(index);
+      assertThat(highest).isGreaterThanOrEqualTo(value);
+      assertThat(index == 0 || Histogram.bucketHighestValue(index - 1) < value).isTrue();
+      assertThat((double) (highest - value)).isLessThanOrEqualTo(value / 16.0);
+    }
+    assertThat(Histogram.bucketHighestValue(Histogram.bucketIndex(Long.MAX_VALUE)))
+            .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  void thatPercentilesAreWithinPrecision() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1000L);
+    }
+
+    assertThat(histogram.getCount()).isEqualTo(10_000);
+    assertThat(histogram.getMax()).isEqualTo(10_000_000);
+    assertThat(histogram.getMean()).isEqualTo(5_000_500.0);
+    assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(5_000_000,
+            within(5_000_000 / 16.0));
+    assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(9_900_000,
+            within(9_900_000 / 16.0));
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000_000);
+    assertThat(histogram.getValueAtPercentile(0)).isBetween(1000L, 1000L + 1000 / 16);
+
+    histogram.reset();
+    assertThat(histogram.getCount()).isZero();
+    assertThat(histogram.getValueAtPercentile(50)).isZero();
+  }
+}
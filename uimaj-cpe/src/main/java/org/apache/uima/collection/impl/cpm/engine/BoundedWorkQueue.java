@@ -19,11 +19,13 @@
 
 package org.apache.uima.collection.impl.cpm.engine;
 
-import static java.lang.System.currentTimeMillis;
-
 import java.lang.invoke.MethodHandles;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
@@ -41,7 +43,11 @@ import org.apache.uima.util.Logger;
  * There are 2 dequeue calls. One returns null if the queue is empty, the other can be given a
  * timeout - and it will wait up to that time waiting for something to get enqueued.
  * 
- * 
+ * <p>
+ * The queue is guarded by a {@link ReentrantLock}. Enqueuing wakes up one thread waiting for an
+ * entry, and dequeuing wakes up one thread waiting for a free slot, instead of waking up all
+ * waiting threads. The queue keeps statistics about its depth and about the time threads spent
+ * waiting on it.
  */
 public class BoundedWorkQueue {
   private static final Logger LOG = UIMAFramework.getLogger(MethodHandles.lookup().lookupClass());
@@ -61,9 +67,33 @@ public class BoundedWorkQueue {
   /** The cpm. */
   protected CPMEngine cpm;
 
-  /** The Constant WAIT_TIMEOUT. */
+  /**
+   * The Constant WAIT_TIMEOUT. The longest time a thread blocked on a full queue waits before
+   * checking again whether the CPE is still running.
+   */
   protected static final int WAIT_TIMEOUT = 50;
 
+  /** Guards all the state of the queue, including that of subclasses. */
+  protected final ReentrantLock lock = new ReentrantLock();
+
+  /** Signalled when an entry was added. */
+  protected final Condition notEmpty = lock.newCondition();
+
+  /** Signalled when an entry was removed. */
+  protected final Condition notFull = lock.newCondition();
+
+  /** The largest number of entries in the queue so far. */
+  private volatile int peakSize = 0;
+
+  /** The number of entries added so far. */
+  private final LongAdder enqueueCount = new LongAdder();
+
+  /** Total nanoseconds threads waited for a free slot. */
+  private final LongAdder enqueueWaitNanos = new LongAdder();
+
+  /** Total nanoseconds threads waited for an entry. */
+  private final LongAdder dequeueWaitNanos = new LongAdder();
+
   /**
    * Initialize the instance.
    *
@@ -94,17 +124,22 @@ public class BoundedWorkQueue {
    * 
    * @return - number of elements in the queue
    */
-  public synchronized int getCurrentSize() {
-    if (numberElementsInQueue > 0) {
-      Object olist = queue.get(0);
-      if (olist != null && (olist instanceof Object[])) {
-        Object[] list = (Object[]) olist;
-        if (list[0] instanceof EOFToken) {
-          return 0;
+  public int getCurrentSize() {
+    lock.lock();
+    try {
+      if (numberElementsInQueue > 0) {
+        Object olist = queue.get(0);
+        if (olist != null && (olist instanceof Object[])) {
+          Object[] list = (Object[]) olist;
+          if (list[0] instanceof EOFToken) {
+            return 0;
+          }
         }
       }
+      return numberElementsInQueue;
+    } finally {
+      lock.unlock();
     }
-    return numberElementsInQueue;
   }
 
   /**
@@ -116,60 +151,144 @@ public class BoundedWorkQueue {
     return queueMaxSize;
   }
 
+  /**
+   * Returns the largest number of entries that were in the queue at the same time so far.
+   *
+   * @return - peak queue depth
+   */
+  public int getPeakSize() {
+    return peakSize;
+  }
+
+  /**
+   * Returns the number of entries enqueued so far.
+   *
+   * @return - number of entries enqueued
+   */
+  public long getEnqueueCount() {
+    return enqueueCount.sum();
+  }
+
+  /**
+   * Returns the total time threads spent waiting for a free slot in {@link #enqueue(Object)}.
+   *
+   * @return - total wait time in milliseconds
+   */
+  public long getEnqueueWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(enqueueWaitNanos.sum());
+  }
+
+  /**
+   * Returns the total time threads spent waiting for an entry in {@link #dequeue(long)}.
+   *
+   * @return - total wait time in milliseconds
+   */
+  public long getDequeueWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(dequeueWaitNanos.sum());
+  }
+
   /**
    * Enqueues a given object onto the queue. It blocks if the queue is full.
    * 
    * @param anObject
    *          - an object to enqueue
    */
-  public synchronized void enqueue(Object anObject) {
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_entering_queue__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
-    }
-
-    // If the queue is full, just wait until someone dequeues something from the queue
+  public void enqueue(Object anObject) {
+    final boolean finest = LOG.isLoggable(Level.FINEST);
+    lock.lock();
     try {
+      if (finest) {
+        LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_entering_queue__FINEST",
+                new Object[] { Thread.currentThread().getName(), queueName,
+                    String.valueOf(numberElementsInQueue) });
+      }
+
+      // If the queue is full, just wait until someone dequeues something from the queue
       // Make an exception and allow EOFToken placement beyond the end of queue. Dont wait here. We
-      // are
-      // terminating the CPE
+      // are terminating the CPE
       if (!(anObject instanceof Object[] && ((Object[]) anObject)[0] instanceof EOFToken)) {
         // Block if the queue is full AND the CPE is running
-        while (numberElementsInQueue == queueMaxSize && (cpm == null || cpm.isRunning())) {
-          if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-            LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-                    CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_full__FINEST",
-                    new Object[] { Thread.currentThread().getName(), queueName,
-                        String.valueOf(numberElementsInQueue) });
+        if (numberElementsInQueue == queueMaxSize) {
+          long startTime = System.nanoTime();
+          try {
+            while (numberElementsInQueue == queueMaxSize && (cpm == null || cpm.isRunning())) {
+              if (finest) {
+                LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                        CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_full__FINEST",
+                        new Object[] { Thread.currentThread().getName(), queueName,
+                            String.valueOf(numberElementsInQueue) });
+              }
+              // stopping the CPE does not signal the queue, so wake up now and then to check
+              notFull.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+          } catch (InterruptedException e) {
           }
-          wait(WAIT_TIMEOUT);
+          enqueueWaitNanos.add(System.nanoTime() - startTime);
         }
       }
-    } catch (InterruptedException e) {
-    }
 
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_adding_cas_to_queue__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
-    }
+      if (finest) {
+        LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_adding_cas_to_queue__FINEST",
+                new Object[] { Thread.currentThread().getName(), queueName,
+                    String.valueOf(numberElementsInQueue) });
+      }
 
-    // Append the object to the queue
-    queue.add(anObject);
-    // increment number of items in the queue
-    numberElementsInQueue++;
+      // Append the object to the queue
+      queue.add(anObject);
+      // increment number of items in the queue
+      numberElementsInQueue++;
+      if (numberElementsInQueue > peakSize) {
+        peakSize = numberElementsInQueue;
+      }
+      enqueueCount.increment();
 
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_cas_in_queue__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
+      if (finest) {
+        LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_cas_in_queue__FINEST",
+                new Object[] { Thread.currentThread().getName(), queueName,
+                    String.valueOf(numberElementsInQueue) });
+      }
+
+      signalEnqueued();
+    } finally {
+      lock.unlock();
     }
+  }
+
+  /**
+   * Wakes up threads waiting for an entry after one was enqueued. Must be called holding the lock.
+   * Wakes up one thread, because any waiting thread can take the new entry.
+   */
+  protected void signalEnqueued() {
+    notEmpty.signal();
+  }
 
-    notifyAll();
+  /**
+   * Wakes up a thread waiting for a free slot after an entry was dequeued. Must be called holding
+   * the lock.
+   */
+  protected void signalDequeued() {
+    notFull.signal();
+  }
+
+  /**
+   * Waits for an entry to be enqueued, recording the time waited. Must be called holding the lock.
+   * 
+   * @param aNanos
+   *          - max nanoseconds to wait
+   * @return - an estimate of the nanoseconds left
+   * @throws InterruptedException
+   *           - if interrupted while waiting
+   */
+  protected long awaitEnqueued(long aNanos) throws InterruptedException {
+    long startTime = System.nanoTime();
+    try {
+      return notEmpty.awaitNanos(aNanos);
+    } finally {
+      dequeueWaitNanos.add(System.nanoTime() - startTime);
+    }
   }
 
   /**
@@ -177,43 +296,46 @@ public class BoundedWorkQueue {
    * 
    * @return object dequeued from the head of the queue
    */
-  public synchronized Object dequeue() {
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_enter_dequeue__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
-    }
-    // Check if there is anything in the queue
-    if (numberElementsInQueue == 0) {
-      return null;
-    }
-    // Get the first object from the queue
-    Object returnedObject = queue.remove(0);
-    // Reduce # of objects in the queue
-    numberElementsInQueue--;
-    if (returnedObject instanceof Object[]) {
-      if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+  public Object dequeue() {
+    final boolean finest = LOG.isLoggable(Level.FINEST);
+    lock.lock();
+    try {
+      if (finest) {
         LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_cas_dequeued__FINEST",
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_enter_dequeue__FINEST",
                 new Object[] { Thread.currentThread().getName(), queueName,
-                    String.valueOf(((Object[]) returnedObject).length) });
+                    String.valueOf(numberElementsInQueue) });
       }
-    } else {
-      if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      // Check if there is anything in the queue
+      if (numberElementsInQueue == 0) {
+        return null;
+      }
+      // Get the first object from the queue
+      Object returnedObject = queue.remove(0);
+      // Reduce # of objects in the queue
+      numberElementsInQueue--;
+      signalDequeued();
+      if (finest) {
+        if (returnedObject instanceof Object[]) {
+          LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_cas_dequeued__FINEST",
+                  new Object[] { Thread.currentThread().getName(), queueName,
+                      String.valueOf(((Object[]) returnedObject).length) });
+        } else {
+          LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_no_cas_dequeued__FINEST",
+                  new Object[] { Thread.currentThread().getName(), queueName });
+        }
         LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_no_cas_dequeued__FINEST",
-                new Object[] { Thread.currentThread().getName(), queueName });
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_return_from_dequeue__FINEST",
+                new Object[] { Thread.currentThread().getName(), queueName,
+                    String.valueOf(numberElementsInQueue) });
       }
-    }
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_return_from_dequeue__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
-    }
 
-    return returnedObject;
+      return returnedObject;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -225,54 +347,45 @@ public class BoundedWorkQueue {
    * 
    * @return - Object from the queue, or null if time out
    */
-  public synchronized Object dequeue(long aTimeout) {
-    Object resource = dequeue();
-    if (resource != null) {
-      return resource;
-    }
-
-    // next 5 lines commented out - was old method of waiting. -- Jan 2008 MIS
-    // changes include waiting a little (WAIT_TIMEOUT) if !cpm.isRunning, to prevent
-    // 100% CPU utilization while waiting for existing processes to finish
-    // also, System.currentTimeMillis only called once in revised version.
-    // if (resource == null && cpm.isRunning()) {
-    // try {
-    // // add 1 millisecond to expire time to account for "rounding" issues
-    // long timeExpire = (0 == aTimeout)? Long.MAX_VALUE : (System.currentTimeMillis() + aTimeout +
-    // 1);
-    // long timeLeft = timeExpire - System.currentTimeMillis();
+  public Object dequeue(long aTimeout) {
+    lock.lock();
     try {
-      // add 1 millisecond to expire time to account for "rounding" issues
-      long timeNow = currentTimeMillis();
-      long timeExpire = (!cpm.isRunning()) ? timeNow + WAIT_TIMEOUT : // a value to avoid 100% CPU
-              ((0 == aTimeout) ? Long.MAX_VALUE : timeNow + aTimeout + 1);
-      long timeLeft = timeExpire - timeNow;
-      while (timeLeft > 0) {
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_empty__FINEST",
-                  new Object[] { Thread.currentThread().getName(), queueName });
-        }
-        this.wait(timeLeft); // timeLeft is always > 0
-        resource = dequeue();
-        if (null != resource) {
-          LOG.trace("[{}] Waited for {}ms", queueName, timeNow - currentTimeMillis());
-          return resource;
+      Object resource = dequeue();
+      if (resource != null) {
+        return resource;
+      }
+
+      // if the CPE is no longer running, wait a little (WAIT_TIMEOUT) only, to let existing
+      // processes finish without using 100% CPU
+      long timeout = (cpm != null && !cpm.isRunning()) ? WAIT_TIMEOUT : aTimeout;
+      long nanosLeft = (0 == timeout) ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeout);
+      try {
+        while (nanosLeft > 0) {
+          if (LOG.isLoggable(Level.FINEST)) {
+            LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                    CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_empty__FINEST",
+                    new Object[] { Thread.currentThread().getName(), queueName });
+          }
+          nanosLeft = awaitEnqueued(nanosLeft);
+          resource = dequeue();
+          if (null != resource) {
+            return resource;
+          }
         }
-        timeLeft = timeExpire - currentTimeMillis();
+      } catch (InterruptedException e) {
       }
-    } catch (InterruptedException e) {
-    }
 
-    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-      LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
-              CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_notified__FINEST",
-              new Object[] { Thread.currentThread().getName(), queueName,
-                  String.valueOf(numberElementsInQueue) });
-    }
+      if (LOG.isLoggable(Level.FINEST)) {
+        LOG.logrb(Level.FINEST, this.getClass().getName(), "process",
+                CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_notified__FINEST",
+                new Object[] { Thread.currentThread().getName(), queueName,
+                    String.valueOf(numberElementsInQueue) });
+      }
 
-    resource = dequeue();
-    return resource;
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
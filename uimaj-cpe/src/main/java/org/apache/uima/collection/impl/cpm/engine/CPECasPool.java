@@ -19,13 +19,15 @@
 
 package org.apache.uima.collection.impl.cpm.engine;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
-import java.util.Vector;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.collection.impl.cpm.utils.CPMUtils;
+import org.apache.uima.internal.util.InstancePool;
 import org.apache.uima.resource.CasManager;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.Level;
@@ -36,14 +38,17 @@ import org.apache.uima.util.Level;
  */
 public class CPECasPool {
 
-  /** The m all instances. */
-  private Vector mAllInstances = new Vector();
+  /**
+   * The longest time {@link #getCas(long)} waits when called with a timeout of 0, after which it
+   * returns null so that callers can check whether the CPM is still running.
+   */
+  private static final long MAX_WAIT_SLICE_MILLIS = 100;
 
-  /** The m free instances. */
-  private Vector mFreeInstances = new Vector();
+  /** The pooled instances. */
+  private final InstancePool<CAS> mPool;
 
-  /** The checked out instances. */
-  private LinkedList checkedOutInstances = new LinkedList();
+  /** The instances created by fillPool, only used while the pool is constructed. */
+  private List<CAS> mFillInstances = new ArrayList<>();
 
   /** The m num instances. */
   private final int mNumInstances;
@@ -60,8 +65,7 @@ public class CPECasPool {
    */
   public CPECasPool(int aNumInstances, CasManager aCasManager)
           throws ResourceInitializationException {
-    mNumInstances = aNumInstances;
-    fillPool(aCasManager, UIMAFramework.getDefaultPerformanceTuningProperties());
+    this(aNumInstances, aCasManager, UIMAFramework.getDefaultPerformanceTuningProperties());
   }
 
   /**
@@ -80,6 +84,8 @@ public class CPECasPool {
           Properties aPerformanceTuningSettings) throws ResourceInitializationException {
     mNumInstances = aNumInstances;
     fillPool(aCasManager, aPerformanceTuningSettings);
+    mPool = new InstancePool<>(mFillInstances);
+    mFillInstances = null;
   }
 
   /**
@@ -95,60 +101,55 @@ public class CPECasPool {
   protected void fillPool(CasManager aCasManager, Properties aPerformanceTuningSettings)
           throws ResourceInitializationException {
     for (int i = 0; i < mNumInstances; i++) {
-      CAS c = aCasManager.createNewCas(aPerformanceTuningSettings);
-      mAllInstances.add(c);
-      mFreeInstances.add(c);
+      mFillInstances.add(aCasManager.createNewCas(aPerformanceTuningSettings));
     }
   }
 
   /**
    * Returns a Cas instance from the pool. This routine waits for a free instance of Cas a given
    * amount of time. If free instance is not available this routine returns null.
+   * <p>
+   * A timeout of 0 waits for a short while only, so that callers looping on this method notice
+   * when the CPM is stopped.
    * 
    * @param aTimeout
    *          - max amount of time in millis to wait for CAS instance
    * @return - CAS instance, or null on timeout
    */
-  public synchronized CAS getCas(long aTimeout) {
-    CAS cas = getCas();
-
-    if (cas != null) {
-      return cas;
-    }
-
+  public CAS getCas(long aTimeout) {
+    long timeout = (aTimeout == 0) ? MAX_WAIT_SLICE_MILLIS : aTimeout;
+    CAS cas;
     try {
-      this.wait(aTimeout);
+      cas = mPool.acquire(timeout, TimeUnit.MILLISECONDS);
     } catch (InterruptedException e) { // do nothing if interrupted
+      return null;
     }
-    return getCas();
+    if (cas != null) {
+      logCheckedOut();
+    }
+    return cas;
   }
 
   /**
    * Checks out a CAS from the pool.
    * 
    * @return a CAS instance. Returns <code>null</code> if none are available (in which case the
-   *         client may {@link Object#wait()} on this object in order to be notified when an
-   *         instance becomes available).
+   *         client may call {@link #getCas(long)} to wait until an instance becomes available).
    */
-  public synchronized CAS getCas() {
-    if (!mFreeInstances.isEmpty()) {
-      CAS cas = (CAS) mFreeInstances.remove(0);
-      if (cas != null) {
-        // Add the cas to a list of checked-out cases
-        checkedOutInstances.add(cas);
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
-                  "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_add_cas_to_checkedout_list__FINEST",
-                  new Object[] { Thread.currentThread().getName(),
-                      String.valueOf(checkedOutInstances.size()) });
-
-        }
-      }
-      return cas;
-    } else {
-      // no instances available
-      return null;
+  public CAS getCas() {
+    CAS cas = mPool.tryAcquire();
+    if (cas != null) {
+      logCheckedOut();
+    }
+    return cas;
+  }
+
+  private void logCheckedOut() {
+    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+              "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+              "UIMA_CPM_add_cas_to_checkedout_list__FINEST", new Object[] {
+                  Thread.currentThread().getName(), String.valueOf(mPool.getNumInUse()) });
     }
   }
 
@@ -160,9 +161,9 @@ public class CPECasPool {
    * @param aCas
    *          the CAS to release
    */
-  public synchronized void releaseCas(CAS aCas) {
+  public void releaseCas(CAS aCas) {
     // make sure this CAS actually belongs to this pool and is checked out
-    if (!mAllInstances.contains(aCas) || mFreeInstances.contains(aCas)) {
+    if (!mPool.beginRelease(aCas)) {
       if (UIMAFramework.getLogger().isLoggable(Level.WARNING)) {
         UIMAFramework.getLogger(this.getClass()).logrb(Level.WARNING, this.getClass().getName(),
                 "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_invalid_checkin__WARNING",
@@ -171,31 +172,20 @@ public class CPECasPool {
     } else {
       // reset CAS
       aCas.reset();
-      // Add the CAS to the end of the free instances List
-      mFreeInstances.add(aCas);
-
-      // get the position of the CAS in the list.
-      int index = checkedOutInstances.indexOf(aCas); // new code JC 05/11/2005
-      if (index != -1) {
-        checkedOutInstances.remove(index);
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
-                  "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_removed_from_checkedout_list__FINEST",
-                  new Object[] { Thread.currentThread().getName(),
-                      String.valueOf(checkedOutInstances.size()) });
-        }
-      }
+      // make it available again, waking up a waiting thread
+      mPool.endRelease(aCas);
 
       if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+        String inUse = String.valueOf(mPool.getNumInUse());
+        UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+                "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+                "UIMA_CPM_removed_from_checkedout_list__FINEST",
+                new Object[] { Thread.currentThread().getName(), inUse });
         UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
                 "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_return_cas_to_pool__FINEST",
-                new Object[] { Thread.currentThread().getName(),
-                    String.valueOf(checkedOutInstances.size()) });
+                new Object[] { Thread.currentThread().getName(), inUse });
       }
-      notifyAll(); // when CAS becomes available
     }
-
   }
 
   /**
@@ -203,8 +193,8 @@ public class CPECasPool {
    *
    * @return - number of CAS'es being processed
    */
-  public synchronized int getCheckedOutCasCount() {
-    return checkedOutInstances.size();
+  public int getCheckedOutCasCount() {
+    return mPool.getNumInUse();
   }
 
   /**
@@ -215,11 +205,30 @@ public class CPECasPool {
    * 
    * @return CAS - reference to a CAS
    */
-  public synchronized CAS getCheckedOutCas(int aIndex) {
-    if (aIndex > checkedOutInstances.size()) {
+  public CAS getCheckedOutCas(int aIndex) {
+    List<CAS> checkedOut = mPool.getCheckedOutInstances();
+    if (aIndex >= checkedOut.size()) {
       return null;
     }
-    return (CAS) checkedOutInstances.get(aIndex);
+    return checkedOut.get(aIndex);
+  }
+
+  /**
+   * Gets the largest number of CASes that were checked out of this pool at the same time so far.
+   *
+   * @return the peak number of CASes in use
+   */
+  public int getPeakInUse() {
+    return mPool.getPeakInUse();
+  }
+
+  /**
+   * Gets an estimate of the number of threads currently waiting for a CAS.
+   *
+   * @return the number of waiting threads
+   */
+  public int getNumWaiting() {
+    return mPool.getNumWaiting();
   }
 
   /**
@@ -231,24 +240,4 @@ public class CPECasPool {
     return mNumInstances;
   }
 
-  // never called and dangerous to expose
-  // /**
-  // * Returns pool capacity
-  // *
-  // * @return - size of the pool
-  // */
-  // protected Vector getAllInstances() {
-  // return mAllInstances;
-  // }
-
-  // Never called
-  // /**
-  // * Number of free Cas'es available in the pool
-  // *
-  // * @return
-  // */
-  // protected synchronized Vector getFreeInstances() {
-  // return mFreeInstances;
-  // }
-
 }
@@ -611,11 +611,8 @@ public class CPMEngine implements Runnable {
         outputQueue.dequeue();
       }
     }
-    if (casPool != null) {
-      synchronized (casPool) {
-        casPool.notifyAll();
-      }
-    }
+    // threads waiting on the casPool wake up on their own within a short time and then see that
+    // the CPM is no longer running
     if (workQueue != null) {
       Object[] eofToken = new Object[1];
       // only need one member in the array
@@ -2277,17 +2274,14 @@ public class CPMEngine implements Runnable {
                   new Object[] { Thread.currentThread().getName(), outputQueue.getName(),
                       String.valueOf(outputQueue.getCurrentSize()) });
         }
-        synchronized (outputQueue) {
-          if (outputQueue.getCurrentSize() == 0) {
-            if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-              UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST,
-                      this.getClass().getName(), "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                      "UIMA_CPM_pus_completed__FINEST",
-                      new Object[] { Thread.currentThread().getName(), outputQueue.getName(),
-                          String.valueOf(outputQueue.getCurrentSize()) });
-            }
-            break;
+        if (outputQueue.getCurrentSize() == 0) {
+          if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+            UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+                    "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_pus_completed__FINEST",
+                    new Object[] { Thread.currentThread().getName(), outputQueue.getName(),
+                        String.valueOf(outputQueue.getCurrentSize()) });
           }
+          break;
         }
         if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
           UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
@@ -21,6 +21,7 @@ package org.apache.uima.collection.impl.cpm.engine;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
@@ -89,8 +90,8 @@ public class SequencedQueue extends BoundedWorkQueue {
    * Returns a CAS that belong to a timedout chunk sequence. It wraps the CAS in QueueEntity and
    * indicates that the CAS arrived late.
    * 
-   * This must be called while holding the class lock (e.g. via synch on the calling methods within
-   * this class).
+   * This must be called while holding the queue lock (e.g. via the calling methods within this
+   * class).
    * 
    * @param aQueueIndex
    *          - position in queue from the CAS should be extracted
@@ -102,7 +103,7 @@ public class SequencedQueue extends BoundedWorkQueue {
     Object anObject = queue.remove(aQueueIndex);
     // Reduce # of objects in the queue
     numberElementsInQueue--;
-    notifyAll();
+    signalDequeued();
     if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
       UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
               "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
@@ -128,7 +129,16 @@ public class SequencedQueue extends BoundedWorkQueue {
    * @return object dequeued from the head of the queue
    */
   @Override
-  public synchronized Object dequeue() {
+  public Object dequeue() {
+    lock.lock();
+    try {
+      return dequeueLocked();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Object dequeueLocked() {
     // Check if there is anything in the queue
     if (numberElementsInQueue == 0) {
       if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
@@ -156,7 +166,7 @@ public class SequencedQueue extends BoundedWorkQueue {
       if (anObject instanceof Object[] && ((Object[]) anObject)[0] instanceof EOFToken) {
         anObject = queue.remove(queueIndex);
         numberElementsInQueue--;
-        notifyAll();
+        signalDequeued();
         if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
           UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
                   "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_got_eof_token__FINEST",
@@ -373,7 +383,7 @@ public class SequencedQueue extends BoundedWorkQueue {
     anObject = queue.remove(queueIndex);
     // Reduce # of objects in the queue
     numberElementsInQueue--;
-    notifyAll();
+    signalDequeued();
     if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
       UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
               "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_show_queue_capacity__FINEST",
@@ -393,7 +403,24 @@ public class SequencedQueue extends BoundedWorkQueue {
    * @return - Object from the queue, or null if time out
    */
   @Override
-  public synchronized Object dequeue(long aTimeout) {
+  public Object dequeue(long aTimeout) {
+    lock.lock();
+    try {
+      return dequeueLocked(aTimeout);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Any thread waiting for a chunk may be waiting for the one just enqueued, so wake up all of them.
+   */
+  @Override
+  protected void signalEnqueued() {
+    notEmpty.signalAll();
+  }
+
+  private Object dequeueLocked(long aTimeout) {
     Object resource = null;
     long startTime = System.currentTimeMillis();
     // add 1 for rounding issues. Should really add the smallest incr unit, which might be
@@ -408,7 +435,7 @@ public class SequencedQueue extends BoundedWorkQueue {
         }
         long timeRemaining = expireTime - System.currentTimeMillis();
         if (timeRemaining > 0) {
-          wait(timeRemaining);
+          awaitEnqueued(TimeUnit.MILLISECONDS.toNanos(timeRemaining));
         }
       } catch (InterruptedException e) {
       }
@@ -464,7 +491,16 @@ public class SequencedQueue extends BoundedWorkQueue {
    * ])
    */
   @Override
-  public synchronized void invalidate(CAS[] aCasObjectList) {
+  public void invalidate(CAS[] aCasObjectList) {
+    lock.lock();
+    try {
+      invalidateLocked(aCasObjectList);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void invalidateLocked(CAS[] aCasObjectList) {
     for (int i = 0; aCasObjectList != null && i < aCasObjectList.length
             && aCasObjectList[i] != null; i++) {
       ChunkMetadata meta = CPMUtils.getChunkMetadata(aCasObjectList[i]);
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.collection.impl.cpm.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedWorkQueueTest {
+
+  @Test
+  void thatEntriesAreHandedOverInOrderBetweenProducerAndConsumers() throws Exception {
+    BoundedWorkQueue queue = new BoundedWorkQueue(2, "Test Queue", null);
+    int count = 1000;
+
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        queue.enqueue(i);
+      }
+    });
+    producer.start();
+
+    List<Object> received = new ArrayList<>();
+    while (received.size() < count) {
+      Object entry = queue.dequeue(5000);
+      assertThat(entry).isNotNull();
+      received.add(entry);
+    }
+    producer.join();
+
+    for (int i = 0; i < count; i++) {
+      assertThat(received.get(i)).isEqualTo(i);
+    }
+    assertThat(queue.getCurrentSize()).isZero();
+    assertThat(queue.getPeakSize()).isEqualTo(2);
+    assertThat(queue.getEnqueueCount()).isEqualTo(count);
+  }
+
+  @Test
+  void thatTimedDequeueReturnsNullWhenEmpty() {
+    BoundedWorkQueue queue = new BoundedWorkQueue(2, "Test Queue", null);
+
+    assertThat(queue.dequeue()).isNull();
+    assertThat(queue.dequeue(20)).isNull();
+    assertThat(queue.getDequeueWaitTime()).isGreaterThanOrEqualTo(10);
+  }
+
+  @Test
+  void thatEofTokenIsAcceptedBeyondCapacity() {
+    BoundedWorkQueue queue = new BoundedWorkQueue(1, "Test Queue", null);
+    queue.enqueue("entry");
+
+    queue.enqueue(new Object[] { new EOFToken() });
+
+    assertThat(queue.dequeue()).isEqualTo("entry");
+    assertThat(queue.getCurrentSize()).isZero();
+    assertThat(queue.dequeue()).isInstanceOf(Object[].class);
+  }
+}
@@ -0,0 +1,1233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.apache.uima.UimaSerializable;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.CommonArrayFS;
+import org.apache.uima.cas.impl.AllowPreexistingFS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasSerializerSupport;
+import org.apache.uima.cas.impl.FeatureImpl;
+import org.apache.uima.cas.impl.LowLevelCAS;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.cas.impl.TypeSystemConstants;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.internal.util.Int2ObjHashMap;
+import org.apache.uima.internal.util.IntVector;
+import org.apache.uima.jcas.cas.BooleanArray;
+import org.apache.uima.jcas.cas.ByteArray;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.FSList;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.FloatList;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.IntegerList;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.ShortArray;
+import org.apache.uima.jcas.cas.Sofa;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.cas.StringList;
+import org.apache.uima.jcas.cas.TOP;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * <h2>CAS deserializer for the JSON format written by {@link JsonCasSerializer}.</h2>
+ *
+ * <p>
+ * The input is read as a stream of tokens; no tree of the JSON document is built. Feature
+ * structures are created while they are read. References to feature structures which come later
+ * in the input are filled in at the end, and the feature structures listed in the views are added
+ * to the indexes at the end, after all of their features have been set.
+ * </p>
+ *
+ * <p>
+ * To use, create an instance of this class, optionally configure it, and call deserialize. A
+ * configured instance may be used by multiple threads at the same time. There are also static
+ * jsonDeserialize methods for common cases.
+ * </p>
+ *
+ * <p>
+ * Type names are resolved using the <code>_context</code> section, if present, which maps the
+ * names used in the document to the fully qualified type names. Without it, names are looked up
+ * by their short name in the type system of the CAS; this fails for short names which are not
+ * unique in that type system.
+ * </p>
+ *
+ * <p>
+ * In lenient mode, feature structures of types and values of features which are not in the type
+ * system of the CAS are skipped, and references to skipped feature structures are set to null.
+ * Otherwise these cause an exception.
+ * </p>
+ *
+ * <p>
+ * Merging and delta CASes work like in {@link org.apache.uima.cas.impl.XmiCasDeserializer}: if a
+ * merge point is given, the CAS is not reset, ids up to the merge point refer to the feature
+ * structures recorded in the {@link XmiSerializationSharedData} of the original serialization,
+ * and the <code>_delta_cas</code> section updates the index membership of the views. Note that
+ * the JSON format only writes ids for feature structures which are referenced; preexisting
+ * feature structures written inside a view without an id cannot be recognized and are read as new
+ * ones.
+ * </p>
+ */
+public class JsonCasDeserializer {
+
+  private static final String CONTEXT_NAME = "_context";
+
+  private static final String TYPES_NAME = "_types";
+
+  private static final String ID_NAME = "_id";
+
+  private static final String VIEWS_NAME = "_views";
+
+  private static final String REFERENCED_FSS_NAME = "_referenced_fss";
+
+  private static final String TYPE_NAME = "_type";
+
+  private static final String COLLECTION_NAME = "_collection";
+
+  private static final String DELTA_CAS_NAME = "_delta_cas";
+
+  private static final String ADDED_MEMBERS_NAME = "added_members";
+  private static final String DELETED_MEMBERS_NAME = "deleted_members";
+  private static final String REINDEXED_MEMBERS_NAME = "reindexed_members";
+
+  private static final String OLD_DEFAULT_SOFA_NAME = "_DefaultTextSofaName";
+
+  private JsonFactory jsonFactory = null;
+
+  private boolean isLenient = false;
+
+  /**
+   * Creates a new JsonCasDeserializer
+   */
+  public JsonCasDeserializer() {
+  }
+
+  /**
+   * Deserializes a CAS from JSON. The CAS is reset first.
+   *
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param aCAS
+   *          CAS into which to deserialize
+   * @throws IOException
+   *           if there was an IOException, or the input is not valid for the type system of the
+   *           CAS
+   */
+  public static void jsonDeserialize(Object input, CAS aCAS) throws IOException {
+    jsonDeserialize(input, aCAS, false);
+  }
+
+  /**
+   * Deserializes a CAS from JSON. The CAS is reset first.
+   *
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param aCAS
+   *          CAS into which to deserialize
+   * @param aLenient
+   *          if true, types and features not in the type system of the CAS are skipped
+   * @throws IOException
+   *           if there was an IOException, or the input is not valid for the type system of the
+   *           CAS
+   */
+  public static void jsonDeserialize(Object input, CAS aCAS, boolean aLenient)
+          throws IOException {
+    new JsonCasDeserializer().setLenient(aLenient).deserialize(input, aCAS);
+  }
+
+  /**
+   * set which JsonFactory instance to use; if null, a new instance is used this can be used to
+   * preconfigure the JsonFactory instance
+   *
+   * @param jsonFactory
+   *          -
+   * @return the original instance, possibly updated
+   */
+  public JsonCasDeserializer setJsonFactory(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+    return this;
+  }
+
+  /**
+   * set or reset lenient mode (default is false)
+   *
+   * @param lenient
+   *          true to skip types and features which are not in the type system of the CAS
+   * @return the original instance, possibly updated
+   */
+  public JsonCasDeserializer setLenient(boolean lenient) {
+    isLenient = lenient;
+    return this;
+  }
+
+  /**
+   * Deserialize a CAS from JSON, using the configuration of this instance. The CAS is reset first.
+   *
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param cas
+   *          CAS into which to deserialize
+   * @throws IOException
+   *           if there was an IOException, or the input is not valid for the type system of the
+   *           CAS
+   */
+  public void deserialize(Object input, CAS cas) throws IOException {
+    deserialize(input, cas, null, -1, AllowPreexistingFS.ignore);
+  }
+
+  /**
+   * Deserialize a CAS from JSON, using the configuration of this instance.
+   *
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param cas
+   *          CAS into which to deserialize
+   * @param sharedData
+   *          optional; if not merging, the ids of the document are recorded here, so that a
+   *          following delta serialization uses the same ids. If merging, used to find the feature
+   *          structures with ids up to the merge point.
+   * @param mergePoint
+   *          If negative, the CAS is reset and the whole document is read. Otherwise the CAS is not
+   *          reset, and ids up to the merge point refer to feature structures already in the CAS.
+   * @param allowPreexistingFS
+   *          what to do with feature structures in the document whose id is not above the merge
+   *          point: ignore them, update them (allow), or fail (disallow)
+   * @throws IOException
+   *           if there was an IOException, or the input is not valid for the type system of the
+   *           CAS
+   */
+  public void deserialize(Object input, CAS cas, XmiSerializationSharedData sharedData,
+          int mergePoint, AllowPreexistingFS allowPreexistingFS) throws IOException {
+    JsonFactory f = (jsonFactory == null) ? new JsonFactory() : jsonFactory;
+    try (JsonParser jp = createParser(f, input)) {
+      new JsonDocDeserializer(jp, (CASImpl) cas, sharedData, mergePoint, allowPreexistingFS)
+              .deserialize();
+    }
+  }
+
+  private static JsonParser createParser(JsonFactory f, Object input) throws IOException {
+    if (input instanceof File) {
+      return f.createParser((File) input);
+    }
+    JsonParser jp;
+    if (input instanceof InputStream) {
+      jp = f.createParser((InputStream) input);
+    } else if (input instanceof Reader) {
+      jp = f.createParser((Reader) input);
+    } else {
+      throw new RuntimeException(new OperationNotSupportedException(
+              String.format("Object must be a Reader, InputStream, or File, but was of class %s",
+                      input.getClass().getName())));
+    }
+    // streams and readers passed in are closed by the caller
+    jp.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return jp;
+  }
+
+  @FunctionalInterface
+  private interface Fixup {
+    void run() throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface FsSetter {
+    void set(TOP fs);
+  }
+
+  /**
+   * The state of one deserialization
+   */
+  private class JsonDocDeserializer {
+
+    private final JsonParser jp;
+
+    private final CASImpl cas;
+
+    private final TypeSystemImpl tsi;
+
+    private final XmiSerializationSharedData sharedData;
+
+    private final int mergePoint;
+
+    private final AllowPreexistingFS allowPreexistingFS;
+
+    private final boolean isLenient;
+
+    /** from the _context: type names used in the document to fully qualified names */
+    private final Map<String, String> typeName2FullName = new HashMap<>();
+
+    private final Map<String, TypeImpl> typeName2Type = new HashMap<>();
+
+    private Map<String, TypeImpl> shortName2Type;
+
+    /** ids of this document to FSs; when merging, only the ids above the merge point */
+    private final Int2ObjHashMap<TOP, TOP> id2fs = new Int2ObjHashMap<>(TOP.class);
+
+    private final Int2ObjHashMap<CASImpl, CASImpl> sofaId2View = new Int2ObjHashMap<>(
+            CASImpl.class);
+
+    /** references to FSs later in the document, set at the end */
+    private final List<Fixup> fixups = new ArrayList<>();
+
+    private final List<Fixup> deltaViewUpdates = new ArrayList<>();
+
+    private final Map<CASImpl, List<TOP>> fssToIndex = new IdentityHashMap<>();
+
+    private final List<UimaSerializable> uimaSerializables = new ArrayList<>();
+
+    // buffers for primitive array and list values, which do not nest
+    private long[] longValues = new long[16];
+    private double[] doubleValues = new double[16];
+    private final List<String> stringValues = new ArrayList<>();
+
+    private JsonDocDeserializer(JsonParser jp, CASImpl cas, XmiSerializationSharedData sharedData,
+            int mergePoint, AllowPreexistingFS allowPreexistingFS) {
+      this.jp = jp;
+      this.cas = cas.getBaseCAS();
+      tsi = cas.getTypeSystemImpl();
+      this.sharedData = sharedData;
+      this.mergePoint = mergePoint;
+      this.allowPreexistingFS = allowPreexistingFS;
+      this.isLenient = JsonCasDeserializer.this.isLenient;
+    }
+
+    private void deserialize() throws IOException {
+      if (mergePoint < 0) {
+        cas.resetNoQuestions();
+        if (sharedData != null) {
+          sharedData.clearIdMap();
+        }
+      }
+
+      expect(jp.nextToken(), JsonToken.START_OBJECT);
+
+      // when merging, existing indexed FSs may be updated
+      try (var protect = (mergePoint < 0) ? null : cas.protectIndexes()) {
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+          String name = jp.currentName();
+          jp.nextToken();
+          switch (name) {
+            case CONTEXT_NAME:
+              readContext();
+              break;
+            case VIEWS_NAME:
+              readViews();
+              break;
+            case REFERENCED_FSS_NAME:
+              readReferencedFSs();
+              break;
+            case DELTA_CAS_NAME:
+              readDeltaViews();
+              break;
+            default:
+              jp.skipChildren();
+          }
+        }
+
+        for (Fixup fixup : fixups) {
+          fixup.run();
+        }
+        for (UimaSerializable ufs : uimaSerializables) {
+          ufs._init_from_cas_data();
+        }
+        for (Fixup update : deltaViewUpdates) {
+          update.run();
+        }
+        for (Map.Entry<CASImpl, List<TOP>> e : fssToIndex.entrySet()) {
+          CASImpl view = e.getKey();
+          for (TOP fs : e.getValue()) {
+            view.addFsToIndexes(fs);
+          }
+        }
+
+        // creates a document annotation for views without one
+        cas.forAllViews(CASImpl::updateDocumentAnnotation);
+      }
+    }
+
+    /**
+     * reads the map from type names to fully qualified names, skips the rest
+     */
+    private void readContext() throws IOException {
+      expect(jp.currentToken(), JsonToken.START_OBJECT);
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        String name = jp.currentName();
+        jp.nextToken();
+        if (!TYPES_NAME.equals(name)) {
+          jp.skipChildren();
+          continue;
+        }
+        expect(jp.currentToken(), JsonToken.START_OBJECT);
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+          String typeName = jp.currentName();
+          expect(jp.nextToken(), JsonToken.START_OBJECT);
+          while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String key = jp.currentName();
+            jp.nextToken();
+            if (ID_NAME.equals(key)) {
+              typeName2FullName.put(typeName, jp.getText());
+            } else {
+              jp.skipChildren();
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * "viewName" : { "typeName" : [ {fs} or id, ... ], ... }
+     */
+    private void readViews() throws IOException {
+      expect(jp.currentToken(), JsonToken.START_OBJECT);
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        CASImpl view = getOrCreateView(jp.currentName());
+        expect(jp.nextToken(), JsonToken.START_OBJECT);
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+          TypeImpl type = getType(jp.currentName());
+          expect(jp.nextToken(), JsonToken.START_ARRAY);
+          if (type == null) { // lenient
+            jp.skipChildren();
+            continue;
+          }
+          JsonToken t;
+          while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == JsonToken.VALUE_NUMBER_INT) {
+              int id = jp.getIntValue();
+              if (isPreexisting(id) && !checkPreexisting(id)) {
+                continue;
+              }
+              fixups.add(() -> {
+                TOP fs = resolve(id);
+                if (fs != null) {
+                  addToIndexes(view, fs);
+                }
+              });
+            } else {
+              expect(t, JsonToken.START_OBJECT);
+              TOP fs = readFs(type, view, 0);
+              if (fs != null) {
+                addToIndexes(view, fs);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * "id" : { "_type" : "typeName", ... }, ...
+     */
+    private void readReferencedFSs() throws IOException {
+      expect(jp.currentToken(), JsonToken.START_OBJECT);
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        int id = parseId(jp.currentName());
+        expect(jp.nextToken(), JsonToken.START_OBJECT);
+        readFs(null, null, id);
+      }
+    }
+
+    /**
+     * "sofaId" : { "added_members" : [ ids ], "deleted_members" : [ ids ], "reindexed_members" : [
+     * ids ] }, or "sofaId" : [ ids ]
+     */
+    private void readDeltaViews() throws IOException {
+      expect(jp.currentToken(), JsonToken.START_OBJECT);
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        int sofaId = parseId(jp.currentName());
+        if (jp.nextToken() == JsonToken.START_ARRAY) {
+          readDeltaMembers(sofaId, ADDED_MEMBERS_NAME);
+          continue;
+        }
+        expect(jp.currentToken(), JsonToken.START_OBJECT);
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+          String kind = jp.currentName();
+          expect(jp.nextToken(), JsonToken.START_ARRAY);
+          readDeltaMembers(sofaId, kind);
+        }
+      }
+    }
+
+    private void readDeltaMembers(int sofaId, String kind) throws IOException {
+      while (jp.nextToken() != JsonToken.END_ARRAY) {
+        int id = jp.getIntValue();
+        if (isPreexisting(id) && !checkPreexisting(id)) {
+          continue;
+        }
+        deltaViewUpdates.add(() -> {
+          // FSs written without id in the views are already indexed from there
+          TOP fs = knownFs(id);
+          if (fs == null) {
+            return;
+          }
+          CASImpl view = (sofaId == 0) ? initialView()
+                  : viewForSofaRef(sofaId, null);
+          switch (kind) {
+            case ADDED_MEMBERS_NAME:
+              addToIndexes(view, fs);
+              break;
+            case DELETED_MEMBERS_NAME:
+              view.removeFsFromIndexes(fs);
+              break;
+            case REINDEXED_MEMBERS_NAME:
+              view.removeFsFromIndexes(fs);
+              addToIndexes(view, fs);
+              break;
+            default:
+              break;
+          }
+        });
+      }
+    }
+
+    /**
+     * Reads a FS object; the current token is its START_OBJECT.
+     *
+     * @param type
+     *          the type, or null if it is given by a leading _type field
+     * @param view
+     *          the view to create annotations in, if they do not refer to a known sofa
+     * @param id
+     *          the id of the FS, or 0 if it has none
+     * @return the FS, or null if it was skipped
+     */
+    private TOP readFs(TypeImpl type, CASImpl view, int id) throws IOException {
+      if (type == null) {
+        if (jp.nextToken() != JsonToken.FIELD_NAME || !TYPE_NAME.equals(jp.currentName())) {
+          throw new JsonParseException(jp,
+                  "Expected \"" + TYPE_NAME + "\" as the first field of a feature structure");
+        }
+        jp.nextToken();
+        type = getType(jp.getText());
+        if (type == null) { // lenient
+          skipRestOfObject();
+          return null;
+        }
+      }
+
+      TOP existing = null;
+      if (isPreexisting(id)) {
+        if (!checkPreexisting(id)) {
+          skipRestOfObject();
+          return null;
+        }
+        existing = knownFs(id);
+        if (existing == null) {
+          throw new JsonParseException(jp, "No preexisting feature structure with id " + id);
+        }
+      }
+
+      if (type.isArray()) {
+        return readArrayFs(type, view, id, existing);
+      }
+      if (type.getCode() == TypeSystemConstants.sofaTypeCode) {
+        return readSofa(id);
+      }
+      if (isEmptyList(type)) {
+        skipRestOfObject();
+        TOP fs = (TOP) cas.emptyListFromTypeCode(type.getCode());
+        register(id, fs);
+        return fs;
+      }
+      return readFeatures(type, view, id, existing);
+    }
+
+    private TOP readFeatures(TypeImpl type, CASImpl view, int id, TOP existing)
+            throws IOException {
+      final boolean isAnnotBase = type.isAnnotationBaseType();
+      TOP fs = existing;
+      CASImpl fsView = view;
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        String featName = jp.currentName();
+        JsonToken t = jp.nextToken();
+        if (isAnnotBase && CAS.FEATURE_BASE_NAME_SOFA.equals(featName)) {
+          // written first; picks the view to create the annotation in
+          if (fs == null && t == JsonToken.VALUE_NUMBER_INT) {
+            fsView = viewForSofaRef(jp.getIntValue(), view);
+          } else {
+            jp.skipChildren();
+          }
+          continue;
+        }
+        if (fs == null) {
+          fs = createFs(type, fsView, id);
+        }
+        FeatureImpl feat = type.getFeatureByBaseName(featName);
+        if (feat == null) {
+          if (!isLenient) {
+            throw new JsonParseException(jp,
+                    "Feature \"" + featName + "\" not found in type " + type.getName());
+          }
+          jp.skipChildren();
+          continue;
+        }
+        readFeatureValue(fs, feat, fsView);
+      }
+      if (fs == null) {
+        fs = createFs(type, fsView, id);
+      }
+      return fs;
+    }
+
+    private TOP createFs(TypeImpl type, CASImpl view, int id) {
+      TOP fs;
+      if (type.isAnnotationBaseType()) {
+        fs = ((view == null) ? initialView() : view).createFS(type);
+      } else {
+        fs = cas.createFS(type);
+      }
+      if (fs instanceof UimaSerializable) {
+        uimaSerializables.add((UimaSerializable) fs);
+      }
+      register(id, fs);
+      return fs;
+    }
+
+    /**
+     * Sofas are not created, but looked up by their sofaID, creating the view if needed. Sofa data
+     * is set only if it is not yet set.
+     */
+    private TOP readSofa(int id) throws IOException {
+      String sofaID = null;
+      String mimeType = null;
+      String sofaString = null;
+      String sofaURI = null;
+      int sofaArrayId = 0;
+      TOP sofaArray = null;
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        String featName = jp.currentName();
+        JsonToken t = jp.nextToken();
+        switch (featName) {
+          case CAS.FEATURE_BASE_NAME_SOFAID:
+            sofaID = jp.getText();
+            break;
+          case CAS.FEATURE_BASE_NAME_SOFAMIME:
+            mimeType = jp.getText();
+            break;
+          case CAS.FEATURE_BASE_NAME_SOFASTRING:
+            sofaString = jp.getText();
+            break;
+          case CAS.FEATURE_BASE_NAME_SOFAURI:
+            sofaURI = jp.getText();
+            break;
+          case CAS.FEATURE_BASE_NAME_SOFAARRAY:
+            if (t == JsonToken.VALUE_NUMBER_INT) {
+              sofaArrayId = jp.getIntValue();
+            } else if (t == JsonToken.START_OBJECT) {
+              sofaArray = readFs(null, null, 0);
+            }
+            break;
+          default: // sofaNum is assigned when the view is created
+            jp.skipChildren();
+        }
+      }
+      if (sofaID == null) {
+        throw new JsonParseException(jp, "Sofa without " + CAS.FEATURE_BASE_NAME_SOFAID);
+      }
+      if (OLD_DEFAULT_SOFA_NAME.equals(sofaID)) {
+        sofaID = CAS.NAME_DEFAULT_SOFA;
+      }
+
+      final CASImpl view = getOrCreateView(sofaID);
+      final String sofaMimeType = mimeType;
+      Sofa sofa = view.getSofaRef();
+      if (!sofa.isSofaDataSet()) {
+        if (sofaString != null) {
+          // the document annotation is read like other FSs
+          sofa.setLocalSofaDataNoDocAnnotUpdate(sofaString);
+          if (mimeType != null) {
+            sofa.setMimeType(mimeType);
+          }
+        } else if (sofaURI != null) {
+          view.setSofaDataURI(sofaURI, mimeType);
+        } else if (sofaArray != null) {
+          view.setSofaDataArray(sofaArray, mimeType);
+        } else if (sofaArrayId != 0) {
+          setRef(sofaArrayId, a -> view.setSofaDataArray(a, sofaMimeType));
+        } else if (mimeType != null) {
+          sofa.setMimeType(mimeType);
+        }
+      }
+      if (id > 0) {
+        sofaId2View.put(id, view);
+      }
+      register(id, sofa);
+      return sofa;
+    }
+
+    /**
+     * reads "_collection" : [ values ] of an array FS
+     */
+    private TOP readArrayFs(TypeImpl type, CASImpl view, int id, TOP existing)
+            throws IOException {
+      TOP array = null;
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        String name = jp.currentName();
+        jp.nextToken();
+        if (COLLECTION_NAME.equals(name)) {
+          array = readArray(type, view);
+        } else {
+          jp.skipChildren();
+        }
+      }
+      if (array == null) {
+        array = cas.createArray(type, 0);
+      }
+      if (existing != null) {
+        if (((CommonArrayFS<?>) existing).size() != ((CommonArrayFS<?>) array).size()) {
+          throw new JsonParseException(jp,
+                  "Array with id " + id + " does not have the size of the preexisting array");
+        }
+        ((CommonArrayFS) existing).copyValuesFrom((CommonArrayFS) array);
+        return existing;
+      }
+      register(id, array);
+      return array;
+    }
+
+    /**
+     * reads the value of a feature; the current token is the first token of the value
+     */
+    private void readFeatureValue(TOP fs, FeatureImpl feat, CASImpl view) throws IOException {
+      final TypeImpl range = feat.getRangeImpl();
+      final int rangeClass = CasSerializerSupport.classifyType(range);
+      final JsonToken t = jp.currentToken();
+      switch (rangeClass) {
+        case LowLevelCAS.TYPE_CLASS_BOOLEAN:
+          fs.setBooleanValue(feat, jp.getBooleanValue());
+          break;
+        case LowLevelCAS.TYPE_CLASS_BYTE:
+          fs.setByteValue(feat, (byte) jp.getIntValue());
+          break;
+        case LowLevelCAS.TYPE_CLASS_SHORT:
+          fs.setShortValue(feat, (short) jp.getIntValue());
+          break;
+        case LowLevelCAS.TYPE_CLASS_INT:
+          fs.setIntValue(feat, jp.getIntValue());
+          break;
+        case LowLevelCAS.TYPE_CLASS_LONG:
+          fs.setLongValue(feat, jp.getLongValue());
+          break;
+        case LowLevelCAS.TYPE_CLASS_FLOAT:
+          fs.setFloatValue(feat, (float) readDouble(t));
+          break;
+        case LowLevelCAS.TYPE_CLASS_DOUBLE:
+          fs.setDoubleValue(feat, readDouble(t));
+          break;
+        case LowLevelCAS.TYPE_CLASS_STRING:
+          fs.setStringValue(feat, (t == JsonToken.VALUE_NULL) ? null : jp.getText());
+          break;
+        default:
+          readFsValue(range, rangeClass, view, v -> fs.setFeatureValue(feat, v));
+      }
+    }
+
+    /**
+     * reads a value which is a FS, array or list: a reference, an embedded FS, or the values of an
+     * array or list
+     */
+    private void readFsValue(TypeImpl range, int rangeClass, CASImpl view, FsSetter setter)
+            throws IOException {
+      switch (jp.currentToken()) {
+        case VALUE_NULL:
+          break;
+        case VALUE_NUMBER_INT:
+          setRef(jp.getIntValue(), setter);
+          break;
+        case START_OBJECT: {
+          TOP fs = readFs(null, view, 0);
+          if (fs != null) {
+            setter.set(fs);
+          }
+          break;
+        }
+        case START_ARRAY:
+        case VALUE_STRING: // base64 byte array
+          switch (rangeClass) {
+            case CasSerializerSupport.TYPE_CLASS_INTLIST:
+            case CasSerializerSupport.TYPE_CLASS_FLOATLIST:
+            case CasSerializerSupport.TYPE_CLASS_STRINGLIST:
+            case CasSerializerSupport.TYPE_CLASS_FSLIST:
+              readList(rangeClass, view, setter);
+              break;
+            case LowLevelCAS.TYPE_CLASS_FS:
+              throw new JsonParseException(jp, "Unexpected array value for a feature structure");
+            default:
+              setter.set(readArray(range, view));
+          }
+          break;
+        default:
+          throw new JsonParseException(jp, "Unexpected " + jp.currentToken());
+      }
+    }
+
+    /**
+     * Creates an array from [ values ], or from a base64 string for byte arrays
+     */
+    private TOP readArray(TypeImpl arrayType, CASImpl view) throws IOException {
+      final int arrayClass = CasSerializerSupport.classifyType(arrayType);
+      if (jp.currentToken() == JsonToken.VALUE_STRING) {
+        if (arrayClass != LowLevelCAS.TYPE_CLASS_BYTEARRAY) {
+          throw new JsonParseException(jp, "Unexpected string value for " + arrayType.getName());
+        }
+        byte[] bytes = jp.getBinaryValue();
+        ByteArray array = (ByteArray) cas.createArray(arrayType, bytes.length);
+        System.arraycopy(bytes, 0, array._getTheArray(), 0, bytes.length);
+        return array;
+      }
+      expect(jp.currentToken(), JsonToken.START_ARRAY);
+
+      switch (arrayClass) {
+        case LowLevelCAS.TYPE_CLASS_FSARRAY:
+          return readFSArray(arrayType, view);
+
+        case LowLevelCAS.TYPE_CLASS_STRINGARRAY: {
+          int n = readStrings();
+          StringArray array = (StringArray) cas.createArray(arrayType, n);
+          stringValues.toArray(array._getTheArray());
+          return array;
+        }
+
+        case LowLevelCAS.TYPE_CLASS_FLOATARRAY: {
+          int n = readDoubles();
+          FloatArray array = (FloatArray) cas.createArray(arrayType, n);
+          float[] a = array._getTheArray();
+          for (int i = 0; i < n; i++) {
+            a[i] = (float) doubleValues[i];
+          }
+          return array;
+        }
+
+        case LowLevelCAS.TYPE_CLASS_DOUBLEARRAY: {
+          int n = readDoubles();
+          DoubleArray array = (DoubleArray) cas.createArray(arrayType, n);
+          System.arraycopy(doubleValues, 0, array._getTheArray(), 0, n);
+          return array;
+        }
+
+        default:
+          break;
+      }
+
+      int n = readLongs();
+      TOP array = cas.createArray(arrayType, n);
+      switch (arrayClass) {
+        case LowLevelCAS.TYPE_CLASS_BOOLEANARRAY: {
+          boolean[] a = ((BooleanArray) array)._getTheArray();
+          for (int i = 0; i < n; i++) {
+            a[i] = longValues[i] != 0;
+          }
+          break;
+        }
+        case LowLevelCAS.TYPE_CLASS_BYTEARRAY: {
+          byte[] a = ((ByteArray) array)._getTheArray();
+          for (int i = 0; i < n; i++) {
+            a[i] = (byte) longValues[i];
+          }
+          break;
+        }
+        case LowLevelCAS.TYPE_CLASS_SHORTARRAY: {
+          short[] a = ((ShortArray) array)._getTheArray();
+          for (int i = 0; i < n; i++) {
+            a[i] = (short) longValues[i];
+          }
+          break;
+        }
+        case LowLevelCAS.TYPE_CLASS_INTARRAY: {
+          int[] a = ((IntegerArray) array)._getTheArray();
+          for (int i = 0; i < n; i++) {
+            a[i] = (int) longValues[i];
+          }
+          break;
+        }
+        case LowLevelCAS.TYPE_CLASS_LONGARRAY:
+          System.arraycopy(longValues, 0, ((LongArray) array)._getTheArray(), 0, n);
+          break;
+        default:
+          throw new JsonParseException(jp, "Unexpected array type " + arrayType.getName());
+      }
+      return array;
+    }
+
+    private TOP readFSArray(TypeImpl arrayType, CASImpl view) throws IOException {
+      List<TOP> items = new ArrayList<>();
+      IntVector refs = null; // pairs of index, id
+      JsonToken t;
+      while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+        TOP item = null;
+        if (t == JsonToken.VALUE_NUMBER_INT) {
+          int id = jp.getIntValue();
+          if (id != 0) {
+            if (refs == null) {
+              refs = new IntVector();
+            }
+            refs.add(items.size());
+            refs.add(id);
+          }
+        } else if (t == JsonToken.START_OBJECT) {
+          item = readFs(null, view, 0);
+        } else if (t != JsonToken.VALUE_NULL) {
+          throw new JsonParseException(jp, "Unexpected " + t + " in an FSArray");
+        }
+        items.add(item);
+      }
+      FSArray<?> array = (FSArray<?>) cas.createArray(arrayType, items.size());
+      TOP[] a = array._getTheArray();
+      items.toArray(a);
+      if (refs != null) {
+        for (int i = 0; i < refs.size(); i += 2) {
+          int index = refs.get(i);
+          setRef(refs.get(i + 1), v -> a[index] = v);
+        }
+      }
+      return array;
+    }
+
+    /**
+     * Creates a list from [ values ]. For FS lists, the elements are the list nodes, the first of
+     * which (with its tail) is the list; the following elements repeat the rest of the list.
+     */
+    private void readList(int listClass, CASImpl view, FsSetter setter) throws IOException {
+      expect(jp.currentToken(), JsonToken.START_ARRAY);
+      switch (listClass) {
+        case CasSerializerSupport.TYPE_CLASS_INTLIST: {
+          int n = readLongs();
+          IntegerList list = cas.emptyIntegerList();
+          for (int i = n - 1; i >= 0; i--) {
+            list = list.push((int) longValues[i]);
+          }
+          setter.set(list);
+          break;
+        }
+        case CasSerializerSupport.TYPE_CLASS_FLOATLIST: {
+          int n = readDoubles();
+          FloatList list = cas.emptyFloatList();
+          for (int i = n - 1; i >= 0; i--) {
+            list = list.push((float) doubleValues[i]);
+          }
+          setter.set(list);
+          break;
+        }
+        case CasSerializerSupport.TYPE_CLASS_STRINGLIST: {
+          int n = readStrings();
+          StringList list = cas.emptyStringList();
+          for (int i = n - 1; i >= 0; i--) {
+            list = list.push(stringValues.get(i));
+          }
+          setter.set(list);
+          break;
+        }
+        default:
+          readFSList(view, setter);
+      }
+    }
+
+    private void readFSList(CASImpl view, FsSetter setter) throws IOException {
+      JsonToken t = jp.nextToken();
+      if (t == JsonToken.END_ARRAY) {
+        setter.set(cas.emptyFSList());
+        return;
+      }
+      if (t == JsonToken.VALUE_NUMBER_INT) {
+        setRef(jp.getIntValue(), setter);
+        skipRestOfArray();
+        return;
+      }
+      expect(t, JsonToken.START_OBJECT);
+      TOP first = readFs(null, view, 0);
+      if (first instanceof FSList) {
+        setter.set(first);
+        skipRestOfArray();
+        return;
+      }
+
+      // elements are the list items
+      List<TOP> items = new ArrayList<>();
+      items.add(first);
+      while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+        if (t == JsonToken.START_OBJECT) {
+          items.add(readFs(null, view, 0));
+        } else {
+          throw new JsonParseException(jp, "Unexpected " + t + " in an FSList");
+        }
+      }
+      FSList<TOP> list = cas.emptyFSList();
+      for (int i = items.size() - 1; i >= 0; i--) {
+        list = list.push(items.get(i));
+      }
+      setter.set(list);
+    }
+
+    /**
+     * @return the number of values read into longValues
+     */
+    private int readLongs() throws IOException {
+      int n = 0;
+      JsonToken t;
+      while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+        if (n == longValues.length) {
+          longValues = Arrays.copyOf(longValues, n << 1);
+        }
+        longValues[n++] = (t == JsonToken.VALUE_TRUE) ? 1
+                : (t == JsonToken.VALUE_FALSE) ? 0 : jp.getLongValue();
+      }
+      return n;
+    }
+
+    /**
+     * @return the number of values read into doubleValues
+     */
+    private int readDoubles() throws IOException {
+      int n = 0;
+      JsonToken t;
+      while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+        if (n == doubleValues.length) {
+          doubleValues = Arrays.copyOf(doubleValues, n << 1);
+        }
+        doubleValues[n++] = readDouble(t);
+      }
+      return n;
+    }
+
+    /**
+     * @return the number of values read into stringValues
+     */
+    private int readStrings() throws IOException {
+      stringValues.clear();
+      JsonToken t;
+      while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+        stringValues.add((t == JsonToken.VALUE_NULL) ? null : jp.getText());
+      }
+      return stringValues.size();
+    }
+
+    /**
+     * NaN and infinite values are written as strings
+     */
+    private double readDouble(JsonToken t) throws IOException {
+      return (t == JsonToken.VALUE_STRING) ? Double.parseDouble(jp.getText())
+              : jp.getDoubleValue();
+    }
+
+    /**
+     * Sets a reference now if the FS was already read, otherwise at the end. 0 is null.
+     */
+    private void setRef(int id, FsSetter setter) {
+      if (id == 0) {
+        return;
+      }
+      TOP fs = knownFs(id);
+      if (fs != null) {
+        setter.set(fs);
+      } else {
+        fixups.add(() -> setter.set(resolve(id)));
+      }
+    }
+
+    private TOP knownFs(int id) {
+      if (isPreexisting(id)) {
+        return sharedData.getFsForXmiId(id);
+      }
+      return id2fs.get(id);
+    }
+
+    /**
+     * @return the FS, or null if it was skipped in lenient mode
+     */
+    private TOP resolve(int id) throws IOException {
+      TOP fs = knownFs(id);
+      if (fs == null && !isLenient) {
+        throw new IOException("No feature structure with id " + id + " in the JSON input");
+      }
+      return fs;
+    }
+
+    private void register(int id, TOP fs) {
+      if (id <= 0) {
+        return;
+      }
+      id2fs.put(id, fs);
+      if (mergePoint < 0 && sharedData != null) {
+        sharedData.addIdMapping(fs, id);
+      }
+    }
+
+    private boolean isPreexisting(int id) {
+      return mergePoint >= 0 && id > 0 && id <= mergePoint && sharedData != null;
+    }
+
+    /**
+     * @return true if a preexisting FS is to be processed, false if it is to be ignored
+     */
+    private boolean checkPreexisting(int id) {
+      switch (allowPreexistingFS) {
+        case allow:
+          return true;
+        case disallow:
+          throw new CASRuntimeException(CASRuntimeException.DELTA_CAS_PREEXISTING_FS_DISALLOWED,
+                  ID_NAME + "=" + id);
+        default:
+          return false;
+      }
+    }
+
+    private void addToIndexes(CASImpl view, TOP fs) {
+      fssToIndex.computeIfAbsent(view, v -> new ArrayList<>()).add(fs);
+    }
+
+    /**
+     * @param sofaId
+     *          the id of a sofa in the document
+     * @param view
+     *          the view being read, used if the sofa was not read yet
+     */
+    private CASImpl viewForSofaRef(int sofaId, CASImpl view) throws IOException {
+      CASImpl sofaView = sofaId2View.get(sofaId);
+      if (sofaView == null) {
+        TOP sofa = knownFs(sofaId);
+        if (sofa instanceof Sofa) {
+          sofaView = (CASImpl) cas.getView((Sofa) sofa);
+        } else if (view != null) {
+          // annotations listed in a view refer to the sofa of that view
+          sofaView = view;
+        } else if (isLenient) {
+          sofaView = initialView();
+        } else {
+          throw new JsonParseException(jp, "No sofa with id " + sofaId);
+        }
+        sofaId2View.put(sofaId, sofaView);
+      }
+      return sofaView;
+    }
+
+    private boolean isEmptyList(TypeImpl type) {
+      switch (type.getCode()) {
+        case TypeSystemConstants.fsEListTypeCode:
+        case TypeSystemConstants.floatEListTypeCode:
+        case TypeSystemConstants.intEListTypeCode:
+        case TypeSystemConstants.stringEListTypeCode:
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    private CASImpl initialView() {
+      return (CASImpl) cas.getView(CAS.NAME_DEFAULT_SOFA);
+    }
+
+    private CASImpl getOrCreateView(String viewName) {
+      if (CAS.NAME_DEFAULT_SOFA.equals(viewName)) {
+        return initialView();
+      }
+      try {
+        return (CASImpl) cas.getView(viewName);
+      } catch (CASRuntimeException e) {
+        return (CASImpl) cas.createView(viewName);
+      }
+    }
+
+    /**
+     * @return the type, or null in lenient mode if it is not in the type system
+     */
+    private TypeImpl getType(String typeName) throws IOException {
+      TypeImpl type = typeName2Type.get(typeName);
+      if (type == null && !typeName2Type.containsKey(typeName)) {
+        String fullName = typeName2FullName.get(typeName);
+        if (fullName != null) {
+          type = tsi.getType(fullName);
+        } else {
+          // prefix:shortName is used for short names which are not unique in the document
+          type = getTypeByShortName(typeName.substring(typeName.indexOf(':') + 1));
+        }
+        typeName2Type.put(typeName, type);
+      }
+      if (type == null && !isLenient) {
+        throw new JsonParseException(jp, "Type \"" + typeName + "\" not found in type system");
+      }
+      return type;
+    }
+
+    private TypeImpl getTypeByShortName(String shortName) {
+      if (shortName2Type == null) {
+        shortName2Type = new HashMap<>();
+        for (TypeImpl ti : tsi.getAllTypes()) {
+          // not unique short names map to null
+          String name = ti.getShortName();
+          shortName2Type.put(name, shortName2Type.containsKey(name) ? null : ti);
+        }
+      }
+      return shortName2Type.get(shortName);
+    }
+
+    private int parseId(String id) throws IOException {
+      try {
+        return Integer.parseInt(id);
+      } catch (NumberFormatException e) {
+        throw new JsonParseException(jp, "Expected a numeric id but got \"" + id + "\"");
+      }
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+      if (actual != expected) {
+        throw new JsonParseException(jp, "Expected " + expected + " but got " + actual);
+      }
+    }
+
+    /**
+     * skips to the END_OBJECT of the object whose fields are being read
+     */
+    private void skipRestOfObject() throws IOException {
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        jp.nextToken();
+        jp.skipChildren();
+      }
+    }
+
+    /**
+     * skips to the END_ARRAY of the array whose elements are being read
+     */
+    private void skipRestOfArray() throws IOException {
+      while (jp.nextToken() != JsonToken.END_ARRAY) {
+        jp.skipChildren();
+      }
+    }
+  }
+}
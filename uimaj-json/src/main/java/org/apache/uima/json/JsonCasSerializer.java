@@ -594,7 +594,7 @@ public class JsonCasSerializer {
 
     @Override
     protected void initializeNamespaces() {
-      if (cds.sharedData != null && (null != cds.sharedData.getOutOfTypeSystemElements()
+      if (cds.sharedData != null && (!cds.sharedData.getOutOfTypeSystemElements().isEmpty()
               || cds.sharedData.hasOutOfTypeSystemArrayElements())) {
         throw new UnsupportedOperationException(
                 "Can't do JSON serialization " + "if there are out-of-type-system elements,"
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Marker;
+import org.apache.uima.cas.impl.AllowPreexistingFS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasCompare;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.jcas.cas.ByteArray;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.XMLInputSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+class JsonCasDeserializerTest {
+
+  private TypeSystemDescription tsd;
+  private CASImpl cas;
+  private TypeSystemImpl tsi;
+  private TypeImpl allTypesType;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    File tsdFile = JUnitExtension.getFile("CasSerialization/desc/allTypes.xml");
+    tsd = UIMAFramework.getXMLParser().parseTypeSystemDescription(new XMLInputSource(tsdFile));
+    cas = newCas();
+    tsi = cas.getTypeSystemImpl();
+    allTypesType = tsi.getType("org.apache.uima.test.AllTypes");
+  }
+
+  @Test
+  void thatAllValuesInMultipleViewsRoundTrip() throws Exception {
+    setAllValues(cas);
+    setAllValues((CASImpl) cas.createView("View2"));
+
+    for (JsonCasSerializer jcs : new JsonCasSerializer[] { new JsonCasSerializer(),
+        new JsonCasSerializer().setStaticEmbedding(),
+        new JsonCasSerializer().setOmit0Values(true) }) {
+      String json = serialize(jcs, cas);
+
+      CASImpl cas2 = newCas();
+      JsonCasDeserializer.jsonDeserialize(new StringReader(json), cas2);
+
+      assertThat(cas2.getViewName()).isEqualTo(CAS.NAME_DEFAULT_SOFA);
+      assertThat(cas2.getView("View2").getDocumentText()).isEqualTo("View2 text");
+      assertThat(CasCompare.compareCASes(cas, cas2)).isTrue();
+    }
+  }
+
+  @Test
+  void thatSharedListsAndReferencesRoundTrip() throws Exception {
+    FeatureStructure shared = cas.createFS(allTypesType);
+    shared.setIntValue(allTypesType.getFeatureByBaseName("aInteger"), 42);
+    cas.addFsToIndexes(shared);
+
+    // inline arrays are created with the range type of the feature
+    FSArray<FeatureStructure> fsArray = (FSArray<FeatureStructure>) cas
+            .createArray(allTypesType.getFeatureByBaseName("aArrayFS").getRangeImpl(), 3);
+    fsArray.set(0, shared);
+    fsArray.set(2, shared);
+
+    FeatureStructure fs = cas.createFS(allTypesType);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aFS"), shared);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayFS"), fsArray);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListMrInteger"),
+            cas.emptyIntegerList().push(3).push(2).push(1));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListFs"),
+            cas.<TOP> emptyFSList().push((TOP) shared).push((TOP) fs));
+    cas.addFsToIndexes(fs);
+
+    JsonCasSerializer jcs = new JsonCasSerializer().setPrettyPrint(true);
+    String json = serialize(jcs, cas);
+
+    CASImpl cas2 = newCas();
+    JsonCasDeserializer.jsonDeserialize(new StringReader(json), cas2);
+
+    assertThat(CasCompare.compareCASes(cas, cas2)).isTrue();
+    FeatureStructure fs2 = cas2.getIndexRepository().getAllIndexedFS(allTypesType).stream()
+            .filter(f -> f.getFeatureValue(allTypesType.getFeatureByBaseName("aFS")) != null)
+            .findFirst().get();
+    FeatureStructure shared2 = fs2.getFeatureValue(allTypesType.getFeatureByBaseName("aFS"));
+    FSArray<TOP> fsArray2 = (FSArray<TOP>) fs2
+            .getFeatureValue(allTypesType.getFeatureByBaseName("aArrayFS"));
+    assertThat(fsArray2.toArray()).containsExactly((TOP) shared2, null, (TOP) shared2);
+  }
+
+  @Test
+  void thatUnknownTypesAndFeaturesAreSkippedInLenientMode() throws Exception {
+    String json = "{\"_views\" : {\"_InitialView\" : {"
+            + "\"Unknown\" : [ {\"aInteger\" : 1} ],"
+            + "\"AllTypes\" : [ {\"aInteger\" : 2, \"unknownFeature\" : 3, \"aFS\" : 1} ] } },"
+            + "\"_referenced_fss\" : {\"1\" : {\"_type\" : \"Unknown\"} } }";
+
+    assertThatExceptionOfType(JsonParseException.class).isThrownBy(
+            () -> JsonCasDeserializer.jsonDeserialize(new StringReader(json), newCas()));
+
+    CASImpl cas2 = newCas();
+    JsonCasDeserializer.jsonDeserialize(new StringReader(json), cas2, true);
+
+    List<TOP> fss = cas2.getIndexRepository().<TOP> getAllIndexedFS(allTypesType)
+            .stream().collect(Collectors.toList());
+    assertThat(fss).hasSize(1);
+    assertThat(fss.get(0).getIntValue(allTypesType.getFeatureByBaseName("aInteger"))).isEqualTo(2);
+    assertThat(fss.get(0).getFeatureValue(allTypesType.getFeatureByBaseName("aFS"))).isNull();
+  }
+
+  @Test
+  void thatDeltaCasIsMerged() throws Exception {
+    cas.setDocumentText("some text");
+    new Annotation(cas.getJCas(), 0, 4).addToIndexes();
+    String json = serialize(new JsonCasSerializer(), cas);
+
+    // the service deserializes the CAS, and returns the changes as delta
+    CASImpl serviceCas = newCas();
+    XmiSerializationSharedData serviceSharedData = new XmiSerializationSharedData();
+    new JsonCasDeserializer().deserialize(new StringReader(json), serviceCas, serviceSharedData,
+            -1, AllowPreexistingFS.disallow);
+    Marker marker = serviceCas.createMarker();
+    new Annotation(serviceCas.getJCas(), 5, 9).addToIndexes();
+    StringWriter delta = new StringWriter();
+    new JsonCasSerializer().serialize(serviceCas, delta, serviceSharedData, marker);
+
+    // the client merges the delta
+    CASImpl clientCas = newCas();
+    XmiSerializationSharedData clientSharedData = new XmiSerializationSharedData();
+    new JsonCasDeserializer().deserialize(new StringReader(json), clientCas, clientSharedData, -1,
+            AllowPreexistingFS.disallow);
+    int mergePoint = clientSharedData.getMaxXmiId();
+    new JsonCasDeserializer().deserialize(new StringReader(delta.toString()), clientCas,
+            clientSharedData, mergePoint, AllowPreexistingFS.allow);
+
+    assertThat(clientCas.getDocumentText()).isEqualTo("some text");
+    assertThat(clientCas.getAnnotationIndex(Annotation.class)).extracting(Annotation::getCoveredText)
+            .containsExactly("some text", "some", "text");
+  }
+
+  private CASImpl newCas() throws Exception {
+    return (CASImpl) CasCreationUtils.createCas(tsd, null, null);
+  }
+
+  private static String serialize(JsonCasSerializer jcs, CAS aCas) throws IOException {
+    StringWriter sw = new StringWriter();
+    jcs.serialize(aCas, sw);
+    return sw.toString();
+  }
+
+  private void setAllValues(CASImpl view) throws Exception {
+    view.setDocumentText(view.getViewName() + " text");
+    FeatureStructure fs = view.createFS(allTypesType);
+    fs.setBooleanValue(allTypesType.getFeatureByBaseName("aBoolean"), true);
+    fs.setByteValue(allTypesType.getFeatureByBaseName("aByte"), (byte) -117);
+    fs.setShortValue(allTypesType.getFeatureByBaseName("aShort"), (short) -112);
+    fs.setIntValue(allTypesType.getFeatureByBaseName("aInteger"), 17);
+    fs.setLongValue(allTypesType.getFeatureByBaseName("aLong"), 4321L);
+    fs.setFloatValue(allTypesType.getFeatureByBaseName("aFloat"), Float.NaN);
+    fs.setDoubleValue(allTypesType.getFeatureByBaseName("aDouble"), Double.NEGATIVE_INFINITY);
+    fs.setStringValue(allTypesType.getFeatureByBaseName("aString"), "some \"String\"");
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aFS"), view.createFS(allTypesType));
+
+    ByteArray bytes = new ByteArray(view.getJCas(), 2);
+    bytes.set(0, (byte) 15);
+    bytes.set(1, (byte) 0xee);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayByte"), bytes);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayMrBoolean"),
+            view.createBooleanArrayFS(1));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayShort"),
+            view.createShortArrayFS(2));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayString"),
+            view.createStringArrayFS(1));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListInteger"),
+            view.emptyIntegerList().push(2).push(1));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListString"),
+            view.emptyStringList().push("testStr"));
+    view.addFsToIndexes(fs);
+  }
+}